@@ -3,8 +3,17 @@ package asg.cliche.client;
 import asg.cliche.Command;
 import asg.cliche.Param;
 import avro.chat.client.ChatClient;
+import avro.chat.client.MessageStore;
+import avro.chat.proto.Rejected;
+import avro.chat.proto.RoomMessage;
+import avro.chat.proto.SessionEnded;
+import avro.chat.proto.Throttled;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 import org.apache.avro.AvroRemoteException;
+import org.apache.avro.ipc.Callback;
 
 public class ClientUI {
 	ChatClient client;
@@ -14,23 +23,45 @@ public class ClientUI {
 		client = cl;
 	}
 
+	/***
+	 * Prints the server's answer once it arrives, so commands return right
+	 * away.
+	 */
+	private static class PrintAnswer<T> implements Callback<T> {
+		@Override
+		public void handleResult(T result) {
+			System.out.println(result);
+		}
+
+		@Override
+		public void handleError(Throwable error) {
+			if (error instanceof Throttled) {
+				System.err.println(((Throttled) error).getReason());
+			} else if (error instanceof Rejected) {
+				System.err.println(((Rejected) error).getReason());
+			} else if (error instanceof SessionEnded) {
+				System.err.println(((SessionEnded) error).getReason());
+			} else {
+				System.err.println("server> Failed to receive answer from the server.");
+			}
+		}
+	}
+
 	@Command(description = "Prints list of users connected to the server.")
 	public void getClientList() {
-		try {
-			List<String> clients = client.getServerProxy().getClientList();
-
-			System.out.println("server> " + "Connected clients:");
-			for (String username : clients) {
-				System.out.print("server> " + username);
-				if (username.equals(client.getUsername())) {
-					System.out.print(" < You\n");
-				} else {
-					System.out.print("\n");
+		client.getClientList(new PrintAnswer<List<String>>() {
+			@Override
+			public void handleResult(List<String> clients) {
+				StringBuilder output = new StringBuilder("server> " + "Connected clients:");
+				for (String username : clients) {
+					output.append("\nserver> " + username);
+					if (username.equals(client.getUsername())) {
+						output.append(" < You");
+					}
 				}
+				System.out.println(output);
 			}
-		} catch (AvroRemoteException e) {
-			System.err.println("server> Failed to receive answer from the server.");
-		}
+		});
 	}
 
 	@Command(description = "Terminates connection with the public/private room.")
@@ -41,27 +72,65 @@ public class ClientUI {
 						+ " has left the private chat.\n" + "client> You will automatically be disconnected.");
 				client.getClientProxy().leave(true);
 			} else {
-				if (client.getServerProxy().leave(client.getUsername())) {
-					System.out.println("server> You have left the Public chat room.");
-				} else {
-					System.err.println("server> You couldn't leave the Public chat room, maybe you never joined it.");
-				}
+				client.leaveRoom(new PrintAnswer<Boolean>() {
+					@Override
+					public void handleResult(Boolean left) {
+						if (left) {
+							System.out.println("server> You have left the Public chat room.");
+						} else {
+							System.err.println(
+									"server> You couldn't leave the Public chat room, maybe you never joined it.");
+						}
+					}
+				});
 			}
 		} catch (AvroRemoteException e) {
 			System.err.println("server> Failed to receive answer from the server.");
 		}
 	}
 
+	@Command(description = "Leaves the public room, a group or the private chat.")
+	public void leave(
+			@Param(name = "room", description = "'Public', the name of a group or of your private chat partner.") final String room) {
+		if (room.startsWith("#")) {
+			client.leaveGroup(room, new PrintAnswer<Boolean>() {
+				@Override
+				public void handleResult(Boolean left) {
+					if (left) {
+						System.out.println("server> You have left " + room + ".");
+					} else {
+						System.err.println("server> You are not a member of that group.");
+					}
+				}
+			});
+		} else if (room.equals("Public")) {
+			client.leaveRoom(new PrintAnswer<Boolean>() {
+				@Override
+				public void handleResult(Boolean left) {
+					if (left) {
+						System.out.println("server> You have left the Public chat room.");
+					} else {
+						System.err.println(
+								"server> You couldn't leave the Public chat room, maybe you never joined it.");
+					}
+				}
+			});
+		} else {
+			leave();
+		}
+	}
+
 	@Command(description = "Initiates connection specified room or user.")
 	public void join(
-			@Param(name = "room", description = "'Public' for the public chat room or the name of the receiver you want to start a private conversation with.") String room) {
+			@Param(name = "room", description = "'Public' for the public chat room, the name of a group you were invited to or the name of the receiver you want to start a private conversation with.") String room) {
 		try {
-			if (client.getClientProxy().inPrivateRoom()) {
-				String output = "client> You've to 'leave' the private room before joining another room.";
+			if (room.startsWith("#")) {
+				client.joinGroup(room, new PrintAnswer<String>());
+			} else if (!room.equals("Public") && client.getClientProxy().inPrivateRoom()) {
+				String output = "client> You've to 'leave' the private room before starting another private chat.";
 				System.out.println(output);
 			} else {
-				String output = client.getServerProxy().join(client.getUsername(), room);
-				System.out.println(output);
+				client.joinRoom(room, new PrintAnswer<String>());
 			}
 		} catch (AvroRemoteException e) {
 			System.err.println("server> Failed to receive answer from the server.");
@@ -77,14 +146,163 @@ public class ClientUI {
 				client.getClientProxy().sendPrivateMessage(output);
 				System.out.println(output);
 			} else {
-				String output = client.getServerProxy().sendMessage(client.getUsername(), message);
-				System.out.println(output);
+				client.sendRoomMessage(message, new PrintAnswer<String>());
+			}
+		} catch (AvroRemoteException e) {
+			System.err.println("server> Failed to receive answer from the server.");
+		}
+	}
+
+	@Command(description = "Sends message to the public room, a group, your private chat partner or, as '@username', straight to a user.")
+	public void say(
+			@Param(name = "room", description = "'Public', the name of a group, of your private chat partner or '@username'.") String room,
+			@Param(name = "message", description = "The message you would like to send.") String message) {
+		try {
+			if (room.startsWith("@") && room.length() > 1) {
+				msg(room.substring(1), message);
+			} else if (room.startsWith("#")) {
+				client.sendGroupMessage(room, message, new PrintAnswer<String>());
+			} else if (room.equals("Public")) {
+				client.sendRoomMessage(message, new PrintAnswer<String>());
+			} else if (client.getClientProxy().inPrivateRoom()) {
+				sendMessage(message);
+			} else {
+				System.err.println("client> You're not in a private chat with " + room + ".");
 			}
 		} catch (AvroRemoteException e) {
 			System.err.println("server> Failed to receive answer from the server.");
 		}
 	}
 
+	@Command(description = "Sends a message straight to a user, without starting a private conversation.")
+	public void msg(@Param(name = "username", description = "The user you would like to send the message to.") String username,
+			@Param(name = "message", description = "The message you would like to send.") String message) {
+		client.sendDirectMessage(username, message, new PrintAnswer<String>());
+	}
+
+	@Command(description = "Creates a private group, which others can join when you invite them.")
+	public void createGroup(
+			@Param(name = "group", description = "The name of the group, starting with '#'.") String group) {
+		client.createGroup(group, new PrintAnswer<String>());
+	}
+
+	@Command(description = "Invites a user to one of your groups.")
+	public void invite(@Param(name = "group", description = "The name of the group.") String group,
+			@Param(name = "username", description = "The user you would like to invite.") String username) {
+		client.inviteToGroup(group, username, new PrintAnswer<String>());
+	}
+
+	@Command(description = "Joins a group you were invited to.")
+	public void joinGroup(@Param(name = "group", description = "The name of the group.") String group) {
+		client.joinGroup(group, new PrintAnswer<String>());
+	}
+
+	@Command(description = "Prints the members of one of your groups.")
+	public void members(@Param(name = "group", description = "The name of the group.") String group) {
+		client.getGroupMembers(group, new PrintAnswer<List<String>>() {
+			@Override
+			public void handleResult(List<String> members) {
+				if (members.isEmpty()) {
+					System.err.println("server> You are not a member of that group.");
+					return;
+				}
+				StringBuilder output = new StringBuilder("server> Members of the group:");
+				for (String member : members) {
+					output.append("\nserver> " + member);
+				}
+				System.out.println(output);
+			}
+		});
+	}
+
+	@Command(description = "Shows the last 20 messages you have seen.")
+	public void history() {
+		history(20);
+	}
+
+	@Command(description = "Shows the last messages you have seen.")
+	public void history(@Param(name = "count", description = "The number of messages to show.") int count) {
+		MessageStore history = client.getSession().getHistory();
+		if (history == null) {
+			System.err.println("client> No message history is kept.");
+			return;
+		}
+
+		try {
+			printHistory(history.recent(count));
+		} catch (IOException e) {
+			System.err.println("client> Failed to read the message history.");
+		}
+	}
+
+	@Command(description = "Searches the messages you have seen for all given words.")
+	public void search(@Param(name = "query", description = "The words to look for.") String query) {
+		MessageStore history = client.getSession().getHistory();
+		if (history == null) {
+			System.err.println("client> No message history is kept.");
+			return;
+		}
+
+		try {
+			List<MessageStore.Entry> matches = history.search(query, 20);
+			if (matches.isEmpty()) {
+				System.out.println("client> No messages found.");
+			} else {
+				printHistory(matches);
+			}
+		} catch (IOException e) {
+			System.err.println("client> Failed to read the message history.");
+		}
+	}
+
+	@Command(description = "Searches the messages the server kept of a room for all given words.")
+	public void searchRoom(@Param(name = "room", description = "The room to search, only 'Public' is kept.") String room,
+			@Param(name = "query", description = "The words to look for.") String query) {
+		client.searchRoom(room, query, 20, new PrintAnswer<List<RoomMessage>>() {
+			@Override
+			public void handleResult(List<RoomMessage> matches) {
+				if (matches.isEmpty()) {
+					System.out.println("server> No messages found.");
+					return;
+				}
+
+				SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+				StringBuilder output = new StringBuilder("server> Most recent messages found:");
+				for (RoomMessage message : matches) {
+					output.append("\n[" + format.format(new Date(message.getTimestamp())) + "] "
+							+ message.getUsername() + "> " + message.getMessage());
+				}
+				System.out.println(output);
+			}
+		});
+	}
+
+	@Command(description = "Lists the links posted in a room lately.")
+	public void links(@Param(name = "room", description = "'Public' or a group you are a member of.") String room) {
+		client.getLinks(room, new PrintAnswer<List<String>>() {
+			@Override
+			public void handleResult(List<String> links) {
+				if (links.isEmpty()) {
+					System.out.println("server> No links posted lately.");
+					return;
+				}
+
+				StringBuilder output = new StringBuilder("server> Links posted lately:");
+				for (String link : links) {
+					output.append("\nserver> " + link);
+				}
+				System.out.println(output);
+			}
+		});
+	}
+
+	private void printHistory(List<MessageStore.Entry> entries) {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+		for (MessageStore.Entry entry : entries) {
+			System.out.println("[" + format.format(new Date(entry.getTimestamp())) + "] " + entry.getText());
+		}
+	}
+
 	@Command(description = "Tries to initiate video streaming with the help of RSVP.")
 	public void video() {
 		try {
@@ -103,6 +321,44 @@ public class ClientUI {
 		}
 	}
 
+	@Command(description = "Broadcasts your video to everyone in the Public chat room.")
+	public void broadcast() {
+		try {
+			if (client.startBroadcast()) {
+				System.out.println("client> You are now broadcasting to the Public chat room.");
+			} else {
+				System.err.println("server> You can only broadcast once you've joined the Public chat room "
+						+ "and aren't broadcasting yet.");
+			}
+		} catch (AvroRemoteException e) {
+			System.err.println("server> Failed to receive answer from the server.");
+		}
+	}
+
+	@Command(description = "Stops broadcasting your video.")
+	public void stopBroadcast() {
+		if (client.stopBroadcast()) {
+			System.out.println("client> You have stopped broadcasting.");
+		} else {
+			System.err.println("client> You are not broadcasting.");
+		}
+	}
+
+	@Command(description = "Sets the maximum width of the broadcasts you receive.")
+	public void videoQuality(
+			@Param(name = "width", description = "The maximum width in pixels, 0 for the original size.") int width) {
+		try {
+			client.getServerProxy().setVideoRendition(client.getUsername(), width);
+			if (width > 0) {
+				System.out.println("server> Broadcasts will be sent to you at most " + width + " pixels wide.");
+			} else {
+				System.out.println("server> Broadcasts will be sent to you at their original size.");
+			}
+		} catch (AvroRemoteException e) {
+			System.err.println("server> Failed to receive answer from the server.");
+		}
+	}
+
 	@Command(description = "Accept video requests.")
 	public void accept() {
 		try {
@@ -136,7 +392,7 @@ public class ClientUI {
 			@Param(name = "chatPartner", description = "The person whose request you would like to accept.") String chatPartner) {
 		try {
 			if (client.getClientProxy().inPrivateRoom()) {
-				String output = "client> You've to 'leave' the private room before joining another room.";
+				String output = "client> You've to 'leave' the private room before starting another private chat.";
 				System.out.println(output);
 			} else if (client.getServerProxy().setupConnection(chatPartner, client.getUsername())) {
 				System.out.println("server> Connection set up, you can chat privately now.");
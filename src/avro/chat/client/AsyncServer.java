@@ -0,0 +1,99 @@
+package avro.chat.client;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.ipc.Callback;
+
+/***
+ * Calls the server on background threads, so the shell never waits for it.
+ *
+ * Calls are queued on one of two lanes and report back through an Avro
+ * Callback. Calls which change what the server does with our messages (join,
+ * leave, sendMessage) share the ordered lane, so a message typed right after
+ * 'join Public' never overtakes the join. Queries such as the client list have
+ * a lane of their own and don't wait behind a backlog of messages.
+ */
+public class AsyncServer {
+	/***
+	 * A single call to the server, made with the Chat.Callback variant of the
+	 * proxy method.
+	 */
+	public interface Call<T> {
+		void invoke(Callback<T> callback) throws IOException;
+	}
+
+	private final ExecutorService orderedLane = Executors.newSingleThreadExecutor();
+	private final ExecutorService queryLane = Executors.newSingleThreadExecutor();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/***
+	 * Queues a call behind all earlier ordered calls.
+	 *
+	 * @param call
+	 *            The call.
+	 * @param callback
+	 *            Receives the result or the error.
+	 */
+	public <T> void ordered(Call<T> call, Callback<T> callback) {
+		submit(orderedLane, call, callback);
+	}
+
+	/***
+	 * Queues a call which doesn't need to wait for the ordered calls.
+	 *
+	 * @param call
+	 *            The call.
+	 * @param callback
+	 *            Receives the result or the error.
+	 */
+	public <T> void query(Call<T> call, Callback<T> callback) {
+		submit(queryLane, call, callback);
+	}
+
+	private <T> void submit(ExecutorService lane, final Call<T> call, final Callback<T> callback) {
+		pending.incrementAndGet();
+		lane.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					call.invoke(callback);
+				} catch (IOException e) {
+					callback.handleError(e);
+				} finally {
+					pending.decrementAndGet();
+				}
+			}
+		});
+	}
+
+	/***
+	 * @return int Number of calls which haven't completed yet.
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/***
+	 * Stops accepting calls and waits for the queued ones to complete.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds.
+	 *
+	 * @return boolean Whether all queued calls completed in time.
+	 */
+	public boolean shutdown(long timeout) {
+		orderedLane.shutdown();
+		queryLane.shutdown();
+		try {
+			long deadline = System.currentTimeMillis() + timeout;
+			return orderedLane.awaitTermination(timeout, TimeUnit.MILLISECONDS) && queryLane
+					.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+}
@@ -1,16 +1,19 @@
 package avro.chat.client;
 
+import java.awt.GraphicsEnvironment;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 
@@ -24,23 +27,59 @@ import org.apache.avro.ipc.specific.SpecificResponder;
 
 import asg.cliche.ShellFactory;
 import asg.cliche.client.ClientUI;
+import avro.chat.ipc.AckPlugin;
+import avro.chat.ipc.CompressingTransceiver;
+import avro.chat.ipc.CompressionPlugin;
+import avro.chat.ipc.PriorityRequestor;
+import avro.chat.ipc.Span;
+import avro.chat.ipc.TracePlugin;
+import avro.chat.ipc.Tracer;
+import avro.chat.ipc.TrafficClass;
 import avro.chat.proto.Chat;
 import avro.chat.proto.ChatClientServer;
+import avro.chat.proto.Rejected;
+import avro.chat.proto.RoomMessage;
+import avro.chat.proto.SessionEnded;
+import avro.chat.proto.Throttled;
+import xuggler.NullVideoSink;
+import xuggler.VideoDecoder;
 import xuggler.VideoImage;
-import xuggler.VideoSenderThread;
+import xuggler.VideoRecipient;
+import xuggler.VideoSession;
+import xuggler.VideoSink;
+import xuggler.VideoStream;
 
 public class ChatClient implements ChatClientServer, Runnable {
+	public static final int CONNECT_TIMEOUT = 2000; // milliseconds
+	public static final long RESERVATION_TIMEOUT = 1000; // milliseconds
+	// the traffic class of calls to another client, the others are control
+	// calls which go first
+	private static final Hashtable<String, TrafficClass> PRIVATE_TRAFFIC = new Hashtable<String, TrafficClass>();
+	static {
+		PRIVATE_TRAFFIC.put("incomingMessage", TrafficClass.TEXT);
+		PRIVATE_TRAFFIC.put("incomingPrivateMessage", TrafficClass.TEXT);
+		PRIVATE_TRAFFIC.put("incomingRoomMessage", TrafficClass.TEXT);
+		PRIVATE_TRAFFIC.put("incomingFrame", TrafficClass.BULK);
+	}
+
 	/** Fields **/
 	// Main server
-	boolean disconnectedServer;
 	String serverIP;
 	int serverPort;
 	InetSocketAddress serverSocket;
-	Transceiver serverTransceiver;
-	Chat serverProxy;
+	volatile Transceiver serverTransceiver;
+	volatile Chat.Callback serverProxy;
+	// the ID of our session on the server, -1 until we have one
+	volatile int sessionId = -1;
+	Reconnector reconnector = new Reconnector(this);
+	AsyncServer async = new AsyncServer();
+	// shared with our local server
+	SessionState session = new SessionState();
 
 	// Our local server
 	String username;
+	// the client this local server belongs to, which talks to the server
+	ChatClient owner;
 	static String clientIP = "127.0.0.1";
 	int clientPort;
 	Server localServer;
@@ -48,19 +87,30 @@ public class ChatClient implements ChatClientServer, Runnable {
 	ChatClientServer clientProxy;
 
 	// Other client connected to us
+	String privateName;
 	String privateIP;
 	int privatePort;
 	Transceiver privateTransceiver;
+	// calls go out by traffic class, see PRIVATE_TRAFFIC
 	ChatClientServer privateProxy;
+	// video frames go over a connection of their own when there is one
+	Transceiver privateBulkTransceiver;
+	ChatClientServer privateBulkProxy;
 
 	// Video streaming related attributes
 	boolean awaitingVideo = false;
-	VideoSenderThread videoSender;
-	// VideoReceiverThread videoReceiver;
-	VideoImage player;
+	// our own video, decoded once for all recipients
+	VideoStream videoStream;
+	Hashtable<String, VideoSession> videoSessions = new Hashtable<String, VideoSession>();
+	// incoming video streams by stream name
+	Hashtable<String, VideoSink> players = new Hashtable<String, VideoSink>();
+	// our video broadcast to the public room, relayed by the server
+	VideoStream broadcast;
+	// the click script sending our RSVP messages, shared with our local server
+	static RsvpControl rsvp;
 
 	/** Getters **/
-	public Chat getServerProxy() {
+	public Chat.Callback getServerProxy() {
 		return serverProxy;
 	}
 
@@ -72,6 +122,24 @@ public class ChatClient implements ChatClientServer, Runnable {
 		return clientProxy;
 	}
 
+	public SessionState getSession() {
+		return session;
+	}
+
+	/** Setters **/
+	/***
+	 * Sets the sink which receives the frames of an incoming video stream
+	 * instead of a video window.
+	 *
+	 * @param streamName
+	 *            The name of the incoming stream.
+	 * @param sink
+	 *            The sink for incoming frames.
+	 */
+	public void setVideoSink(String streamName, VideoSink sink) {
+		players.put(streamName, sink);
+	}
+
 	/** Proxy methods **/
 	/***
 	 * Simple method to test if the client received a video streaming request.
@@ -97,6 +165,34 @@ public class ChatClient implements ChatClientServer, Runnable {
 		return null;
 	}
 
+	/***
+	 * The server is shutting down. Reconnect, to the given address or to the
+	 * same one once the server is back. Messages typed meanwhile are queued.
+	 *
+	 * @param address
+	 *            Where to reconnect to, as host:port, or empty.
+	 *
+	 * @return null
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void serverMoving(String address) throws AvroRemoteException {
+		ChatClient client = owner == null ? this : owner;
+		System.out.println("client> The server is restarting, reconnecting.");
+		if (!address.isEmpty()) {
+			try {
+				InetSocketAddress next = parseAddress(address);
+				client.serverIP = next.getAddress().getHostAddress();
+				client.serverPort = next.getPort();
+			} catch (UnknownHostException e) {
+				System.err.println("client> " + e.getMessage() + ", reconnecting to the same server.");
+			}
+		}
+		client.reconnector.trigger();
+		return null;
+	}
+
 	/***
 	 * Simple method to test if the client is still alive.
 	 *
@@ -137,46 +233,160 @@ public class ChatClient implements ChatClientServer, Runnable {
 	 */
 	@Override
 	public Void incomingMessage(String message) throws AvroRemoteException {
+		Span render = Tracer.child("render");
+		System.out.println(message);
+		if (render != null) {
+			render.finish();
+		}
+		return null;
+	}
+
+	/***
+	 * Prints out a message from our private chat partner and keeps it in the
+	 * history.
+	 *
+	 * @param message
+	 *            Content of the incoming message.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void incomingPrivateMessage(String message) throws AvroRemoteException {
+		Span render = Tracer.child("render");
+		System.out.println(message);
+		if (render != null) {
+			render.finish();
+		}
+		session.record(privateName, 0, message);
+		return null;
+	}
+
+	/***
+	 * Prints out a direct message the server passed on, and keeps it in the
+	 * history with the private chat of its sender.
+	 *
+	 * @param username
+	 *            The nickname of the sender.
+	 * @param message
+	 *            Content of the incoming message.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void incomingDirectMessage(String username, String message) throws AvroRemoteException {
+		Span render = Tracer.child("render");
 		System.out.println(message);
+		if (render != null) {
+			render.finish();
+		}
+		session.record(username, 0, message);
+		return null;
+	}
+
+	/***
+	 * Prints out an incoming message of a chat room, unless it was already
+	 * received.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param sequence
+	 *            The sequence number of the message in the room.
+	 * @param message
+	 *            Content of the incoming message.
+	 * @param delivery
+	 *            The number of the push, acknowledged with our next call to the
+	 *            server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void incomingRoomMessage(String roomName, long sequence, String message, long delivery)
+			throws AvroRemoteException {
+		Span render = Tracer.child("render");
+		session.deliver(roomName, sequence, message);
+		if (render != null) {
+			render.finish();
+		}
+		session.received(delivery);
 		return null;
 	}
 
 	/***
 	 * Processes incoming frame.
 	 *
-	 * @param size
-	 *            The size of the frame.
+	 * @param streamName
+	 *            The name of the stream the frame belongs to.
 	 * @param ByteBuffer
 	 *            The frame itself in bytes.
 	 *
 	 * @throws AvroRemoteException
 	 */
 	@Override
-	public Void incomingFrame(ByteBuffer frame) throws AvroRemoteException {
+	public Void incomingFrame(String streamName, ByteBuffer frame) throws AvroRemoteException {
+		Span decode = Tracer.child("decode");
 		try {
+			VideoSink player = players.get(streamName);
 			if (player == null) {
 				awaitingVideo = false;
-				player = new VideoImage(privateProxy);
+				if (GraphicsEnvironment.isHeadless()) {
+					player = new NullVideoSink();
+				} else {
+					player = new VideoImage(privateProxy);
+				}
+				players.put(streamName, player);
 			}
 
 			BufferedImage image = ImageIO.read(new ByteArrayInputStream(frame.array()));
 			player.setImage(image);
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			if (decode != null) {
+				decode.finish();
+			}
 		}
 
 		return null;
 	}
 
 	/***
-	 * Notifies the client that video stream has ended.
+	 * Stops sending our video to the private chat partner, who closed its
+	 * window. Video we receive, and streams to other recipients, go on.
 	 *
 	 * @throws AvroRemoteException
 	 */
 	@Override
 	public Void stopVideoStream() throws AvroRemoteException {
-		closeVideo();
-		privateProxy.sendRsvpPathTearMessage();
+		VideoSession recipient = privateName == null ? null : videoSessions.remove(privateName);
+		if (recipient != null && videoStream != null) {
+			// the stream stops itself when this was its last recipient
+			videoStream.removeRecipient(recipient);
+		}
+		if (privateProxy != null) {
+			privateProxy.sendRsvpPathTearMessage();
+		}
+
+		return null;
+	}
+
+	/***
+	 * Closes a single incoming video stream, for instance when a broadcast
+	 * or the private chat partner's stream ends.
+	 *
+	 * @param streamName
+	 *            The name of the stream.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void closeStream(String streamName) throws AvroRemoteException {
+		VideoSink player = players.remove(streamName);
+		if (player != null) {
+			player.close();
+		}
+		if (streamName.equals(privateName) && privateProxy != null) {
+			privateProxy.sendRsvpPathTearMessage();
+		}
 
 		return null;
 	}
@@ -191,7 +401,8 @@ public class ChatClient implements ChatClientServer, Runnable {
 	 */
 	@Override
 	public Void sendPrivateMessage(String message) throws AvroRemoteException {
-		privateProxy.incomingMessage(message);
+		privateProxy.incomingPrivateMessage(message);
+		session.record(privateName, 0, message);
 		return null;
 	}
 
@@ -226,8 +437,11 @@ public class ChatClient implements ChatClientServer, Runnable {
 		if (privateProxy) { // Sender
 			sendRsvpPathMessage();
 
-			videoSender = new VideoSenderThread(this.privateProxy);
-			videoSender.start();
+			if (videoStream == null || videoStream.isStopped()) {
+				videoStream = new VideoStream(username, new VideoDecoder(), VideoStream.DEFAULT_FPS);
+				videoStream.start();
+			}
+			videoSessions.put(privateName, videoStream.addRecipient(openBulkProxy()));
 		} else { // Receiver
 			this.privateProxy.setupVideoStreaming(true);
 		}
@@ -249,14 +463,25 @@ public class ChatClient implements ChatClientServer, Runnable {
 	 */
 	@Override
 	public boolean register(String username, String privateAddress) throws AvroRemoteException {
-		privateIP = ((privateAddress.split(":"))[0]).substring(1);
-		privatePort = Integer.parseInt((privateAddress.split(":"))[1]);
+		privateName = username;
 
 		try {
-			privateTransceiver = new SaslSocketTransceiver(
-					new InetSocketAddress(InetAddress.getByName(privateIP), privatePort));
+			InetSocketAddress address = parseAddress(privateAddress);
+			privateIP = address.getAddress().getHostAddress();
+			privatePort = address.getPort();
+
+			PriorityRequestor requestor = connectDirectly(address);
+			if (requestor == null) {
+				if (owner == null) {
+					return false;
+				}
+				System.out.println("client> " + username
+						+ " can't be reached directly, the server will relay your private chat.");
+				requestor = makeClientRequestor(new RelayTransceiver(owner, username));
+			}
 
-			privateProxy = (ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class, privateTransceiver);
+			privateTransceiver = requestor.getTransceiver();
+			privateProxy = (ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class, requestor);
 
 			return true;
 		} catch (IOException e) {
@@ -280,11 +505,20 @@ public class ChatClient implements ChatClientServer, Runnable {
 		if (closeOtherProxy) {
 			privateProxy.leave(false);
 		}
+		if (owner != null) {
+			// so the server stops relaying for the chat
+			try {
+				owner.getServerProxy().leavePrivate(owner.getUsername());
+			} catch (AvroRemoteException | RuntimeException e) {
+				// the server forgets the chat when we exit
+			}
+		}
 
 		closeVideo();
 
 		try {
 			privateProxy = null;
+			closeBulkConnection();
 			privateTransceiver.close();
 		} catch (IOException e) {
 			// the other client is already offline
@@ -297,6 +531,123 @@ public class ChatClient implements ChatClientServer, Runnable {
 	}
 
 	/** Methods **/
+	/***
+	 * Parses an address as the server gives it, 'hostname/ip:port' where the
+	 * host name may be missing.
+	 *
+	 * @param address
+	 *            The address.
+	 *
+	 * @return InetSocketAddress The address.
+	 *
+	 * @throws UnknownHostException
+	 */
+	static InetSocketAddress parseAddress(String address) throws UnknownHostException {
+		int colon = address.lastIndexOf(':');
+		if (colon < 0) {
+			throw new UnknownHostException("No port in " + address);
+		}
+		String host = address.substring(address.indexOf('/') + 1, colon);
+		try {
+			return new InetSocketAddress(InetAddress.getByName(host), Integer.parseInt(address.substring(colon + 1)));
+		} catch (NumberFormatException e) {
+			throw new UnknownHostException("Invalid port in " + address);
+		}
+	}
+
+	/***
+	 * Connects directly to another client's local server.
+	 *
+	 * @param address
+	 *            The address of the other client's local server.
+	 *
+	 * @return PriorityRequestor The requestor of the connection, or null if
+	 *         the client can't be reached, for instance because it is behind a
+	 *         NAT.
+	 */
+	private PriorityRequestor connectDirectly(final InetSocketAddress address) {
+		// the transceiver has no connect timeout of its own, but connecting is
+		// interruptible
+		FutureTask<Transceiver> connect = new FutureTask<Transceiver>(new Callable<Transceiver>() {
+			@Override
+			public Transceiver call() throws IOException {
+				return new SaslSocketTransceiver(address);
+			}
+		});
+		new Thread(connect).start();
+
+		Transceiver transceiver;
+		try {
+			transceiver = connect.get(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (Exception e) {
+			connect.cancel(true);
+			return null;
+		}
+
+		try {
+			PriorityRequestor requestor = makeClientRequestor(transceiver);
+			((ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class, requestor)).isAlive();
+			return requestor;
+		} catch (IOException e) {
+			try {
+				transceiver.close();
+			} catch (IOException e1) {
+				// never connected properly
+			}
+			return null;
+		}
+	}
+
+	/***
+	 * Gets the proxy video frames are sent to the other client with. They go
+	 * over a connection of their own, so a frame in flight doesn't hold up
+	 * control calls and messages. When that connection can't be made, frames
+	 * share the private connection at the lowest priority.
+	 *
+	 * @return ChatClientServer The proxy for video frames.
+	 */
+	private ChatClientServer openBulkProxy() {
+		if (privateBulkProxy == null && !(privateTransceiver instanceof RelayTransceiver)) {
+			PriorityRequestor requestor = connectDirectly(new InetSocketAddress(privateIP, privatePort));
+			if (requestor != null) {
+				try {
+					privateBulkProxy = (ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class,
+							requestor);
+					privateBulkTransceiver = requestor.getTransceiver();
+				} catch (IOException e) {
+					closeBulkConnection();
+				}
+			}
+		}
+		return privateBulkProxy != null ? privateBulkProxy : privateProxy;
+	}
+
+	/***
+	 * Closes the connection video frames were sent over, if there is one.
+	 */
+	private void closeBulkConnection() {
+		if (privateBulkTransceiver != null) {
+			try {
+				privateBulkTransceiver.close();
+			} catch (IOException e) {
+				// the other client is already offline
+			}
+			privateBulkTransceiver = null;
+		}
+		privateBulkProxy = null;
+	}
+
+	/***
+	 * Opens the local message history of the user.
+	 */
+	private void openHistory() {
+		try {
+			session.setHistory(new MessageStore(new File("history", username + ".log")));
+		} catch (IOException e) {
+			System.err.println("client> Failed to open the message history, messages won't be kept.");
+		}
+	}
+
 	/***
 	 * Starts a server for the client, so the client can also receive commands
 	 * from other servers and clients.
@@ -305,8 +656,13 @@ public class ChatClient implements ChatClientServer, Runnable {
 	 */
 	private void startLocalServer() {
 		try {
-			localServer = new SaslSocketServer(new SpecificResponder(ChatClientServer.class, new ChatClient()),
-					new InetSocketAddress(clientPort));
+			ChatClient responder = new ChatClient();
+			responder.username = username;
+			responder.session = session;
+			responder.owner = this;
+			SpecificResponder local = new SpecificResponder(ChatClientServer.class, responder);
+			local.addRPCPlugin(new TracePlugin());
+			localServer = new SaslSocketServer(local, new InetSocketAddress(clientPort));
 			System.out.println("Starting client's local server on " + clientIP + ":" + clientPort);
 		} catch (IOException e) {
 			System.err.println("ERROR: Starting local server for client. Double check local-ip and local-port.");
@@ -375,6 +731,73 @@ public class ChatClient implements ChatClientServer, Runnable {
 		}
 	}
 
+	/***
+	 * Connects to the server. With -Dchat.compression=deflate the connection
+	 * offers compression, which the server may accept.
+	 *
+	 * @param address
+	 *            The address of the server.
+	 *
+	 * @return Transceiver The connection.
+	 *
+	 * @throws IOException
+	 */
+	static Transceiver openServerConnection(InetSocketAddress address) throws IOException {
+		Transceiver transceiver = new SaslSocketTransceiver(address);
+		return CompressionPlugin.isRequested() ? new CompressingTransceiver(transceiver) : transceiver;
+	}
+
+	/***
+	 * @param transceiver
+	 *            A connection made by openServerConnection.
+	 *
+	 * @return Chat.Callback The proxy of the server, which negotiates
+	 *         compression when the connection offers it, acknowledges the
+	 *         pushed messages with every call and traces sampled messages.
+	 *
+	 * @throws IOException
+	 */
+	Chat.Callback makeServerProxy(Transceiver transceiver) throws IOException {
+		SpecificRequestor requestor = new SpecificRequestor(Chat.Callback.class, transceiver);
+		if (transceiver instanceof CompressingTransceiver) {
+			requestor.addRPCPlugin(new CompressionPlugin((CompressingTransceiver) transceiver));
+		}
+		requestor.addRPCPlugin(new TracePlugin("sendMessage", "sendMessageById", "sendGroupMessage",
+				"sendDirectMessage"));
+		requestor.addRPCPlugin(new AckPlugin(new AckPlugin.Source() {
+			@Override
+			public int getSessionId() {
+				return sessionId;
+			}
+
+			@Override
+			public long getDelivered() {
+				return session.getDelivered();
+			}
+		}));
+		return SpecificRequestor.getClient(Chat.Callback.class, requestor);
+	}
+
+	/***
+	 * Makes the requestor for a connection to another client's local server,
+	 * which sends control calls first, then messages, then video frames, and
+	 * traces sampled messages and frames.
+	 *
+	 * @param transceiver
+	 *            The connection to the other client.
+	 *
+	 * @return PriorityRequestor The requestor, there is one per connection.
+	 *
+	 * @throws IOException
+	 */
+	static PriorityRequestor makeClientRequestor(Transceiver transceiver) throws IOException {
+		PriorityRequestor requestor = new PriorityRequestor(ChatClientServer.class, transceiver, PRIVATE_TRAFFIC,
+				TrafficClass.CONTROL);
+		requestor.addRPCPlugin(new TracePlugin("incomingMessage", "incomingPrivateMessage",
+				"incomingDirectMessage", "incomingFrame"));
+		return requestor;
+	}
+
 	/***
 	 * Registers with the server, start the Cliche CLI and keep the connection
 	 * open until the client exits or the server is down for more than 60s.
@@ -382,13 +805,13 @@ public class ChatClient implements ChatClientServer, Runnable {
 	private void connectToServer() {
 		try {
 			serverSocket = new InetSocketAddress(InetAddress.getByName(serverIP), serverPort);
-			serverTransceiver = new SaslSocketTransceiver(serverSocket);
+			serverTransceiver = openServerConnection(serverSocket);
 
-			serverProxy = (Chat) SpecificRequestor.getClient(Chat.class, serverTransceiver);
+			serverProxy = makeServerProxy(serverTransceiver);
 
-			if (serverProxy.register(username, clientIP, clientPort)) {
+			sessionId = serverProxy.openSession(username, clientIP, clientPort);
+			if (sessionId >= 0) {
 				System.out.println("You are successfully registered to the server.");
-				disconnectedServer = false;
 			} else {
 				System.out.println(
 						"Something went wrong when registering with the server." + " Maybe you've already registered.");
@@ -411,14 +834,23 @@ public class ChatClient implements ChatClientServer, Runnable {
 			ShellFactory.createConsoleShell("client", "", new ClientUI(this)).commandLoop();
 
 			t.interrupt();
+			// let the messages which are still queued go out first
+			async.shutdown(5000);
+			reconnector.shutdown();
 
+			stopBroadcast();
 			closeVideo();
 
 			privateProxy = null;
 
-			serverProxy.leave(username);
+			serverProxy.leaveById(sessionId);
 			serverTransceiver.close();
 			clientTransceiver.close();
+
+			if (session.getHistory() != null) {
+				session.getHistory().close();
+			}
+			getRsvp().close();
 		} catch (IOException e) {
 			System.err.println("client> Something went wrong when communicating with the server.");
 			System.exit(1);
@@ -426,44 +858,215 @@ public class ChatClient implements ChatClientServer, Runnable {
 	}
 
 	/***
-	 * Tries to ping the server up to n times in increasing intervals (multiples
-	 * of 5). Give up after 75 seconds.
+	 * Connects to the server again and resumes the session: registers, rejoins
+	 * the public room and shows the messages missed in the meantime, also in
+	 * our groups. The messages typed while the server was unreachable are sent
+	 * afterwards by sendQueuedMessages.
 	 *
-	 * @param n
-	 *            Number of recent failed attempts to reconnect to server.
+	 * @throws IOException
+	 *             When the server is still unreachable.
 	 */
-	private void reconnect(int n) {
+	void resume() throws IOException {
+		Transceiver transceiver = openServerConnection(
+				new InetSocketAddress(InetAddress.getByName(serverIP), serverPort));
 		try {
-			if (n == 6) {
-				System.err.println("client> Failed to reconnect to server after " + n + " attempts.\n"
-						+ "client> Closing transceiver, you may try to connect to the server manually later.");
+			Chat.Callback proxy = makeServerProxy(transceiver);
+
+			// the same session when the server never noticed we were gone,
+			// a new one after it restarted, which numbers its pushes anew.
+			// Nothing is acknowledged until we know which.
+			int previous = sessionId;
+			sessionId = -1;
+			int id = proxy.openSession(username, clientIP, clientPort);
+			if (id != previous) {
+				session.resetDeliveries();
+			}
+			sessionId = id;
 
-				serverTransceiver.close();
-				disconnectedServer = true;
-				return;
-			} else {
-				System.err.println("client> Cannot access the server, trying to reconnect in " + n * 5 + " seconds.");
+			if (session.isInPublicRoom()) {
+				joinPublicRoom(proxy);
+			}
+			catchUpGroups(proxy);
 
-				Thread.sleep(n * 5000); // milliseconds
+			Transceiver old = serverTransceiver;
+			serverTransceiver = transceiver;
+			serverProxy = proxy;
+			try {
+				old.close();
+			} catch (IOException e) {
+				// the old connection is gone anyway
+			}
+		} catch (IOException e) {
+			transceiver.close();
+			throw e;
+		}
+	}
 
-				serverSocket = new InetSocketAddress(InetAddress.getByName(serverIP), serverPort);
-				serverTransceiver = new SaslSocketTransceiver(serverSocket);
-				serverProxy = (Chat) SpecificRequestor.getClient(Chat.class, serverTransceiver);
+	/***
+	 * Joins the public room and shows the messages we missed since the last
+	 * one we received. Pushed messages are held back meanwhile, so they are
+	 * shown in order.
+	 *
+	 * @param proxy
+	 *            The proxy to the server.
+	 *
+	 * @return String The server's answer to the join.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	private String joinPublicRoom(Chat proxy) throws AvroRemoteException {
+		session.beginResume();
+		List<RoomMessage> missed = null;
+		try {
+			if (proxy.getLastSequence("Public") < session.getLastSequence("Public")) {
+				// the server was restarted and numbers its messages from
+				// scratch
+				session.resetSequence("Public");
+			}
+			String output = sessionId >= 0 ? proxy.joinById(sessionId, "Public") : proxy.join(username, "Public");
+			missed = proxy.getMessagesSince(username, "Public", session.getLastSequence("Public"));
+			session.showMissed("Public", missed);
+			return output;
+		} finally {
+			session.endResume();
+		}
+	}
 
-				serverProxy.isAlive();
-				serverProxy.register(username, clientIP, clientPort);
+	/***
+	 * Shows the messages of our groups we missed since the last ones we
+	 * received. We stay a member of a group while we're away, so there is
+	 * nothing to rejoin.
+	 *
+	 * @param proxy
+	 *            The proxy to the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	private void catchUpGroups(Chat proxy) throws AvroRemoteException {
+		List<String> groups = session.getGroups();
+		if (groups.isEmpty()) {
+			return;
+		}
 
-				System.out.println("Server is accessible again.");
-				return;
+		session.beginResume();
+		try {
+			for (String group : groups) {
+				if (proxy.getLastSequence(group) < session.getLastSequence(group)) {
+					session.resetSequence(group);
+				}
+				session.showMissed(group, proxy.getMessagesSince(username, group, session.getLastSequence(group)));
 			}
-		} catch (ConnectException e) {
-			reconnect(++n); // server is still offline
-		} catch (AvroRemoteException e) {
-			reconnect(++n); // server is still offline
-		} catch (InterruptedException e) {
-			e.printStackTrace(); // thread interrupted
-		} catch (IOException e) {
-			e.printStackTrace(); // transceiver close
+		} finally {
+			session.endResume();
+		}
+	}
+
+	/***
+	 * Starts following a group after creating or joining it, if the server
+	 * made us a member. Messages from before we joined aren't shown.
+	 *
+	 * @param proxy
+	 *            The proxy to the server.
+	 * @param groupName
+	 *            The name of the group.
+	 * @param last
+	 *            The sequence number of the last message of the group before
+	 *            we joined.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	private void followGroup(Chat proxy, String groupName, long last) throws AvroRemoteException {
+		if (proxy.getGroupMembers(username, groupName).contains(username)) {
+			session.resetSequence(groupName);
+			session.skipTo(groupName, last);
+			session.addGroup(groupName);
+		}
+	}
+
+	/***
+	 * Prepares joining the public room: the messages sent since the last one
+	 * in the history are added to the history without being shown, so only
+	 * that gap is fetched. Messages from before the join aren't shown.
+	 *
+	 * @param proxy
+	 *            The proxy to the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	private void syncHistory(Chat proxy) throws AvroRemoteException {
+		long last = proxy.getLastSequence("Public");
+		MessageStore history = session.getHistory();
+		long stored = history == null ? 0 : history.getLastSequence("Public");
+
+		// fetch only what was sent since our last message; if the server has
+		// less it was restarted and lost the history, so there's nothing to get
+		if (stored > 0 && stored < last) {
+			List<RoomMessage> missed = proxy.getMessagesSince(username, "Public", stored);
+			for (RoomMessage message : missed) {
+				history.append("Public", message.getSequence(), message.getTimestamp(),
+						message.getUsername() + "> (Public): " + message.getMessage());
+			}
+			if (!missed.isEmpty()) {
+				System.out.println("client> " + missed.size() + " messages were sent to the Public chat room"
+						+ " while you were away, type 'history' to read them.");
+			}
+		}
+
+		session.resetSequence("Public");
+		session.skipTo("Public", last);
+	}
+
+	/***
+	 * Sends the public messages which were typed while the server was
+	 * unreachable, behind the calls that are already queued.
+	 */
+	void sendQueuedMessages() {
+		async.ordered(new AsyncServer.Call<Void>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<Void> callback) throws IOException {
+				flushOutbox();
+				callback.handleResult(null);
+			}
+		}, new org.apache.avro.ipc.Callback<Void>() {
+			@Override
+			public void handleResult(Void result) {
+			}
+
+			@Override
+			public void handleError(Throwable error) {
+				reconnector.trigger();
+			}
+		});
+	}
+
+	/***
+	 * Sends the public messages which were typed while the server was
+	 * unreachable. Only runs on the ordered lane, so they keep their order.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	private void flushOutbox() throws AvroRemoteException {
+		String message;
+		while ((message = session.peekQueuedMessage()) != null) {
+			try {
+				String output = sessionId >= 0 ? serverProxy.sendMessageById(sessionId, message)
+						: serverProxy.sendMessage(username, message);
+				System.out.println(output);
+				session.record("Public", 0, output);
+			} catch (Throttled e) {
+				// the same message again once the server takes it, the rest
+				// stays behind it
+				try {
+					Thread.sleep(Math.max(1, e.getRetryAfter()));
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				continue;
+			} catch (Rejected e) {
+				System.err.println(e.getReason());
+			}
+			session.removeQueuedMessage();
 		}
 	}
 
@@ -471,11 +1074,11 @@ public class ChatClient implements ChatClientServer, Runnable {
 	 * Check if the server is still alive every 5 seconds.
 	 */
 	private void checkServer() throws InterruptedException {
-		if (!disconnectedServer) {
+		if (!reconnector.isReconnecting()) {
 			try {
 				serverProxy.isAlive();
 			} catch (AvroRemoteException e) {
-				reconnect(1);
+				reconnector.trigger();
 			}
 		}
 	}
@@ -492,77 +1095,483 @@ public class ChatClient implements ChatClientServer, Runnable {
 	}
 
 	/***
-	 * Connects to the running click script and triggers a handler to send RSVP
-	 * PATH msg.
+	 * @return RsvpControl The connection with the click script, created on
+	 *         first use.
 	 */
-	private void sendRsvpPathMessage() {
-		try {
-			Socket rsvpSocket = new Socket(clientIP, 10000);
-			PrintWriter out = new PrintWriter(rsvpSocket.getOutputStream(), true);
-			BufferedReader in = new BufferedReader(new InputStreamReader(rsvpSocket.getInputStream()));
+	static synchronized RsvpControl getRsvp() {
+		if (rsvp == null) {
+			rsvp = new RsvpControl(clientIP, RsvpControl.DEFAULT_PORT);
+		}
+		return rsvp;
+	}
 
-			String arguments = "SRC " + clientIP + ", SRCPORT " + clientPort + ", DST " + privateIP + ", DSTPORT "
-					+ privatePort;
-			System.out.println(arguments);
+	/***
+	 * @return String The RSVP generator of our end of the path.
+	 */
+	private String getRsvpGenerator() {
+		return clientIP.equals(serverIP) ? "host2/rsvp_generator" : "host1/rsvp_generator";
+	}
 
-			if (clientIP.equals(serverIP)) {
-				out.println("write host2/rsvp_generator.send_path " + arguments);
-			} else {
-				out.println("write host1/rsvp_generator.send_path " + arguments);
-			}
+	private String getRsvpSession() {
+		return "SRC " + clientIP + ", SRCPORT " + clientPort + ", DST " + privateIP + ", DSTPORT " + privatePort;
+	}
 
-			System.out.println(in.readLine());
-			in.close();
-			out.close();
-			rsvpSocket.close();
+	/***
+	 * Triggers the click script to send an RSVP PATH msg and waits until it
+	 * confirms the path, at most RESERVATION_TIMEOUT.
+	 */
+	private void sendRsvpPathMessage() {
+		String arguments = getRsvpSession();
+		System.out.println(arguments);
 
-			Thread.sleep(1000);
-		} catch (IOException e) {
-			System.err.println("Failed to connect to click script on port 10000. Can't send RSVP PATH message.");
-		} catch (InterruptedException e) {
+		if (!getRsvp().reservePath(getRsvpGenerator(), arguments, RESERVATION_TIMEOUT)) {
+			System.err.println("client> The RSVP reservation wasn't confirmed, video starts without it.");
 		}
 	}
 
 	/***
-	 * Connects to the running click script and triggers a handler to send RSVP
-	 * PATH TEAR msg.
+	 * Triggers the click script to send an RSVP PATH TEAR msg, without waiting
+	 * for it.
 	 */
 	@Override
 	public Void sendRsvpPathTearMessage() {
-		try {
-			Socket rsvpSocket = new Socket(clientIP, 10000);
-			PrintWriter out = new PrintWriter(rsvpSocket.getOutputStream(), true);
-			BufferedReader in = new BufferedReader(new InputStreamReader(rsvpSocket.getInputStream()));
+		getRsvp().tearPath(getRsvpGenerator(), getRsvpSession());
+		return null;
+	}
+
+	/***
+	 * Asks the server for the list of connected users, in the background.
+	 *
+	 * @param callback
+	 *            Receives the list or the error.
+	 */
+	public void getClientList(org.apache.avro.ipc.Callback<List<String>> callback) {
+		async.query(new AsyncServer.Call<List<String>>() {
+			@Override
+			public void invoke(final org.apache.avro.ipc.Callback<List<String>> callback) throws IOException {
+				if (sessionId < 0) {
+					serverProxy.getClientList(callback);
+					return;
+				}
+				serverProxy.getClientListById(sessionId, new org.apache.avro.ipc.Callback<List<String>>() {
+					@Override
+					public void handleResult(List<String> result) {
+						callback.handleResult(result);
+					}
+
+					@Override
+					public void handleError(Throwable error) {
+						if (error instanceof SessionEnded) {
+							reconnector.trigger();
+						}
+						callback.handleError(error);
+					}
+				});
+			}
+		}, callback);
+	}
 
-			String arguments = "SRC " + clientIP + ", SRCPORT " + clientPort + ", DST " + privateIP + ", DSTPORT "
-					+ privatePort;
-			System.out.println(arguments);
+	/***
+	 * Searches the messages the server kept of a room, in the background.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param query
+	 *            The words to look for, messages must contain all of them.
+	 * @param limit
+	 *            The maximum number of results.
+	 * @param callback
+	 *            Receives the most recent matches, newest first, or the error.
+	 */
+	public void searchRoom(final String roomName, final String query, final int limit,
+			org.apache.avro.ipc.Callback<List<RoomMessage>> callback) {
+		async.query(new AsyncServer.Call<List<RoomMessage>>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<List<RoomMessage>> callback) throws IOException {
+				serverProxy.search(roomName, query, limit, callback);
+			}
+		}, callback);
+	}
 
-			System.out.println(in.readLine());
-			in.close();
-			out.close();
-			rsvpSocket.close();
+	/***
+	 * Gets the links posted in a room lately, in the background.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param callback
+	 *            Receives the links, newest first, or the error.
+	 */
+	public void getLinks(final String roomName, org.apache.avro.ipc.Callback<List<String>> callback) {
+		async.query(new AsyncServer.Call<List<String>>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<List<String>> callback) throws IOException {
+				serverProxy.getLinks(username, roomName, 20, callback);
+			}
+		}, callback);
+	}
 
-			Thread.sleep(1000);
-		} catch (IOException e) {
-			System.err
-					.println("Failed to connect to click script on port 10000. Can't send RSVP PATH TEARDOWN message.");
-		} catch (InterruptedException e) {
+	/***
+	 * Joins a chat room on the server, in the background.
+	 *
+	 * @param roomName
+	 *            'Public' or the name of the user to chat with privately.
+	 * @param callback
+	 *            Receives the server's answer or the error.
+	 */
+	public void joinRoom(final String roomName, org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				if (roomName.equals("Public")) {
+					Chat proxy = serverProxy;
+					syncHistory(proxy);
+					String output;
+					try {
+						output = joinPublicRoom(proxy);
+					} catch (SessionEnded e) {
+						// resume() joins once we have a new session
+						output = "client> Your session has ended, you'll join once reconnected.";
+						reconnector.trigger();
+					}
+					session.setInPublicRoom(true);
+					callback.handleResult(output);
+				} else {
+					serverProxy.join(username, roomName, callback);
+				}
+			}
+		}, callback);
+	}
+
+	/***
+	 * Leaves the public room, in the background.
+	 *
+	 * @param callback
+	 *            Receives whether we were in the public room, or the error.
+	 */
+	public void leaveRoom(org.apache.avro.ipc.Callback<Boolean> callback) {
+		session.setInPublicRoom(false);
+		async.ordered(new AsyncServer.Call<Boolean>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<Boolean> callback) throws IOException {
+				if (sessionId >= 0) {
+					serverProxy.leaveById(sessionId, callback);
+				} else {
+					serverProxy.leave(username, callback);
+				}
+			}
+		}, callback);
+	}
+
+	/***
+	 * Sends a message to the public room in the background. Messages go out in
+	 * the order they were typed. While the server is unreachable the message is
+	 * queued and sent as soon as we are reconnected.
+	 *
+	 * @param message
+	 *            The message.
+	 * @param callback
+	 *            Receives the message as it was sent or a notice that it was
+	 *            queued.
+	 */
+	public void sendRoomMessage(final String message, org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(final org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				if (reconnector.isReconnecting()) {
+					queueRoomMessage(message, callback);
+					return;
+				}
+
+				try {
+					// anything left over from the last outage goes first
+					flushOutbox();
+					org.apache.avro.ipc.Callback<String> sent = new org.apache.avro.ipc.Callback<String>() {
+						@Override
+						public void handleResult(String result) {
+							if (session.isInPublicRoom()) {
+								session.record("Public", 0, result);
+							}
+							callback.handleResult(result);
+						}
+
+						@Override
+						public void handleError(Throwable error) {
+							if (isRefused(error)) {
+								callback.handleError(error);
+								return;
+							}
+							reconnector.trigger();
+							queueRoomMessage(message, callback);
+						}
+					};
+					// without a session, after the server refused a new one
+					if (sessionId >= 0) {
+						serverProxy.sendMessageById(sessionId, message, sent);
+					} else {
+						serverProxy.sendMessage(username, message, sent);
+					}
+				} catch (IOException e) {
+					reconnector.trigger();
+					queueRoomMessage(message, callback);
+				}
+			}
+		}, callback);
+	}
+
+	/***
+	 * Creates a private group with us as its first member, in the background.
+	 *
+	 * @param groupName
+	 *            The name of the group, starting with '#'.
+	 * @param callback
+	 *            Receives the server's answer or the error.
+	 */
+	public void createGroup(final String groupName, org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				Chat proxy = serverProxy;
+				String output = proxy.createGroup(username, groupName);
+				followGroup(proxy, groupName, 0);
+				callback.handleResult(output);
+			}
+		}, callback);
+	}
+
+	/***
+	 * Invites a user to one of our groups, in the background.
+	 *
+	 * @param groupName
+	 *            The name of the group.
+	 * @param invitee
+	 *            The nickname of the user.
+	 * @param callback
+	 *            Receives the server's answer or the error.
+	 */
+	public void inviteToGroup(final String groupName, final String invitee,
+			org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				serverProxy.inviteToGroup(username, groupName, invitee, callback);
+			}
+		}, callback);
+	}
+
+	/***
+	 * Joins a group we were invited to, in the background.
+	 *
+	 * @param groupName
+	 *            The name of the group.
+	 * @param callback
+	 *            Receives the server's answer or the error.
+	 */
+	public void joinGroup(final String groupName, org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				Chat proxy = serverProxy;
+				long last = proxy.getLastSequence(groupName);
+				String output = proxy.joinGroup(username, groupName);
+				followGroup(proxy, groupName, last);
+				callback.handleResult(output);
+			}
+		}, callback);
+	}
+
+	/***
+	 * Leaves a group, in the background.
+	 *
+	 * @param groupName
+	 *            The name of the group.
+	 * @param callback
+	 *            Receives whether we were a member, or the error.
+	 */
+	public void leaveGroup(final String groupName, org.apache.avro.ipc.Callback<Boolean> callback) {
+		session.removeGroup(groupName);
+		async.ordered(new AsyncServer.Call<Boolean>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<Boolean> callback) throws IOException {
+				serverProxy.leaveGroup(username, groupName, callback);
+			}
+		}, callback);
+	}
+
+	/***
+	 * Sends a message to a group in the background, behind the other calls
+	 * that change what the server holds.
+	 *
+	 * @param groupName
+	 *            The name of the group.
+	 * @param message
+	 *            The message.
+	 * @param callback
+	 *            Receives the message as it was sent, or the error.
+	 */
+	public void sendGroupMessage(final String groupName, final String message,
+			org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(final org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				serverProxy.sendGroupMessage(username, groupName, message, new org.apache.avro.ipc.Callback<String>() {
+					@Override
+					public void handleResult(String result) {
+						if (session.isInGroup(groupName)) {
+							session.record(groupName, 0, result);
+						}
+						callback.handleResult(result);
+					}
+
+					@Override
+					public void handleError(Throwable error) {
+						if (!isRefused(error)) {
+							reconnector.trigger();
+						}
+						callback.handleError(error);
+					}
+				});
+			}
+		}, callback);
+	}
+
+	/***
+	 * Sends a message straight to another user through the server, in the
+	 * background. No private chat is set up, so this is the quick way to send
+	 * someone a single line.
+	 *
+	 * @param recipient
+	 *            The nickname of the user.
+	 * @param message
+	 *            The message.
+	 * @param callback
+	 *            Receives the message as it was sent, or the error.
+	 */
+	public void sendDirectMessage(final String recipient, final String message,
+			org.apache.avro.ipc.Callback<String> callback) {
+		async.ordered(new AsyncServer.Call<String>() {
+			@Override
+			public void invoke(final org.apache.avro.ipc.Callback<String> callback) throws IOException {
+				serverProxy.sendDirectMessage(username, recipient, message, new org.apache.avro.ipc.Callback<String>() {
+					@Override
+					public void handleResult(String result) {
+						if (result.startsWith(username + ">")) {
+							session.record(recipient, 0, result);
+						}
+						callback.handleResult(result);
+					}
+
+					@Override
+					public void handleError(Throwable error) {
+						if (!isRefused(error)) {
+							reconnector.trigger();
+						}
+						callback.handleError(error);
+					}
+				});
+			}
+		}, callback);
+	}
+
+	/***
+	 * Asks the server for the members of one of our groups, in the
+	 * background.
+	 *
+	 * @param groupName
+	 *            The name of the group.
+	 * @param callback
+	 *            Receives the user names or the error.
+	 */
+	public void getGroupMembers(final String groupName, org.apache.avro.ipc.Callback<List<String>> callback) {
+		async.query(new AsyncServer.Call<List<String>>() {
+			@Override
+			public void invoke(org.apache.avro.ipc.Callback<List<String>> callback) throws IOException {
+				serverProxy.getGroupMembers(username, groupName, callback);
+			}
+		}, callback);
+	}
+
+	/***
+	 * @param error
+	 *            The error of a call which sends a message.
+	 *
+	 * @return boolean Whether the server refused the message, rather than
+	 *         being unreachable. A session the server dropped counts as
+	 *         unreachable: the message is sent again in a new session.
+	 */
+	private static boolean isRefused(Throwable error) {
+		return error instanceof Throttled || error instanceof Rejected;
+	}
+
+	private void queueRoomMessage(String message, org.apache.avro.ipc.Callback<String> callback) {
+		session.queueMessage(message);
+		callback.handleResult("client> The server is unreachable, your message will be sent once it's back.");
+	}
+
+	/***
+	 * Starts broadcasting our video to everyone in the public room. The server
+	 * relays the frames, so we upload every frame only once.
+	 *
+	 * @return boolean Whether the server accepted the broadcast.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	public boolean startBroadcast() throws AvroRemoteException {
+		if (broadcast != null && !broadcast.isStopped()) {
+			return false;
+		}
+		if (!serverProxy.startBroadcast(username)) {
+			return false;
 		}
 
-		return null;
+		broadcast = new VideoStream(username, new VideoDecoder(), VideoStream.DEFAULT_FPS);
+		broadcast.addRecipient(new VideoRecipient() {
+			@Override
+			public void sendFrame(String streamName, ByteBuffer frame) throws AvroRemoteException {
+				if (!serverProxy.broadcastFrame(username, frame, true)) {
+					throw new AvroRemoteException("The server has stopped the broadcast.");
+				}
+			}
+
+			@Override
+			public void endStream(String streamName) throws AvroRemoteException {
+				serverProxy.stopBroadcast(username);
+			}
+		});
+		broadcast.start();
+
+		return true;
 	}
 
+	/***
+	 * Stops broadcasting our video.
+	 *
+	 * @return boolean Whether we were broadcasting.
+	 */
+	public boolean stopBroadcast() {
+		if (broadcast == null || broadcast.isStopped()) {
+			broadcast = null;
+			return false;
+		}
+
+		broadcast.stop();
+		broadcast = null;
+		return true;
+	}
+
+	/***
+	 * Stops all outgoing video streams and closes all incoming ones.
+	 */
 	private void closeVideo() {
-		if (videoSender != null) {
-			videoSender.stop();
-			videoSender = null;
+		if (videoStream != null) {
+			videoStream.stop();
+			videoStream = null;
 		}
+		videoSessions.clear();
 
-		if (player != null) {
+		for (VideoSink player : players.values()) {
 			player.close();
-			player = null;
 		}
+		players.clear();
 	}
 
 	/***
@@ -596,6 +1605,8 @@ public class ChatClient implements ChatClientServer, Runnable {
 			ChatClient chatClient = new ChatClient();
 
 			chatClient.configure(args);
+			Tracer.setService(chatClient.username);
+			chatClient.openHistory();
 			chatClient.startLocalServer();
 			chatClient.connectToServer();
 			chatClient.localServer.close();
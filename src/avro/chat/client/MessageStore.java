@@ -0,0 +1,387 @@
+package avro.chat.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+
+/***
+ * Local history of the messages a client has seen, public and private.
+ *
+ * Messages are appended to a file, one length prefixed record per message, so
+ * writing one never rewrites older ones and a record torn by a crash is simply
+ * cut off when the file is opened again. Only the most recent messages are
+ * kept in memory, together with a sparse index holding the file offset of
+ * every INDEX_INTERVAL-th message, so memory stays bounded however long the
+ * history grows. Older messages are read back from the file.
+ */
+public class MessageStore {
+	public static final int CACHE_SIZE = 1000; // messages
+	public static final int INDEX_INTERVAL = 256; // messages
+	public static final int SEARCH_DEPTH = 100000; // messages
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/***
+	 * A message from the history.
+	 */
+	public static class Entry {
+		private final String roomName;
+		private final long sequence;
+		private final long timestamp;
+		private final String text;
+
+		Entry(String roomName, long sequence, long timestamp, String text) {
+			this.roomName = roomName;
+			this.sequence = sequence;
+			this.timestamp = timestamp;
+			this.text = text;
+		}
+
+		/***
+		 * @return String 'Public' or the name of the private chat partner.
+		 */
+		public String getRoomName() {
+			return roomName;
+		}
+
+		/***
+		 * @return long The sequence number the server gave the message, 0 for
+		 *         private messages and our own.
+		 */
+		public long getSequence() {
+			return sequence;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/***
+		 * @return String The message as it was shown.
+		 */
+		public String getText() {
+			return text;
+		}
+	}
+
+	private final File file;
+	private DataOutputStream out;
+	private long length; // bytes
+	private int count = 0; // messages
+
+	// offset of message i * INDEX_INTERVAL
+	private long[] index = new long[16];
+	private final ArrayDeque<Entry> recent = new ArrayDeque<Entry>();
+	private final Hashtable<String, Long> lastSequence = new Hashtable<String, Long>();
+
+	/***
+	 * Opens the history in a file, creating it if needed.
+	 *
+	 * @param file
+	 *            The history file.
+	 *
+	 * @throws IOException
+	 */
+	public MessageStore(File file) throws IOException {
+		this.file = file;
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+
+		load();
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+	}
+
+	/***
+	 * Reads the existing file to rebuild the index and the cache of recent
+	 * messages, and cuts off a record torn by a crash.
+	 */
+	private void load() throws IOException {
+		length = 0;
+		if (file.exists()) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				Entry entry;
+				long offset = 0;
+				while ((entry = read(in)) != null) {
+					indexRecord(offset, entry);
+					offset = length;
+				}
+			} finally {
+				in.close();
+			}
+
+			if (file.length() > length) {
+				RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				try {
+					raf.setLength(length);
+				} finally {
+					raf.close();
+				}
+			}
+		}
+	}
+
+	/***
+	 * Reads a single record and advances length past it.
+	 *
+	 * @return Entry The message, or null at the end of the file or at a torn
+	 *         record.
+	 */
+	private Entry read(DataInputStream in) throws IOException {
+		try {
+			int size = in.readInt();
+			if (size < 0 || size > file.length() - length - 4) {
+				return null;
+			}
+			byte[] record = new byte[size];
+			in.readFully(record);
+			length += 4 + size;
+			return decode(record);
+		} catch (EOFException e) {
+			return null;
+		}
+	}
+
+	private static Entry decode(byte[] record) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		String roomName = in.readUTF();
+		long sequence = in.readLong();
+		long timestamp = in.readLong();
+		byte[] text = new byte[in.available()];
+		in.readFully(text);
+		return new Entry(roomName, sequence, timestamp, new String(text, UTF8));
+	}
+
+	private static byte[] encode(Entry entry) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream record = new DataOutputStream(bytes);
+		record.writeUTF(entry.roomName);
+		record.writeLong(entry.sequence);
+		record.writeLong(entry.timestamp);
+		record.write(entry.text.getBytes(UTF8));
+		record.close();
+		return bytes.toByteArray();
+	}
+
+	private void indexRecord(long offset, Entry entry) {
+		if (count % INDEX_INTERVAL == 0) {
+			int slot = count / INDEX_INTERVAL;
+			if (slot == index.length) {
+				index = Arrays.copyOf(index, index.length * 2);
+			}
+			index[slot] = offset;
+		}
+		count++;
+
+		recent.addLast(entry);
+		if (recent.size() > CACHE_SIZE) {
+			recent.removeFirst();
+		}
+		if (entry.sequence > 0) {
+			lastSequence.put(entry.roomName, entry.sequence);
+		}
+	}
+
+	/***
+	 * Adds a message to the history.
+	 *
+	 * @param roomName
+	 *            'Public' or the name of the private chat partner.
+	 * @param sequence
+	 *            The sequence number the server gave the message, 0 if none.
+	 * @param timestamp
+	 *            When the message was sent, in milliseconds since the epoch.
+	 * @param text
+	 *            The message as it was shown.
+	 */
+	public synchronized void append(String roomName, long sequence, long timestamp, String text) {
+		if (out == null) {
+			return;
+		}
+
+		Entry entry = new Entry(roomName, sequence, timestamp, text);
+		try {
+			byte[] record = encode(entry);
+			out.writeInt(record.length);
+			out.write(record);
+			out.flush();
+
+			long offset = length;
+			length += 4 + record.length;
+			indexRecord(offset, entry);
+		} catch (IOException e) {
+			System.err.println("client> Failed to write the message history, it won't be kept any longer.");
+			close();
+		}
+	}
+
+	/***
+	 * @param roomName
+	 *            The name of the room.
+	 *
+	 * @return long The sequence number of the last message of the room in the
+	 *         history, 0 if there is none.
+	 */
+	public synchronized long getLastSequence(String roomName) {
+		Long sequence = lastSequence.get(roomName);
+		return sequence == null ? 0 : sequence;
+	}
+
+	/***
+	 * @return int The number of messages in the history.
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/***
+	 * Gets the last messages of the history.
+	 *
+	 * @param max
+	 *            The maximum number of messages.
+	 *
+	 * @return List<Entry> The messages, oldest first.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized List<Entry> recent(int max) throws IOException {
+		max = Math.min(max, count);
+		if (max <= recent.size()) {
+			ArrayList<Entry> result = new ArrayList<Entry>(recent);
+			return result.subList(result.size() - max, result.size());
+		}
+
+		// older than the cache, start reading at the closest indexed message
+		int first = count - max;
+		int slot = first / INDEX_INTERVAL;
+		ArrayDeque<Entry> result = new ArrayDeque<Entry>(max);
+		scan(slot, first - slot * INDEX_INTERVAL, max, null, max, result);
+		return new ArrayList<Entry>(result);
+	}
+
+	/***
+	 * Searches the history. A message matches if it contains every word of
+	 * the query, ignoring case; words may also be parts of words. The cache is
+	 * searched first, then the file backwards one index interval at a time,
+	 * until enough matches are found or the last SEARCH_DEPTH messages were
+	 * read, so older messages aren't searched.
+	 *
+	 * @param query
+	 *            The words to look for.
+	 * @param limit
+	 *            The maximum number of results.
+	 *
+	 * @return List<Entry> The most recent matches, oldest first.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized List<Entry> search(String query, int limit) throws IOException {
+		String[] terms = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+		ArrayDeque<Entry> matches = new ArrayDeque<Entry>();
+		for (Entry entry : recent) {
+			keepMatch(entry, terms, limit, matches);
+		}
+
+		int end = count - recent.size(); // first cached message
+		int oldest = Math.max(0, count - SEARCH_DEPTH);
+		while (matches.size() < limit && end > oldest) {
+			int slot = (end - 1) / INDEX_INTERVAL;
+			int start = Math.max(slot * INDEX_INTERVAL, oldest);
+			ArrayDeque<Entry> older = new ArrayDeque<Entry>();
+			scan(slot, start - slot * INDEX_INTERVAL, end - start, terms, limit - matches.size(), older);
+			while (!older.isEmpty()) {
+				matches.addFirst(older.removeLast());
+			}
+			end = start;
+		}
+
+		return new ArrayList<Entry>(matches);
+	}
+
+	/***
+	 * Reads messages from the file.
+	 *
+	 * @param slot
+	 *            The index slot to start reading at.
+	 * @param skip
+	 *            Number of messages to skip after that.
+	 * @param max
+	 *            Maximum number of messages to read.
+	 * @param terms
+	 *            Search terms, or null to keep every message.
+	 * @param limit
+	 *            The maximum number of messages to keep, the latest are kept.
+	 * @param result
+	 *            Receives the messages.
+	 */
+	private void scan(int slot, int skip, int max, String[] terms, int limit, ArrayDeque<Entry> result)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			long skipped = 0;
+			while (skipped < index[slot]) {
+				skipped += in.skip(index[slot] - skipped);
+			}
+			for (int i = 0; i < skip + max; i++) {
+				int size = in.readInt();
+				if (i < skip) {
+					in.skipBytes(size);
+					continue;
+				}
+				byte[] record = new byte[size];
+				in.readFully(record);
+				Entry entry = decode(record);
+				keepMatch(entry, terms, limit, result);
+			}
+		} catch (EOFException e) {
+			// appended concurrently or torn, the rest isn't ours to read
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void keepMatch(Entry entry, String[] terms, int limit, ArrayDeque<Entry> matches) {
+		if (terms != null) {
+			String text = entry.text.toLowerCase(Locale.ROOT);
+			for (String term : terms) {
+				if (!text.contains(term)) {
+					return;
+				}
+			}
+		}
+		matches.addLast(entry);
+		if (matches.size() > limit) {
+			matches.removeFirst();
+		}
+	}
+
+	/***
+	 * Closes the history file, later messages are no longer kept.
+	 */
+	public synchronized void close() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// nothing left to write
+			}
+			out = null;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package avro.chat.client;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/***
+ * Reconnects a client to the server after the connection was lost.
+ *
+ * Attempts run on a scheduler of their own, so the heartbeat thread keeps
+ * checking the private chat partner meanwhile. The delay between attempts
+ * grows exponentially up to a minute and half of it is random, so a server
+ * restart doesn't get all of its clients back at the same moment.
+ */
+public class Reconnector implements Runnable {
+	public static final long BASE_DELAY = 1000; // milliseconds
+	public static final long MAX_DELAY = 60000; // milliseconds
+
+	private final ChatClient client;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final Random random = new Random();
+	private final AtomicBoolean reconnecting = new AtomicBoolean(false);
+	private int attempt = 0;
+
+	public Reconnector(ChatClient client) {
+		this.client = client;
+	}
+
+	public boolean isReconnecting() {
+		return reconnecting.get();
+	}
+
+	/***
+	 * Starts reconnecting in the background, unless that is already going on.
+	 */
+	public void trigger() {
+		if (reconnecting.compareAndSet(false, true)) {
+			attempt = 0;
+			System.err.println("client> Cannot access the server, reconnecting in the background.\n"
+					+ "client> Messages you send in the meantime will be delivered once it's back.");
+			scheduler.schedule(this, nextDelay(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/***
+	 * Calculates the delay before the next attempt: exponential backoff, of
+	 * which half is random.
+	 *
+	 * @return long The delay in milliseconds.
+	 */
+	private long nextDelay() {
+		long ceiling = Math.min(MAX_DELAY, BASE_DELAY << Math.min(attempt, 16));
+		return ceiling / 2 + (long) (random.nextDouble() * (ceiling / 2));
+	}
+
+	/***
+	 * A single reconnection attempt.
+	 */
+	@Override
+	public void run() {
+		attempt++;
+		try {
+			client.resume();
+			reconnecting.set(false);
+			System.out.println("Server is accessible again.");
+			client.sendQueuedMessages();
+		} catch (IOException | RuntimeException e) {
+			// a runtime error, from the proxy for instance, must not end the
+			// attempts either, or messages would be queued forever
+			long delay = nextDelay();
+			if (attempt % 5 == 0) {
+				System.err.println("client> Still cannot access the server after " + attempt
+						+ " attempts, trying again in " + delay / 1000 + " seconds.");
+			}
+			scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/***
+	 * Stops reconnecting, the client is exiting.
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
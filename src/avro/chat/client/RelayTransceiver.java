@@ -0,0 +1,187 @@
+package avro.chat.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.AvroRemoteException;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Protocol;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.ipc.Callback;
+import org.apache.avro.ipc.HandshakeMatch;
+import org.apache.avro.ipc.HandshakeRequest;
+import org.apache.avro.ipc.HandshakeResponse;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.util.ByteBufferInputStream;
+
+/***
+ * Connection to a private chat partner through the server, for when the two
+ * clients can't reach each other directly.
+ *
+ * Requests are serialized as usual and handed to the server's relayPrivate
+ * call as opaque bytes. The server writes them to its own connection with the
+ * partner and hands the response bytes back, without decoding either.
+ *
+ * The partner's connection with the server did its handshake long ago, so
+ * the handshake of our first request is answered here instead of being
+ * forwarded. Both ends speak the same protocol, so it always matches.
+ *
+ * Asynchronous calls use the asynchronous relayPrivate call, so they don't
+ * hold up the caller while the partner answers.
+ */
+public class RelayTransceiver extends Transceiver {
+	private static final SpecificDatumReader<HandshakeRequest> HANDSHAKE_READER = new SpecificDatumReader<HandshakeRequest>(
+			HandshakeRequest.class);
+	private static final ByteBuffer HANDSHAKE_RESPONSE = encode(
+			new HandshakeResponse(HandshakeMatch.BOTH, null, null, null));
+
+	private final ChatClient client;
+	private final String partner;
+	private volatile Protocol remote;
+	private List<ByteBuffer> response; // of the call relayed last, guarded by this
+
+	/***
+	 * @param client
+	 *            The client which is connected to the server.
+	 * @param partner
+	 *            The name of the private chat partner.
+	 */
+	public RelayTransceiver(ChatClient client, String partner) {
+		this.client = client;
+		this.partner = partner;
+	}
+
+	@Override
+	public String getRemoteName() {
+		return "relay:" + partner;
+	}
+
+	@Override
+	public boolean isConnected() {
+		return remote != null;
+	}
+
+	@Override
+	public void setRemote(Protocol protocol) {
+		remote = protocol;
+	}
+
+	@Override
+	public Protocol getRemote() {
+		return remote;
+	}
+
+	@Override
+	public synchronized List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
+		writeBuffers(request);
+		return readBuffers();
+	}
+
+	/***
+	 * Relays a call without waiting for its response: the server's proxy
+	 * calls back once the partner answered.
+	 */
+	@Override
+	public void transceive(List<ByteBuffer> request, final Callback<List<ByteBuffer>> callback)
+			throws IOException {
+		final ByteBuffer handshake = answerHandshake(request);
+		client.getServerProxy().relayPrivate(client.getUsername(), concatenate(request), new Callback<ByteBuffer>() {
+			@Override
+			public void handleResult(ByteBuffer response) {
+				try {
+					callback.handleResult(toResponse(handshake, response));
+				} catch (AvroRemoteException e) {
+					callback.handleError(e);
+				}
+			}
+
+			@Override
+			public void handleError(Throwable error) {
+				callback.handleError(error);
+			}
+		});
+	}
+
+	/***
+	 * Relays a call and keeps its response for readBuffers.
+	 */
+	@Override
+	public synchronized void writeBuffers(List<ByteBuffer> request) throws IOException {
+		ByteBuffer handshake = answerHandshake(request);
+		ByteBuffer response = client.getServerProxy().relayPrivate(client.getUsername(), concatenate(request));
+		this.response = toResponse(handshake, response);
+	}
+
+	/***
+	 * @return List The response of the call relayed last.
+	 */
+	@Override
+	public synchronized List<ByteBuffer> readBuffers() throws IOException {
+		List<ByteBuffer> response = this.response;
+		if (response == null) {
+			throw new IOException("No relayed call is waiting for its response.");
+		}
+		this.response = null;
+		return response;
+	}
+
+	/***
+	 * Reads the handshake off the first call, the partner's connection with
+	 * the server did its own long ago.
+	 *
+	 * @return ByteBuffer The answer to the handshake, null if the call has
+	 *         none.
+	 */
+	private ByteBuffer answerHandshake(List<ByteBuffer> request) throws IOException {
+		if (isConnected()) {
+			return null;
+		}
+		// a direct decoder doesn't read ahead, so the buffers are left at the
+		// start of the call
+		HANDSHAKE_READER.read(null, DecoderFactory.get().directBinaryDecoder(new ByteBufferInputStream(request), null));
+		return HANDSHAKE_RESPONSE.duplicate();
+	}
+
+	private static ByteBuffer concatenate(List<ByteBuffer> request) {
+		int size = 0;
+		for (ByteBuffer buffer : request) {
+			size += buffer.remaining();
+		}
+		ByteBuffer call = ByteBuffer.allocate(size);
+		for (ByteBuffer buffer : request) {
+			call.put(buffer);
+		}
+		call.flip();
+		return call;
+	}
+
+	private List<ByteBuffer> toResponse(ByteBuffer handshake, ByteBuffer response) throws AvroRemoteException {
+		if (!response.hasRemaining()) {
+			throw new AvroRemoteException("The server couldn't reach " + partner + ".");
+		}
+		if (handshake == null) {
+			return Collections.singletonList(response);
+		}
+		return Arrays.asList(handshake, response);
+	}
+
+	private static ByteBuffer encode(HandshakeResponse response) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+			new SpecificDatumWriter<HandshakeResponse>(HandshakeResponse.class).write(response, encoder);
+			encoder.flush();
+			return ByteBuffer.wrap(out.toByteArray());
+		} catch (IOException e) {
+			throw new AvroRuntimeException(e);
+		}
+	}
+}
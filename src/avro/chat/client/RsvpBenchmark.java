@@ -0,0 +1,202 @@
+package avro.chat.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * Benchmark of the RSVP control connection against a local stand-in for the
+ * click script's ControlSocket, so no click installation is needed.
+ *
+ * Compares the old way, a new connection per message followed by a fixed
+ * second of waiting, with the pooled connection which pipelines its commands
+ * and polls until the path is confirmed.
+ */
+public class RsvpBenchmark {
+	private static final String GENERATOR = "host1/rsvp_generator";
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+	/***
+	 * Main method for the benchmark.
+	 *
+	 * @param args
+	 *            Optional arguments: [reservations] [path delay in ms].
+	 *            Defaults to 100 5.
+	 */
+	public static void main(String[] args) throws IOException {
+		int reservations = 100;
+		int delay = 5;
+		try {
+			if (args.length > 0) {
+				reservations = Integer.parseInt(args[0]);
+			}
+			if (args.length > 1) {
+				delay = Integer.parseInt(args[1]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("ERROR: Usage: RsvpBenchmark [reservations] [path delay in ms]");
+			System.exit(1);
+		}
+
+		ClickStub stub = new ClickStub(delay);
+		int port = stub.start();
+		System.out.println("RSVP benchmark: click stub on port " + port + ", paths appear after " + delay + " ms");
+
+		// the old way: connect, write, read a line, sleep
+		long start = System.nanoTime();
+		Socket socket = new Socket("127.0.0.1", port);
+		PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		out.println("write " + GENERATOR + ".send_path " + session(0));
+		in.readLine();
+		socket.close();
+		try {
+			Thread.sleep(1000);
+		} catch (InterruptedException e) {
+		}
+		System.out.println(String.format("  connect and sleep:    %.1f ms until video starts",
+				(System.nanoTime() - start) / 1e6));
+
+		RsvpControl control = new RsvpControl("127.0.0.1", port);
+		ArrayList<Long> latencies = new ArrayList<Long>();
+		int confirmed = 0;
+		for (int i = 1; i <= reservations; i++) {
+			long begin = System.nanoTime();
+			if (control.reservePath(GENERATOR, session(i), 1000)) {
+				confirmed++;
+			}
+			latencies.add(System.nanoTime() - begin);
+		}
+		Collections.sort(latencies);
+		System.out.println(String.format("  pooled and confirmed: %.1f ms median, %.1f ms max, %d of %d confirmed",
+				latencies.get(latencies.size() / 2) / 1e6, latencies.get(latencies.size() - 1) / 1e6, confirmed,
+				reservations));
+
+		start = System.nanoTime();
+		for (int i = 0; i <= reservations; i++) {
+			control.tearPath(GENERATOR, session(i));
+		}
+		try {
+			control.read(GENERATOR + ".path_state").await(5000);
+		} catch (IOException e) {
+			System.err.println("ERROR: " + e.getMessage());
+		}
+		System.out.println(String.format("  pipelined teardowns:  %.3f ms per message, %d paths left",
+				(System.nanoTime() - start) / 1e6 / (reservations + 1), stub.getPaths().size()));
+
+		control.close();
+		stub.stop();
+	}
+
+	private static String session(int i) {
+		return "SRC 127.0.0.1, SRCPORT " + (11000 + i) + ", DST 127.0.0.2, DSTPORT 11000";
+	}
+
+	/***
+	 * Speaks enough of the ControlSocket protocol to stand in for the click
+	 * script: send_path adds a path after a delay, send_path_tear removes it
+	 * and path_state lists the paths.
+	 */
+	static class ClickStub implements Runnable {
+		private final int delay;
+		private final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+		private ServerSocket server;
+
+		ClickStub(int delay) {
+			this.delay = delay;
+		}
+
+		int start() throws IOException {
+			server = new ServerSocket(0);
+			Thread t = new Thread(this, "click-stub");
+			t.setDaemon(true);
+			t.start();
+			return server.getLocalPort();
+		}
+
+		void stop() throws IOException {
+			server.close();
+		}
+
+		List<String> getPaths() {
+			return paths;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final Socket socket = server.accept();
+					Thread t = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							serve(socket);
+						}
+					}, "click-stub-connection");
+					t.setDaemon(true);
+					t.start();
+				}
+			} catch (IOException e) {
+				// stopped
+			}
+		}
+
+		private void serve(Socket socket) {
+			try {
+				socket.setTcpNoDelay(true);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), LATIN1));
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), LATIN1);
+				out.write("Click::ControlSocket/1.3\r\n");
+				out.flush();
+
+				String line;
+				while ((line = in.readLine()) != null) {
+					String[] parts = line.split(" ", 3);
+					String command = parts[0].toUpperCase();
+					String handler = parts.length > 1 ? parts[1] : "";
+					final String arguments = parts.length > 2 ? parts[2] : "";
+
+					if (command.equals("WRITE") && handler.endsWith(".send_path")) {
+						new Thread(new Runnable() {
+							@Override
+							public void run() {
+								try {
+									Thread.sleep(delay);
+								} catch (InterruptedException e) {
+								}
+								paths.add(arguments);
+							}
+						}).start();
+						out.write("200 Write handler '" + handler + "' OK\r\n");
+					} else if (command.equals("WRITE") && handler.endsWith(".send_path_tear")) {
+						paths.remove(arguments);
+						out.write("200 Write handler '" + handler + "' OK\r\n");
+					} else if (command.equals("READ") && handler.endsWith(".path_state")) {
+						StringBuilder data = new StringBuilder();
+						synchronized (paths) {
+							for (String path : paths) {
+								data.append(path).append('\n');
+							}
+						}
+						out.write("200 Read handler '" + handler + "' OK\r\nDATA " + data.length() + "\r\n" + data);
+					} else {
+						out.write("511 No handler named '" + handler + "'\r\n");
+					}
+					out.flush();
+				}
+				socket.close();
+			} catch (IOException e) {
+				// the client went away
+			}
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package avro.chat.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Long-lived connection to the ControlSocket of the click script which sends
+ * the RSVP messages for our video streams.
+ *
+ * Commands are written without waiting for the answer to the previous one.
+ * The script answers in order, so a reader thread hands every answer to the
+ * oldest command still waiting. When the connection breaks, the waiting
+ * commands fail and the next command connects again.
+ *
+ * A reservation is confirmed by polling the generator's path_state handler
+ * until it lists the path, instead of waiting a fixed time. Scripts without
+ * that handler can't be asked, so there the acknowledged write counts as
+ * confirmation.
+ */
+public class RsvpControl {
+	public static final int DEFAULT_PORT = 10000;
+	public static final long POLL_INTERVAL = 10; // milliseconds
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+	// ControlSocket answer codes
+	private static final int NO_SUCH_ELEMENT = 510;
+	private static final int NO_SUCH_HANDLER = 511;
+
+	/***
+	 * The answer to a command, once it arrives.
+	 */
+	public static class Reply {
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile int code;
+		private volatile String message;
+		private volatile String data;
+		private volatile IOException error;
+
+		void complete(int code, String message, String data) {
+			this.code = code;
+			this.message = message;
+			this.data = data;
+			done.countDown();
+		}
+
+		void fail(IOException error) {
+			this.error = error;
+			done.countDown();
+		}
+
+		/***
+		 * Waits for the answer.
+		 *
+		 * @param timeout
+		 *            The maximum time to wait, in milliseconds.
+		 *
+		 * @return Reply This reply, now complete.
+		 *
+		 * @throws IOException
+		 *             When the connection broke or no answer came in time.
+		 */
+		public Reply await(long timeout) throws IOException {
+			try {
+				if (!done.await(timeout, TimeUnit.MILLISECONDS)) {
+					throw new IOException("The click script didn't answer in time.");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the click script.");
+			}
+			if (error != null) {
+				throw error;
+			}
+			return this;
+		}
+
+		/***
+		 * @return int The ControlSocket code, 2xx when the command succeeded.
+		 */
+		public int getCode() {
+			return code;
+		}
+
+		public boolean isOk() {
+			return code >= 200 && code < 300;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/***
+		 * @return String What a read handler returned, null for writes.
+		 */
+		public String getData() {
+			return data;
+		}
+	}
+
+	private final String host;
+	private final int port;
+	private Connection connection; // guarded by this
+
+	/***
+	 * @param host
+	 *            The host the click script runs on.
+	 * @param port
+	 *            The port of its ControlSocket.
+	 */
+	public RsvpControl(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+
+	/***
+	 * Calls a write handler, without waiting for the answer.
+	 *
+	 * @param handler
+	 *            The handler, as 'element.handler'.
+	 * @param arguments
+	 *            The arguments of the handler.
+	 *
+	 * @return Reply The answer, once it arrives.
+	 *
+	 * @throws IOException
+	 *             When the click script can't be reached.
+	 */
+	public Reply write(String handler, String arguments) throws IOException {
+		return send("WRITE " + handler + " " + arguments);
+	}
+
+	/***
+	 * Calls a read handler, without waiting for the answer.
+	 *
+	 * @param handler
+	 *            The handler, as 'element.handler'.
+	 *
+	 * @return Reply The answer, with the handler's data.
+	 *
+	 * @throws IOException
+	 *             When the click script can't be reached.
+	 */
+	public Reply read(String handler) throws IOException {
+		return send("READ " + handler);
+	}
+
+	/***
+	 * Sends an RSVP PATH message and waits until the generator has the path.
+	 *
+	 * @param generator
+	 *            The RSVP generator element, like 'host1/rsvp_generator'.
+	 * @param arguments
+	 *            The session of the path.
+	 * @param timeout
+	 *            The maximum time to wait, in milliseconds.
+	 *
+	 * @return boolean Whether the path was confirmed in time.
+	 */
+	public boolean reservePath(String generator, String arguments, long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		try {
+			// the first poll goes out right behind the write
+			Reply sent = write(generator + ".send_path", arguments);
+			Reply state = read(generator + ".path_state");
+			if (!sent.await(timeout).isOk()) {
+				System.err.println("client> The click script refused the RSVP PATH message: " + sent.getMessage());
+				return false;
+			}
+
+			while (true) {
+				state.await(Math.max(0, deadline - System.currentTimeMillis()));
+				if (state.getCode() == NO_SUCH_HANDLER || state.getCode() == NO_SUCH_ELEMENT) {
+					return true; // the script can't tell, the write was accepted
+				}
+				if (state.isOk() && state.getData() != null && state.getData().contains(arguments)) {
+					return true;
+				}
+				if (System.currentTimeMillis() + POLL_INTERVAL > deadline) {
+					return false;
+				}
+				Thread.sleep(POLL_INTERVAL);
+				state = read(generator + ".path_state");
+			}
+		} catch (IOException e) {
+			System.err.println("client> " + e.getMessage());
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/***
+	 * Sends an RSVP PATH TEAR message. Nothing waits for the answer, a failure
+	 * is only reported.
+	 *
+	 * @param generator
+	 *            The RSVP generator element, like 'host1/rsvp_generator'.
+	 * @param arguments
+	 *            The session of the path.
+	 */
+	public void tearPath(String generator, String arguments) {
+		try {
+			write(generator + ".send_path_tear", arguments);
+		} catch (IOException e) {
+			System.err.println("client> " + e.getMessage() + " Can't send RSVP PATH TEAR message.");
+		}
+	}
+
+	/***
+	 * Closes the connection, commands still waiting fail.
+	 */
+	public synchronized void close() {
+		if (connection != null) {
+			connection.close();
+			connection = null;
+		}
+	}
+
+	private synchronized Reply send(String command) throws IOException {
+		if (connection == null || connection.isClosed()) {
+			connection = new Connection(host, port);
+		}
+		return connection.send(command);
+	}
+
+	/***
+	 * A single ControlSocket connection and the thread reading its answers.
+	 */
+	private static class Connection implements Runnable {
+		private final Socket socket;
+		private final BufferedReader in;
+		private final Writer out;
+		private final ArrayDeque<Reply> waiting = new ArrayDeque<Reply>(); // guarded by this
+		private boolean closed = false; // guarded by this
+
+		Connection(String host, int port) throws IOException {
+			socket = new Socket();
+			try {
+				socket.connect(new InetSocketAddress(host, port), ChatClient.CONNECT_TIMEOUT);
+				socket.setTcpNoDelay(true);
+				in = new BufferedReader(new InputStreamReader(socket.getInputStream(), LATIN1));
+				out = new OutputStreamWriter(socket.getOutputStream(), LATIN1);
+
+				String banner = in.readLine();
+				if (banner == null || !banner.startsWith("Click::ControlSocket")) {
+					throw new IOException("No click script is listening on port " + port + ".");
+				}
+			} catch (IOException e) {
+				socket.close();
+				throw new IOException("Failed to connect to click script on port " + port + ".");
+			}
+
+			Thread reader = new Thread(this, "rsvp-control");
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		synchronized Reply send(String command) throws IOException {
+			if (closed) {
+				throw new IOException("The connection with the click script was closed.");
+			}
+			Reply reply = new Reply();
+			waiting.addLast(reply);
+			try {
+				out.write(command + "\r\n");
+				out.flush();
+			} catch (IOException e) {
+				close();
+				throw new IOException("Lost the connection with the click script.");
+			}
+			return reply;
+		}
+
+		synchronized boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					// continuation lines are 'CCC-text', the last one 'CCC text'
+					String line = in.readLine();
+					StringBuilder message = new StringBuilder();
+					while (line != null && line.length() > 3 && line.charAt(3) == '-') {
+						message.append(line.substring(4)).append('\n');
+						line = in.readLine();
+					}
+					if (line == null || line.length() < 3) {
+						break;
+					}
+					int code = Integer.parseInt(line.substring(0, 3));
+					message.append(line.length() > 4 ? line.substring(4) : "");
+
+					String data = null;
+					if (code / 100 == 2 && message.indexOf("Read handler") >= 0) {
+						String header = in.readLine();
+						if (header == null || !header.startsWith("DATA ")) {
+							break;
+						}
+						char[] buffer = new char[Integer.parseInt(header.substring(5).trim())];
+						int read = 0;
+						while (read < buffer.length) {
+							int n = in.read(buffer, read, buffer.length - read);
+							if (n < 0) {
+								throw new IOException("Truncated answer");
+							}
+							read += n;
+						}
+						data = new String(buffer);
+					}
+
+					Reply reply;
+					synchronized (this) {
+						reply = waiting.pollFirst();
+					}
+					if (reply != null) {
+						reply.complete(code, message.toString(), data);
+					}
+				}
+			} catch (IOException | NumberFormatException e) {
+				// the connection broke, whoever is waiting is told below
+			}
+			close();
+		}
+
+		void close() {
+			ArrayDeque<Reply> failed;
+			synchronized (this) {
+				closed = true;
+				failed = new ArrayDeque<Reply>(waiting);
+				waiting.clear();
+			}
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// already closed
+			}
+			for (Reply reply : failed) {
+				reply.fail(new IOException("Lost the connection with the click script."));
+			}
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package avro.chat.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import avro.chat.ipc.AckPlugin;
+import avro.chat.proto.RoomMessage;
+
+/***
+ * What a client needs to resume its session after losing the server: the rooms
+ * and groups it was in, the last message it received in each room and the
+ * messages typed while the server was unreachable.
+ *
+ * Shared between the client and its local server, which receives the room
+ * messages. Every message shown is also added to the local history, if the
+ * client keeps one.
+ */
+public class SessionState {
+	private static final int RECENT = 1024;
+
+	private volatile boolean inPublicRoom = false;
+	private ArrayList<String> groups = new ArrayList<String>(); // guarded by this
+	private Hashtable<String, Long> lastSequence = new Hashtable<String, Long>();
+	// guarded by this, the last RECENT sequence numbers shown per room, so a
+	// message pushed again is told apart from one which is late
+	private Hashtable<String, TreeSet<Long>> recent = new Hashtable<String, TreeSet<Long>>();
+	// guarded by this, the server numbers what it pushes to our session: all
+	// deliveries up to delivered arrived, and those ahead after a gap, with
+	// when they arrived
+	private long delivered = 0;
+	private TreeMap<Long, Long> deliveredAhead = new TreeMap<Long, Long>();
+	private ConcurrentLinkedQueue<String> outbox = new ConcurrentLinkedQueue<String>();
+	private volatile MessageStore history;
+
+	// Guarded by this, room messages pushed while catching up
+	private boolean resuming = false;
+	private ArrayList<HeldMessage> held = new ArrayList<HeldMessage>();
+
+	public boolean isInPublicRoom() {
+		return inPublicRoom;
+	}
+
+	public void setInPublicRoom(boolean inPublicRoom) {
+		this.inPublicRoom = inPublicRoom;
+	}
+
+	/***
+	 * @return List<String> The names of the private groups we are a member
+	 *         of.
+	 */
+	public synchronized List<String> getGroups() {
+		return new ArrayList<String>(groups);
+	}
+
+	public synchronized boolean isInGroup(String groupName) {
+		return groups.contains(groupName);
+	}
+
+	public synchronized void addGroup(String groupName) {
+		if (!groups.contains(groupName)) {
+			groups.add(groupName);
+		}
+	}
+
+	public synchronized void removeGroup(String groupName) {
+		groups.remove(groupName);
+	}
+
+	/***
+	 * @return MessageStore The local history, or null if none is kept.
+	 */
+	public MessageStore getHistory() {
+		return history;
+	}
+
+	public void setHistory(MessageStore history) {
+		this.history = history;
+	}
+
+	/***
+	 * Adds a message to the local history, if one is kept.
+	 *
+	 * @param roomName
+	 *            'Public', a group or the name of the private chat partner.
+	 * @param sequence
+	 *            The sequence number of the message, 0 if it has none.
+	 * @param output
+	 *            The message as it was shown.
+	 */
+	public void record(String roomName, long sequence, String output) {
+		MessageStore store = history;
+		if (store != null) {
+			store.append(roomName, sequence, System.currentTimeMillis(), output);
+		}
+	}
+
+	/***
+	 * @param roomName
+	 *            The name of the room.
+	 *
+	 * @return long The sequence number of the last message received in the
+	 *         room, 0 if none.
+	 */
+	public synchronized long getLastSequence(String roomName) {
+		Long sequence = lastSequence.get(roomName);
+		return sequence == null ? 0 : sequence;
+	}
+
+	/***
+	 * Marks the messages of a room up to a sequence number as received, for
+	 * instance because they were sent before we joined.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param sequence
+	 *            The sequence number of the last received message.
+	 */
+	public synchronized void skipTo(String roomName, long sequence) {
+		if (sequence > getLastSequence(roomName)) {
+			lastSequence.put(roomName, sequence);
+		}
+	}
+
+	/***
+	 * Forgets the last received message of a room, for instance because the
+	 * server was restarted and numbers its messages from scratch.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 */
+	public synchronized void resetSequence(String roomName) {
+		lastSequence.remove(roomName);
+		recent.remove(roomName);
+	}
+
+	/***
+	 * Notes that a pushed message arrived.
+	 *
+	 * @param delivery
+	 *            The number the server gave the push.
+	 */
+	public synchronized void received(long delivery) {
+		if (delivery > delivered) {
+			deliveredAhead.put(delivery, System.currentTimeMillis());
+			advance();
+		}
+	}
+
+	/***
+	 * Gets what to acknowledge to the server. A gap the server gave up on
+	 * isn't waited for any longer.
+	 *
+	 * @return long The delivery up to which every one arrived.
+	 */
+	public synchronized long getDelivered() {
+		if (!deliveredAhead.isEmpty()
+				&& deliveredAhead.firstEntry().getValue() < System.currentTimeMillis() - AckPlugin.GIVE_UP) {
+			delivered = deliveredAhead.firstKey() - 1;
+			advance();
+		}
+		return delivered;
+	}
+
+	/***
+	 * Starts counting deliveries from scratch, for a new session.
+	 */
+	public synchronized void resetDeliveries() {
+		delivered = 0;
+		deliveredAhead.clear();
+	}
+
+	private void advance() {
+		while (!deliveredAhead.isEmpty() && deliveredAhead.firstKey() <= delivered + 1) {
+			delivered = Math.max(delivered, deliveredAhead.pollFirstEntry().getKey());
+		}
+	}
+
+	/***
+	 * Shows a message pushed by the server, unless it was already shown. While
+	 * the client is catching up on missed messages it is held back, so
+	 * messages are shown in order.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param sequence
+	 *            The sequence number of the message in the room.
+	 * @param output
+	 *            The formatted message.
+	 */
+	public synchronized void deliver(String roomName, long sequence, String output) {
+		if (resuming) {
+			held.add(new HeldMessage(roomName, sequence, output));
+			return;
+		}
+		show(roomName, sequence, output);
+	}
+
+	private void show(String roomName, long sequence, String output) {
+		TreeSet<Long> shown = recent.get(roomName);
+		if (shown == null) {
+			shown = new TreeSet<Long>();
+			recent.put(roomName, shown);
+		}
+		long last = getLastSequence(roomName);
+		// one before the last arrived late when we saw the ones around it
+		boolean late = sequence < last && !shown.isEmpty() && sequence > shown.first() && !shown.contains(sequence);
+		if (sequence > last || late) {
+			if (sequence > last) {
+				lastSequence.put(roomName, sequence);
+			}
+			shown.add(sequence);
+			if (shown.size() > RECENT) {
+				shown.pollFirst();
+			}
+			System.out.println(output);
+			record(roomName, sequence, output);
+		}
+	}
+
+	/***
+	 * Starts holding back pushed messages until the missed ones are fetched.
+	 */
+	public synchronized void beginResume() {
+		resuming = true;
+	}
+
+	/***
+	 * Shows the missed messages of a room, skipping those already shown.
+	 *
+	 * @param roomName
+	 *            The name of the room.
+	 * @param missed
+	 *            The messages the server kept for us, oldest first.
+	 */
+	public synchronized void showMissed(String roomName, List<RoomMessage> missed) {
+		for (RoomMessage message : missed) {
+			show(roomName, message.getSequence(),
+					message.getUsername() + "> (" + roomName + "): " + message.getMessage());
+		}
+	}
+
+	/***
+	 * Shows the messages that were held back while catching up, skipping
+	 * duplicates, and shows pushed messages right away again.
+	 */
+	public synchronized void endResume() {
+		Collections.sort(held, new Comparator<HeldMessage>() {
+			@Override
+			public int compare(HeldMessage a, HeldMessage b) {
+				// only the order within a room matters
+				return Long.compare(a.sequence, b.sequence);
+			}
+		});
+		for (HeldMessage message : held) {
+			show(message.roomName, message.sequence, message.output);
+		}
+		held.clear();
+		resuming = false;
+	}
+
+	/***
+	 * Queues a public message to be sent once the server is reachable again.
+	 *
+	 * @param message
+	 *            The message.
+	 */
+	public void queueMessage(String message) {
+		outbox.add(message);
+	}
+
+	/***
+	 * @return String The oldest queued message, or null if there is none.
+	 */
+	public String peekQueuedMessage() {
+		return outbox.peek();
+	}
+
+	public void removeQueuedMessage() {
+		outbox.poll();
+	}
+
+	public int getQueuedMessageCount() {
+		return outbox.size();
+	}
+
+	private static class HeldMessage {
+		final String roomName;
+		final long sequence;
+		final String output;
+
+		HeldMessage(String roomName, long sequence, String output) {
+			this.roomName = roomName;
+			this.sequence = sequence;
+			this.output = output;
+		}
+	}
+}
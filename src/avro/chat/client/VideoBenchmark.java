@@ -0,0 +1,139 @@
+package avro.chat.client;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+
+import org.apache.avro.ipc.SaslSocketServer;
+import org.apache.avro.ipc.SaslSocketTransceiver;
+import org.apache.avro.ipc.Server;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.ipc.specific.SpecificRequestor;
+import org.apache.avro.ipc.specific.SpecificResponder;
+
+import avro.chat.proto.ChatClientServer;
+import xuggler.RecordingVideoSink;
+import xuggler.SyntheticVideoSource;
+import xuggler.VideoSession;
+import xuggler.VideoStream;
+
+/***
+ * Headless benchmark of the video path.
+ *
+ * Synthetic frames are encoded and sent over a real Avro connection to a
+ * client's incomingFrame method, which decodes them into a recording sink. No
+ * Xuggler or display is needed, so this can run on a CI machine.
+ */
+public class VideoBenchmark {
+	/***
+	 * Main method for the benchmark.
+	 *
+	 * @param args
+	 *            Optional arguments: [width] [height] [fps] [entropy] [frames]
+	 *            [send fps]. Defaults to 640 360 20 0.1 200 20.
+	 */
+	public static void main(String[] args) {
+		int width = 640;
+		int height = 360;
+		int fps = 20;
+		double entropy = 0.1;
+		int frames = 200;
+		int sendFps = VideoStream.DEFAULT_FPS;
+
+		try {
+			if (args.length > 0) {
+				width = Integer.parseInt(args[0]);
+			}
+			if (args.length > 1) {
+				height = Integer.parseInt(args[1]);
+			}
+			if (args.length > 2) {
+				fps = Integer.parseInt(args[2]);
+			}
+			if (args.length > 3) {
+				entropy = Double.parseDouble(args[3]);
+			}
+			if (args.length > 4) {
+				frames = Integer.parseInt(args[4]);
+			}
+			if (args.length > 5) {
+				sendFps = Integer.parseInt(args[5]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("ERROR: Usage: VideoBenchmark [width] [height] [fps] [entropy] [frames] [send fps]");
+			System.exit(1);
+		}
+
+		Server server = null;
+		Transceiver transceiver = null;
+		try {
+			ChatClient receiver = new ChatClient();
+			RecordingVideoSink sink = new RecordingVideoSink();
+			receiver.setVideoSink("benchmark", sink);
+
+			server = new SaslSocketServer(new SpecificResponder(ChatClientServer.class, receiver),
+					new InetSocketAddress(0));
+			server.start();
+			transceiver = new SaslSocketTransceiver(
+					new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+			ChatClientServer proxy = (ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class,
+					transceiver);
+
+			SyntheticVideoSource source = new SyntheticVideoSource(width, height, fps, entropy, frames);
+			VideoStream stream = new VideoStream("benchmark", source, sendFps);
+			VideoSession session = stream.addRecipient(proxy);
+
+			long start = System.nanoTime();
+			stream.start();
+			stream.join();
+			long elapsed = System.nanoTime() - start;
+
+			report(width, height, fps, entropy, frames, sendFps, elapsed, stream, session, sink);
+		} catch (IOException e) {
+			System.err.println("ERROR: Setting up the loopback connection for the benchmark.");
+			System.exit(1);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		} finally {
+			try {
+				if (transceiver != null) {
+					transceiver.close();
+				}
+			} catch (IOException e) {
+				// nothing left to clean up
+			}
+			if (server != null) {
+				server.close();
+			}
+		}
+	}
+
+	private static void report(int width, int height, int fps, double entropy, int frames, int sendFps,
+			long elapsed, VideoStream stream, VideoSession sender, RecordingVideoSink sink) {
+		long sent = sender.getFramesSent();
+		double seconds = elapsed / 1e9;
+
+		System.out.println("Video benchmark: " + width + "x" + height + " @ " + fps + " fps, entropy " + entropy
+				+ ", " + frames + " source frames, sent at " + sendFps + " fps");
+		System.out.println("  frames sent:      " + sent);
+		System.out.println("  frames dropped:   " + stream.getPacer().getFramesDropped() + " late, "
+				+ stream.getPacer().getFramesSkipped() + " between slots");
+		System.out.println("  frames coalesced: " + sender.getFramesDropped());
+		System.out.println("  frames received:  " + sink.getFrames());
+		System.out.println("  elapsed:          " + String.format("%.2f s", seconds));
+		System.out.println("  end-to-end fps:   " + String.format("%.2f", sink.getFrames() / seconds));
+		System.out.println("  bytes per frame:  " + (sent == 0 ? 0 : sender.getBytesSent() / sent));
+		System.out.println("  avg latency:      " + String.format("%.2f ms", sender.getAverageLatency() / 1e6));
+		System.out.println("  max latency:      " + String.format("%.2f ms", sender.getMaxLatency() / 1e6));
+
+		ArrayList<Long> arrivals = sink.getArrivals();
+		if (arrivals.size() > 1) {
+			long maxGap = 0;
+			for (int i = 1; i < arrivals.size(); i++) {
+				maxGap = Math.max(maxGap, arrivals.get(i) - arrivals.get(i - 1));
+			}
+			System.out.println("  max frame gap:    " + String.format("%.2f ms", maxGap / 1e6));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package avro.chat.ipc;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.avro.ipc.RPCContext;
+import org.apache.avro.ipc.RPCPlugin;
+import org.apache.avro.util.Utf8;
+
+/***
+ * Piggybacks acknowledgements of pushed room messages on the calls a client
+ * makes to the server anyway, in the call metadata.
+ *
+ * The server numbers the messages it pushes to a session, the deliveries. An
+ * acknowledgement is cumulative: the client received every delivery up to the
+ * number it sends. So a single number per call is enough, however fast
+ * messages come in. What isn't acknowledged in time, the server pushes again,
+ * until it gives up after GIVE_UP. The client then stops waiting for it too.
+ */
+public class AckPlugin extends RPCPlugin {
+	public static final String KEY = "ack";
+	public static final long GIVE_UP = 30000; // milliseconds
+
+	/***
+	 * Where the client's plugin gets the acknowledgement from.
+	 */
+	public interface Source {
+		/***
+		 * @return int The ID of the client's session, -1 when it has none.
+		 */
+		int getSessionId();
+
+		/***
+		 * @return long The delivery up to which every one was received.
+		 */
+		long getDelivered();
+	}
+
+	/***
+	 * Where the server's plugin hands acknowledgements to.
+	 */
+	public interface Sink {
+		/***
+		 * @param session
+		 *            The ID of the session.
+		 * @param delivery
+		 *            The delivery up to which every one was received.
+		 */
+		void acknowledge(int session, long delivery);
+	}
+
+	private final Source source;
+	private final Sink sink;
+
+	/***
+	 * Makes the plugin for a client, which sends acknowledgements.
+	 *
+	 * @param source
+	 *            The client.
+	 */
+	public AckPlugin(Source source) {
+		this.source = source;
+		this.sink = null;
+	}
+
+	/***
+	 * Makes the plugin for the server, which receives them.
+	 *
+	 * @param sink
+	 *            What keeps track of the deliveries.
+	 */
+	public AckPlugin(Sink sink) {
+		this.source = null;
+		this.sink = sink;
+	}
+
+	@Override
+	public void clientSendRequest(RPCContext context) {
+		int session = source.getSessionId();
+		if (session >= 0) {
+			ByteBuffer ack = ByteBuffer.allocate(12);
+			ack.putInt(session).putLong(source.getDelivered()).flip();
+			context.requestCallMeta().put(KEY, ack);
+		}
+	}
+
+	@Override
+	public void serverReceiveRequest(RPCContext context) {
+		// the call metadata is read back with Utf8 keys rather than Strings
+		Map<?, ByteBuffer> meta = context.requestCallMeta();
+		ByteBuffer ack = meta.get(new Utf8(KEY));
+		if (ack != null && ack.remaining() == 12) {
+			ack = ack.duplicate();
+			sink.acknowledge(ack.getInt(), ack.getLong());
+		}
+	}
+}
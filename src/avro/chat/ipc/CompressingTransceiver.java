@@ -0,0 +1,187 @@
+package avro.chat.ipc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Protocol;
+import org.apache.avro.ipc.Transceiver;
+
+/***
+ * Wraps a connection and compresses what goes over it, once both ends agreed
+ * to. Until then everything passes as it is.
+ *
+ * Once compression is on, every payload starts with a byte telling whether the
+ * rest is compressed, so each payload can be compressed or not on its own.
+ * Both ends turn compression on between a call and its response: the client
+ * after it read the response which accepted, the server after it wrote it.
+ */
+public class CompressingTransceiver extends Transceiver {
+	private static final byte PLAIN = 0;
+	private static final byte COMPRESSED = 1;
+
+	private final Transceiver transceiver;
+	private volatile PayloadCodec codec; // writes, guarded by this
+	private volatile PayloadCodec pending;
+	private final PayloadCodec readCodec = new PayloadCodec(); // guarded by itself
+	private final AtomicLong payloadBytes = new AtomicLong();
+	private final AtomicLong wireBytes = new AtomicLong();
+
+	/***
+	 * @param transceiver
+	 *            The connection.
+	 */
+	public CompressingTransceiver(Transceiver transceiver) {
+		this.transceiver = transceiver;
+	}
+
+	/***
+	 * Turns compression on for everything written and read from now on.
+	 *
+	 * @param codec
+	 *            The negotiated codec.
+	 */
+	public void enable(PayloadCodec codec) {
+		this.codec = codec;
+	}
+
+	/***
+	 * Turns compression on after the next write, for the side which answers.
+	 *
+	 * @param codec
+	 *            The negotiated codec.
+	 */
+	public void enableAfterWrite(PayloadCodec codec) {
+		pending = codec;
+	}
+
+	/***
+	 * @return boolean Whether compression is on.
+	 */
+	public boolean isCompressing() {
+		return codec != null;
+	}
+
+	/***
+	 * @return long The bytes written before compression.
+	 */
+	public long getPayloadBytes() {
+		return payloadBytes.get();
+	}
+
+	/***
+	 * @return long The bytes written after compression.
+	 */
+	public long getWireBytes() {
+		return wireBytes.get();
+	}
+
+	@Override
+	public String getRemoteName() throws IOException {
+		return transceiver.getRemoteName();
+	}
+
+	@Override
+	public synchronized List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
+		// the underlying transceive finishes the SASL handshake on the first
+		// call, so it is not split into a write and a read here
+		return decode(transceiver.transceive(encode(request)));
+	}
+
+	@Override
+	public synchronized void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+		transceiver.writeBuffers(encode(buffers));
+		if (pending != null) {
+			codec = pending;
+			pending = null;
+		}
+	}
+
+	@Override
+	public List<ByteBuffer> readBuffers() throws IOException {
+		return decode(transceiver.readBuffers());
+	}
+
+	private List<ByteBuffer> encode(List<ByteBuffer> buffers) {
+		List<ByteBuffer> written = buffers;
+		PayloadCodec current = codec;
+		if (current != null) {
+			ByteBuffer compressed = current.compress(buffers);
+			written = new ArrayList<ByteBuffer>(buffers.size() + 1);
+			if (compressed != null) {
+				written.add(ByteBuffer.wrap(new byte[] { COMPRESSED }));
+				written.add(compressed);
+			} else {
+				written.add(ByteBuffer.wrap(new byte[] { PLAIN }));
+				written.addAll(buffers);
+			}
+		}
+		count(payloadBytes, buffers);
+		count(wireBytes, written);
+		return written;
+	}
+
+	private List<ByteBuffer> decode(List<ByteBuffer> buffers) throws IOException {
+		if (codec == null) {
+			return buffers;
+		}
+
+		buffers = new ArrayList<ByteBuffer>(buffers);
+		while (!buffers.isEmpty() && !buffers.get(0).hasRemaining()) {
+			buffers.remove(0);
+		}
+		if (buffers.isEmpty()) {
+			throw new IOException("Payload without compression flag.");
+		}
+		ByteBuffer first = buffers.get(0).duplicate();
+		byte flag = first.get();
+		buffers.set(0, first);
+		if (flag == PLAIN) {
+			return buffers;
+		}
+
+		ByteBuffer compressed = ByteBuffer.allocate(remaining(buffers));
+		for (ByteBuffer buffer : buffers) {
+			compressed.put(buffer.duplicate());
+		}
+		compressed.flip();
+		synchronized (readCodec) {
+			return Collections.singletonList(readCodec.decompress(compressed));
+		}
+	}
+
+	private static int remaining(List<ByteBuffer> buffers) {
+		int size = 0;
+		for (ByteBuffer buffer : buffers) {
+			size += buffer.remaining();
+		}
+		return size;
+	}
+
+	private static void count(AtomicLong counter, List<ByteBuffer> buffers) {
+		counter.addAndGet(remaining(buffers));
+	}
+
+	@Override
+	public boolean isConnected() {
+		return transceiver.isConnected();
+	}
+
+	@Override
+	public void setRemote(Protocol protocol) {
+		transceiver.setRemote(protocol);
+	}
+
+	@Override
+	public Protocol getRemote() {
+		return transceiver.getRemote();
+	}
+
+	@Override
+	public void close() throws IOException {
+		transceiver.close();
+	}
+}
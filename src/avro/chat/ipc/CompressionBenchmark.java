@@ -0,0 +1,137 @@
+package avro.chat.ipc;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import avro.chat.proto.RoomMessage;
+
+/***
+ * Benchmark of payload compression on typical room traffic: single messages,
+ * history and search responses, the client list and video frames, encoded as
+ * Avro sends them.
+ *
+ * Shows per payload how many bytes go over the wire and how much time
+ * compressing and decompressing costs, to weigh bandwidth against CPU.
+ */
+public class CompressionBenchmark {
+	private static final String[] WORDS = { "the", "a", "is", "to", "and", "you", "I", "it", "in", "that", "of",
+			"for", "on", "are", "with", "have", "be", "this", "what", "just", "so", "we", "meeting", "tomorrow",
+			"video", "lol", "thanks", "server", "room", "anyone", "know", "how", "join", "later", "ok", "yes", "no",
+			"maybe", "lunch", "today", "deadline", "project", "code", "review", "works", "broken", "again" };
+	private static final int RUNS = 200;
+
+	private static final Random random = new Random(42);
+
+	/***
+	 * Main method for the benchmark.
+	 *
+	 * @param args
+	 *            Optional argument: [threshold in bytes]. Defaults to
+	 *            chat.compression.threshold, 512.
+	 */
+	public static void main(String[] args) throws IOException {
+		int threshold = PayloadCodec.THRESHOLD;
+		try {
+			if (args.length > 0) {
+				threshold = Integer.parseInt(args[0]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("ERROR: Usage: CompressionBenchmark [threshold in bytes]");
+			System.exit(1);
+		}
+		PayloadCodec codec = new PayloadCodec(threshold);
+
+		System.out.println("Compression benchmark: deflate at its fastest level, threshold " + threshold + " bytes");
+		System.out.println(String.format("  %-22s %9s %9s %7s %12s %12s", "payload", "bytes", "on wire", "ratio",
+				"compress", "decompress"));
+		time(codec, "single message", messages(1));
+		time(codec, "10 messages (resume)", messages(10));
+		time(codec, "history of 100", messages(100));
+		time(codec, "history of 1000", messages(1000));
+		time(codec, "client list of 1000", clientList(1000));
+		time(codec, "video frame (JPEG)", frame(640, 360));
+	}
+
+	private static void time(PayloadCodec codec, String name, ByteBuffer payload) throws IOException {
+		List<ByteBuffer> buffers = Collections.singletonList(payload);
+		ByteBuffer compressed = codec.compress(buffers);
+		long compressing = 0;
+		long decompressing = 0;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			codec.compress(buffers);
+			compressing += System.nanoTime() - start;
+			if (compressed != null) {
+				start = System.nanoTime();
+				codec.decompress(compressed.duplicate());
+				decompressing += System.nanoTime() - start;
+			}
+		}
+
+		int size = payload.remaining();
+		// the flag byte in front of every payload
+		int wire = 1 + (compressed == null ? size : compressed.remaining());
+		System.out.println(String.format("  %-22s %9d %9d %6.2fx %9.1f us %9.1f us%s", name + ":", size, wire,
+				size / (double) wire, compressing / 1e3 / RUNS, decompressing / 1e3 / RUNS,
+				compressed == null ? "  (sent as is)" : ""));
+	}
+
+	private static ByteBuffer messages(int count) throws IOException {
+		ArrayList<RoomMessage> messages = new ArrayList<RoomMessage>();
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			StringBuilder text = new StringBuilder();
+			int words = 3 + random.nextInt(12);
+			for (int w = 0; w < words; w++) {
+				text.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			String username = "user" + random.nextInt(50);
+			messages.add(new RoomMessage((long) i + 1, username, username + "> (Public): " + text, now + i * 1000));
+		}
+		return encode(Schema.createArray(RoomMessage.getClassSchema()), messages);
+	}
+
+	private static ByteBuffer clientList(int count) throws IOException {
+		ArrayList<String> names = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			names.add("user" + random.nextInt(100000));
+		}
+		return encode(Schema.createArray(Schema.create(Schema.Type.STRING)), names);
+	}
+
+	private static ByteBuffer frame(int width, int height) throws IOException {
+		// a gradient with noise, roughly as hard to compress as a camera image
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int noise = random.nextInt(32);
+				image.setRGB(x, y, ((x * 255 / width + noise) & 0xff) << 16 | ((y * 255 / height + noise) & 0xff) << 8
+						| (noise * 4));
+			}
+		}
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", jpeg);
+		return encode(Schema.create(Schema.Type.BYTES), ByteBuffer.wrap(jpeg.toByteArray()));
+	}
+
+	private static <T> ByteBuffer encode(Schema schema, T datum) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+		new SpecificDatumWriter<T>(schema).write(datum, encoder);
+		encoder.flush();
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+}
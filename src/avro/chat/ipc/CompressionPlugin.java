@@ -0,0 +1,87 @@
+package avro.chat.ipc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import org.apache.avro.ipc.RPCContext;
+import org.apache.avro.ipc.RPCPlugin;
+
+/***
+ * Negotiates compression in the Avro handshake of a connection.
+ *
+ * The client offers a codec in the handshake metadata. A server which knows it
+ * answers with the same codec, and from the next call on both ends of that
+ * connection compress. A server without this plugin ignores the offer, so the
+ * connection stays uncompressed, as does one with a client which doesn't
+ * offer anything. Compression is opt-in on the client, with
+ * -Dchat.compression=deflate.
+ */
+public class CompressionPlugin extends RPCPlugin {
+	public static final String KEY = "compression";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	// the connection the current thread serves, set by the socket server
+	private static final ThreadLocal<CompressingTransceiver> SERVING = new ThreadLocal<CompressingTransceiver>();
+
+	private final CompressingTransceiver transceiver;
+
+	/***
+	 * Makes the plugin for the server, which answers offers.
+	 */
+	public CompressionPlugin() {
+		this(null);
+	}
+
+	/***
+	 * Makes the plugin for a client connection, which offers the codec.
+	 *
+	 * @param transceiver
+	 *            The connection to the server.
+	 */
+	public CompressionPlugin(CompressingTransceiver transceiver) {
+		this.transceiver = transceiver;
+	}
+
+	/***
+	 * @return boolean Whether the client asked for compression.
+	 */
+	public static boolean isRequested() {
+		return PayloadCodec.DEFLATE.equals(System.getProperty("chat.compression"));
+	}
+
+	/***
+	 * Tells the server's plugin which connection the current thread answers.
+	 *
+	 * @param connection
+	 *            The connection.
+	 */
+	public static void serving(CompressingTransceiver connection) {
+		SERVING.set(connection);
+	}
+
+	@Override
+	public void clientStartConnect(RPCContext context) {
+		context.requestHandshakeMeta().put(KEY, UTF8.encode(PayloadCodec.DEFLATE));
+	}
+
+	@Override
+	public void clientFinishConnect(RPCContext context) {
+		if (accepted(context.responseHandshakeMeta())) {
+			transceiver.enable(new PayloadCodec());
+		}
+	}
+
+	@Override
+	public void serverConnecting(RPCContext context) {
+		CompressingTransceiver connection = SERVING.get();
+		if (connection != null && accepted(context.requestHandshakeMeta())) {
+			context.responseHandshakeMeta().put(KEY, UTF8.encode(PayloadCodec.DEFLATE));
+			connection.enableAfterWrite(new PayloadCodec());
+		}
+	}
+
+	private static boolean accepted(Map<String, ByteBuffer> meta) {
+		ByteBuffer codec = meta == null ? null : meta.get(KEY);
+		return codec != null && PayloadCodec.DEFLATE.equals(UTF8.decode(codec.duplicate()).toString());
+	}
+}
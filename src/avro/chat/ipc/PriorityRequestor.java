@@ -0,0 +1,71 @@
+package avro.chat.ipc;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.avro.ipc.Callback;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.ipc.specific.SpecificRequestor;
+
+/***
+ * Makes the calls of a proxy in the order of their traffic class. The class
+ * of a call follows from the name of the message.
+ */
+public class PriorityRequestor extends SpecificRequestor {
+	private final PriorityScheduler scheduler = new PriorityScheduler();
+	private final Map<String, TrafficClass> classes;
+	private final TrafficClass defaultClass;
+
+	/***
+	 * @param iface
+	 *            The interface of the proxy.
+	 * @param transceiver
+	 *            The connection.
+	 * @param classes
+	 *            The traffic class of messages.
+	 * @param defaultClass
+	 *            The traffic class of the other messages.
+	 *
+	 * @throws IOException
+	 */
+	public PriorityRequestor(Class<?> iface, Transceiver transceiver, Map<String, TrafficClass> classes,
+			TrafficClass defaultClass) throws IOException {
+		super(iface, transceiver);
+		this.classes = classes;
+		this.defaultClass = defaultClass;
+	}
+
+	/***
+	 * @return PriorityScheduler The scheduler of the connection.
+	 */
+	public PriorityScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public Object request(String messageName, Object request) throws Exception {
+		scheduler.acquire(classify(messageName));
+		try {
+			return super.request(messageName, request);
+		} finally {
+			scheduler.release();
+		}
+	}
+
+	@Override
+	public <T> void request(String messageName, Object request, Callback<T> callback) throws Exception {
+		// the connections this is used with answer before this returns, so
+		// the connection is held until then
+		scheduler.acquire(classify(messageName));
+		try {
+			super.request(messageName, request, callback);
+		} finally {
+			scheduler.release();
+		}
+	}
+
+	private TrafficClass classify(String messageName) {
+		TrafficClass trafficClass = classes.get(messageName);
+		return trafficClass == null ? defaultClass : trafficClass;
+	}
+}
@@ -0,0 +1,78 @@
+package avro.chat.ipc;
+
+import java.io.InterruptedIOException;
+
+/***
+ * Decides which call goes next over a connection, the most urgent first.
+ *
+ * An Avro connection carries one call at a time. When calls wait for it, the
+ * next one to go is of the most urgent traffic class which is waiting. So a
+ * heartbeat waits for at most the one call in flight, not for every frame
+ * queued before it.
+ */
+public class PriorityScheduler {
+	private static final TrafficClass[] CLASSES = TrafficClass.values();
+
+	// the following are guarded by this
+	private final int[] waiting = new int[CLASSES.length];
+	private final long[] calls = new long[CLASSES.length];
+	private final long[] waited = new long[CLASSES.length]; // nanoseconds
+	private boolean busy = false;
+
+	/***
+	 * Waits until a call of the class may use the connection.
+	 *
+	 * @param trafficClass
+	 *            The class of the call.
+	 *
+	 * @throws InterruptedIOException
+	 *             When the thread is interrupted while waiting.
+	 */
+	public synchronized void acquire(TrafficClass trafficClass) throws InterruptedIOException {
+		int i = trafficClass.ordinal();
+		long start = System.nanoTime();
+		waiting[i]++;
+		try {
+			while (busy || moreUrgentWaiting(i)) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			notifyAll();
+			throw new InterruptedIOException("Interrupted while waiting for the connection.");
+		} finally {
+			waiting[i]--;
+		}
+		busy = true;
+		calls[i]++;
+		waited[i] += System.nanoTime() - start;
+	}
+
+	/***
+	 * Lets the next call use the connection.
+	 */
+	public synchronized void release() {
+		busy = false;
+		notifyAll();
+	}
+
+	/***
+	 * @param trafficClass
+	 *            A traffic class.
+	 *
+	 * @return long The average time a call of the class waited for the
+	 *         connection, in nanoseconds.
+	 */
+	public synchronized long getAverageWait(TrafficClass trafficClass) {
+		int i = trafficClass.ordinal();
+		return calls[i] == 0 ? 0 : waited[i] / calls[i];
+	}
+
+	private boolean moreUrgentWaiting(int i) {
+		for (int j = 0; j < i; j++) {
+			if (waiting[j] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,143 @@
+package avro.chat.ipc;
+
+/***
+ * A timed step of a traced message, like a call, its handling on the other
+ * side or printing the message. The spans of a message share its trace ID and
+ * point to the span they are part of, so together they show where the time
+ * went.
+ *
+ * A span is used by one thread at a time.
+ */
+public class Span {
+	public static final String CLIENT = "CLIENT";
+	public static final String SERVER = "SERVER";
+
+	private final long traceId;
+	private final long id;
+	private final long parentId;
+	private final String name;
+	private final String kind;
+	private final long start; // microseconds since the epoch
+	private StringBuilder tags = null;
+
+	/***
+	 * @param traceId
+	 *            The ID of the trace.
+	 * @param id
+	 *            The ID of the span.
+	 * @param parentId
+	 *            The ID of the span this one is part of, 0 for none.
+	 * @param name
+	 *            What the span does, like the name of the call.
+	 * @param kind
+	 *            CLIENT or SERVER for the sides of a call, null for a local
+	 *            step.
+	 * @param start
+	 *            When the span started, see Tracer.now.
+	 */
+	public Span(long traceId, long id, long parentId, String name, String kind, long start) {
+		this.traceId = traceId;
+		this.id = id;
+		this.parentId = parentId;
+		this.name = name;
+		this.kind = kind;
+		this.start = start;
+	}
+
+	/***
+	 * Starts a local step as part of this span.
+	 *
+	 * @param name
+	 *            What the step does.
+	 *
+	 * @return Span The new span.
+	 */
+	public Span child(String name) {
+		return new Span(traceId, Tracer.newId(), id, name, null, Tracer.now());
+	}
+
+	public long getTraceId() {
+		return traceId;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	/***
+	 * Adds a value to the span, like a time measured on the other side.
+	 *
+	 * @param key
+	 *            The name of the value.
+	 * @param value
+	 *            The value.
+	 */
+	public void tag(String key, Object value) {
+		if (tags == null) {
+			tags = new StringBuilder();
+		} else {
+			tags.append(',');
+		}
+		tags.append('"').append(escape(key)).append("\":\"").append(escape(String.valueOf(value))).append('"');
+	}
+
+	/***
+	 * Ends the span now and exports it.
+	 */
+	public void finish() {
+		Tracer.export(this, Tracer.now() - start);
+	}
+
+	/***
+	 * Formats the span as Zipkin's JSON (v2).
+	 *
+	 * @param service
+	 *            The name of the process which made the span.
+	 * @param duration
+	 *            How long the span took, in microseconds.
+	 *
+	 * @return String The span on a single line.
+	 */
+	String toJson(String service, long duration) {
+		StringBuilder json = new StringBuilder(256);
+		json.append("{\"traceId\":\"").append(hex(traceId)).append("\",\"id\":\"").append(hex(id)).append('"');
+		if (parentId != 0) {
+			json.append(",\"parentId\":\"").append(hex(parentId)).append('"');
+		}
+		json.append(",\"name\":\"").append(escape(name)).append('"');
+		if (kind != null) {
+			json.append(",\"kind\":\"").append(kind).append('"');
+		}
+		json.append(",\"timestamp\":").append(start).append(",\"duration\":").append(Math.max(1, duration));
+		json.append(",\"localEndpoint\":{\"serviceName\":\"").append(escape(service)).append("\"}");
+		if (tags != null) {
+			json.append(",\"tags\":{").append(tags).append('}');
+		}
+		return json.append('}').toString();
+	}
+
+	private static String hex(long id) {
+		String digits = Long.toHexString(id);
+		return "0000000000000000".substring(digits.length()) + digits;
+	}
+
+	private static String escape(String text) {
+		StringBuilder escaped = null;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\' || c < 0x20) {
+				if (escaped == null) {
+					escaped = new StringBuilder(text.substring(0, i));
+				}
+				escaped.append(String.format("\\u%04x", (int) c));
+			} else if (escaped != null) {
+				escaped.append(c);
+			}
+		}
+		return escaped == null ? text : escaped.toString();
+	}
+}
@@ -0,0 +1,133 @@
+package avro.chat.ipc;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.avro.ipc.RPCContext;
+import org.apache.avro.ipc.RPCPlugin;
+import org.apache.avro.util.Utf8;
+
+/***
+ * Carries traces along with calls, see Tracer.
+ *
+ * A call made for a traced span, or a call starting a new trace, carries the
+ * trace ID, the ID of its CLIENT span, the span it is part of and when it was
+ * sent in its metadata. The other side handles it in a SERVER span, which is
+ * current while the call is answered, and tags it with how long the call took
+ * to arrive. The response tells how long the other side took, so the CLIENT
+ * span shows that too, even when the other side writes its spans somewhere
+ * else.
+ *
+ * The CLIENT span is made again from the request's metadata when the response
+ * arrives, so asynchronous calls are traced without keeping anything per call.
+ */
+public class TracePlugin extends RPCPlugin {
+	public static final String KEY = "trace";
+	public static final String SERVER_KEY = "trace-server";
+
+	// the SERVER span of the call the thread answers
+	private static final ThreadLocal<Span> serving = new ThreadLocal<Span>();
+
+	private final Set<String> roots;
+
+	/***
+	 * @param roots
+	 *            The calls which start a trace when they are sampled, the
+	 *            others are only traced as part of one.
+	 */
+	public TracePlugin(String... roots) {
+		this.roots = new HashSet<String>(Arrays.asList(roots));
+	}
+
+	@Override
+	public void clientSendRequest(RPCContext context) {
+		Span parent = Tracer.current();
+		long traceId;
+		long parentId;
+		if (parent != null) {
+			traceId = parent.getTraceId();
+			parentId = parent.getId();
+		} else if (roots.contains(context.getMessage().getName()) && Tracer.sample()) {
+			traceId = Tracer.newId();
+			parentId = 0;
+		} else {
+			return;
+		}
+
+		ByteBuffer trace = ByteBuffer.allocate(32);
+		trace.putLong(traceId).putLong(Tracer.newId()).putLong(parentId).putLong(Tracer.now()).flip();
+		context.requestCallMeta().put(KEY, trace);
+	}
+
+	@Override
+	public void clientReceiveResponse(RPCContext context) {
+		ByteBuffer trace = context.requestCallMeta().get(KEY);
+		if (trace == null) {
+			return;
+		}
+		// the buffer was written to the request, so it is read from its start
+		Span span = new Span(trace.getLong(0), trace.getLong(8), trace.getLong(16), context.getMessage().getName(),
+				Span.CLIENT, trace.getLong(24));
+		ByteBuffer server = get(context.responseCallMeta(), SERVER_KEY);
+		if (server != null && server.remaining() == 8) {
+			span.tag("server.us", server.getLong());
+		}
+		if (context.isError()) {
+			span.tag("error", context.error());
+		}
+		span.finish();
+	}
+
+	@Override
+	public void serverReceiveRequest(RPCContext context) {
+		ByteBuffer trace = get(context.requestCallMeta(), KEY);
+		if (trace == null || trace.remaining() != 32) {
+			return;
+		}
+		long traceId = trace.getLong();
+		long clientId = trace.getLong();
+		trace.getLong(); // the client's parent
+		long sent = trace.getLong();
+
+		Span span = new Span(traceId, Tracer.newId(), clientId, context.getMessage().getName(), Span.SERVER,
+				Tracer.now());
+		// includes the difference between the clocks of both sides
+		span.tag("wire.us", span.getStart() - sent);
+		serving.set(span);
+		Tracer.activate(span);
+	}
+
+	@Override
+	public void serverSendResponse(RPCContext context) {
+		Span span = serving.get();
+		if (span == null) {
+			return;
+		}
+		serving.remove();
+		Tracer.activate(null);
+
+		long took = Tracer.now() - span.getStart();
+		ByteBuffer server = ByteBuffer.allocate(8);
+		server.putLong(took).flip();
+		context.responseCallMeta().put(SERVER_KEY, server);
+		span.finish();
+	}
+
+	/***
+	 * Looks up a metadata entry. Metadata read from the wire has Utf8 keys
+	 * rather than Strings.
+	 */
+	private static ByteBuffer get(Map<?, ByteBuffer> meta, String key) {
+		if (meta == null) {
+			return null;
+		}
+		ByteBuffer value = meta.get(key);
+		if (value == null) {
+			value = meta.get(new Utf8(key));
+		}
+		return value == null ? null : value.duplicate();
+	}
+}
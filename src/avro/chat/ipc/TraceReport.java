@@ -0,0 +1,136 @@
+package avro.chat.ipc;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/***
+ * Breaks the latency of traced messages down per hop, from the span files of
+ * the server and the clients (see Tracer).
+ *
+ * Every hop is a kind of span: the sender's call, its handling on the server,
+ * the push, the call to a recipient, its handling there and printing the
+ * message. Also how long calls took to arrive, which includes the difference
+ * between the clocks of both sides when they run on different machines. Hops
+ * are listed in the order a message passes them.
+ */
+public class TraceReport {
+	private static class Hop {
+		final String name;
+		final ArrayList<Long> durations = new ArrayList<Long>();
+		long offsets = 0; // since the start of the trace, summed
+
+		Hop(String name) {
+			this.name = name;
+		}
+	}
+
+	/***
+	 * Main method for the report.
+	 *
+	 * @param args
+	 *            The span files, like trace-server.json trace-alice.json.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("ERROR: Usage: TraceReport <span file>...");
+			System.exit(1);
+		}
+
+		ArrayList<JsonNode> spans = new ArrayList<JsonNode>();
+		ObjectMapper mapper = new ObjectMapper();
+		for (String file : args) {
+			try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (!line.isEmpty()) {
+						spans.add(mapper.readTree(line));
+					}
+				}
+			}
+		}
+
+		// when every trace started and ended
+		HashMap<String, long[]> traces = new HashMap<String, long[]>();
+		for (JsonNode span : spans) {
+			long start = span.get("timestamp").getLongValue();
+			long end = start + span.get("duration").getLongValue();
+			long[] bounds = traces.get(span.get("traceId").getTextValue());
+			if (bounds == null) {
+				traces.put(span.get("traceId").getTextValue(), new long[] { start, end });
+			} else {
+				bounds[0] = Math.min(bounds[0], start);
+				bounds[1] = Math.max(bounds[1], end);
+			}
+		}
+
+		HashMap<String, Hop> hops = new HashMap<String, Hop>();
+		for (JsonNode span : spans) {
+			long start = span.get("timestamp").getLongValue();
+			long offset = start - traces.get(span.get("traceId").getTextValue())[0];
+			String side = "server".equals(span.get("localEndpoint").get("serviceName").getTextValue()) ? "server"
+					: "client";
+			JsonNode kind = span.get("kind");
+			String name = side + " " + span.get("name").getTextValue()
+					+ (kind == null ? "" : " (" + kind.getTextValue().toLowerCase() + ")");
+			add(hops, name, span.get("duration").getLongValue(), offset);
+
+			JsonNode tags = span.get("tags");
+			if (tags != null && tags.get("wire.us") != null) {
+				long wire = Long.parseLong(tags.get("wire.us").getTextValue());
+				add(hops, "  to " + side + " " + span.get("name").getTextValue() + " (wire)", wire, offset - wire);
+			}
+		}
+
+		ArrayList<Hop> ordered = new ArrayList<Hop>(hops.values());
+		Collections.sort(ordered, new Comparator<Hop>() {
+			@Override
+			public int compare(Hop a, Hop b) {
+				return Double.compare(a.offsets / (double) a.durations.size(),
+						b.offsets / (double) b.durations.size());
+			}
+		});
+
+		System.out.println(spans.size() + " spans of " + traces.size() + " traces, in milliseconds");
+		System.out.println(String.format("  %-44s %7s %8s %8s %8s %8s", "hop", "count", "p50", "p90", "p99", "max"));
+		for (Hop hop : ordered) {
+			print(hop.name, hop.durations);
+		}
+		ArrayList<Long> totals = new ArrayList<Long>();
+		for (long[] bounds : traces.values()) {
+			totals.add(bounds[1] - bounds[0]);
+		}
+		print("end to end", totals);
+	}
+
+	private static void add(Map<String, Hop> hops, String name, long duration, long offset) {
+		Hop hop = hops.get(name);
+		if (hop == null) {
+			hop = new Hop(name);
+			hops.put(name, hop);
+		}
+		hop.durations.add(duration);
+		hop.offsets += offset;
+	}
+
+	private static void print(String name, List<Long> durations) {
+		Collections.sort(durations);
+		System.out.println(String.format("  %-44s %7d %8.2f %8.2f %8.2f %8.2f", name, durations.size(),
+				percentile(durations, 0.5), percentile(durations, 0.9), percentile(durations, 0.99),
+				durations.get(durations.size() - 1) / 1000.0));
+	}
+
+	private static double percentile(List<Long> sorted, double fraction) {
+		int index = (int) Math.ceil(fraction * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1000.0;
+	}
+}
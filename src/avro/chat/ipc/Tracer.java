@@ -0,0 +1,186 @@
+package avro.chat.ipc;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Sampled tracing of messages from the sender, through the server, to the
+ * console of the recipients.
+ *
+ * A sampled message gets a trace. TracePlugin carries it along with the calls
+ * in their metadata. Within a process, the span a thread works for is its
+ * current span, and steps done for it become its children. Finished spans are
+ * written to a file as Zipkin JSON, one per line, by a thread of their own. So
+ * tracing costs the traced calls a few microseconds, and the others a
+ * thread-local lookup.
+ *
+ * Set the system property chat.trace.sample to the fraction of messages to
+ * trace, for instance 0.01, and chat.trace.file to the file to write to. By
+ * default nothing is traced and the file is trace-[service].json.
+ */
+public class Tracer {
+	public static final double SAMPLE = Double.parseDouble(System.getProperty("chat.trace.sample", "0"));
+	private static final int QUEUE = 8192; // spans
+
+	private static final ThreadLocal<Span> current = new ThreadLocal<Span>();
+	// microseconds since the epoch, at nanosecond precision
+	private static final long EPOCH_MICROS = System.currentTimeMillis() * 1000;
+	private static final long EPOCH_NANOS = System.nanoTime();
+	private static final ArrayBlockingQueue<String> exported = new ArrayBlockingQueue<String>(QUEUE);
+	private static final AtomicLong dropped = new AtomicLong();
+	private static volatile String service = "chat";
+	private static Thread writer = null; // guarded by Tracer.class
+
+	/***
+	 * Names the process in the spans it writes, like "server" or the
+	 * nickname of a client.
+	 *
+	 * @param name
+	 *            The name of the process.
+	 */
+	public static void setService(String name) {
+		service = name;
+	}
+
+	/***
+	 * @return boolean Whether a new message should be traced.
+	 */
+	public static boolean sample() {
+		return SAMPLE > 0 && ThreadLocalRandom.current().nextDouble() < SAMPLE;
+	}
+
+	/***
+	 * @return Span The span the thread works for, null when it isn't traced.
+	 */
+	public static Span current() {
+		return current.get();
+	}
+
+	/***
+	 * Makes a span the one the thread works for.
+	 *
+	 * @param span
+	 *            The span, null when the thread isn't traced anymore.
+	 *
+	 * @return Span The span the thread worked for before.
+	 */
+	public static Span activate(Span span) {
+		Span previous = current.get();
+		if (span == null) {
+			current.remove();
+		} else {
+			current.set(span);
+		}
+		return previous;
+	}
+
+	/***
+	 * Starts a local step as part of the current span.
+	 *
+	 * @param name
+	 *            What the step does.
+	 *
+	 * @return Span The new span, null when the thread isn't traced.
+	 */
+	public static Span child(String name) {
+		Span parent = current.get();
+		return parent == null ? null : parent.child(name);
+	}
+
+	/***
+	 * Makes a task work for the current span on the thread which runs it.
+	 *
+	 * @param task
+	 *            The task.
+	 *
+	 * @return Runnable The task itself when the thread isn't traced.
+	 */
+	public static Runnable wrap(final Runnable task) {
+		final Span span = current.get();
+		if (span == null) {
+			return task;
+		}
+		return new Runnable() {
+			@Override
+			public void run() {
+				Span previous = activate(span);
+				try {
+					task.run();
+				} finally {
+					activate(previous);
+				}
+			}
+		};
+	}
+
+	/***
+	 * @return long The current time in microseconds since the epoch.
+	 */
+	public static long now() {
+		return EPOCH_MICROS + (System.nanoTime() - EPOCH_NANOS) / 1000;
+	}
+
+	/***
+	 * @return long A new random ID for a trace or span.
+	 */
+	public static long newId() {
+		long id;
+		do {
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		return id;
+	}
+
+	/***
+	 * @return long The number of spans dropped because the writer couldn't
+	 *         keep up.
+	 */
+	public static long getDropped() {
+		return dropped.get();
+	}
+
+	static void export(Span span, long duration) {
+		if (!exported.offer(span.toJson(service, duration))) {
+			dropped.incrementAndGet();
+			return;
+		}
+		startWriter();
+	}
+
+	private static synchronized void startWriter() {
+		if (writer != null) {
+			return;
+		}
+		final String file = System.getProperty("chat.trace.file",
+				"trace-" + service.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json");
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try (Writer out = new BufferedWriter(new FileWriter(file, true))) {
+					while (true) {
+						String span = exported.poll(1, TimeUnit.SECONDS);
+						if (span != null) {
+							out.write(span);
+							out.write('\n');
+						}
+						if (exported.isEmpty()) {
+							out.flush();
+						}
+					}
+				} catch (IOException e) {
+					System.err.println("ERROR: Writing spans to " + file + ": " + e.getMessage());
+				} catch (InterruptedException e) {
+					// stopped
+				}
+			}
+		}, "trace writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+}
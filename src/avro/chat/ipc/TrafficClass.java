@@ -0,0 +1,20 @@
+package avro.chat.ipc;
+
+/***
+ * The kinds of calls on a connection, most urgent first.
+ */
+public enum TrafficClass {
+	/***
+	 * Calls which keep the connection and the session going, like heartbeats,
+	 * leaving and stopping a video. They are small and must not wait long.
+	 */
+	CONTROL,
+	/***
+	 * Chat messages.
+	 */
+	TEXT,
+	/***
+	 * Video frames, large and replaced by the next one anyway.
+	 */
+	BULK
+}
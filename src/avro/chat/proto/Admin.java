@@ -0,0 +1,31 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;
+
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public interface Admin {
+  public static final org.apache.avro.Protocol PROTOCOL = org.apache.avro.Protocol.parse("{\"protocol\":\"Admin\",\"namespace\":\"avro.chat.proto\",\"types\":[{\"type\":\"record\",\"name\":\"RoomStats\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"members\",\"type\":\"int\"},{\"name\":\"messages\",\"type\":\"long\"},{\"name\":\"messagesPerSecond\",\"type\":\"double\"}]},{\"type\":\"record\",\"name\":\"SessionStats\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"session\",\"type\":\"int\"},{\"name\":\"pendingDeliveries\",\"type\":\"long\"},{\"name\":\"rttMillis\",\"type\":\"double\"}]},{\"type\":\"record\",\"name\":\"Talker\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"messages\",\"type\":\"long\"}]},{\"type\":\"record\",\"name\":\"RateLimit\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"rate\",\"type\":\"double\"},{\"name\":\"burst\",\"type\":\"int\"}]},{\"type\":\"record\",\"name\":\"ServerStats\",\"fields\":[{\"name\":\"uptime\",\"type\":\"long\"},{\"name\":\"sessions\",\"type\":\"int\"},{\"name\":\"pushesInFlight\",\"type\":\"int\"},{\"name\":\"rooms\",\"type\":{\"type\":\"array\",\"items\":\"RoomStats\"}},{\"name\":\"heartbeatSweepMillis\",\"type\":\"double\"},{\"name\":\"lastHeartbeat\",\"type\":\"long\"},{\"name\":\"allocatedBytesPerSecond\",\"type\":\"double\"},{\"name\":\"heapUsed\",\"type\":\"long\"},{\"name\":\"retransmitted\",\"type\":\"long\"},{\"name\":\"givenUp\",\"type\":\"long\"}]}],\"messages\":{\"getStats\":{\"request\":[],\"response\":\"ServerStats\"},\"getSessionStats\":{\"request\":[],\"response\":{\"type\":\"array\",\"items\":\"SessionStats\"}},\"getTopTalkers\":{\"request\":[{\"name\":\"count\",\"type\":\"int\"}],\"response\":{\"type\":\"array\",\"items\":\"Talker\"}},\"getRateLimits\":{\"request\":[],\"response\":{\"type\":\"array\",\"items\":\"RateLimit\"}},\"setRateLimit\":{\"request\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"rate\",\"type\":\"double\"},{\"name\":\"burst\",\"type\":\"int\"}],\"response\":\"boolean\"},\"getHistoryRetention\":{\"request\":[],\"response\":\"int\"},\"setHistoryRetention\":{\"request\":[{\"name\":\"messages\",\"type\":\"int\"}],\"response\":\"null\"}}}");
+  avro.chat.proto.ServerStats getStats() throws org.apache.avro.AvroRemoteException;
+  java.util.List<avro.chat.proto.SessionStats> getSessionStats() throws org.apache.avro.AvroRemoteException;
+  java.util.List<avro.chat.proto.Talker> getTopTalkers(int count) throws org.apache.avro.AvroRemoteException;
+  java.util.List<avro.chat.proto.RateLimit> getRateLimits() throws org.apache.avro.AvroRemoteException;
+  boolean setRateLimit(java.lang.String name, double rate, int burst) throws org.apache.avro.AvroRemoteException;
+  int getHistoryRetention() throws org.apache.avro.AvroRemoteException;
+  java.lang.Void setHistoryRetention(int messages) throws org.apache.avro.AvroRemoteException;
+
+  @SuppressWarnings("all")
+  public interface Callback extends Admin {
+    public static final org.apache.avro.Protocol PROTOCOL = avro.chat.proto.Admin.PROTOCOL;
+    void getStats(org.apache.avro.ipc.Callback<avro.chat.proto.ServerStats> callback) throws java.io.IOException;
+    void getSessionStats(org.apache.avro.ipc.Callback<java.util.List<avro.chat.proto.SessionStats>> callback) throws java.io.IOException;
+    void getTopTalkers(int count, org.apache.avro.ipc.Callback<java.util.List<avro.chat.proto.Talker>> callback) throws java.io.IOException;
+    void getRateLimits(org.apache.avro.ipc.Callback<java.util.List<avro.chat.proto.RateLimit>> callback) throws java.io.IOException;
+    void setRateLimit(java.lang.String name, double rate, int burst, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void getHistoryRetention(org.apache.avro.ipc.Callback<java.lang.Integer> callback) throws java.io.IOException;
+    void setHistoryRetention(int messages, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+  }
+}
\ No newline at end of file
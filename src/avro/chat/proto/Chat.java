@@ -8,24 +8,68 @@ package avro.chat.proto;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public interface Chat {
-  public static final org.apache.avro.Protocol PROTOCOL = org.apache.avro.Protocol.parse("{\"protocol\":\"Chat\",\"namespace\":\"avro.chat.proto\",\"types\":[],\"messages\":{\"isAlive\":{\"request\":[],\"response\":\"null\"},\"register\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientIP\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientPort\",\"type\":\"int\"}],\"response\":\"boolean\"},\"getClientList\":{\"request\":[],\"response\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},\"join\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"setupConnection\":{\"request\":[{\"name\":\"client1\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"client2\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"sendMessage\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"leave\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"}}}");
+  public static final org.apache.avro.Protocol PROTOCOL = org.apache.avro.Protocol.parse("{\"protocol\":\"Chat\",\"namespace\":\"avro.chat.proto\",\"types\":[{\"type\":\"record\",\"name\":\"RoomMessage\",\"fields\":[{\"name\":\"sequence\",\"type\":\"long\"},{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"timestamp\",\"type\":\"long\"}]},{\"type\":\"error\",\"name\":\"Throttled\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"retryAfter\",\"type\":\"long\"}]},{\"type\":\"error\",\"name\":\"Unavailable\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]},{\"type\":\"error\",\"name\":\"Rejected\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]},{\"type\":\"error\",\"name\":\"SessionEnded\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]}],\"messages\":{\"isAlive\":{\"request\":[],\"response\":\"null\"},\"register\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientIP\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientPort\",\"type\":\"int\"}],\"response\":\"boolean\",\"errors\":[\"Unavailable\"]},\"openSession\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientIP\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"clientPort\",\"type\":\"int\"}],\"response\":\"int\",\"errors\":[\"Unavailable\"]},\"getClientList\":{\"request\":[],\"response\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"errors\":[\"Throttled\"]},\"getClientListById\":{\"request\":[{\"name\":\"session\",\"type\":\"int\"}],\"response\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"errors\":[\"Throttled\",\"SessionEnded\"]},\"join\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\"]},\"setupConnection\":{\"request\":[{\"name\":\"client1\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"client2\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"sendMessage\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\",\"Throttled\",\"Rejected\"]},\"sendDirectMessage\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"recipient\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\",\"Throttled\",\"Rejected\"]},\"leave\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"leavePrivate\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"joinById\":{\"request\":[{\"name\":\"session\",\"type\":\"int\"},{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\",\"SessionEnded\"]},\"sendMessageById\":{\"request\":[{\"name\":\"session\",\"type\":\"int\"},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\",\"Throttled\",\"Rejected\",\"SessionEnded\"]},\"leaveById\":{\"request\":[{\"name\":\"session\",\"type\":\"int\"}],\"response\":\"boolean\"},\"getMessagesSince\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"sequence\",\"type\":\"long\"}],\"response\":{\"type\":\"array\",\"items\":\"RoomMessage\"}},\"getLastSequence\":{\"request\":[{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"long\"},\"search\":{\"request\":[{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"query\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"limit\",\"type\":\"int\"}],\"response\":{\"type\":\"array\",\"items\":\"RoomMessage\"}},\"getLinks\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"limit\",\"type\":\"int\"}],\"response\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},\"createGroup\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\"]},\"inviteToGroup\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"invitee\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"joinGroup\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\"]},\"leaveGroup\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"sendGroupMessage\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"errors\":[\"Unavailable\",\"Throttled\",\"Rejected\"]},\"getGroupMembers\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"groupName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},\"relayPrivate\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"call\",\"type\":\"bytes\"}],\"response\":\"bytes\"},\"startBroadcast\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"broadcastFrame\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"frame\",\"type\":\"bytes\"},{\"name\":\"keyFrame\",\"type\":\"boolean\"}],\"response\":\"boolean\"},\"stopBroadcast\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"setVideoRendition\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"maxWidth\",\"type\":\"int\"}],\"response\":\"null\"}}}");
   java.lang.Void isAlive() throws org.apache.avro.AvroRemoteException;
-  boolean register(java.lang.String username, java.lang.String clientIP, int clientPort) throws org.apache.avro.AvroRemoteException;
-  java.util.List<java.lang.String> getClientList() throws org.apache.avro.AvroRemoteException;
-  java.lang.String join(java.lang.String username, java.lang.String roomName) throws org.apache.avro.AvroRemoteException;
+  boolean register(java.lang.String username, java.lang.String clientIP, int clientPort) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable;
+  int openSession(java.lang.String username, java.lang.String clientIP, int clientPort) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable;
+  java.util.List<java.lang.String> getClientList() throws org.apache.avro.AvroRemoteException, avro.chat.proto.Throttled;
+  java.util.List<java.lang.String> getClientListById(int session) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Throttled, avro.chat.proto.SessionEnded;
+  java.lang.String join(java.lang.String username, java.lang.String roomName) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable;
   boolean setupConnection(java.lang.String client1, java.lang.String client2) throws org.apache.avro.AvroRemoteException;
-  java.lang.String sendMessage(java.lang.String username, java.lang.String message) throws org.apache.avro.AvroRemoteException;
+  java.lang.String sendMessage(java.lang.String username, java.lang.String message) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable, avro.chat.proto.Throttled, avro.chat.proto.Rejected;
+  java.lang.String sendDirectMessage(java.lang.String username, java.lang.String recipient, java.lang.String message) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable, avro.chat.proto.Throttled, avro.chat.proto.Rejected;
   boolean leave(java.lang.String username) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void leavePrivate(java.lang.String username) throws org.apache.avro.AvroRemoteException;
+  java.lang.String joinById(int session, java.lang.String roomName) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable, avro.chat.proto.SessionEnded;
+  java.lang.String sendMessageById(int session, java.lang.String message) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable, avro.chat.proto.Throttled, avro.chat.proto.Rejected, avro.chat.proto.SessionEnded;
+  boolean leaveById(int session) throws org.apache.avro.AvroRemoteException;
+  java.util.List<avro.chat.proto.RoomMessage> getMessagesSince(java.lang.String username, java.lang.String roomName, long sequence) throws org.apache.avro.AvroRemoteException;
+  long getLastSequence(java.lang.String roomName) throws org.apache.avro.AvroRemoteException;
+  java.util.List<avro.chat.proto.RoomMessage> search(java.lang.String roomName, java.lang.String query, int limit) throws org.apache.avro.AvroRemoteException;
+  java.util.List<java.lang.String> getLinks(java.lang.String username, java.lang.String roomName, int limit) throws org.apache.avro.AvroRemoteException;
+  java.lang.String createGroup(java.lang.String username, java.lang.String groupName) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable;
+  java.lang.String inviteToGroup(java.lang.String username, java.lang.String groupName, java.lang.String invitee) throws org.apache.avro.AvroRemoteException;
+  java.lang.String joinGroup(java.lang.String username, java.lang.String groupName) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable;
+  boolean leaveGroup(java.lang.String username, java.lang.String groupName) throws org.apache.avro.AvroRemoteException;
+  java.lang.String sendGroupMessage(java.lang.String username, java.lang.String groupName, java.lang.String message) throws org.apache.avro.AvroRemoteException, avro.chat.proto.Unavailable, avro.chat.proto.Throttled, avro.chat.proto.Rejected;
+  java.util.List<java.lang.String> getGroupMembers(java.lang.String username, java.lang.String groupName) throws org.apache.avro.AvroRemoteException;
+  java.nio.ByteBuffer relayPrivate(java.lang.String username, java.nio.ByteBuffer call) throws org.apache.avro.AvroRemoteException;
+  boolean startBroadcast(java.lang.String username) throws org.apache.avro.AvroRemoteException;
+  boolean broadcastFrame(java.lang.String username, java.nio.ByteBuffer frame, boolean keyFrame) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void stopBroadcast(java.lang.String username) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void setVideoRendition(java.lang.String username, int maxWidth) throws org.apache.avro.AvroRemoteException;
 
   @SuppressWarnings("all")
   public interface Callback extends Chat {
     public static final org.apache.avro.Protocol PROTOCOL = avro.chat.proto.Chat.PROTOCOL;
     void isAlive(org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void register(java.lang.String username, java.lang.String clientIP, int clientPort, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void openSession(java.lang.String username, java.lang.String clientIP, int clientPort, org.apache.avro.ipc.Callback<java.lang.Integer> callback) throws java.io.IOException;
     void getClientList(org.apache.avro.ipc.Callback<java.util.List<java.lang.String>> callback) throws java.io.IOException;
+    void getClientListById(int session, org.apache.avro.ipc.Callback<java.util.List<java.lang.String>> callback) throws java.io.IOException;
     void join(java.lang.String username, java.lang.String roomName, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
     void setupConnection(java.lang.String client1, java.lang.String client2, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
     void sendMessage(java.lang.String username, java.lang.String message, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void sendDirectMessage(java.lang.String username, java.lang.String recipient, java.lang.String message, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
     void leave(java.lang.String username, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void leavePrivate(java.lang.String username, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void joinById(int session, java.lang.String roomName, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void sendMessageById(int session, java.lang.String message, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void leaveById(int session, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void getMessagesSince(java.lang.String username, java.lang.String roomName, long sequence, org.apache.avro.ipc.Callback<java.util.List<avro.chat.proto.RoomMessage>> callback) throws java.io.IOException;
+    void getLastSequence(java.lang.String roomName, org.apache.avro.ipc.Callback<java.lang.Long> callback) throws java.io.IOException;
+    void search(java.lang.String roomName, java.lang.String query, int limit, org.apache.avro.ipc.Callback<java.util.List<avro.chat.proto.RoomMessage>> callback) throws java.io.IOException;
+    void getLinks(java.lang.String username, java.lang.String roomName, int limit, org.apache.avro.ipc.Callback<java.util.List<java.lang.String>> callback) throws java.io.IOException;
+    void createGroup(java.lang.String username, java.lang.String groupName, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void inviteToGroup(java.lang.String username, java.lang.String groupName, java.lang.String invitee, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void joinGroup(java.lang.String username, java.lang.String groupName, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void leaveGroup(java.lang.String username, java.lang.String groupName, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void sendGroupMessage(java.lang.String username, java.lang.String groupName, java.lang.String message, org.apache.avro.ipc.Callback<java.lang.String> callback) throws java.io.IOException;
+    void getGroupMembers(java.lang.String username, java.lang.String groupName, org.apache.avro.ipc.Callback<java.util.List<java.lang.String>> callback) throws java.io.IOException;
+    void relayPrivate(java.lang.String username, java.nio.ByteBuffer call, org.apache.avro.ipc.Callback<java.nio.ByteBuffer> callback) throws java.io.IOException;
+    void startBroadcast(java.lang.String username, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void broadcastFrame(java.lang.String username, java.nio.ByteBuffer frame, boolean keyFrame, org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void stopBroadcast(java.lang.String username, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void setVideoRendition(java.lang.String username, int maxWidth, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
   }
 }
\ No newline at end of file
@@ -8,12 +8,17 @@ package avro.chat.proto;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public interface ChatClientServer {
-  public static final org.apache.avro.Protocol PROTOCOL = org.apache.avro.Protocol.parse("{\"protocol\":\"ChatClientServer\",\"namespace\":\"avro.chat.proto\",\"types\":[],\"messages\":{\"isAlive\":{\"request\":[],\"response\":\"null\"},\"inPrivateRoom\":{\"request\":[],\"response\":\"boolean\"},\"incomingMessage\":{\"request\":[{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"incomingFrame\":{\"request\":[{\"name\":\"frame\",\"type\":\"bytes\"}],\"response\":\"null\"},\"stopVideoStream\":{\"request\":[],\"response\":\"null\"},\"sendPrivateMessage\":{\"request\":[{\"name\":\"senderName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"setupVideoRequest\":{\"request\":[{\"name\":\"privateProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"setupVideoStreaming\":{\"request\":[{\"name\":\"privateProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"isAwaitingVideo\":{\"request\":[],\"response\":\"boolean\"},\"register\":{\"request\":[{\"name\":\"privateName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"privateAddress\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"leave\":{\"request\":[{\"name\":\"closeOtherProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"sendRsvpPathTearMessage\":{\"request\":[],\"response\":\"null\"}}}");
+  public static final org.apache.avro.Protocol PROTOCOL = org.apache.avro.Protocol.parse("{\"protocol\":\"ChatClientServer\",\"namespace\":\"avro.chat.proto\",\"types\":[],\"messages\":{\"isAlive\":{\"request\":[],\"response\":\"null\"},\"inPrivateRoom\":{\"request\":[],\"response\":\"boolean\"},\"serverMoving\":{\"request\":[{\"name\":\"address\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"incomingMessage\":{\"request\":[{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"incomingRoomMessage\":{\"request\":[{\"name\":\"roomName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"sequence\",\"type\":\"long\"},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"delivery\",\"type\":\"long\"}],\"response\":\"null\"},\"incomingPrivateMessage\":{\"request\":[{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"incomingDirectMessage\":{\"request\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"incomingFrame\":{\"request\":[{\"name\":\"streamName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"frame\",\"type\":\"bytes\"}],\"response\":\"null\"},\"stopVideoStream\":{\"request\":[],\"response\":\"null\"},\"closeStream\":{\"request\":[{\"name\":\"streamName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"sendPrivateMessage\":{\"request\":[{\"name\":\"senderName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"null\"},\"setupVideoRequest\":{\"request\":[{\"name\":\"privateProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"setupVideoStreaming\":{\"request\":[{\"name\":\"privateProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"isAwaitingVideo\":{\"request\":[],\"response\":\"boolean\"},\"register\":{\"request\":[{\"name\":\"privateName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"privateAddress\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}],\"response\":\"boolean\"},\"leave\":{\"request\":[{\"name\":\"closeOtherProxy\",\"type\":\"boolean\"}],\"response\":\"null\"},\"sendRsvpPathTearMessage\":{\"request\":[],\"response\":\"null\"}}}");
   java.lang.Void isAlive() throws org.apache.avro.AvroRemoteException;
   boolean inPrivateRoom() throws org.apache.avro.AvroRemoteException;
+  java.lang.Void serverMoving(java.lang.String address) throws org.apache.avro.AvroRemoteException;
   java.lang.Void incomingMessage(java.lang.String message) throws org.apache.avro.AvroRemoteException;
-  java.lang.Void incomingFrame(java.nio.ByteBuffer frame) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void incomingRoomMessage(java.lang.String roomName, long sequence, java.lang.String message, long delivery) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void incomingPrivateMessage(java.lang.String message) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void incomingDirectMessage(java.lang.String username, java.lang.String message) throws org.apache.avro.AvroRemoteException;
+  java.lang.Void incomingFrame(java.lang.String streamName, java.nio.ByteBuffer frame) throws org.apache.avro.AvroRemoteException;
   java.lang.Void stopVideoStream() throws org.apache.avro.AvroRemoteException;
+  java.lang.Void closeStream(java.lang.String streamName) throws org.apache.avro.AvroRemoteException;
   java.lang.Void sendPrivateMessage(java.lang.String senderName) throws org.apache.avro.AvroRemoteException;
   java.lang.Void setupVideoRequest(boolean privateProxy) throws org.apache.avro.AvroRemoteException;
   java.lang.Void setupVideoStreaming(boolean privateProxy) throws org.apache.avro.AvroRemoteException;
@@ -27,9 +32,14 @@ public interface ChatClientServer {
     public static final org.apache.avro.Protocol PROTOCOL = avro.chat.proto.ChatClientServer.PROTOCOL;
     void isAlive(org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void inPrivateRoom(org.apache.avro.ipc.Callback<java.lang.Boolean> callback) throws java.io.IOException;
+    void serverMoving(java.lang.String address, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void incomingMessage(java.lang.String message, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
-    void incomingFrame(java.nio.ByteBuffer frame, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void incomingRoomMessage(java.lang.String roomName, long sequence, java.lang.String message, long delivery, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void incomingPrivateMessage(java.lang.String message, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void incomingDirectMessage(java.lang.String username, java.lang.String message, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void incomingFrame(java.lang.String streamName, java.nio.ByteBuffer frame, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void stopVideoStream(org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
+    void closeStream(java.lang.String streamName, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void sendPrivateMessage(java.lang.String senderName, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void setupVideoRequest(boolean privateProxy, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
     void setupVideoStreaming(boolean privateProxy, org.apache.avro.ipc.Callback<java.lang.Void> callback) throws java.io.IOException;
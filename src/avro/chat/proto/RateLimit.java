@@ -0,0 +1,248 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class RateLimit extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RateLimit\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"rate\",\"type\":\"double\"},{\"name\":\"burst\",\"type\":\"int\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String name;
+  @Deprecated public double rate;
+  @Deprecated public int burst;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public RateLimit() {}
+
+  /**
+   * All-args constructor.
+   */
+  public RateLimit(java.lang.String name, java.lang.Double rate, java.lang.Integer burst) {
+    this.name = name;
+    this.rate = rate;
+    this.burst = burst;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return name;
+    case 1: return rate;
+    case 2: return burst;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: name = (java.lang.String)value$; break;
+    case 1: rate = (java.lang.Double)value$; break;
+    case 2: burst = (java.lang.Integer)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'name' field.
+   */
+  public java.lang.String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the value of the 'name' field.
+   * @param value the value to set.
+   */
+  public void setName(java.lang.String value) {
+    this.name = value;
+  }
+
+  /**
+   * Gets the value of the 'rate' field.
+   */
+  public java.lang.Double getRate() {
+    return rate;
+  }
+
+  /**
+   * Sets the value of the 'rate' field.
+   * @param value the value to set.
+   */
+  public void setRate(java.lang.Double value) {
+    this.rate = value;
+  }
+
+  /**
+   * Gets the value of the 'burst' field.
+   */
+  public java.lang.Integer getBurst() {
+    return burst;
+  }
+
+  /**
+   * Sets the value of the 'burst' field.
+   * @param value the value to set.
+   */
+  public void setBurst(java.lang.Integer value) {
+    this.burst = value;
+  }
+
+  /** Creates a new RateLimit RecordBuilder */
+  public static avro.chat.proto.RateLimit.Builder newBuilder() {
+    return new avro.chat.proto.RateLimit.Builder();
+  }
+  
+  /** Creates a new RateLimit RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.RateLimit.Builder newBuilder(avro.chat.proto.RateLimit.Builder other) {
+    return new avro.chat.proto.RateLimit.Builder(other);
+  }
+  
+  /** Creates a new RateLimit RecordBuilder by copying an existing RateLimit instance */
+  public static avro.chat.proto.RateLimit.Builder newBuilder(avro.chat.proto.RateLimit other) {
+    return new avro.chat.proto.RateLimit.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for RateLimit instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<RateLimit>
+    implements org.apache.avro.data.RecordBuilder<RateLimit> {
+
+    private java.lang.String name;
+    private double rate;
+    private int burst;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.RateLimit.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.RateLimit.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.rate)) {
+        this.rate = data().deepCopy(fields()[1].schema(), other.rate);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.burst)) {
+        this.burst = data().deepCopy(fields()[2].schema(), other.burst);
+        fieldSetFlags()[2] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing RateLimit instance */
+    private Builder(avro.chat.proto.RateLimit other) {
+            super(avro.chat.proto.RateLimit.SCHEMA$);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.rate)) {
+        this.rate = data().deepCopy(fields()[1].schema(), other.rate);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.burst)) {
+        this.burst = data().deepCopy(fields()[2].schema(), other.burst);
+        fieldSetFlags()[2] = true;
+      }
+    }
+
+    /** Gets the value of the 'name' field */
+    public java.lang.String getName() {
+      return name;
+    }
+    
+    /** Sets the value of the 'name' field */
+    public avro.chat.proto.RateLimit.Builder setName(java.lang.String value) {
+      validate(fields()[0], value);
+      this.name = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'name' field has been set */
+    public boolean hasName() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'name' field */
+    public avro.chat.proto.RateLimit.Builder clearName() {
+      name = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'rate' field */
+    public java.lang.Double getRate() {
+      return rate;
+    }
+    
+    /** Sets the value of the 'rate' field */
+    public avro.chat.proto.RateLimit.Builder setRate(double value) {
+      validate(fields()[1], value);
+      this.rate = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'rate' field has been set */
+    public boolean hasRate() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'rate' field */
+    public avro.chat.proto.RateLimit.Builder clearRate() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'burst' field */
+    public java.lang.Integer getBurst() {
+      return burst;
+    }
+    
+    /** Sets the value of the 'burst' field */
+    public avro.chat.proto.RateLimit.Builder setBurst(int value) {
+      validate(fields()[2], value);
+      this.burst = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'burst' field has been set */
+    public boolean hasBurst() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'burst' field */
+    public avro.chat.proto.RateLimit.Builder clearBurst() {
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    @Override
+    public RateLimit build() {
+      try {
+        RateLimit record = new RateLimit();
+        record.name = fieldSetFlags()[0] ? this.name : (java.lang.String) defaultValue(fields()[0]);
+        record.rate = fieldSetFlags()[1] ? this.rate : (java.lang.Double) defaultValue(fields()[1]);
+        record.burst = fieldSetFlags()[2] ? this.burst : (java.lang.Integer) defaultValue(fields()[2]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class Rejected extends org.apache.avro.specific.SpecificExceptionBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"error\",\"name\":\"Rejected\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String reason;
+
+  public Rejected() {
+    super();
+  }
+  
+  public Rejected(Object value) {
+    super(value);
+  }
+
+  public Rejected(Throwable cause) {
+    super(cause);
+  }
+
+  public Rejected(Object value, Throwable cause) {
+    super(value, cause);
+  }
+  
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return reason;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: reason = (java.lang.String)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'reason' field.
+   */
+  public java.lang.String getReason() {
+    return reason;
+  }
+
+  /**
+   * Sets the value of the 'reason' field.
+   * @param value the value to set.
+   */
+  public void setReason(java.lang.String value) {
+    this.reason = value;
+  }
+
+  /** Creates a new Rejected RecordBuilder */
+  public static avro.chat.proto.Rejected.Builder newBuilder() {
+    return new avro.chat.proto.Rejected.Builder();
+  }
+  
+  /** Creates a new Rejected RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.Rejected.Builder newBuilder(avro.chat.proto.Rejected.Builder other) {
+    return new avro.chat.proto.Rejected.Builder(other);
+  }
+  
+  /** Creates a new Rejected RecordBuilder by copying an existing Rejected instance */
+  public static avro.chat.proto.Rejected.Builder newBuilder(avro.chat.proto.Rejected other) {
+    return new avro.chat.proto.Rejected.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for Rejected instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificErrorBuilderBase<Rejected>
+    implements org.apache.avro.data.ErrorBuilder<Rejected> {
+
+    private java.lang.String reason;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.Rejected.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.Rejected.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing Rejected instance */
+    private Builder(avro.chat.proto.Rejected other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+
+    @Override
+    public avro.chat.proto.Rejected.Builder setValue(Object value) {
+      super.setValue(value);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Rejected.Builder clearValue() {
+      super.clearValue();
+      return this;
+    }
+
+    @Override
+    public avro.chat.proto.Rejected.Builder setCause(Throwable cause) {
+      super.setCause(cause);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Rejected.Builder clearCause() {
+      super.clearCause();
+      return this;
+    }
+
+    /** Gets the value of the 'reason' field */
+    public java.lang.String getReason() {
+      return reason;
+    }
+    
+    /** Sets the value of the 'reason' field */
+    public avro.chat.proto.Rejected.Builder setReason(java.lang.String value) {
+      validate(fields()[0], value);
+      this.reason = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'reason' field has been set */
+    public boolean hasReason() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'reason' field */
+    public avro.chat.proto.Rejected.Builder clearReason() {
+      reason = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    @Override
+    public Rejected build() {
+      try {
+        Rejected record = new Rejected(getValue(), getCause());
+        record.reason = fieldSetFlags()[0] ? this.reason : (java.lang.String) defaultValue(fields()[0]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
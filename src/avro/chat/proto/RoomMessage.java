@@ -0,0 +1,302 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class RoomMessage extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RoomMessage\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"sequence\",\"type\":\"long\"},{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"timestamp\",\"type\":\"long\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public long sequence;
+  @Deprecated public java.lang.String username;
+  @Deprecated public java.lang.String message;
+  @Deprecated public long timestamp;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public RoomMessage() {}
+
+  /**
+   * All-args constructor.
+   */
+  public RoomMessage(java.lang.Long sequence, java.lang.String username, java.lang.String message, java.lang.Long timestamp) {
+    this.sequence = sequence;
+    this.username = username;
+    this.message = message;
+    this.timestamp = timestamp;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return sequence;
+    case 1: return username;
+    case 2: return message;
+    case 3: return timestamp;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: sequence = (java.lang.Long)value$; break;
+    case 1: username = (java.lang.String)value$; break;
+    case 2: message = (java.lang.String)value$; break;
+    case 3: timestamp = (java.lang.Long)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'sequence' field.
+   */
+  public java.lang.Long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Sets the value of the 'sequence' field.
+   * @param value the value to set.
+   */
+  public void setSequence(java.lang.Long value) {
+    this.sequence = value;
+  }
+
+  /**
+   * Gets the value of the 'username' field.
+   */
+  public java.lang.String getUsername() {
+    return username;
+  }
+
+  /**
+   * Sets the value of the 'username' field.
+   * @param value the value to set.
+   */
+  public void setUsername(java.lang.String value) {
+    this.username = value;
+  }
+
+  /**
+   * Gets the value of the 'message' field.
+   */
+  public java.lang.String getMessage() {
+    return message;
+  }
+
+  /**
+   * Sets the value of the 'message' field.
+   * @param value the value to set.
+   */
+  public void setMessage(java.lang.String value) {
+    this.message = value;
+  }
+
+  /**
+   * Gets the value of the 'timestamp' field.
+   */
+  public java.lang.Long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Sets the value of the 'timestamp' field.
+   * @param value the value to set.
+   */
+  public void setTimestamp(java.lang.Long value) {
+    this.timestamp = value;
+  }
+
+  /** Creates a new RoomMessage RecordBuilder */
+  public static avro.chat.proto.RoomMessage.Builder newBuilder() {
+    return new avro.chat.proto.RoomMessage.Builder();
+  }
+  
+  /** Creates a new RoomMessage RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.RoomMessage.Builder newBuilder(avro.chat.proto.RoomMessage.Builder other) {
+    return new avro.chat.proto.RoomMessage.Builder(other);
+  }
+  
+  /** Creates a new RoomMessage RecordBuilder by copying an existing RoomMessage instance */
+  public static avro.chat.proto.RoomMessage.Builder newBuilder(avro.chat.proto.RoomMessage other) {
+    return new avro.chat.proto.RoomMessage.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for RoomMessage instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<RoomMessage>
+    implements org.apache.avro.data.RecordBuilder<RoomMessage> {
+
+    private long sequence;
+    private java.lang.String username;
+    private java.lang.String message;
+    private long timestamp;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.RoomMessage.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.RoomMessage.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.sequence)) {
+        this.sequence = data().deepCopy(fields()[0].schema(), other.sequence);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.username)) {
+        this.username = data().deepCopy(fields()[1].schema(), other.username);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.message)) {
+        this.message = data().deepCopy(fields()[2].schema(), other.message);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.timestamp)) {
+        this.timestamp = data().deepCopy(fields()[3].schema(), other.timestamp);
+        fieldSetFlags()[3] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing RoomMessage instance */
+    private Builder(avro.chat.proto.RoomMessage other) {
+            super(avro.chat.proto.RoomMessage.SCHEMA$);
+      if (isValidValue(fields()[0], other.sequence)) {
+        this.sequence = data().deepCopy(fields()[0].schema(), other.sequence);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.username)) {
+        this.username = data().deepCopy(fields()[1].schema(), other.username);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.message)) {
+        this.message = data().deepCopy(fields()[2].schema(), other.message);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.timestamp)) {
+        this.timestamp = data().deepCopy(fields()[3].schema(), other.timestamp);
+        fieldSetFlags()[3] = true;
+      }
+    }
+
+    /** Gets the value of the 'sequence' field */
+    public java.lang.Long getSequence() {
+      return sequence;
+    }
+    
+    /** Sets the value of the 'sequence' field */
+    public avro.chat.proto.RoomMessage.Builder setSequence(long value) {
+      validate(fields()[0], value);
+      this.sequence = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'sequence' field has been set */
+    public boolean hasSequence() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'sequence' field */
+    public avro.chat.proto.RoomMessage.Builder clearSequence() {
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'username' field */
+    public java.lang.String getUsername() {
+      return username;
+    }
+    
+    /** Sets the value of the 'username' field */
+    public avro.chat.proto.RoomMessage.Builder setUsername(java.lang.String value) {
+      validate(fields()[1], value);
+      this.username = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'username' field has been set */
+    public boolean hasUsername() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'username' field */
+    public avro.chat.proto.RoomMessage.Builder clearUsername() {
+      username = null;
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'message' field */
+    public java.lang.String getMessage() {
+      return message;
+    }
+    
+    /** Sets the value of the 'message' field */
+    public avro.chat.proto.RoomMessage.Builder setMessage(java.lang.String value) {
+      validate(fields()[2], value);
+      this.message = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'message' field has been set */
+    public boolean hasMessage() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'message' field */
+    public avro.chat.proto.RoomMessage.Builder clearMessage() {
+      message = null;
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'timestamp' field */
+    public java.lang.Long getTimestamp() {
+      return timestamp;
+    }
+    
+    /** Sets the value of the 'timestamp' field */
+    public avro.chat.proto.RoomMessage.Builder setTimestamp(long value) {
+      validate(fields()[3], value);
+      this.timestamp = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'timestamp' field has been set */
+    public boolean hasTimestamp() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'timestamp' field */
+    public avro.chat.proto.RoomMessage.Builder clearTimestamp() {
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    @Override
+    public RoomMessage build() {
+      try {
+        RoomMessage record = new RoomMessage();
+        record.sequence = fieldSetFlags()[0] ? this.sequence : (java.lang.Long) defaultValue(fields()[0]);
+        record.username = fieldSetFlags()[1] ? this.username : (java.lang.String) defaultValue(fields()[1]);
+        record.message = fieldSetFlags()[2] ? this.message : (java.lang.String) defaultValue(fields()[2]);
+        record.timestamp = fieldSetFlags()[3] ? this.timestamp : (java.lang.Long) defaultValue(fields()[3]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
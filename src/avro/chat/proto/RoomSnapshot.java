@@ -0,0 +1,304 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class RoomSnapshot extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RoomSnapshot\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"members\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},{\"name\":\"invited\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},{\"name\":\"messages\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"StoredMessage\",\"fields\":[{\"name\":\"sequence\",\"type\":\"long\"},{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"timestamp\",\"type\":\"long\"}]}}}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String name;
+  @Deprecated public java.util.List<java.lang.String> members;
+  @Deprecated public java.util.List<java.lang.String> invited;
+  @Deprecated public java.util.List<avro.chat.proto.StoredMessage> messages;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public RoomSnapshot() {}
+
+  /**
+   * All-args constructor.
+   */
+  public RoomSnapshot(java.lang.String name, java.util.List<java.lang.String> members, java.util.List<java.lang.String> invited, java.util.List<avro.chat.proto.StoredMessage> messages) {
+    this.name = name;
+    this.members = members;
+    this.invited = invited;
+    this.messages = messages;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return name;
+    case 1: return members;
+    case 2: return invited;
+    case 3: return messages;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: name = (java.lang.String)value$; break;
+    case 1: members = (java.util.List<java.lang.String>)value$; break;
+    case 2: invited = (java.util.List<java.lang.String>)value$; break;
+    case 3: messages = (java.util.List<avro.chat.proto.StoredMessage>)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'name' field.
+   */
+  public java.lang.String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the value of the 'name' field.
+   * @param value the value to set.
+   */
+  public void setName(java.lang.String value) {
+    this.name = value;
+  }
+
+  /**
+   * Gets the value of the 'members' field.
+   */
+  public java.util.List<java.lang.String> getMembers() {
+    return members;
+  }
+
+  /**
+   * Sets the value of the 'members' field.
+   * @param value the value to set.
+   */
+  public void setMembers(java.util.List<java.lang.String> value) {
+    this.members = value;
+  }
+
+  /**
+   * Gets the value of the 'invited' field.
+   */
+  public java.util.List<java.lang.String> getInvited() {
+    return invited;
+  }
+
+  /**
+   * Sets the value of the 'invited' field.
+   * @param value the value to set.
+   */
+  public void setInvited(java.util.List<java.lang.String> value) {
+    this.invited = value;
+  }
+
+  /**
+   * Gets the value of the 'messages' field.
+   */
+  public java.util.List<avro.chat.proto.StoredMessage> getMessages() {
+    return messages;
+  }
+
+  /**
+   * Sets the value of the 'messages' field.
+   * @param value the value to set.
+   */
+  public void setMessages(java.util.List<avro.chat.proto.StoredMessage> value) {
+    this.messages = value;
+  }
+
+  /** Creates a new RoomSnapshot RecordBuilder */
+  public static avro.chat.proto.RoomSnapshot.Builder newBuilder() {
+    return new avro.chat.proto.RoomSnapshot.Builder();
+  }
+  
+  /** Creates a new RoomSnapshot RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.RoomSnapshot.Builder newBuilder(avro.chat.proto.RoomSnapshot.Builder other) {
+    return new avro.chat.proto.RoomSnapshot.Builder(other);
+  }
+  
+  /** Creates a new RoomSnapshot RecordBuilder by copying an existing RoomSnapshot instance */
+  public static avro.chat.proto.RoomSnapshot.Builder newBuilder(avro.chat.proto.RoomSnapshot other) {
+    return new avro.chat.proto.RoomSnapshot.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for RoomSnapshot instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<RoomSnapshot>
+    implements org.apache.avro.data.RecordBuilder<RoomSnapshot> {
+
+    private java.lang.String name;
+    private java.util.List<java.lang.String> members;
+    private java.util.List<java.lang.String> invited;
+    private java.util.List<avro.chat.proto.StoredMessage> messages;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.RoomSnapshot.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.RoomSnapshot.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.members)) {
+        this.members = data().deepCopy(fields()[1].schema(), other.members);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.invited)) {
+        this.invited = data().deepCopy(fields()[2].schema(), other.invited);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.messages)) {
+        this.messages = data().deepCopy(fields()[3].schema(), other.messages);
+        fieldSetFlags()[3] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing RoomSnapshot instance */
+    private Builder(avro.chat.proto.RoomSnapshot other) {
+            super(avro.chat.proto.RoomSnapshot.SCHEMA$);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.members)) {
+        this.members = data().deepCopy(fields()[1].schema(), other.members);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.invited)) {
+        this.invited = data().deepCopy(fields()[2].schema(), other.invited);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.messages)) {
+        this.messages = data().deepCopy(fields()[3].schema(), other.messages);
+        fieldSetFlags()[3] = true;
+      }
+    }
+
+    /** Gets the value of the 'name' field */
+    public java.lang.String getName() {
+      return name;
+    }
+    
+    /** Sets the value of the 'name' field */
+    public avro.chat.proto.RoomSnapshot.Builder setName(java.lang.String value) {
+      validate(fields()[0], value);
+      this.name = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'name' field has been set */
+    public boolean hasName() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'name' field */
+    public avro.chat.proto.RoomSnapshot.Builder clearName() {
+      name = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'members' field */
+    public java.util.List<java.lang.String> getMembers() {
+      return members;
+    }
+    
+    /** Sets the value of the 'members' field */
+    public avro.chat.proto.RoomSnapshot.Builder setMembers(java.util.List<java.lang.String> value) {
+      validate(fields()[1], value);
+      this.members = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'members' field has been set */
+    public boolean hasMembers() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'members' field */
+    public avro.chat.proto.RoomSnapshot.Builder clearMembers() {
+      members = null;
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'invited' field */
+    public java.util.List<java.lang.String> getInvited() {
+      return invited;
+    }
+    
+    /** Sets the value of the 'invited' field */
+    public avro.chat.proto.RoomSnapshot.Builder setInvited(java.util.List<java.lang.String> value) {
+      validate(fields()[2], value);
+      this.invited = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'invited' field has been set */
+    public boolean hasInvited() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'invited' field */
+    public avro.chat.proto.RoomSnapshot.Builder clearInvited() {
+      invited = null;
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'messages' field */
+    public java.util.List<avro.chat.proto.StoredMessage> getMessages() {
+      return messages;
+    }
+    
+    /** Sets the value of the 'messages' field */
+    public avro.chat.proto.RoomSnapshot.Builder setMessages(java.util.List<avro.chat.proto.StoredMessage> value) {
+      validate(fields()[3], value);
+      this.messages = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'messages' field has been set */
+    public boolean hasMessages() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'messages' field */
+    public avro.chat.proto.RoomSnapshot.Builder clearMessages() {
+      messages = null;
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    @Override
+    public RoomSnapshot build() {
+      try {
+        RoomSnapshot record = new RoomSnapshot();
+        record.name = fieldSetFlags()[0] ? this.name : (java.lang.String) defaultValue(fields()[0]);
+        record.members = fieldSetFlags()[1] ? this.members : (java.util.List<java.lang.String>) defaultValue(fields()[1]);
+        record.invited = fieldSetFlags()[2] ? this.invited : (java.util.List<java.lang.String>) defaultValue(fields()[2]);
+        record.messages = fieldSetFlags()[3] ? this.messages : (java.util.List<avro.chat.proto.StoredMessage>) defaultValue(fields()[3]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
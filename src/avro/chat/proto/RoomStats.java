@@ -0,0 +1,301 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class RoomStats extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RoomStats\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"members\",\"type\":\"int\"},{\"name\":\"messages\",\"type\":\"long\"},{\"name\":\"messagesPerSecond\",\"type\":\"double\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String name;
+  @Deprecated public int members;
+  @Deprecated public long messages;
+  @Deprecated public double messagesPerSecond;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public RoomStats() {}
+
+  /**
+   * All-args constructor.
+   */
+  public RoomStats(java.lang.String name, java.lang.Integer members, java.lang.Long messages, java.lang.Double messagesPerSecond) {
+    this.name = name;
+    this.members = members;
+    this.messages = messages;
+    this.messagesPerSecond = messagesPerSecond;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return name;
+    case 1: return members;
+    case 2: return messages;
+    case 3: return messagesPerSecond;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: name = (java.lang.String)value$; break;
+    case 1: members = (java.lang.Integer)value$; break;
+    case 2: messages = (java.lang.Long)value$; break;
+    case 3: messagesPerSecond = (java.lang.Double)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'name' field.
+   */
+  public java.lang.String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the value of the 'name' field.
+   * @param value the value to set.
+   */
+  public void setName(java.lang.String value) {
+    this.name = value;
+  }
+
+  /**
+   * Gets the value of the 'members' field.
+   */
+  public java.lang.Integer getMembers() {
+    return members;
+  }
+
+  /**
+   * Sets the value of the 'members' field.
+   * @param value the value to set.
+   */
+  public void setMembers(java.lang.Integer value) {
+    this.members = value;
+  }
+
+  /**
+   * Gets the value of the 'messages' field.
+   */
+  public java.lang.Long getMessages() {
+    return messages;
+  }
+
+  /**
+   * Sets the value of the 'messages' field.
+   * @param value the value to set.
+   */
+  public void setMessages(java.lang.Long value) {
+    this.messages = value;
+  }
+
+  /**
+   * Gets the value of the 'messagesPerSecond' field.
+   */
+  public java.lang.Double getMessagesPerSecond() {
+    return messagesPerSecond;
+  }
+
+  /**
+   * Sets the value of the 'messagesPerSecond' field.
+   * @param value the value to set.
+   */
+  public void setMessagesPerSecond(java.lang.Double value) {
+    this.messagesPerSecond = value;
+  }
+
+  /** Creates a new RoomStats RecordBuilder */
+  public static avro.chat.proto.RoomStats.Builder newBuilder() {
+    return new avro.chat.proto.RoomStats.Builder();
+  }
+  
+  /** Creates a new RoomStats RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.RoomStats.Builder newBuilder(avro.chat.proto.RoomStats.Builder other) {
+    return new avro.chat.proto.RoomStats.Builder(other);
+  }
+  
+  /** Creates a new RoomStats RecordBuilder by copying an existing RoomStats instance */
+  public static avro.chat.proto.RoomStats.Builder newBuilder(avro.chat.proto.RoomStats other) {
+    return new avro.chat.proto.RoomStats.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for RoomStats instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<RoomStats>
+    implements org.apache.avro.data.RecordBuilder<RoomStats> {
+
+    private java.lang.String name;
+    private int members;
+    private long messages;
+    private double messagesPerSecond;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.RoomStats.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.RoomStats.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.members)) {
+        this.members = data().deepCopy(fields()[1].schema(), other.members);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.messages)) {
+        this.messages = data().deepCopy(fields()[2].schema(), other.messages);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.messagesPerSecond)) {
+        this.messagesPerSecond = data().deepCopy(fields()[3].schema(), other.messagesPerSecond);
+        fieldSetFlags()[3] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing RoomStats instance */
+    private Builder(avro.chat.proto.RoomStats other) {
+            super(avro.chat.proto.RoomStats.SCHEMA$);
+      if (isValidValue(fields()[0], other.name)) {
+        this.name = data().deepCopy(fields()[0].schema(), other.name);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.members)) {
+        this.members = data().deepCopy(fields()[1].schema(), other.members);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.messages)) {
+        this.messages = data().deepCopy(fields()[2].schema(), other.messages);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.messagesPerSecond)) {
+        this.messagesPerSecond = data().deepCopy(fields()[3].schema(), other.messagesPerSecond);
+        fieldSetFlags()[3] = true;
+      }
+    }
+
+    /** Gets the value of the 'name' field */
+    public java.lang.String getName() {
+      return name;
+    }
+    
+    /** Sets the value of the 'name' field */
+    public avro.chat.proto.RoomStats.Builder setName(java.lang.String value) {
+      validate(fields()[0], value);
+      this.name = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'name' field has been set */
+    public boolean hasName() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'name' field */
+    public avro.chat.proto.RoomStats.Builder clearName() {
+      name = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'members' field */
+    public java.lang.Integer getMembers() {
+      return members;
+    }
+    
+    /** Sets the value of the 'members' field */
+    public avro.chat.proto.RoomStats.Builder setMembers(int value) {
+      validate(fields()[1], value);
+      this.members = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'members' field has been set */
+    public boolean hasMembers() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'members' field */
+    public avro.chat.proto.RoomStats.Builder clearMembers() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'messages' field */
+    public java.lang.Long getMessages() {
+      return messages;
+    }
+    
+    /** Sets the value of the 'messages' field */
+    public avro.chat.proto.RoomStats.Builder setMessages(long value) {
+      validate(fields()[2], value);
+      this.messages = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'messages' field has been set */
+    public boolean hasMessages() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'messages' field */
+    public avro.chat.proto.RoomStats.Builder clearMessages() {
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'messagesPerSecond' field */
+    public java.lang.Double getMessagesPerSecond() {
+      return messagesPerSecond;
+    }
+    
+    /** Sets the value of the 'messagesPerSecond' field */
+    public avro.chat.proto.RoomStats.Builder setMessagesPerSecond(double value) {
+      validate(fields()[3], value);
+      this.messagesPerSecond = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'messagesPerSecond' field has been set */
+    public boolean hasMessagesPerSecond() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'messagesPerSecond' field */
+    public avro.chat.proto.RoomStats.Builder clearMessagesPerSecond() {
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    @Override
+    public RoomStats build() {
+      try {
+        RoomStats record = new RoomStats();
+        record.name = fieldSetFlags()[0] ? this.name : (java.lang.String) defaultValue(fields()[0]);
+        record.members = fieldSetFlags()[1] ? this.members : (java.lang.Integer) defaultValue(fields()[1]);
+        record.messages = fieldSetFlags()[2] ? this.messages : (java.lang.Long) defaultValue(fields()[2]);
+        record.messagesPerSecond = fieldSetFlags()[3] ? this.messagesPerSecond : (java.lang.Double) defaultValue(fields()[3]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
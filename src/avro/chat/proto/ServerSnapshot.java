@@ -0,0 +1,249 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class ServerSnapshot extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"ServerSnapshot\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"createdAt\",\"type\":\"long\"},{\"name\":\"rooms\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"RoomSnapshot\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"members\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},{\"name\":\"invited\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}},{\"name\":\"messages\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"StoredMessage\",\"fields\":[{\"name\":\"sequence\",\"type\":\"long\"},{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"message\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"timestamp\",\"type\":\"long\"}]}}}]}}},{\"name\":\"sessions\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"SessionSnapshot\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"port\",\"type\":\"int\"},{\"name\":\"partner\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"pendingRequest\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null}]}},\"default\":[]}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public long createdAt;
+  @Deprecated public java.util.List<avro.chat.proto.RoomSnapshot> rooms;
+  @Deprecated public java.util.List<avro.chat.proto.SessionSnapshot> sessions;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public ServerSnapshot() {}
+
+  /**
+   * All-args constructor.
+   */
+  public ServerSnapshot(java.lang.Long createdAt, java.util.List<avro.chat.proto.RoomSnapshot> rooms, java.util.List<avro.chat.proto.SessionSnapshot> sessions) {
+    this.createdAt = createdAt;
+    this.rooms = rooms;
+    this.sessions = sessions;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return createdAt;
+    case 1: return rooms;
+    case 2: return sessions;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: createdAt = (java.lang.Long)value$; break;
+    case 1: rooms = (java.util.List<avro.chat.proto.RoomSnapshot>)value$; break;
+    case 2: sessions = (java.util.List<avro.chat.proto.SessionSnapshot>)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'createdAt' field.
+   */
+  public java.lang.Long getCreatedAt() {
+    return createdAt;
+  }
+
+  /**
+   * Sets the value of the 'createdAt' field.
+   * @param value the value to set.
+   */
+  public void setCreatedAt(java.lang.Long value) {
+    this.createdAt = value;
+  }
+
+  /**
+   * Gets the value of the 'rooms' field.
+   */
+  public java.util.List<avro.chat.proto.RoomSnapshot> getRooms() {
+    return rooms;
+  }
+
+  /**
+   * Sets the value of the 'rooms' field.
+   * @param value the value to set.
+   */
+  public void setRooms(java.util.List<avro.chat.proto.RoomSnapshot> value) {
+    this.rooms = value;
+  }
+
+  /**
+   * Gets the value of the 'sessions' field.
+   */
+  public java.util.List<avro.chat.proto.SessionSnapshot> getSessions() {
+    return sessions;
+  }
+
+  /**
+   * Sets the value of the 'sessions' field.
+   * @param value the value to set.
+   */
+  public void setSessions(java.util.List<avro.chat.proto.SessionSnapshot> value) {
+    this.sessions = value;
+  }
+
+  /** Creates a new ServerSnapshot RecordBuilder */
+  public static avro.chat.proto.ServerSnapshot.Builder newBuilder() {
+    return new avro.chat.proto.ServerSnapshot.Builder();
+  }
+  
+  /** Creates a new ServerSnapshot RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.ServerSnapshot.Builder newBuilder(avro.chat.proto.ServerSnapshot.Builder other) {
+    return new avro.chat.proto.ServerSnapshot.Builder(other);
+  }
+  
+  /** Creates a new ServerSnapshot RecordBuilder by copying an existing ServerSnapshot instance */
+  public static avro.chat.proto.ServerSnapshot.Builder newBuilder(avro.chat.proto.ServerSnapshot other) {
+    return new avro.chat.proto.ServerSnapshot.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for ServerSnapshot instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<ServerSnapshot>
+    implements org.apache.avro.data.RecordBuilder<ServerSnapshot> {
+
+    private long createdAt;
+    private java.util.List<avro.chat.proto.RoomSnapshot> rooms;
+    private java.util.List<avro.chat.proto.SessionSnapshot> sessions;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.ServerSnapshot.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.ServerSnapshot.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.createdAt)) {
+        this.createdAt = data().deepCopy(fields()[0].schema(), other.createdAt);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.rooms)) {
+        this.rooms = data().deepCopy(fields()[1].schema(), other.rooms);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.sessions)) {
+        this.sessions = data().deepCopy(fields()[2].schema(), other.sessions);
+        fieldSetFlags()[2] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing ServerSnapshot instance */
+    private Builder(avro.chat.proto.ServerSnapshot other) {
+            super(avro.chat.proto.ServerSnapshot.SCHEMA$);
+      if (isValidValue(fields()[0], other.createdAt)) {
+        this.createdAt = data().deepCopy(fields()[0].schema(), other.createdAt);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.rooms)) {
+        this.rooms = data().deepCopy(fields()[1].schema(), other.rooms);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.sessions)) {
+        this.sessions = data().deepCopy(fields()[2].schema(), other.sessions);
+        fieldSetFlags()[2] = true;
+      }
+    }
+
+    /** Gets the value of the 'createdAt' field */
+    public java.lang.Long getCreatedAt() {
+      return createdAt;
+    }
+    
+    /** Sets the value of the 'createdAt' field */
+    public avro.chat.proto.ServerSnapshot.Builder setCreatedAt(long value) {
+      validate(fields()[0], value);
+      this.createdAt = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'createdAt' field has been set */
+    public boolean hasCreatedAt() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'createdAt' field */
+    public avro.chat.proto.ServerSnapshot.Builder clearCreatedAt() {
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'rooms' field */
+    public java.util.List<avro.chat.proto.RoomSnapshot> getRooms() {
+      return rooms;
+    }
+    
+    /** Sets the value of the 'rooms' field */
+    public avro.chat.proto.ServerSnapshot.Builder setRooms(java.util.List<avro.chat.proto.RoomSnapshot> value) {
+      validate(fields()[1], value);
+      this.rooms = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'rooms' field has been set */
+    public boolean hasRooms() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'rooms' field */
+    public avro.chat.proto.ServerSnapshot.Builder clearRooms() {
+      rooms = null;
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'sessions' field */
+    public java.util.List<avro.chat.proto.SessionSnapshot> getSessions() {
+      return sessions;
+    }
+    
+    /** Sets the value of the 'sessions' field */
+    public avro.chat.proto.ServerSnapshot.Builder setSessions(java.util.List<avro.chat.proto.SessionSnapshot> value) {
+      validate(fields()[2], value);
+      this.sessions = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'sessions' field has been set */
+    public boolean hasSessions() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'sessions' field */
+    public avro.chat.proto.ServerSnapshot.Builder clearSessions() {
+      sessions = null;
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    @Override
+    public ServerSnapshot build() {
+      try {
+        ServerSnapshot record = new ServerSnapshot();
+        record.createdAt = fieldSetFlags()[0] ? this.createdAt : (java.lang.Long) defaultValue(fields()[0]);
+        record.rooms = fieldSetFlags()[1] ? this.rooms : (java.util.List<avro.chat.proto.RoomSnapshot>) defaultValue(fields()[1]);
+        record.sessions = fieldSetFlags()[2] ? this.sessions : (java.util.List<avro.chat.proto.SessionSnapshot>) defaultValue(fields()[2]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,619 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class ServerStats extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"ServerStats\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"uptime\",\"type\":\"long\"},{\"name\":\"sessions\",\"type\":\"int\"},{\"name\":\"pushesInFlight\",\"type\":\"int\"},{\"name\":\"rooms\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"RoomStats\",\"fields\":[{\"name\":\"name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"members\",\"type\":\"int\"},{\"name\":\"messages\",\"type\":\"long\"},{\"name\":\"messagesPerSecond\",\"type\":\"double\"}]}}},{\"name\":\"heartbeatSweepMillis\",\"type\":\"double\"},{\"name\":\"lastHeartbeat\",\"type\":\"long\"},{\"name\":\"allocatedBytesPerSecond\",\"type\":\"double\"},{\"name\":\"heapUsed\",\"type\":\"long\"},{\"name\":\"retransmitted\",\"type\":\"long\"},{\"name\":\"givenUp\",\"type\":\"long\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public long uptime;
+  @Deprecated public int sessions;
+  @Deprecated public int pushesInFlight;
+  @Deprecated public java.util.List<avro.chat.proto.RoomStats> rooms;
+  @Deprecated public double heartbeatSweepMillis;
+  @Deprecated public long lastHeartbeat;
+  @Deprecated public double allocatedBytesPerSecond;
+  @Deprecated public long heapUsed;
+  @Deprecated public long retransmitted;
+  @Deprecated public long givenUp;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public ServerStats() {}
+
+  /**
+   * All-args constructor.
+   */
+  public ServerStats(java.lang.Long uptime, java.lang.Integer sessions, java.lang.Integer pushesInFlight, java.util.List<avro.chat.proto.RoomStats> rooms, java.lang.Double heartbeatSweepMillis, java.lang.Long lastHeartbeat, java.lang.Double allocatedBytesPerSecond, java.lang.Long heapUsed, java.lang.Long retransmitted, java.lang.Long givenUp) {
+    this.uptime = uptime;
+    this.sessions = sessions;
+    this.pushesInFlight = pushesInFlight;
+    this.rooms = rooms;
+    this.heartbeatSweepMillis = heartbeatSweepMillis;
+    this.lastHeartbeat = lastHeartbeat;
+    this.allocatedBytesPerSecond = allocatedBytesPerSecond;
+    this.heapUsed = heapUsed;
+    this.retransmitted = retransmitted;
+    this.givenUp = givenUp;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return uptime;
+    case 1: return sessions;
+    case 2: return pushesInFlight;
+    case 3: return rooms;
+    case 4: return heartbeatSweepMillis;
+    case 5: return lastHeartbeat;
+    case 6: return allocatedBytesPerSecond;
+    case 7: return heapUsed;
+    case 8: return retransmitted;
+    case 9: return givenUp;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: uptime = (java.lang.Long)value$; break;
+    case 1: sessions = (java.lang.Integer)value$; break;
+    case 2: pushesInFlight = (java.lang.Integer)value$; break;
+    case 3: rooms = (java.util.List<avro.chat.proto.RoomStats>)value$; break;
+    case 4: heartbeatSweepMillis = (java.lang.Double)value$; break;
+    case 5: lastHeartbeat = (java.lang.Long)value$; break;
+    case 6: allocatedBytesPerSecond = (java.lang.Double)value$; break;
+    case 7: heapUsed = (java.lang.Long)value$; break;
+    case 8: retransmitted = (java.lang.Long)value$; break;
+    case 9: givenUp = (java.lang.Long)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'uptime' field.
+   */
+  public java.lang.Long getUptime() {
+    return uptime;
+  }
+
+  /**
+   * Sets the value of the 'uptime' field.
+   * @param value the value to set.
+   */
+  public void setUptime(java.lang.Long value) {
+    this.uptime = value;
+  }
+
+  /**
+   * Gets the value of the 'sessions' field.
+   */
+  public java.lang.Integer getSessions() {
+    return sessions;
+  }
+
+  /**
+   * Sets the value of the 'sessions' field.
+   * @param value the value to set.
+   */
+  public void setSessions(java.lang.Integer value) {
+    this.sessions = value;
+  }
+
+  /**
+   * Gets the value of the 'pushesInFlight' field.
+   */
+  public java.lang.Integer getPushesInFlight() {
+    return pushesInFlight;
+  }
+
+  /**
+   * Sets the value of the 'pushesInFlight' field.
+   * @param value the value to set.
+   */
+  public void setPushesInFlight(java.lang.Integer value) {
+    this.pushesInFlight = value;
+  }
+
+  /**
+   * Gets the value of the 'rooms' field.
+   */
+  public java.util.List<avro.chat.proto.RoomStats> getRooms() {
+    return rooms;
+  }
+
+  /**
+   * Sets the value of the 'rooms' field.
+   * @param value the value to set.
+   */
+  public void setRooms(java.util.List<avro.chat.proto.RoomStats> value) {
+    this.rooms = value;
+  }
+
+  /**
+   * Gets the value of the 'heartbeatSweepMillis' field.
+   */
+  public java.lang.Double getHeartbeatSweepMillis() {
+    return heartbeatSweepMillis;
+  }
+
+  /**
+   * Sets the value of the 'heartbeatSweepMillis' field.
+   * @param value the value to set.
+   */
+  public void setHeartbeatSweepMillis(java.lang.Double value) {
+    this.heartbeatSweepMillis = value;
+  }
+
+  /**
+   * Gets the value of the 'lastHeartbeat' field.
+   */
+  public java.lang.Long getLastHeartbeat() {
+    return lastHeartbeat;
+  }
+
+  /**
+   * Sets the value of the 'lastHeartbeat' field.
+   * @param value the value to set.
+   */
+  public void setLastHeartbeat(java.lang.Long value) {
+    this.lastHeartbeat = value;
+  }
+
+  /**
+   * Gets the value of the 'allocatedBytesPerSecond' field.
+   */
+  public java.lang.Double getAllocatedBytesPerSecond() {
+    return allocatedBytesPerSecond;
+  }
+
+  /**
+   * Sets the value of the 'allocatedBytesPerSecond' field.
+   * @param value the value to set.
+   */
+  public void setAllocatedBytesPerSecond(java.lang.Double value) {
+    this.allocatedBytesPerSecond = value;
+  }
+
+  /**
+   * Gets the value of the 'heapUsed' field.
+   */
+  public java.lang.Long getHeapUsed() {
+    return heapUsed;
+  }
+
+  /**
+   * Sets the value of the 'heapUsed' field.
+   * @param value the value to set.
+   */
+  public void setHeapUsed(java.lang.Long value) {
+    this.heapUsed = value;
+  }
+
+  /**
+   * Gets the value of the 'retransmitted' field.
+   */
+  public java.lang.Long getRetransmitted() {
+    return retransmitted;
+  }
+
+  /**
+   * Sets the value of the 'retransmitted' field.
+   * @param value the value to set.
+   */
+  public void setRetransmitted(java.lang.Long value) {
+    this.retransmitted = value;
+  }
+
+  /**
+   * Gets the value of the 'givenUp' field.
+   */
+  public java.lang.Long getGivenUp() {
+    return givenUp;
+  }
+
+  /**
+   * Sets the value of the 'givenUp' field.
+   * @param value the value to set.
+   */
+  public void setGivenUp(java.lang.Long value) {
+    this.givenUp = value;
+  }
+
+  /** Creates a new ServerStats RecordBuilder */
+  public static avro.chat.proto.ServerStats.Builder newBuilder() {
+    return new avro.chat.proto.ServerStats.Builder();
+  }
+  
+  /** Creates a new ServerStats RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.ServerStats.Builder newBuilder(avro.chat.proto.ServerStats.Builder other) {
+    return new avro.chat.proto.ServerStats.Builder(other);
+  }
+  
+  /** Creates a new ServerStats RecordBuilder by copying an existing ServerStats instance */
+  public static avro.chat.proto.ServerStats.Builder newBuilder(avro.chat.proto.ServerStats other) {
+    return new avro.chat.proto.ServerStats.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for ServerStats instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<ServerStats>
+    implements org.apache.avro.data.RecordBuilder<ServerStats> {
+
+    private long uptime;
+    private int sessions;
+    private int pushesInFlight;
+    private java.util.List<avro.chat.proto.RoomStats> rooms;
+    private double heartbeatSweepMillis;
+    private long lastHeartbeat;
+    private double allocatedBytesPerSecond;
+    private long heapUsed;
+    private long retransmitted;
+    private long givenUp;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.ServerStats.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.ServerStats.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.uptime)) {
+        this.uptime = data().deepCopy(fields()[0].schema(), other.uptime);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.sessions)) {
+        this.sessions = data().deepCopy(fields()[1].schema(), other.sessions);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.pushesInFlight)) {
+        this.pushesInFlight = data().deepCopy(fields()[2].schema(), other.pushesInFlight);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.rooms)) {
+        this.rooms = data().deepCopy(fields()[3].schema(), other.rooms);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.heartbeatSweepMillis)) {
+        this.heartbeatSweepMillis = data().deepCopy(fields()[4].schema(), other.heartbeatSweepMillis);
+        fieldSetFlags()[4] = true;
+      }
+      if (isValidValue(fields()[5], other.lastHeartbeat)) {
+        this.lastHeartbeat = data().deepCopy(fields()[5].schema(), other.lastHeartbeat);
+        fieldSetFlags()[5] = true;
+      }
+      if (isValidValue(fields()[6], other.allocatedBytesPerSecond)) {
+        this.allocatedBytesPerSecond = data().deepCopy(fields()[6].schema(), other.allocatedBytesPerSecond);
+        fieldSetFlags()[6] = true;
+      }
+      if (isValidValue(fields()[7], other.heapUsed)) {
+        this.heapUsed = data().deepCopy(fields()[7].schema(), other.heapUsed);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.retransmitted)) {
+        this.retransmitted = data().deepCopy(fields()[8].schema(), other.retransmitted);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.givenUp)) {
+        this.givenUp = data().deepCopy(fields()[9].schema(), other.givenUp);
+        fieldSetFlags()[9] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing ServerStats instance */
+    private Builder(avro.chat.proto.ServerStats other) {
+            super(avro.chat.proto.ServerStats.SCHEMA$);
+      if (isValidValue(fields()[0], other.uptime)) {
+        this.uptime = data().deepCopy(fields()[0].schema(), other.uptime);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.sessions)) {
+        this.sessions = data().deepCopy(fields()[1].schema(), other.sessions);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.pushesInFlight)) {
+        this.pushesInFlight = data().deepCopy(fields()[2].schema(), other.pushesInFlight);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.rooms)) {
+        this.rooms = data().deepCopy(fields()[3].schema(), other.rooms);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.heartbeatSweepMillis)) {
+        this.heartbeatSweepMillis = data().deepCopy(fields()[4].schema(), other.heartbeatSweepMillis);
+        fieldSetFlags()[4] = true;
+      }
+      if (isValidValue(fields()[5], other.lastHeartbeat)) {
+        this.lastHeartbeat = data().deepCopy(fields()[5].schema(), other.lastHeartbeat);
+        fieldSetFlags()[5] = true;
+      }
+      if (isValidValue(fields()[6], other.allocatedBytesPerSecond)) {
+        this.allocatedBytesPerSecond = data().deepCopy(fields()[6].schema(), other.allocatedBytesPerSecond);
+        fieldSetFlags()[6] = true;
+      }
+      if (isValidValue(fields()[7], other.heapUsed)) {
+        this.heapUsed = data().deepCopy(fields()[7].schema(), other.heapUsed);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.retransmitted)) {
+        this.retransmitted = data().deepCopy(fields()[8].schema(), other.retransmitted);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.givenUp)) {
+        this.givenUp = data().deepCopy(fields()[9].schema(), other.givenUp);
+        fieldSetFlags()[9] = true;
+      }
+    }
+
+    /** Gets the value of the 'uptime' field */
+    public java.lang.Long getUptime() {
+      return uptime;
+    }
+    
+    /** Sets the value of the 'uptime' field */
+    public avro.chat.proto.ServerStats.Builder setUptime(long value) {
+      validate(fields()[0], value);
+      this.uptime = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'uptime' field has been set */
+    public boolean hasUptime() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'uptime' field */
+    public avro.chat.proto.ServerStats.Builder clearUptime() {
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'sessions' field */
+    public java.lang.Integer getSessions() {
+      return sessions;
+    }
+    
+    /** Sets the value of the 'sessions' field */
+    public avro.chat.proto.ServerStats.Builder setSessions(int value) {
+      validate(fields()[1], value);
+      this.sessions = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'sessions' field has been set */
+    public boolean hasSessions() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'sessions' field */
+    public avro.chat.proto.ServerStats.Builder clearSessions() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'pushesInFlight' field */
+    public java.lang.Integer getPushesInFlight() {
+      return pushesInFlight;
+    }
+    
+    /** Sets the value of the 'pushesInFlight' field */
+    public avro.chat.proto.ServerStats.Builder setPushesInFlight(int value) {
+      validate(fields()[2], value);
+      this.pushesInFlight = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'pushesInFlight' field has been set */
+    public boolean hasPushesInFlight() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'pushesInFlight' field */
+    public avro.chat.proto.ServerStats.Builder clearPushesInFlight() {
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'rooms' field */
+    public java.util.List<avro.chat.proto.RoomStats> getRooms() {
+      return rooms;
+    }
+    
+    /** Sets the value of the 'rooms' field */
+    public avro.chat.proto.ServerStats.Builder setRooms(java.util.List<avro.chat.proto.RoomStats> value) {
+      validate(fields()[3], value);
+      this.rooms = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'rooms' field has been set */
+    public boolean hasRooms() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'rooms' field */
+    public avro.chat.proto.ServerStats.Builder clearRooms() {
+      rooms = null;
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'heartbeatSweepMillis' field */
+    public java.lang.Double getHeartbeatSweepMillis() {
+      return heartbeatSweepMillis;
+    }
+    
+    /** Sets the value of the 'heartbeatSweepMillis' field */
+    public avro.chat.proto.ServerStats.Builder setHeartbeatSweepMillis(double value) {
+      validate(fields()[4], value);
+      this.heartbeatSweepMillis = value;
+      fieldSetFlags()[4] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'heartbeatSweepMillis' field has been set */
+    public boolean hasHeartbeatSweepMillis() {
+      return fieldSetFlags()[4];
+    }
+    
+    /** Clears the value of the 'heartbeatSweepMillis' field */
+    public avro.chat.proto.ServerStats.Builder clearHeartbeatSweepMillis() {
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'lastHeartbeat' field */
+    public java.lang.Long getLastHeartbeat() {
+      return lastHeartbeat;
+    }
+    
+    /** Sets the value of the 'lastHeartbeat' field */
+    public avro.chat.proto.ServerStats.Builder setLastHeartbeat(long value) {
+      validate(fields()[5], value);
+      this.lastHeartbeat = value;
+      fieldSetFlags()[5] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'lastHeartbeat' field has been set */
+    public boolean hasLastHeartbeat() {
+      return fieldSetFlags()[5];
+    }
+    
+    /** Clears the value of the 'lastHeartbeat' field */
+    public avro.chat.proto.ServerStats.Builder clearLastHeartbeat() {
+      fieldSetFlags()[5] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'allocatedBytesPerSecond' field */
+    public java.lang.Double getAllocatedBytesPerSecond() {
+      return allocatedBytesPerSecond;
+    }
+    
+    /** Sets the value of the 'allocatedBytesPerSecond' field */
+    public avro.chat.proto.ServerStats.Builder setAllocatedBytesPerSecond(double value) {
+      validate(fields()[6], value);
+      this.allocatedBytesPerSecond = value;
+      fieldSetFlags()[6] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'allocatedBytesPerSecond' field has been set */
+    public boolean hasAllocatedBytesPerSecond() {
+      return fieldSetFlags()[6];
+    }
+    
+    /** Clears the value of the 'allocatedBytesPerSecond' field */
+    public avro.chat.proto.ServerStats.Builder clearAllocatedBytesPerSecond() {
+      fieldSetFlags()[6] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'heapUsed' field */
+    public java.lang.Long getHeapUsed() {
+      return heapUsed;
+    }
+    
+    /** Sets the value of the 'heapUsed' field */
+    public avro.chat.proto.ServerStats.Builder setHeapUsed(long value) {
+      validate(fields()[7], value);
+      this.heapUsed = value;
+      fieldSetFlags()[7] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'heapUsed' field has been set */
+    public boolean hasHeapUsed() {
+      return fieldSetFlags()[7];
+    }
+    
+    /** Clears the value of the 'heapUsed' field */
+    public avro.chat.proto.ServerStats.Builder clearHeapUsed() {
+      fieldSetFlags()[7] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'retransmitted' field */
+    public java.lang.Long getRetransmitted() {
+      return retransmitted;
+    }
+    
+    /** Sets the value of the 'retransmitted' field */
+    public avro.chat.proto.ServerStats.Builder setRetransmitted(long value) {
+      validate(fields()[8], value);
+      this.retransmitted = value;
+      fieldSetFlags()[8] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'retransmitted' field has been set */
+    public boolean hasRetransmitted() {
+      return fieldSetFlags()[8];
+    }
+    
+    /** Clears the value of the 'retransmitted' field */
+    public avro.chat.proto.ServerStats.Builder clearRetransmitted() {
+      fieldSetFlags()[8] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'givenUp' field */
+    public java.lang.Long getGivenUp() {
+      return givenUp;
+    }
+    
+    /** Sets the value of the 'givenUp' field */
+    public avro.chat.proto.ServerStats.Builder setGivenUp(long value) {
+      validate(fields()[9], value);
+      this.givenUp = value;
+      fieldSetFlags()[9] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'givenUp' field has been set */
+    public boolean hasGivenUp() {
+      return fieldSetFlags()[9];
+    }
+    
+    /** Clears the value of the 'givenUp' field */
+    public avro.chat.proto.ServerStats.Builder clearGivenUp() {
+      fieldSetFlags()[9] = false;
+      return this;
+    }
+
+    @Override
+    public ServerStats build() {
+      try {
+        ServerStats record = new ServerStats();
+        record.uptime = fieldSetFlags()[0] ? this.uptime : (java.lang.Long) defaultValue(fields()[0]);
+        record.sessions = fieldSetFlags()[1] ? this.sessions : (java.lang.Integer) defaultValue(fields()[1]);
+        record.pushesInFlight = fieldSetFlags()[2] ? this.pushesInFlight : (java.lang.Integer) defaultValue(fields()[2]);
+        record.rooms = fieldSetFlags()[3] ? this.rooms : (java.util.List<avro.chat.proto.RoomStats>) defaultValue(fields()[3]);
+        record.heartbeatSweepMillis = fieldSetFlags()[4] ? this.heartbeatSweepMillis : (java.lang.Double) defaultValue(fields()[4]);
+        record.lastHeartbeat = fieldSetFlags()[5] ? this.lastHeartbeat : (java.lang.Long) defaultValue(fields()[5]);
+        record.allocatedBytesPerSecond = fieldSetFlags()[6] ? this.allocatedBytesPerSecond : (java.lang.Double) defaultValue(fields()[6]);
+        record.heapUsed = fieldSetFlags()[7] ? this.heapUsed : (java.lang.Long) defaultValue(fields()[7]);
+        record.retransmitted = fieldSetFlags()[8] ? this.retransmitted : (java.lang.Long) defaultValue(fields()[8]);
+        record.givenUp = fieldSetFlags()[9] ? this.givenUp : (java.lang.Long) defaultValue(fields()[9]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class SessionEnded extends org.apache.avro.specific.SpecificExceptionBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"error\",\"name\":\"SessionEnded\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String reason;
+
+  public SessionEnded() {
+    super();
+  }
+  
+  public SessionEnded(Object value) {
+    super(value);
+  }
+
+  public SessionEnded(Throwable cause) {
+    super(cause);
+  }
+
+  public SessionEnded(Object value, Throwable cause) {
+    super(value, cause);
+  }
+  
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return reason;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: reason = (java.lang.String)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'reason' field.
+   */
+  public java.lang.String getReason() {
+    return reason;
+  }
+
+  /**
+   * Sets the value of the 'reason' field.
+   * @param value the value to set.
+   */
+  public void setReason(java.lang.String value) {
+    this.reason = value;
+  }
+
+  /** Creates a new SessionEnded RecordBuilder */
+  public static avro.chat.proto.SessionEnded.Builder newBuilder() {
+    return new avro.chat.proto.SessionEnded.Builder();
+  }
+  
+  /** Creates a new SessionEnded RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.SessionEnded.Builder newBuilder(avro.chat.proto.SessionEnded.Builder other) {
+    return new avro.chat.proto.SessionEnded.Builder(other);
+  }
+  
+  /** Creates a new SessionEnded RecordBuilder by copying an existing SessionEnded instance */
+  public static avro.chat.proto.SessionEnded.Builder newBuilder(avro.chat.proto.SessionEnded other) {
+    return new avro.chat.proto.SessionEnded.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for SessionEnded instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificErrorBuilderBase<SessionEnded>
+    implements org.apache.avro.data.ErrorBuilder<SessionEnded> {
+
+    private java.lang.String reason;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.SessionEnded.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.SessionEnded.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing SessionEnded instance */
+    private Builder(avro.chat.proto.SessionEnded other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+
+    @Override
+    public avro.chat.proto.SessionEnded.Builder setValue(Object value) {
+      super.setValue(value);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.SessionEnded.Builder clearValue() {
+      super.clearValue();
+      return this;
+    }
+
+    @Override
+    public avro.chat.proto.SessionEnded.Builder setCause(Throwable cause) {
+      super.setCause(cause);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.SessionEnded.Builder clearCause() {
+      super.clearCause();
+      return this;
+    }
+
+    /** Gets the value of the 'reason' field */
+    public java.lang.String getReason() {
+      return reason;
+    }
+    
+    /** Sets the value of the 'reason' field */
+    public avro.chat.proto.SessionEnded.Builder setReason(java.lang.String value) {
+      validate(fields()[0], value);
+      this.reason = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'reason' field has been set */
+    public boolean hasReason() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'reason' field */
+    public avro.chat.proto.SessionEnded.Builder clearReason() {
+      reason = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    @Override
+    public SessionEnded build() {
+      try {
+        SessionEnded record = new SessionEnded(getValue(), getCause());
+        record.reason = fieldSetFlags()[0] ? this.reason : (java.lang.String) defaultValue(fields()[0]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
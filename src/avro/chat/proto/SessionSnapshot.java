@@ -0,0 +1,357 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class SessionSnapshot extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"SessionSnapshot\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"port\",\"type\":\"int\"},{\"name\":\"partner\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"pendingRequest\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String username;
+  @Deprecated public java.lang.String host;
+  @Deprecated public int port;
+  @Deprecated public java.lang.String partner;
+  @Deprecated public java.lang.String pendingRequest;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public SessionSnapshot() {}
+
+  /**
+   * All-args constructor.
+   */
+  public SessionSnapshot(java.lang.String username, java.lang.String host, java.lang.Integer port, java.lang.String partner, java.lang.String pendingRequest) {
+    this.username = username;
+    this.host = host;
+    this.port = port;
+    this.partner = partner;
+    this.pendingRequest = pendingRequest;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return username;
+    case 1: return host;
+    case 2: return port;
+    case 3: return partner;
+    case 4: return pendingRequest;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: username = (java.lang.String)value$; break;
+    case 1: host = (java.lang.String)value$; break;
+    case 2: port = (java.lang.Integer)value$; break;
+    case 3: partner = (java.lang.String)value$; break;
+    case 4: pendingRequest = (java.lang.String)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'username' field.
+   */
+  public java.lang.String getUsername() {
+    return username;
+  }
+
+  /**
+   * Sets the value of the 'username' field.
+   * @param value the value to set.
+   */
+  public void setUsername(java.lang.String value) {
+    this.username = value;
+  }
+
+  /**
+   * Gets the value of the 'host' field.
+   */
+  public java.lang.String getHost() {
+    return host;
+  }
+
+  /**
+   * Sets the value of the 'host' field.
+   * @param value the value to set.
+   */
+  public void setHost(java.lang.String value) {
+    this.host = value;
+  }
+
+  /**
+   * Gets the value of the 'port' field.
+   */
+  public java.lang.Integer getPort() {
+    return port;
+  }
+
+  /**
+   * Sets the value of the 'port' field.
+   * @param value the value to set.
+   */
+  public void setPort(java.lang.Integer value) {
+    this.port = value;
+  }
+
+  /**
+   * Gets the value of the 'partner' field.
+   */
+  public java.lang.String getPartner() {
+    return partner;
+  }
+
+  /**
+   * Sets the value of the 'partner' field.
+   * @param value the value to set.
+   */
+  public void setPartner(java.lang.String value) {
+    this.partner = value;
+  }
+
+  /**
+   * Gets the value of the 'pendingRequest' field.
+   */
+  public java.lang.String getPendingRequest() {
+    return pendingRequest;
+  }
+
+  /**
+   * Sets the value of the 'pendingRequest' field.
+   * @param value the value to set.
+   */
+  public void setPendingRequest(java.lang.String value) {
+    this.pendingRequest = value;
+  }
+
+  /** Creates a new SessionSnapshot RecordBuilder */
+  public static avro.chat.proto.SessionSnapshot.Builder newBuilder() {
+    return new avro.chat.proto.SessionSnapshot.Builder();
+  }
+  
+  /** Creates a new SessionSnapshot RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.SessionSnapshot.Builder newBuilder(avro.chat.proto.SessionSnapshot.Builder other) {
+    return new avro.chat.proto.SessionSnapshot.Builder(other);
+  }
+  
+  /** Creates a new SessionSnapshot RecordBuilder by copying an existing SessionSnapshot instance */
+  public static avro.chat.proto.SessionSnapshot.Builder newBuilder(avro.chat.proto.SessionSnapshot other) {
+    return new avro.chat.proto.SessionSnapshot.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for SessionSnapshot instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<SessionSnapshot>
+    implements org.apache.avro.data.RecordBuilder<SessionSnapshot> {
+
+    private java.lang.String username;
+    private java.lang.String host;
+    private int port;
+    private java.lang.String partner;
+    private java.lang.String pendingRequest;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.SessionSnapshot.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.SessionSnapshot.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.host)) {
+        this.host = data().deepCopy(fields()[1].schema(), other.host);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.port)) {
+        this.port = data().deepCopy(fields()[2].schema(), other.port);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.partner)) {
+        this.partner = data().deepCopy(fields()[3].schema(), other.partner);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.pendingRequest)) {
+        this.pendingRequest = data().deepCopy(fields()[4].schema(), other.pendingRequest);
+        fieldSetFlags()[4] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing SessionSnapshot instance */
+    private Builder(avro.chat.proto.SessionSnapshot other) {
+            super(avro.chat.proto.SessionSnapshot.SCHEMA$);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.host)) {
+        this.host = data().deepCopy(fields()[1].schema(), other.host);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.port)) {
+        this.port = data().deepCopy(fields()[2].schema(), other.port);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.partner)) {
+        this.partner = data().deepCopy(fields()[3].schema(), other.partner);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.pendingRequest)) {
+        this.pendingRequest = data().deepCopy(fields()[4].schema(), other.pendingRequest);
+        fieldSetFlags()[4] = true;
+      }
+    }
+
+    /** Gets the value of the 'username' field */
+    public java.lang.String getUsername() {
+      return username;
+    }
+    
+    /** Sets the value of the 'username' field */
+    public avro.chat.proto.SessionSnapshot.Builder setUsername(java.lang.String value) {
+      validate(fields()[0], value);
+      this.username = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'username' field has been set */
+    public boolean hasUsername() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'username' field */
+    public avro.chat.proto.SessionSnapshot.Builder clearUsername() {
+      username = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'host' field */
+    public java.lang.String getHost() {
+      return host;
+    }
+    
+    /** Sets the value of the 'host' field */
+    public avro.chat.proto.SessionSnapshot.Builder setHost(java.lang.String value) {
+      validate(fields()[1], value);
+      this.host = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'host' field has been set */
+    public boolean hasHost() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'host' field */
+    public avro.chat.proto.SessionSnapshot.Builder clearHost() {
+      host = null;
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'port' field */
+    public java.lang.Integer getPort() {
+      return port;
+    }
+    
+    /** Sets the value of the 'port' field */
+    public avro.chat.proto.SessionSnapshot.Builder setPort(int value) {
+      validate(fields()[2], value);
+      this.port = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'port' field has been set */
+    public boolean hasPort() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'port' field */
+    public avro.chat.proto.SessionSnapshot.Builder clearPort() {
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'partner' field */
+    public java.lang.String getPartner() {
+      return partner;
+    }
+    
+    /** Sets the value of the 'partner' field */
+    public avro.chat.proto.SessionSnapshot.Builder setPartner(java.lang.String value) {
+      validate(fields()[3], value);
+      this.partner = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'partner' field has been set */
+    public boolean hasPartner() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'partner' field */
+    public avro.chat.proto.SessionSnapshot.Builder clearPartner() {
+      partner = null;
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'pendingRequest' field */
+    public java.lang.String getPendingRequest() {
+      return pendingRequest;
+    }
+    
+    /** Sets the value of the 'pendingRequest' field */
+    public avro.chat.proto.SessionSnapshot.Builder setPendingRequest(java.lang.String value) {
+      validate(fields()[4], value);
+      this.pendingRequest = value;
+      fieldSetFlags()[4] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'pendingRequest' field has been set */
+    public boolean hasPendingRequest() {
+      return fieldSetFlags()[4];
+    }
+    
+    /** Clears the value of the 'pendingRequest' field */
+    public avro.chat.proto.SessionSnapshot.Builder clearPendingRequest() {
+      pendingRequest = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
+    @Override
+    public SessionSnapshot build() {
+      try {
+        SessionSnapshot record = new SessionSnapshot();
+        record.username = fieldSetFlags()[0] ? this.username : (java.lang.String) defaultValue(fields()[0]);
+        record.host = fieldSetFlags()[1] ? this.host : (java.lang.String) defaultValue(fields()[1]);
+        record.port = fieldSetFlags()[2] ? this.port : (java.lang.Integer) defaultValue(fields()[2]);
+        record.partner = fieldSetFlags()[3] ? this.partner : (java.lang.String) defaultValue(fields()[3]);
+        record.pendingRequest = fieldSetFlags()[4] ? this.pendingRequest : (java.lang.String) defaultValue(fields()[4]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
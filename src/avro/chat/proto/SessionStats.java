@@ -0,0 +1,301 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class SessionStats extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"SessionStats\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"session\",\"type\":\"int\"},{\"name\":\"pendingDeliveries\",\"type\":\"long\"},{\"name\":\"rttMillis\",\"type\":\"double\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String username;
+  @Deprecated public int session;
+  @Deprecated public long pendingDeliveries;
+  @Deprecated public double rttMillis;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public SessionStats() {}
+
+  /**
+   * All-args constructor.
+   */
+  public SessionStats(java.lang.String username, java.lang.Integer session, java.lang.Long pendingDeliveries, java.lang.Double rttMillis) {
+    this.username = username;
+    this.session = session;
+    this.pendingDeliveries = pendingDeliveries;
+    this.rttMillis = rttMillis;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return username;
+    case 1: return session;
+    case 2: return pendingDeliveries;
+    case 3: return rttMillis;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: username = (java.lang.String)value$; break;
+    case 1: session = (java.lang.Integer)value$; break;
+    case 2: pendingDeliveries = (java.lang.Long)value$; break;
+    case 3: rttMillis = (java.lang.Double)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'username' field.
+   */
+  public java.lang.String getUsername() {
+    return username;
+  }
+
+  /**
+   * Sets the value of the 'username' field.
+   * @param value the value to set.
+   */
+  public void setUsername(java.lang.String value) {
+    this.username = value;
+  }
+
+  /**
+   * Gets the value of the 'session' field.
+   */
+  public java.lang.Integer getSession() {
+    return session;
+  }
+
+  /**
+   * Sets the value of the 'session' field.
+   * @param value the value to set.
+   */
+  public void setSession(java.lang.Integer value) {
+    this.session = value;
+  }
+
+  /**
+   * Gets the value of the 'pendingDeliveries' field.
+   */
+  public java.lang.Long getPendingDeliveries() {
+    return pendingDeliveries;
+  }
+
+  /**
+   * Sets the value of the 'pendingDeliveries' field.
+   * @param value the value to set.
+   */
+  public void setPendingDeliveries(java.lang.Long value) {
+    this.pendingDeliveries = value;
+  }
+
+  /**
+   * Gets the value of the 'rttMillis' field.
+   */
+  public java.lang.Double getRttMillis() {
+    return rttMillis;
+  }
+
+  /**
+   * Sets the value of the 'rttMillis' field.
+   * @param value the value to set.
+   */
+  public void setRttMillis(java.lang.Double value) {
+    this.rttMillis = value;
+  }
+
+  /** Creates a new SessionStats RecordBuilder */
+  public static avro.chat.proto.SessionStats.Builder newBuilder() {
+    return new avro.chat.proto.SessionStats.Builder();
+  }
+  
+  /** Creates a new SessionStats RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.SessionStats.Builder newBuilder(avro.chat.proto.SessionStats.Builder other) {
+    return new avro.chat.proto.SessionStats.Builder(other);
+  }
+  
+  /** Creates a new SessionStats RecordBuilder by copying an existing SessionStats instance */
+  public static avro.chat.proto.SessionStats.Builder newBuilder(avro.chat.proto.SessionStats other) {
+    return new avro.chat.proto.SessionStats.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for SessionStats instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<SessionStats>
+    implements org.apache.avro.data.RecordBuilder<SessionStats> {
+
+    private java.lang.String username;
+    private int session;
+    private long pendingDeliveries;
+    private double rttMillis;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.SessionStats.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.SessionStats.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.session)) {
+        this.session = data().deepCopy(fields()[1].schema(), other.session);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.pendingDeliveries)) {
+        this.pendingDeliveries = data().deepCopy(fields()[2].schema(), other.pendingDeliveries);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.rttMillis)) {
+        this.rttMillis = data().deepCopy(fields()[3].schema(), other.rttMillis);
+        fieldSetFlags()[3] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing SessionStats instance */
+    private Builder(avro.chat.proto.SessionStats other) {
+            super(avro.chat.proto.SessionStats.SCHEMA$);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.session)) {
+        this.session = data().deepCopy(fields()[1].schema(), other.session);
+        fieldSetFlags()[1] = true;
+      }
+      if (isValidValue(fields()[2], other.pendingDeliveries)) {
+        this.pendingDeliveries = data().deepCopy(fields()[2].schema(), other.pendingDeliveries);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.rttMillis)) {
+        this.rttMillis = data().deepCopy(fields()[3].schema(), other.rttMillis);
+        fieldSetFlags()[3] = true;
+      }
+    }
+
+    /** Gets the value of the 'username' field */
+    public java.lang.String getUsername() {
+      return username;
+    }
+    
+    /** Sets the value of the 'username' field */
+    public avro.chat.proto.SessionStats.Builder setUsername(java.lang.String value) {
+      validate(fields()[0], value);
+      this.username = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'username' field has been set */
+    public boolean hasUsername() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'username' field */
+    public avro.chat.proto.SessionStats.Builder clearUsername() {
+      username = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'session' field */
+    public java.lang.Integer getSession() {
+      return session;
+    }
+    
+    /** Sets the value of the 'session' field */
+    public avro.chat.proto.SessionStats.Builder setSession(int value) {
+      validate(fields()[1], value);
+      this.session = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'session' field has been set */
+    public boolean hasSession() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'session' field */
+    public avro.chat.proto.SessionStats.Builder clearSession() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'pendingDeliveries' field */
+    public java.lang.Long getPendingDeliveries() {
+      return pendingDeliveries;
+    }
+    
+    /** Sets the value of the 'pendingDeliveries' field */
+    public avro.chat.proto.SessionStats.Builder setPendingDeliveries(long value) {
+      validate(fields()[2], value);
+      this.pendingDeliveries = value;
+      fieldSetFlags()[2] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'pendingDeliveries' field has been set */
+    public boolean hasPendingDeliveries() {
+      return fieldSetFlags()[2];
+    }
+    
+    /** Clears the value of the 'pendingDeliveries' field */
+    public avro.chat.proto.SessionStats.Builder clearPendingDeliveries() {
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'rttMillis' field */
+    public java.lang.Double getRttMillis() {
+      return rttMillis;
+    }
+    
+    /** Sets the value of the 'rttMillis' field */
+    public avro.chat.proto.SessionStats.Builder setRttMillis(double value) {
+      validate(fields()[3], value);
+      this.rttMillis = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'rttMillis' field has been set */
+    public boolean hasRttMillis() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'rttMillis' field */
+    public avro.chat.proto.SessionStats.Builder clearRttMillis() {
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    @Override
+    public SessionStats build() {
+      try {
+        SessionStats record = new SessionStats();
+        record.username = fieldSetFlags()[0] ? this.username : (java.lang.String) defaultValue(fields()[0]);
+        record.session = fieldSetFlags()[1] ? this.session : (java.lang.Integer) defaultValue(fields()[1]);
+        record.pendingDeliveries = fieldSetFlags()[2] ? this.pendingDeliveries : (java.lang.Long) defaultValue(fields()[2]);
+        record.rttMillis = fieldSetFlags()[3] ? this.rttMillis : (java.lang.Double) defaultValue(fields()[3]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
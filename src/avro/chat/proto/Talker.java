@@ -0,0 +1,195 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class Talker extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Talker\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"username\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"messages\",\"type\":\"long\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String username;
+  @Deprecated public long messages;
+
+  /**
+   * Default constructor.  Note that this does not initialize fields
+   * to their default values from the schema.  If that is desired then
+   * one should use <code>newBuilder()</code>. 
+   */
+  public Talker() {}
+
+  /**
+   * All-args constructor.
+   */
+  public Talker(java.lang.String username, java.lang.Long messages) {
+    this.username = username;
+    this.messages = messages;
+  }
+
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return username;
+    case 1: return messages;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: username = (java.lang.String)value$; break;
+    case 1: messages = (java.lang.Long)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'username' field.
+   */
+  public java.lang.String getUsername() {
+    return username;
+  }
+
+  /**
+   * Sets the value of the 'username' field.
+   * @param value the value to set.
+   */
+  public void setUsername(java.lang.String value) {
+    this.username = value;
+  }
+
+  /**
+   * Gets the value of the 'messages' field.
+   */
+  public java.lang.Long getMessages() {
+    return messages;
+  }
+
+  /**
+   * Sets the value of the 'messages' field.
+   * @param value the value to set.
+   */
+  public void setMessages(java.lang.Long value) {
+    this.messages = value;
+  }
+
+  /** Creates a new Talker RecordBuilder */
+  public static avro.chat.proto.Talker.Builder newBuilder() {
+    return new avro.chat.proto.Talker.Builder();
+  }
+  
+  /** Creates a new Talker RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.Talker.Builder newBuilder(avro.chat.proto.Talker.Builder other) {
+    return new avro.chat.proto.Talker.Builder(other);
+  }
+  
+  /** Creates a new Talker RecordBuilder by copying an existing Talker instance */
+  public static avro.chat.proto.Talker.Builder newBuilder(avro.chat.proto.Talker other) {
+    return new avro.chat.proto.Talker.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for Talker instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<Talker>
+    implements org.apache.avro.data.RecordBuilder<Talker> {
+
+    private java.lang.String username;
+    private long messages;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.Talker.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.Talker.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.messages)) {
+        this.messages = data().deepCopy(fields()[1].schema(), other.messages);
+        fieldSetFlags()[1] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing Talker instance */
+    private Builder(avro.chat.proto.Talker other) {
+            super(avro.chat.proto.Talker.SCHEMA$);
+      if (isValidValue(fields()[0], other.username)) {
+        this.username = data().deepCopy(fields()[0].schema(), other.username);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.messages)) {
+        this.messages = data().deepCopy(fields()[1].schema(), other.messages);
+        fieldSetFlags()[1] = true;
+      }
+    }
+
+    /** Gets the value of the 'username' field */
+    public java.lang.String getUsername() {
+      return username;
+    }
+    
+    /** Sets the value of the 'username' field */
+    public avro.chat.proto.Talker.Builder setUsername(java.lang.String value) {
+      validate(fields()[0], value);
+      this.username = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'username' field has been set */
+    public boolean hasUsername() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'username' field */
+    public avro.chat.proto.Talker.Builder clearUsername() {
+      username = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'messages' field */
+    public java.lang.Long getMessages() {
+      return messages;
+    }
+    
+    /** Sets the value of the 'messages' field */
+    public avro.chat.proto.Talker.Builder setMessages(long value) {
+      validate(fields()[1], value);
+      this.messages = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'messages' field has been set */
+    public boolean hasMessages() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'messages' field */
+    public avro.chat.proto.Talker.Builder clearMessages() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    @Override
+    public Talker build() {
+      try {
+        Talker record = new Talker();
+        record.username = fieldSetFlags()[0] ? this.username : (java.lang.String) defaultValue(fields()[0]);
+        record.messages = fieldSetFlags()[1] ? this.messages : (java.lang.Long) defaultValue(fields()[1]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
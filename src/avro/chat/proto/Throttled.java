@@ -0,0 +1,220 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class Throttled extends org.apache.avro.specific.SpecificExceptionBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"error\",\"name\":\"Throttled\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"retryAfter\",\"type\":\"long\"}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String reason;
+  @Deprecated public long retryAfter;
+
+  public Throttled() {
+    super();
+  }
+  
+  public Throttled(Object value) {
+    super(value);
+  }
+
+  public Throttled(Throwable cause) {
+    super(cause);
+  }
+
+  public Throttled(Object value, Throwable cause) {
+    super(value, cause);
+  }
+  
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return reason;
+    case 1: return retryAfter;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: reason = (java.lang.String)value$; break;
+    case 1: retryAfter = (java.lang.Long)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'reason' field.
+   */
+  public java.lang.String getReason() {
+    return reason;
+  }
+
+  /**
+   * Sets the value of the 'reason' field.
+   * @param value the value to set.
+   */
+  public void setReason(java.lang.String value) {
+    this.reason = value;
+  }
+
+  /**
+   * Gets the value of the 'retryAfter' field.
+   */
+  public java.lang.Long getRetryAfter() {
+    return retryAfter;
+  }
+
+  /**
+   * Sets the value of the 'retryAfter' field.
+   * @param value the value to set.
+   */
+  public void setRetryAfter(java.lang.Long value) {
+    this.retryAfter = value;
+  }
+
+  /** Creates a new Throttled RecordBuilder */
+  public static avro.chat.proto.Throttled.Builder newBuilder() {
+    return new avro.chat.proto.Throttled.Builder();
+  }
+  
+  /** Creates a new Throttled RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.Throttled.Builder newBuilder(avro.chat.proto.Throttled.Builder other) {
+    return new avro.chat.proto.Throttled.Builder(other);
+  }
+  
+  /** Creates a new Throttled RecordBuilder by copying an existing Throttled instance */
+  public static avro.chat.proto.Throttled.Builder newBuilder(avro.chat.proto.Throttled other) {
+    return new avro.chat.proto.Throttled.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for Throttled instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificErrorBuilderBase<Throttled>
+    implements org.apache.avro.data.ErrorBuilder<Throttled> {
+
+    private java.lang.String reason;
+    private long retryAfter;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.Throttled.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.Throttled.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.retryAfter)) {
+        this.retryAfter = data().deepCopy(fields()[1].schema(), other.retryAfter);
+        fieldSetFlags()[1] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing Throttled instance */
+    private Builder(avro.chat.proto.Throttled other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+      if (isValidValue(fields()[1], other.retryAfter)) {
+        this.retryAfter = data().deepCopy(fields()[1].schema(), other.retryAfter);
+        fieldSetFlags()[1] = true;
+      }
+    }
+
+    @Override
+    public avro.chat.proto.Throttled.Builder setValue(Object value) {
+      super.setValue(value);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Throttled.Builder clearValue() {
+      super.clearValue();
+      return this;
+    }
+
+    @Override
+    public avro.chat.proto.Throttled.Builder setCause(Throwable cause) {
+      super.setCause(cause);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Throttled.Builder clearCause() {
+      super.clearCause();
+      return this;
+    }
+
+    /** Gets the value of the 'reason' field */
+    public java.lang.String getReason() {
+      return reason;
+    }
+    
+    /** Sets the value of the 'reason' field */
+    public avro.chat.proto.Throttled.Builder setReason(java.lang.String value) {
+      validate(fields()[0], value);
+      this.reason = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'reason' field has been set */
+    public boolean hasReason() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'reason' field */
+    public avro.chat.proto.Throttled.Builder clearReason() {
+      reason = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'retryAfter' field */
+    public java.lang.Long getRetryAfter() {
+      return retryAfter;
+    }
+    
+    /** Sets the value of the 'retryAfter' field */
+    public avro.chat.proto.Throttled.Builder setRetryAfter(long value) {
+      validate(fields()[1], value);
+      this.retryAfter = value;
+      fieldSetFlags()[1] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'retryAfter' field has been set */
+    public boolean hasRetryAfter() {
+      return fieldSetFlags()[1];
+    }
+    
+    /** Clears the value of the 'retryAfter' field */
+    public avro.chat.proto.Throttled.Builder clearRetryAfter() {
+      fieldSetFlags()[1] = false;
+      return this;
+    }
+
+    @Override
+    public Throttled build() {
+      try {
+        Throttled record = new Throttled(getValue(), getCause());
+        record.reason = fieldSetFlags()[0] ? this.reason : (java.lang.String) defaultValue(fields()[0]);
+        record.retryAfter = fieldSetFlags()[1] ? this.retryAfter : (java.lang.Long) defaultValue(fields()[1]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Autogenerated by Avro
+ * 
+ * DO NOT EDIT DIRECTLY
+ */
+package avro.chat.proto;  
+@SuppressWarnings("all")
+@org.apache.avro.specific.AvroGenerated
+public class Unavailable extends org.apache.avro.specific.SpecificExceptionBase implements org.apache.avro.specific.SpecificRecord {
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"error\",\"name\":\"Unavailable\",\"namespace\":\"avro.chat.proto\",\"fields\":[{\"name\":\"reason\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}}]}");
+  public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  @Deprecated public java.lang.String reason;
+
+  public Unavailable() {
+    super();
+  }
+  
+  public Unavailable(Object value) {
+    super(value);
+  }
+
+  public Unavailable(Throwable cause) {
+    super(cause);
+  }
+
+  public Unavailable(Object value, Throwable cause) {
+    super(value, cause);
+  }
+  
+  public org.apache.avro.Schema getSchema() { return SCHEMA$; }
+  // Used by DatumWriter.  Applications should not call. 
+  public java.lang.Object get(int field$) {
+    switch (field$) {
+    case 0: return reason;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+  // Used by DatumReader.  Applications should not call. 
+  @SuppressWarnings(value="unchecked")
+  public void put(int field$, java.lang.Object value$) {
+    switch (field$) {
+    case 0: reason = (java.lang.String)value$; break;
+    default: throw new org.apache.avro.AvroRuntimeException("Bad index");
+    }
+  }
+
+  /**
+   * Gets the value of the 'reason' field.
+   */
+  public java.lang.String getReason() {
+    return reason;
+  }
+
+  /**
+   * Sets the value of the 'reason' field.
+   * @param value the value to set.
+   */
+  public void setReason(java.lang.String value) {
+    this.reason = value;
+  }
+
+  /** Creates a new Unavailable RecordBuilder */
+  public static avro.chat.proto.Unavailable.Builder newBuilder() {
+    return new avro.chat.proto.Unavailable.Builder();
+  }
+  
+  /** Creates a new Unavailable RecordBuilder by copying an existing Builder */
+  public static avro.chat.proto.Unavailable.Builder newBuilder(avro.chat.proto.Unavailable.Builder other) {
+    return new avro.chat.proto.Unavailable.Builder(other);
+  }
+  
+  /** Creates a new Unavailable RecordBuilder by copying an existing Unavailable instance */
+  public static avro.chat.proto.Unavailable.Builder newBuilder(avro.chat.proto.Unavailable other) {
+    return new avro.chat.proto.Unavailable.Builder(other);
+  }
+  
+  /**
+   * RecordBuilder for Unavailable instances.
+   */
+  public static class Builder extends org.apache.avro.specific.SpecificErrorBuilderBase<Unavailable>
+    implements org.apache.avro.data.ErrorBuilder<Unavailable> {
+
+    private java.lang.String reason;
+
+    /** Creates a new Builder */
+    private Builder() {
+      super(avro.chat.proto.Unavailable.SCHEMA$);
+    }
+    
+    /** Creates a Builder by copying an existing Builder */
+    private Builder(avro.chat.proto.Unavailable.Builder other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+    
+    /** Creates a Builder by copying an existing Unavailable instance */
+    private Builder(avro.chat.proto.Unavailable other) {
+      super(other);
+      if (isValidValue(fields()[0], other.reason)) {
+        this.reason = data().deepCopy(fields()[0].schema(), other.reason);
+        fieldSetFlags()[0] = true;
+      }
+    }
+
+    @Override
+    public avro.chat.proto.Unavailable.Builder setValue(Object value) {
+      super.setValue(value);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Unavailable.Builder clearValue() {
+      super.clearValue();
+      return this;
+    }
+
+    @Override
+    public avro.chat.proto.Unavailable.Builder setCause(Throwable cause) {
+      super.setCause(cause);
+      return this;
+    }
+    
+    @Override
+    public avro.chat.proto.Unavailable.Builder clearCause() {
+      super.clearCause();
+      return this;
+    }
+
+    /** Gets the value of the 'reason' field */
+    public java.lang.String getReason() {
+      return reason;
+    }
+    
+    /** Sets the value of the 'reason' field */
+    public avro.chat.proto.Unavailable.Builder setReason(java.lang.String value) {
+      validate(fields()[0], value);
+      this.reason = value;
+      fieldSetFlags()[0] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'reason' field has been set */
+    public boolean hasReason() {
+      return fieldSetFlags()[0];
+    }
+    
+    /** Clears the value of the 'reason' field */
+    public avro.chat.proto.Unavailable.Builder clearReason() {
+      reason = null;
+      fieldSetFlags()[0] = false;
+      return this;
+    }
+
+    @Override
+    public Unavailable build() {
+      try {
+        Unavailable record = new Unavailable(getValue(), getCause());
+        record.reason = fieldSetFlags()[0] ? this.reason : (java.lang.String) defaultValue(fields()[0]);
+        return record;
+      } catch (Exception e) {
+        throw new org.apache.avro.AvroRuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.apache.avro.ipc.SaslSocketTransceiver;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.ipc.specific.SpecificRequestor;
+
+import avro.chat.proto.Admin;
+import avro.chat.proto.RateLimit;
+import avro.chat.proto.RoomStats;
+import avro.chat.proto.ServerStats;
+import avro.chat.proto.SessionStats;
+import avro.chat.proto.Talker;
+
+/***
+ * Command line tool for the admin protocol of a server running on the same
+ * machine.
+ */
+public class AdminClient {
+	private static final String USAGE = "ERROR: Usage: AdminClient <admin port> stats | sessions | top [count]"
+			+ " | limits | limit <name> <rate> <burst> | retention [messages]";
+
+	/***
+	 * Main method for the tool.
+	 *
+	 * @param args
+	 *            The admin port of the server (the server's port + 1 by
+	 *            default), a command and its arguments.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		Transceiver transceiver = null;
+		try {
+			int port = Integer.parseInt(args[0]);
+			transceiver = new SaslSocketTransceiver(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+			Admin admin = SpecificRequestor.getClient(Admin.class, transceiver);
+
+			String command = args[1];
+			if (command.equals("stats")) {
+				printStats(admin.getStats());
+			} else if (command.equals("sessions")) {
+				System.out.println(String.format("  %-20s %12s %8s %10s", "user", "session", "pending", "rtt"));
+				for (SessionStats session : admin.getSessionStats()) {
+					System.out.println(String.format("  %-20s %12d %8d %7.1f ms", session.getUsername(),
+							session.getSession(), session.getPendingDeliveries(), session.getRttMillis()));
+				}
+			} else if (command.equals("top")) {
+				int count = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+				for (Talker talker : admin.getTopTalkers(count)) {
+					System.out.println(String.format("  %-20s ~%d messages", talker.getUsername(),
+							talker.getMessages()));
+				}
+			} else if (command.equals("limits")) {
+				for (RateLimit limit : admin.getRateLimits()) {
+					System.out.println(String.format("  %-8s %8.2f/s, burst %d", limit.getName(), limit.getRate(),
+							limit.getBurst()));
+				}
+			} else if (command.equals("limit") && args.length == 5) {
+				boolean set = admin.setRateLimit(args[2], Double.parseDouble(args[3]), Integer.parseInt(args[4]));
+				System.out.println(set ? "Rate limit changed." : "No such rate limit, or invalid values.");
+			} else if (command.equals("retention")) {
+				if (args.length > 2) {
+					admin.setHistoryRetention(Integer.parseInt(args[2]));
+				}
+				int retention = admin.getHistoryRetention();
+				System.out.println("Rooms keep " + (retention > 0 ? "their last " + retention : "all") + " messages.");
+			} else {
+				System.err.println(USAGE);
+				System.exit(1);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println(USAGE);
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("ERROR: Connecting to the admin protocol. Double check the admin port.");
+			System.exit(1);
+		} finally {
+			if (transceiver != null) {
+				transceiver.close();
+			}
+		}
+	}
+
+	private static void printStats(ServerStats stats) {
+		System.out.println("uptime:          " + stats.getUptime() / 1000 + " s");
+		System.out.println("sessions:        " + stats.getSessions());
+		System.out.println("pushes:          " + stats.getPushesInFlight() + " in flight");
+		System.out.println("heartbeat sweep: " + String.format("%.1f ms", stats.getHeartbeatSweepMillis()));
+		System.out.println("allocation:      "
+				+ String.format("%.1f MB/s", stats.getAllocatedBytesPerSecond() / (1024 * 1024)));
+		System.out.println("heap used:       " + stats.getHeapUsed() / (1024 * 1024) + " MB");
+		System.out.println("retransmitted:   " + stats.getRetransmitted() + ", given up " + stats.getGivenUp());
+		for (RoomStats room : stats.getRooms()) {
+			System.out.println(String.format("  %-20s %6d members %10d messages %8.2f/s", room.getName(),
+					room.getMembers(), room.getMessages(), room.getMessagesPerSecond()));
+		}
+	}
+}
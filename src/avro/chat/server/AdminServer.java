@@ -0,0 +1,181 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.AvroRemoteException;
+
+import avro.chat.proto.Admin;
+import avro.chat.proto.RateLimit;
+import avro.chat.proto.RoomStats;
+import avro.chat.proto.ServerStats;
+import avro.chat.proto.SessionStats;
+import avro.chat.proto.Talker;
+
+/***
+ * Answers the admin protocol of a running server: what is going on in it, and
+ * the knobs which can be turned without restarting it.
+ *
+ * The server serves it on a port of its own, on the loopback address only, so
+ * only someone on the machine can turn the knobs. Everything it reports is
+ * read from counters the server keeps anyway, see Statistics.
+ */
+public class AdminServer implements Admin {
+	private final ChatServer server;
+
+	/***
+	 * @param server
+	 *            The server to look at.
+	 */
+	public AdminServer(ChatServer server) {
+		this.server = server;
+	}
+
+	/***
+	 * Gets an overview of the server: the rooms, the heartbeat, memory and
+	 * retransmissions.
+	 *
+	 * @return ServerStats The overview.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public ServerStats getStats() throws AvroRemoteException {
+		ArrayList<RoomStats> rooms = new ArrayList<RoomStats>();
+		for (ChatRoom room : server.getRooms()) {
+			rooms.add(new RoomStats(room.getName(), room.getMemberCount(), room.getLastSequence(),
+					room.getMessageRate()));
+		}
+
+		Statistics statistics = server.getStatistics();
+		Retransmitter retransmits = server.getRetransmitter();
+		Runtime runtime = Runtime.getRuntime();
+		return new ServerStats(statistics.getUptime(), countSessions(), server.getPushesInFlight(), rooms,
+				statistics.getSweepMillis(), statistics.getLastSweep(), statistics.getAllocationRate(),
+				runtime.totalMemory() - runtime.freeMemory(), retransmits.getRetransmitted(),
+				retransmits.getGivenUp());
+	}
+
+	/***
+	 * Gets the state of every session: how many pushed messages it didn't
+	 * acknowledge yet, and how long a heartbeat to it takes.
+	 *
+	 * @return List The sessions.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public List<SessionStats> getSessionStats() throws AvroRemoteException {
+		SessionIds sessions = server.getSessionIds();
+		Statistics statistics = server.getStatistics();
+		Retransmitter retransmits = server.getRetransmitter();
+		ArrayList<SessionStats> result = new ArrayList<SessionStats>();
+		for (int slot = 0; slot < sessions.getSlots(); slot++) {
+			int id = sessions.getIdAt(slot);
+			String username = sessions.getName(id);
+			if (username != null) {
+				result.add(new SessionStats(username, id, (long) retransmits.getPending(id),
+						statistics.getRoundTrip(username)));
+			}
+		}
+		return result;
+	}
+
+	/***
+	 * Gets the users who sent the most messages since the server started.
+	 * The counts are estimates, which may be a bit too high.
+	 *
+	 * @param count
+	 *            The number of users.
+	 *
+	 * @return List The users, most messages first.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public List<Talker> getTopTalkers(int count) throws AvroRemoteException {
+		return server.getStatistics().getTopTalkers(count);
+	}
+
+	/***
+	 * @return List The rate limits of the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public List<RateLimit> getRateLimits() throws AvroRemoteException {
+		ArrayList<RateLimit> limits = new ArrayList<RateLimit>();
+		for (RateLimiter limiter : server.getRateLimiters()) {
+			limits.add(new RateLimit(limiter.getName(), limiter.getRate(), limiter.getBurst()));
+		}
+		return limits;
+	}
+
+	/***
+	 * Changes a rate limit.
+	 *
+	 * @param name
+	 *            The name of the limit: message, room, join or list.
+	 * @param rate
+	 *            The sustained rate, in calls per second.
+	 * @param burst
+	 *            The number of calls allowed at once.
+	 *
+	 * @return boolean Whether the limit exists and the values are valid.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean setRateLimit(String name, double rate, int burst) throws AvroRemoteException {
+		if (!(rate > 0) || burst < 1) {
+			return false;
+		}
+		for (RateLimiter limiter : server.getRateLimiters()) {
+			if (limiter.getName().equals(name)) {
+				limiter.set(rate, burst);
+				System.out.println("server> Rate limit changed to " + limiter + ".");
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/***
+	 * @return int The number of messages every room keeps, 0 when they keep
+	 *         all of them.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public int getHistoryRetention() throws AvroRemoteException {
+		return ChatRoom.getRetention();
+	}
+
+	/***
+	 * Changes how many messages every room keeps.
+	 *
+	 * @param messages
+	 *            The number of messages, 0 to keep all of them.
+	 *
+	 * @return null
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void setHistoryRetention(int messages) throws AvroRemoteException {
+		ChatRoom.setRetention(messages);
+		System.out.println("server> Rooms keep " + (messages > 0 ? "their last " + messages : "all") + " messages.");
+		return null;
+	}
+
+	private int countSessions() {
+		SessionIds sessions = server.getSessionIds();
+		int count = 0;
+		for (int slot = 0; slot < sessions.getSlots(); slot++) {
+			if (sessions.getIdAt(slot) >= 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
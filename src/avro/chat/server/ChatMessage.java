@@ -0,0 +1,38 @@
+package avro.chat.server;
+
+/***
+ * A message sent to a chat room, numbered in the order the room received it.
+ */
+public class ChatMessage {
+	private final long sequence;
+	private final String username;
+	private final String message;
+	private final long timestamp;
+
+	public ChatMessage(long sequence, String username, String message, long timestamp) {
+		this.sequence = sequence;
+		this.username = username;
+		this.message = message;
+		this.timestamp = timestamp;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/***
+	 * @return long When the room received the message (milliseconds since
+	 *         the epoch).
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+}
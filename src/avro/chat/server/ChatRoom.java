@@ -1,11 +1,42 @@
 package avro.chat.server;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ChatRoom {
+	public static final int MAX_LINKS = 100;
+	// messages every room keeps at most, 0 to keep all of them
+	private static volatile int retention = Integer.getInteger("chat.history.retention", 0);
+
+	private final String name;
 	private ArrayList<String> clients = new ArrayList<String>();
-	private ArrayList<Hashtable<String, String>> messages = new ArrayList<Hashtable<String, String>>();
+	private ArrayList<ChatMessage> messages = new ArrayList<ChatMessage>();
+	// written while holding the room's lock, read without it
+	private volatile long lastSequence = 0;
+	private MessageIndex index = new MessageIndex();
+	// counts changes, so snapshots can skip rooms which didn't change
+	private final AtomicLong changes = new AtomicLong();
+	private final RateMeter rate = new RateMeter();
+	private final ArrayDeque<String> links = new ArrayDeque<String>(); // guarded by itself
+
+	public ChatRoom() {
+		this("Public");
+	}
+
+	/***
+	 * @param name
+	 *            The name of the room.
+	 */
+	public ChatRoom(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
 
 	/***
 	 * Connects the user to the public room if he is not connected yet.
@@ -18,6 +49,7 @@ public class ChatRoom {
 	public boolean join(String username) {
 		if (!clients.contains(username)) {
 			clients.add(username);
+			changed();
 			return true;
 		} else {
 			return false;
@@ -40,6 +72,15 @@ public class ChatRoom {
 		}
 	}
 
+	/***
+	 * Gets the users in the room.
+	 *
+	 * @return ArrayList A copy of the list of user names.
+	 */
+	public ArrayList<String> getClients() {
+		return new ArrayList<String>(clients);
+	}
+
 	/***
 	 * Disconnects the user from the public room.
 	 *
@@ -47,7 +88,9 @@ public class ChatRoom {
 	 *            The nickname of the user.
 	 */
 	public void leave(String username) {
-		clients.remove(username);
+		if (clients.remove(username)) {
+			changed();
+		}
 	}
 
 	/***
@@ -58,13 +101,231 @@ public class ChatRoom {
 	 *            The nickname of the user.
 	 * @param message
 	 *            The message of the user.
+	 *
+	 * @return long The sequence number of the message in this room.
 	 */
-	public void sendMessage(String username, String message) {
-		Hashtable<String, String> userMessage = new Hashtable<String, String>();
+	public synchronized long sendMessage(String username, String message) {
+		long sequence = ++lastSequence;
+		messages.add(new ChatMessage(sequence, username, message, System.currentTimeMillis()));
+		index.add(sequence, message);
+		int keep = retention;
+		// trimmed a quarter at a time, so rebuilding the index stays cheap
+		if (keep > 0 && messages.size() > keep + keep / 4) {
+			trim(keep);
+		}
+		changed();
+		rate.record();
 
-		userMessage.put(username, message);
-		messages.add(userMessage);
+		System.out.println(username + "> (" + name + "): " + message);
+		return sequence;
+	}
 
-		System.out.println(username + "> (Public): " + message);
+	/***
+	 * Gets the sequence number of the last message in the room.
+	 *
+	 * @return long The sequence number, 0 if the room has no messages yet.
+	 */
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	/***
+	 * Gets the sequence number of the oldest message the room still keeps.
+	 *
+	 * @return long The sequence number, the next one if the room keeps no
+	 *         messages.
+	 */
+	public synchronized long getFirstSequence() {
+		return messages.isEmpty() ? lastSequence + 1 : messages.get(0).getSequence();
+	}
+
+	/***
+	 * @return int The number of members of the room.
+	 */
+	public int getMemberCount() {
+		return clients.size();
+	}
+
+	/***
+	 * @return double The number of messages per second the room received
+	 *         lately.
+	 */
+	public double getMessageRate() {
+		return rate.getRate();
+	}
+
+	/***
+	 * Gets the messages the room received after a given message.
+	 *
+	 * @param sequence
+	 *            The sequence number of the last message the caller has. When
+	 *            it is higher than anything in the room (the server was
+	 *            restarted) all messages are returned.
+	 *
+	 * @return ArrayList The messages, oldest first.
+	 */
+	public synchronized ArrayList<ChatMessage> getMessagesSince(long sequence) {
+		if (sequence > lastSequence) {
+			sequence = 0;
+		}
+
+		// sequence numbers are consecutive, so find the start by offset
+		int start = messages.size() - (int) Math.min(messages.size(), lastSequence - sequence);
+		return new ArrayList<ChatMessage>(messages.subList(start, messages.size()));
+	}
+
+	/***
+	 * Gets a message of the room by its sequence number.
+	 *
+	 * @param sequence
+	 *            The sequence number of the message.
+	 *
+	 * @return ChatMessage The message, null when the room doesn't have it.
+	 */
+	public synchronized ChatMessage getMessage(long sequence) {
+		// sequence numbers are consecutive, so find the message by offset
+		long offset = lastSequence - sequence;
+		if (sequence <= 0 || offset < 0 || offset >= messages.size()) {
+			return null;
+		}
+		return messages.get(messages.size() - 1 - (int) offset);
+	}
+
+	/***
+	 * Keeps the links found in a message, the room keeps the last MAX_LINKS.
+	 *
+	 * @param found
+	 *            The links, in order.
+	 */
+	public void addLinks(List<String> found) {
+		if (found.isEmpty()) {
+			return;
+		}
+		synchronized (links) {
+			for (String link : found) {
+				links.addLast(link);
+				if (links.size() > MAX_LINKS) {
+					links.removeFirst();
+				}
+			}
+		}
+	}
+
+	/***
+	 * Gets the links posted in the room lately.
+	 *
+	 * @param limit
+	 *            The maximum number of links.
+	 *
+	 * @return ArrayList The links, newest first.
+	 */
+	public ArrayList<String> getLinks(int limit) {
+		ArrayList<String> recent = new ArrayList<String>();
+		synchronized (links) {
+			Iterator<String> newest = links.descendingIterator();
+			while (newest.hasNext() && recent.size() < limit) {
+				recent.add(newest.next());
+			}
+		}
+		return recent;
+	}
+
+	/***
+	 * Searches the messages of the room.
+	 *
+	 * @param query
+	 *            The words to look for, messages must contain all of them.
+	 * @param limit
+	 *            The maximum number of results.
+	 *
+	 * @return ArrayList The most recent matching messages, newest first.
+	 */
+	public synchronized ArrayList<ChatMessage> search(String query, int limit) {
+		ArrayList<ChatMessage> result = new ArrayList<ChatMessage>();
+		for (long sequence : index.search(query, limit)) {
+			// sequence numbers are consecutive, so find the message by offset
+			result.add(messages.get(messages.size() - 1 - (int) (lastSequence - sequence)));
+		}
+		return result;
+	}
+
+	/***
+	 * @return ArrayList A copy of all messages of the room, oldest first.
+	 */
+	public synchronized ArrayList<ChatMessage> getMessages() {
+		return new ArrayList<ChatMessage>(messages);
+	}
+
+	/***
+	 * Puts back the messages of the room after a restart, replacing what it
+	 * has. The links are found in the messages again.
+	 *
+	 * @param restored
+	 *            The messages, oldest first, with consecutive sequence
+	 *            numbers.
+	 */
+	public synchronized void restore(List<ChatMessage> restored) {
+		messages = new ArrayList<ChatMessage>(restored);
+		lastSequence = restored.isEmpty() ? 0 : restored.get(restored.size() - 1).getSequence();
+		index = new MessageIndex();
+		synchronized (links) {
+			links.clear();
+		}
+		for (ChatMessage message : messages) {
+			index.add(message.getSequence(), message.getMessage());
+			addLinks(MessagePipeline.LinkExtractor.extract(message.getMessage()));
+		}
+		changed();
+	}
+
+	/***
+	 * Drops the oldest messages, keeping the given number, and indexes what
+	 * is left again.
+	 */
+	private void trim(int keep) {
+		messages.subList(0, messages.size() - keep).clear();
+		index = new MessageIndex();
+		for (ChatMessage message : messages) {
+			index.add(message.getSequence(), message.getMessage());
+		}
+	}
+
+	/***
+	 * @return int The number of messages every room keeps at most, 0 when
+	 *         they keep all of them.
+	 */
+	public static int getRetention() {
+		return retention;
+	}
+
+	/***
+	 * Sets how many messages every room keeps. Rooms drop their oldest
+	 * messages when they receive the next one, clients which were away longer
+	 * than that don't get the older messages anymore.
+	 *
+	 * @param messages
+	 *            The number of messages, 0 to keep all of them.
+	 */
+	public static void setRetention(int messages) {
+		retention = Math.max(0, messages);
+	}
+
+	/***
+	 * @return long The number of changes to the members and messages so far.
+	 */
+	public long getChanges() {
+		return changes.get();
+	}
+
+	protected void changed() {
+		changes.incrementAndGet();
+	}
+
+	/***
+	 * @return MessageIndex The index of the messages, only to be used while
+	 *         holding the room's lock.
+	 */
+	MessageIndex getIndex() {
+		return index;
 	}
 }
@@ -1,27 +1,76 @@
 package avro.chat.server;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.avro.AvroRemoteException;
-import org.apache.avro.ipc.SaslSocketServer;
-import org.apache.avro.ipc.SaslSocketTransceiver;
 import org.apache.avro.ipc.Server;
 import org.apache.avro.ipc.Transceiver;
 import org.apache.avro.ipc.specific.SpecificRequestor;
 import org.apache.avro.ipc.specific.SpecificResponder;
 
+import avro.chat.ipc.AckPlugin;
+import avro.chat.ipc.CompressionPlugin;
+import avro.chat.ipc.Span;
+import avro.chat.ipc.TracePlugin;
+import avro.chat.ipc.Tracer;
+import avro.chat.proto.Admin;
 import avro.chat.proto.Chat;
 import avro.chat.proto.ChatClientServer;
+import avro.chat.proto.Rejected;
+import avro.chat.proto.RoomMessage;
+import avro.chat.proto.RoomSnapshot;
+import avro.chat.proto.ServerSnapshot;
+import avro.chat.proto.SessionSnapshot;
+import avro.chat.proto.Throttled;
+import avro.chat.proto.SessionEnded;
+import avro.chat.proto.Unavailable;
 
 public class ChatServer implements Chat, Runnable {
-	private ChatRoom publicRoom = new ChatRoom();
+	public static final int MAX_SEARCH_RESULTS = 100;
+	// messages being pushed to the room members at once, more are shed
+	public static final int MAX_FANOUTS = Integer.getInteger("chat.limit.fanouts", 32);
+	public static final long BUSY_RETRY = 250; // milliseconds, when messages are shed
+	private static final String SESSION_ENDED = "server> Your session has ended, connect to the server again.";
+
+	// integer IDs of the registered clients, used on the hot calls
+	private SessionIds sessions = new SessionIds();
+	private PublicRoom publicRoom = new PublicRoom(sessions);
+	// numbers the pushed messages and pushes what isn't acknowledged again
+	private Retransmitter retransmits = new Retransmitter(sessions);
+	private MessagePipeline pipeline = MessagePipeline.standard(sessions);
+	// private groups by name, members stay in them until they leave
+	private Hashtable<String, PrivateGroup> groups = new Hashtable<String, PrivateGroup>();
+	// lazy connections to the clients' local servers
+	private ClientConnections connections = new ClientConnections();
 	private Hashtable<String, Transceiver> clients = new Hashtable<String, Transceiver>();
 	private Hashtable<String, ChatClientServer> clientsServer = new Hashtable<String, ChatClientServer>();
 	private Hashtable<String, String> pendingRequests = new Hashtable<String, String>();
+	// private chat partners, the server relays between them when needed
+	private Hashtable<String, String> privatePartners = new Hashtable<String, String>();
+	private Hashtable<String, VideoRelay> broadcasts = new Hashtable<String, VideoRelay>();
+	private Hashtable<String, Integer> renditions = new Hashtable<String, Integer>();
+
+	// flood protection, every message is pushed to the whole room
+	private RateLimiter userMessages = new RateLimiter("message", 5, 10); // per user
+	private RateLimiter roomMessages = new RateLimiter("room", 50, 100); // per room
+	private RateLimiter joins = new RateLimiter("join", 1, 5); // per user
+	private RateLimiter clientLists = new RateLimiter("list", 2, 5); // per user
+	private RateLimiter anonymousLists = new RateLimiter("anonlist", 50, 200); // for everyone
+	private AtomicInteger fanouts = new AtomicInteger();
+	// set while shutting down, new work is refused
+	private volatile boolean draining = false;
+	private AtomicLong sessionChanges = new AtomicLong();
+	private Statistics statistics = new Statistics();
 
 	/** Proxy methods **/
 	/***
@@ -54,36 +103,130 @@ public class ChatServer implements Chat, Runnable {
 	 */
 	@Override
 	public boolean register(String username, String clientIP, int clientServerPort) throws AvroRemoteException {
+		checkAvailable();
+		// checked first, nothing is made for a name which is taken
+		Transceiver known = clients.get(username);
+		if (known != null) {
+			LazyTransceiver session = (LazyTransceiver) known;
+			if (session.isRestored() && session.isAt(clientIP, clientServerPort)) {
+				System.out.println("server> " + username + " is back, its session was restored.");
+				return false;
+			} else if (!session.isRestored()) {
+				System.err.println("server> " + username + " is already registered with the server.");
+				return false;
+			}
+			// the client restarted on another port
+		}
+
+		// connects when the client is first called
+		LazyTransceiver transceiver;
+		ChatClientServer proxy;
 		try {
-			Transceiver transceiver = new SaslSocketTransceiver(
-					new InetSocketAddress(InetAddress.getByName(clientIP), clientServerPort));
-			ChatClientServer proxy = (ChatClientServer) SpecificRequestor.getClient(ChatClientServer.class,
-					transceiver);
+			transceiver = connections.open(clientIP, clientServerPort, false);
+			proxy = makeClientProxy(transceiver);
+		} catch (IOException e) {
+			System.err.println("server> Unknown client address: " + clientIP + ":" + clientServerPort);
+			return false;
+		}
 
-			if (!clients.containsKey(username)) {
-				clients.put(username, transceiver);
-				clientsServer.put(username, proxy);
-				System.out.println("server> Registered client with username: " + username);
-				return true;
-			} else {
+		synchronized (clients) {
+			if (clients.get(username) != known) {
+				connections.close(transceiver);
 				System.err.println("server> " + username + " is already registered with the server.");
 				return false;
 			}
-		} catch (IOException e1) {
-			System.err.println("server> Couldn't connect back to the client on: " + clientIP + ":" + clientServerPort);
-			return false;
+			if (sessions.open(username, proxy) < 0) {
+				connections.close(transceiver);
+				System.err.println("server> No session left for " + username + ", the server is full.");
+				return false;
+			}
+			clients.put(username, transceiver);
+			clientsServer.put(username, proxy);
+		}
+		connections.close(known);
+		sessionChanges.incrementAndGet();
+		System.out.println("server> Registered client with username: " + username);
+		return true;
+	}
+
+	/***
+	 * Registers a client like register does, and gives it the ID of its
+	 * session for the calls which take one. A client which registers again
+	 * from the same address, after it lost its connection or the server
+	 * restarted, gets its session back.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param clientIP
+	 *            The IP address of the client.
+	 * @param clientServerPort
+	 *            The port to which client's local server is bound to.
+	 *
+	 * @return int The ID of the client's session, -1 when it couldn't be
+	 *         registered.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public int openSession(String username, String clientIP, int clientServerPort) throws AvroRemoteException {
+		Transceiver known = clients.get(username);
+		if (known != null && ((LazyTransceiver) known).isAt(clientIP, clientServerPort)) {
+			checkAvailable();
+			System.out.println("server> " + username + " is back, its session was kept.");
+			return sessions.getId(username);
 		}
+		return register(username, clientIP, clientServerPort) ? sessions.getId(username) : -1;
 	}
 
 	/***
-	 * Gets all clients which are currently connected to the server.
+	 * Gets all clients which are currently connected to the server. The call
+	 * doesn't say who asks, so all its callers share a single, generous limit;
+	 * clients with a session use getClientListById.
 	 *
 	 * @return List The list of user names.
 	 * 
 	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the list is asked too often.
+	 */
+	@Override
+	public ArrayList<String> getClientList() throws AvroRemoteException, Throttled {
+		return getClientList(anonymousLists, "");
+	}
+
+	/***
+	 * Gets all clients which are currently connected to the server, by the ID
+	 * of the asking client's session, which has a limit of its own.
+	 *
+	 * @param session
+	 *            The ID the client got from openSession.
+	 *
+	 * @return List The list of user names.
+	 *
+	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the client asks for the list too often.
+	 * @throws SessionEnded
+	 *             When the heartbeat dropped the session.
 	 */
 	@Override
-	public ArrayList<String> getClientList() throws AvroRemoteException {
+	public ArrayList<String> getClientListById(int session)
+			throws AvroRemoteException, Throttled, SessionEnded {
+		String username = sessions.getName(session);
+		if (username == null) {
+			throw sessionEnded();
+		}
+		return getClientList(clientLists, username);
+	}
+
+	private ArrayList<String> getClientList(RateLimiter limiter, String key) throws Throttled {
+		long wait = limiter.acquire(key);
+		if (wait > 0) {
+			throw Throttled.newBuilder()
+					.setReason("server> The client list is asked too often, try again in " + wait + " ms.")
+					.setRetryAfter(wait).build();
+		}
+
 		ArrayList<String> clientList = new ArrayList<String>();
 		clientList.addAll(clients.keySet());
 		return clientList;
@@ -105,13 +248,50 @@ public class ChatServer implements Chat, Runnable {
 	 */
 	@Override
 	public String join(String username, String roomName) throws AvroRemoteException {
+		return join(sessions.getId(username), username, roomName);
+	}
+
+	/***
+	 * Allows a client to join a specific room, by the ID of its session.
+	 *
+	 * @param session
+	 *            The ID the client got from openSession.
+	 * @param roomName
+	 *            The name of the room, either a public chat room or a private
+	 *            room.
+	 *
+	 * @return String The result, or an error.
+	 *
+	 * @throws AvroRemoteException
+	 * @throws SessionEnded
+	 *             When the heartbeat dropped the session.
+	 */
+	@Override
+	public String joinById(int session, String roomName) throws AvroRemoteException, SessionEnded {
+		String username = sessions.getName(session);
+		if (username == null) {
+			throw sessionEnded();
+		}
+		return join(session, username, roomName);
+	}
+
+	private String join(int session, String username, String roomName) throws AvroRemoteException {
+		checkAvailable();
 		String output;
 		if (username.equals(roomName)) {
 			output = "server> You can just talk to yourself, " + "you don't need our chat for that ;)";
 			return output;
 		}
+		long wait = joins.acquire(username);
+		if (wait > 0) {
+			return "server> You are joining too often, try again in " + wait + " ms.";
+		}
 		if (roomName.equals("Public")) { // Public chat
-			if (publicRoom.join(username)) {
+			if (session < 0) {
+				output = "server> " + username + " has to register before joining the public room.";
+				System.err.println(output);
+				return output;
+			} else if (publicRoom.join(session)) {
 				output = "server> " + username + " has successfully joined the Public chat room.";
 				System.out.println(output);
 				return output;
@@ -123,12 +303,11 @@ public class ChatServer implements Chat, Runnable {
 		} else { // Private Chat
 			if (clients.containsKey(roomName)) {
 				pendingRequests.put(username, roomName);
+				sessionChanges.incrementAndGet();
 				clientsServer.get(roomName).incomingMessage(
 						"server> " + username + " would like to start a private conversation with you.\n"
-								+ "server> You will be disconnected from all your current chats if you accept.\n"
 								+ "server> Type \"accept '" + username + "'\" when you want to start.");
-				output = "server> A request was sent to " + roomName
-						+ ".\nserver> When he accepts your existing chats will be closed.";
+				output = "server> A request was sent to " + roomName + ".";
 				return output;
 			} else {
 				output = "server> " + roomName + " is not connected to the server right now.\n"
@@ -149,11 +328,33 @@ public class ChatServer implements Chat, Runnable {
 	 */
 	@Override
 	public boolean leave(String userName) throws AvroRemoteException {
+		return leave(sessions.getId(userName), userName);
+	}
+
+	/***
+	 * Allows a client to leave the public chat room, by the ID of its
+	 * session.
+	 *
+	 * @param session
+	 *            The ID the client got from openSession.
+	 *
+	 * @return boolean Whether the client left the room.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean leaveById(int session) throws AvroRemoteException {
+		String username = sessions.getName(session);
+		return username != null && leave(session, username);
+	}
+
+	private boolean leave(int session, String userName) throws AvroRemoteException {
 		// if the user is in a private room, the disconnection happens outside
 		// the server
-		if (publicRoom.contains(userName)) {
-			publicRoom.leave(userName);
-			if (!publicRoom.contains(userName)) {
+		if (publicRoom.contains(session)) {
+			stopBroadcast(userName);
+			publicRoom.leave(session);
+			if (!publicRoom.contains(session)) {
 				System.out.println("server> " + userName + " has left the Public chat room.");
 				return true;
 			} else {
@@ -165,6 +366,36 @@ public class ChatServer implements Chat, Runnable {
 		}
 	}
 
+	/***
+	 * Ends the private chat of a client, the server stops relaying between
+	 * the two clients.
+	 *
+	 * @param userName
+	 *            The nickname of the client.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void leavePrivate(String userName) throws AvroRemoteException {
+		forgetPartner(userName);
+		return null;
+	}
+
+	/***
+	 * Forgets who a client chats with privately, on both sides.
+	 *
+	 * @param userName
+	 *            The nickname of the client.
+	 */
+	private void forgetPartner(String userName) {
+		synchronized (privatePartners) {
+			String partner = privatePartners.remove(userName);
+			if (partner != null && userName.equals(privatePartners.get(partner))) {
+				privatePartners.remove(partner);
+			}
+		}
+	}
+
 	/***
 	 * Allows a client to exit the server.
 	 *
@@ -175,8 +406,17 @@ public class ChatServer implements Chat, Runnable {
 	 */
 	private Void exit(String userName) throws AvroRemoteException {
 		leave(userName);
-		clients.remove(userName);
+		forgetPartner(userName);
+		connections.close(clients.remove(userName));
 		clientsServer.remove(userName);
+		retransmits.forget(sessions.getId(userName));
+		sessions.close(userName);
+		statistics.forget(userName);
+		renditions.remove(userName);
+		userMessages.forget(userName);
+		joins.forget(userName);
+		clientLists.forget(userName);
+		sessionChanges.incrementAndGet();
 		System.out.println("server> " + userName + " has exited the server.");
 		return null;
 	}
@@ -190,145 +430,1177 @@ public class ChatServer implements Chat, Runnable {
 	 *            The message to be delivered.
 	 *
 	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the user or the room sends too fast, or the server is
+	 *             busy.
+	 * @throws Rejected
+	 *             When the message may not be sent, for instance because it is
+	 *             too long.
+	 */
+	@Override
+	public String sendMessage(String userName, String message) throws AvroRemoteException, Throttled, Rejected {
+		return sendMessage(sessions.getId(userName), userName, message);
+	}
+
+	/***
+	 * Allows a client to send a message to the public room, by the ID of its
+	 * session.
+	 *
+	 * @param session
+	 *            The ID the client got from openSession.
+	 * @param message
+	 *            The message to be delivered.
+	 *
+	 * @return String The message as it was delivered, or an error.
+	 *
+	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the user or the room sends too fast, or the server is
+	 *             busy.
+	 * @throws Rejected
+	 *             When the message may not be sent, for instance because it is
+	 *             too long.
+	 * @throws SessionEnded
+	 *             When the heartbeat dropped the session.
 	 */
 	@Override
-	public String sendMessage(String userName, String message) throws AvroRemoteException {
-		if (!publicRoom.contains(userName)) {
+	public String sendMessageById(int session, String message)
+			throws AvroRemoteException, Throttled, Rejected, SessionEnded {
+		String username = sessions.getName(session);
+		if (username == null) {
+			throw sessionEnded();
+		}
+		return sendMessage(session, username, message);
+	}
+
+	private String sendMessage(int session, String userName, String message)
+			throws AvroRemoteException, Throttled, Rejected {
+		checkAvailable();
+		if (!publicRoom.contains(session)) {
 			String error = "server> You have not joined a chatroom yet.\n"
 					+ "server> To join type: \"join 'Public'\" to join the public chatroom.\n"
 					+ "server> Or \"join '(username)'\" to start a private conversation with someone.";
 			return error;
-		} else {
-			publicRoom.sendMessage(userName, message);
+		}
+
+		MessageDraft draft = pipeline.run(userName, "Public", message);
+		if (draft.isRejected()) {
+			throw Rejected.newBuilder().setReason(draft.getRejection()).build();
+		}
+		admitMessage(userName, "Public");
+		try {
+			long sequence = publicRoom.sendMessage(userName, draft.getText());
+			publicRoom.addLinks(draft.getLinks());
 
 			// send the message to all other clients
-			String output = userName + "> (Public): " + message;
-			for (String client : clients.keySet()) {
-				if (publicRoom.contains(client)) {
-					if (!client.equals(userName)) {
-						(clientsServer.get(client)).incomingMessage(output);
-					}
-				}
-			}
+			String output = userName + "> (Public): " + draft.getText();
+			push(publicRoom, sequence, output, session, publicRoom.getSessions());
+			notifyMentioned(draft.getMentions(), userName, output);
 			return output;
+		} finally {
+			fanouts.decrementAndGet();
 		}
 	}
 
 	/***
-	 * Set up the connection between two clients for a private chat.
+	 * Sends a message straight to one user, over the connection the server
+	 * pushes to it anyway. Unlike a private chat, which sets up a connection
+	 * between both clients after the other one accepts, this costs a single
+	 * hop: a one-off message needs no handshake. The message passes the same
+	 * pipeline and per user limit as room messages, but isn't kept.
 	 *
-	 * @param client1
-	 *            The nickname of the first client.
-	 * @param client2
-	 *            The nickname of the second client.
+	 * @param userName
+	 *            The nickname of the sender.
+	 * @param recipient
+	 *            The nickname of the user to send the message to.
+	 * @param message
+	 *            The message to be delivered.
 	 *
-	 * @return boolean Whether or not the connection was successfully made.
+	 * @return String The message as it was delivered, or an error.
 	 *
 	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the user or the room sends too fast, or the server is
+	 *             busy.
+	 * @throws Rejected
+	 *             When the message may not be sent, for instance because it is
+	 *             too long.
 	 */
 	@Override
-	public boolean setupConnection(String client1, String client2) throws AvroRemoteException {
-		if (pendingRequests.containsKey(client1)) {
-			if ((pendingRequests.get(client1)).equals(client2)) {
-				clientsServer.get(client1).incomingMessage("server> " + client2 + " has accepted your connection."
-						+ "\nserver> Your existing chats will now be closed and a private connection will be made.");
+	public String sendDirectMessage(String userName, String recipient, String message)
+			throws AvroRemoteException, Throttled, Rejected {
+		checkAvailable();
+		if (sessions.getId(userName) < 0) {
+			return "server> You are not registered on the server.";
+		}
+		ChatClientServer proxy = sessions.getProxy(sessions.getId(recipient));
+		if (proxy == null) {
+			return "server> " + recipient + " is not online, your message wasn't sent.";
+		}
 
-				if (publicRoom.contains(client1)) {
-					leave(client1);
-				}
-				if (publicRoom.contains(client2)) {
-					leave(client2);
-				}
+		MessageDraft draft = pipeline.run(userName, recipient, message);
+		if (draft.isRejected()) {
+			throw Rejected.newBuilder().setReason(draft.getRejection()).build();
+		}
+		admitMessage(userName, null);
+		try {
+			proxy.incomingDirectMessage(userName, userName + "> (to you): " + draft.getText());
+			return userName + "> (to " + recipient + "): " + draft.getText();
+		} catch (AvroRemoteException | RuntimeException e) {
+			return "server> " + recipient + " couldn't be reached, your message wasn't sent.";
+		} finally {
+			fanouts.decrementAndGet();
+		}
+	}
 
-				try {
-					System.out.println("server> Setting up connections between " + client1 + " and " + client2);
-					String client1Address = (clients.get(client1)).getRemoteName();
-					String client2Address = (clients.get(client2)).getRemoteName();
-					if (((clientsServer.get(client1)).register(client2, client2Address))
-							&& ((clientsServer.get(client2)).register(client1, client1Address))) {
-						System.out
-								.println("server> Connection succesfully made between " + client1 + " and " + client2);
-						pendingRequests.remove(client1);
-						return true;
-					} else {
-						System.err.println("server> Something went wrong with setting up connections between " + client1
-								+ " and " + client2);
-						return false;
+	/***
+	 * Pushes a message to the members of a room which are connected, except the
+	 * sender. A push which returns is delivered, a failed one is pushed again
+	 * by the retransmitter unless the member acknowledges it. A member that
+	 * stays unreachable catches up when it reconnects, and the heartbeat drops
+	 * it.
+	 *
+	 * @param room
+	 *            The room.
+	 * @param sequence
+	 *            The sequence number of the message in the room.
+	 * @param output
+	 *            The formatted message.
+	 * @param sender
+	 *            The session of the sender.
+	 * @param members
+	 *            The sessions of the members, -1 for those without one.
+	 */
+	private void push(ChatRoom room, final long sequence, final String output, int sender, int[] members) {
+		final String roomName = room.getName();
+		// the calls to the members are traced as part of the push
+		Span span = Tracer.child("push");
+		Span request = span == null ? null : Tracer.activate(span);
+		FanOut fanOut = new FanOut("push to " + roomName);
+		for (final int member : members) {
+			final ChatClientServer proxy = sessions.getProxy(member);
+			if (proxy == null || member == sender) {
+				continue;
+			}
+			final long delivery = retransmits.deliver(member, room, sequence);
+			fanOut.fork(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						proxy.incomingRoomMessage(roomName, sequence, output, delivery);
+						retransmits.delivered(member, delivery);
+					} catch (AvroRemoteException | RuntimeException e) {
+						// pushed again later, the other members aren't held up
 					}
-				} catch (IOException e) {
-					e.printStackTrace();
-					return false;
 				}
-			} else {
-				return false;
+			});
+		}
+		fanOut.join();
+		if (span != null) {
+			Tracer.activate(request);
+			span.tag("members", members.length);
+			span.finish();
+		}
+	}
+
+	/***
+	 * Lets the users mentioned in a public message know, when they aren't in
+	 * the public room to see it. The notice is pushed like a direct message
+	 * from the sender, so the mentioned users can answer it with one.
+	 *
+	 * @param mentions
+	 *            The nicknames of the mentioned users.
+	 * @param sender
+	 *            The nickname of the sender.
+	 * @param output
+	 *            The formatted message.
+	 */
+	private void notifyMentioned(List<String> mentions, final String sender, String output) {
+		if (mentions.isEmpty()) {
+			return;
+		}
+		final String notice = "server> " + sender + " mentioned you in the public room:\n" + output;
+		FanOut fanOut = new FanOut("mentions");
+		for (String username : mentions) {
+			int session = sessions.getId(username);
+			final ChatClientServer proxy = sessions.getProxy(session);
+			if (proxy == null || publicRoom.contains(session)) {
+				continue;
 			}
-		} else {
-			return false;
+			fanOut.fork(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						proxy.incomingDirectMessage(sender, notice);
+					} catch (AvroRemoteException | RuntimeException e) {
+						// the heartbeat drops clients which can't be reached
+					}
+				}
+			});
 		}
+		fanOut.join();
 	}
 
 	/***
-	 * Checks if all connected users are still alive. If not manually exit them
-	 * from the server.
-	 * 
-	 * @throws AvroRemoteException
+	 * Decides whether a message may be sent to a room. The server sheds
+	 * messages while too many are being pushed already, and limits how fast
+	 * every user and every room can send. The user is checked first, so a
+	 * flooding user doesn't use up the room's budget. Direct messages only
+	 * count for their sender.
+	 *
+	 * When the message is admitted, the caller has to decrement fanouts once
+	 * it is pushed.
+	 *
+	 * @param username
+	 *            The nickname of the sender.
+	 * @param roomName
+	 *            The name of the room, null for a direct message.
+	 *
+	 * @throws Throttled
+	 *             When the message isn't admitted, telling the user why not
+	 *             and when to try again.
 	 */
-	private void checkUsers() throws AvroRemoteException {
-		Hashtable<String, Transceiver> clientsCopy = new Hashtable<String, Transceiver>(clients);
+	private void admitMessage(String username, String roomName) throws Throttled {
+		if (fanouts.incrementAndGet() > MAX_FANOUTS) {
+			fanouts.decrementAndGet();
+			throw Throttled.newBuilder()
+					.setReason("server> The server is busy, your message wasn't sent. Try again in a moment.")
+					.setRetryAfter(BUSY_RETRY).build();
+		}
 
-		for (String client : clientsCopy.keySet()) {
-			try {
-				clientsServer.get(client).isAlive();
-			} catch (AvroRemoteException e) {
-				System.out.println("server> Failed to reconnect to " + client + ", dropping connection.");
-				exit(client);
+		long wait = userMessages.acquire(username);
+		if (wait == 0) {
+			wait = roomName == null ? 0 : roomMessages.acquire(roomName);
+			if (wait > 0) {
+				fanouts.decrementAndGet();
+				throw Throttled.newBuilder().setReason("server> " + roomName
+						+ " is too busy, your message wasn't sent. Try again in " + wait + " ms.").setRetryAfter(wait)
+						.build();
 			}
+			statistics.talked(username);
+			return;
 		}
+		fanouts.decrementAndGet();
+		throw Throttled.newBuilder().setReason(
+				"server> You are sending messages too fast, your message wasn't sent. Try again in " + wait + " ms.")
+				.setRetryAfter(wait).build();
 	}
 
 	/***
-	 * This thread runs a polling function which checks for the connected users
-	 * every 5 seconds.
+	 * Gets the messages other users sent to a room after a given message, so a
+	 * reconnecting client can catch up on what it missed.
+	 *
+	 * @param username
+	 *            The nickname of the client, its own messages are left out.
+	 * @param roomName
+	 *            The name of the room, 'Public' or a group the client is a
+	 *            member of.
+	 * @param sequence
+	 *            The sequence number of the last message the client received.
+	 *
+	 * @return List The missed messages, oldest first.
+	 *
+	 * @throws AvroRemoteException
 	 */
 	@Override
-	public void run() {
-		try {
-			while (true) {
-				checkUsers();
-				Thread.sleep(5000); // milliseconds
+	public List<RoomMessage> getMessagesSince(String username, String roomName, long sequence)
+			throws AvroRemoteException {
+		ArrayList<RoomMessage> missed = new ArrayList<RoomMessage>();
+		ChatRoom room = getRoom(username, roomName);
+		if (room != null) {
+			for (ChatMessage message : room.getMessagesSince(sequence)) {
+				if (!message.getUsername().equals(username)) {
+					missed.add(new RoomMessage(message.getSequence(), message.getUsername(), message.getMessage(),
+							message.getTimestamp()));
+				}
 			}
-		} catch (InterruptedException | AvroRemoteException e) {
-			e.printStackTrace();
 		}
+		return missed;
 	}
 
 	/***
-	 * Main method for the server.
-	 * 
-	 * Starts the server (on default port of 10010 if no argument was given).
-	 * 
-	 * @param args
-	 *            Only 1 optional argument is accepted for giving the server a
-	 *            port to run on.
+	 * Searches the messages of a room.
+	 *
+	 * @param roomName
+	 *            The name of the room, only the public room keeps messages.
+	 * @param query
+	 *            The words to look for, messages must contain all of them.
+	 * @param limit
+	 *            The maximum number of results, at most MAX_SEARCH_RESULTS.
+	 *
+	 * @return List<RoomMessage> The most recent matching messages, newest
+	 *         first.
+	 *
+	 * @throws AvroRemoteException
 	 */
-	public static void main(String[] args) {
-		Server server = null;
-		int serverPort = 10010;
+	@Override
+	public List<RoomMessage> search(String roomName, String query, int limit) throws AvroRemoteException {
+		ArrayList<RoomMessage> found = new ArrayList<RoomMessage>();
+		if (roomName.equals("Public")) {
+			for (ChatMessage message : publicRoom.search(query, Math.min(limit, MAX_SEARCH_RESULTS))) {
+				found.add(new RoomMessage(message.getSequence(), message.getUsername(), message.getMessage(),
+						message.getTimestamp()));
+			}
+		}
+		return found;
+	}
 
-		ChatServer cs = new ChatServer();
+	/***
+	 * Gets the links posted in a room lately.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param roomName
+	 *            The name of the room, 'Public' or a group the client is a
+	 *            member of.
+	 * @param limit
+	 *            The maximum number of links.
+	 *
+	 * @return List<String> The links, newest first.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public List<String> getLinks(String username, String roomName, int limit) throws AvroRemoteException {
+		ChatRoom room = getRoom(username, roomName);
+		if (room == null) {
+			return new ArrayList<String>();
+		}
+		return room.getLinks(Math.min(limit, ChatRoom.MAX_LINKS));
+	}
 
-		if (args.length == 1) {
-			serverPort = Integer.parseInt(args[0]);
-		} else if (args.length > 1) {
-			System.err.println("ERROR: Max. 1 arguments ([server port]) expected.");
+	/***
+	 * Gets the sequence number of the last message in a room.
+	 *
+	 * @param roomName
+	 *            The name of the room, 'Public' or a group.
+	 *
+	 * @return long The sequence number, 0 if the room has no messages.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public long getLastSequence(String roomName) throws AvroRemoteException {
+		if (roomName.equals("Public")) {
+			return publicRoom.getLastSequence();
 		}
+		ChatRoom group = groups.get(roomName);
+		return group == null ? 0 : group.getLastSequence();
+	}
 
-		try {
-			server = new SaslSocketServer(new SpecificResponder(Chat.class, cs), new InetSocketAddress(serverPort));
-			server.start();
+	/***
+	 * Gets a room a user may read.
+	 *
+	 * @param username
+	 *            The nickname of the user.
+	 * @param roomName
+	 *            The name of the room.
+	 *
+	 * @return ChatRoom The public room, or the group if the user is a member
+	 *         of it; null otherwise.
+	 */
+	private ChatRoom getRoom(String username, String roomName) {
+		if (roomName.equals("Public")) {
+			return publicRoom;
+		}
+		PrivateGroup group = groups.get(roomName);
+		if (group != null && group.contains(username)) {
+			return group;
+		}
+		return null;
+	}
+
+	/***
+	 * Creates a private group with the user as its first member.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param groupName
+	 *            The name of the group, starting with '#'.
+	 *
+	 * @return String The answer of the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public String createGroup(String username, String groupName) throws AvroRemoteException {
+		checkAvailable();
+		if (!groupName.startsWith("#") || groupName.length() < 2) {
+			return "server> Group names start with '#', like \"createGroup '#friends'\".";
+		}
+
+		PrivateGroup group = new PrivateGroup(groupName);
+		group.invite(username);
+		group.join(username);
+		synchronized (groups) {
+			if (groups.containsKey(groupName)) {
+				return "server> The group " + groupName + " already exists.";
+			}
+			groups.put(groupName, group);
+		}
+
+		String output = "server> " + username + " has created the group " + groupName + ".";
+		System.out.println(output);
+		return output;
+	}
+
+	/***
+	 * Allows a user to join a private group. Only members can invite others.
+	 *
+	 * @param username
+	 *            The nickname of the member who invites.
+	 * @param groupName
+	 *            The name of the group.
+	 * @param invitee
+	 *            The nickname of the invited user.
+	 *
+	 * @return String The answer of the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public String inviteToGroup(String username, String groupName, String invitee) throws AvroRemoteException {
+		PrivateGroup group = groups.get(groupName);
+		if (group == null || !group.contains(username)) {
+			return "server> You are not a member of " + groupName + ".";
+		}
+		if (group.contains(invitee)) {
+			return "server> " + invitee + " is already a member of " + groupName + ".";
+		}
+		ChatClientServer proxy = clientsServer.get(invitee);
+		if (proxy == null) {
+			return "server> " + invitee + " is not connected to the server right now.\n"
+					+ "server> Type 'gcl' to see currently connected clients.";
+		}
+
+		group.invite(invitee);
+		try {
+			proxy.incomingMessage("server> " + username + " invited you to the group " + groupName + ".\n"
+					+ "server> Type \"joinGroup '" + groupName + "'\" to join it.");
+		} catch (AvroRemoteException e) {
+			// the invitation stays, the user can still join
+		}
+		return "server> " + invitee + " was invited to " + groupName + ".";
+	}
+
+	/***
+	 * Adds an invited user to a private group.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param groupName
+	 *            The name of the group.
+	 *
+	 * @return String The answer of the server.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public String joinGroup(String username, String groupName) throws AvroRemoteException {
+		checkAvailable();
+		PrivateGroup group = groups.get(groupName);
+		if (group == null) {
+			return "server> The group " + groupName + " doesn't exist.";
+		}
+		if (group.contains(username)) {
+			return "server> " + username + " is already in " + groupName + ".";
+		}
+		long wait = joins.acquire(username);
+		if (wait > 0) {
+			return "server> You are joining too often, try again in " + wait + " ms.";
+		}
+		boolean joined;
+		synchronized (groups) {
+			// the last member may have left and removed the group meanwhile
+			if (groups.get(groupName) != group) {
+				return "server> The group " + groupName + " doesn't exist.";
+			}
+			joined = group.join(username);
+		}
+		if (!joined) {
+			return "server> You can't join " + groupName + ", you need an invitation and it can have at most "
+					+ PrivateGroup.MAX_MEMBERS + " members.";
+		}
+
+		String output = "server> " + username + " has joined " + groupName + ".";
+		System.out.println(output);
+		notifyGroup(group, username, output);
+		return output;
+	}
+
+	/***
+	 * Removes a user from a private group. The group is removed with its last
+	 * member.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param groupName
+	 *            The name of the group.
+	 *
+	 * @return boolean Whether the user was a member.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean leaveGroup(String username, String groupName) throws AvroRemoteException {
+		PrivateGroup group = groups.get(groupName);
+		if (group == null || !group.contains(username)) {
+			return false;
+		}
+
+		// under the same lock as joinGroup, so nobody joins a removed group
+		synchronized (groups) {
+			group.leave(username);
+			if (group.getClients().isEmpty()) {
+				groups.remove(groupName);
+			}
+		}
+
+		String output = "server> " + username + " has left " + groupName + ".";
+		System.out.println(output);
+		notifyGroup(group, username, output);
+		return true;
+	}
+
+	/***
+	 * Sends a message to the members of a private group. The server pushes it
+	 * to every member which is connected, the others catch up when they
+	 * reconnect.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param groupName
+	 *            The name of the group.
+	 * @param message
+	 *            The message to be delivered.
+	 *
+	 * @return String The message as it was delivered, or an error.
+	 *
+	 * @throws AvroRemoteException
+	 * @throws Throttled
+	 *             When the user or the room sends too fast, or the server is
+	 *             busy.
+	 * @throws Rejected
+	 *             When the message may not be sent, for instance because it is
+	 *             too long.
+	 */
+	@Override
+	public String sendGroupMessage(String username, String groupName, String message)
+			throws AvroRemoteException, Throttled, Rejected {
+		checkAvailable();
+		PrivateGroup group = groups.get(groupName);
+		if (group == null || !group.contains(username)) {
+			return "server> You are not a member of " + groupName + ".";
+		}
+
+		// members see their mentions anyway, and others mustn't see the group
+		MessageDraft draft = pipeline.run(username, groupName, message);
+		if (draft.isRejected()) {
+			throw Rejected.newBuilder().setReason(draft.getRejection()).build();
+		}
+		admitMessage(username, groupName);
+		try {
+			long sequence = group.sendMessage(username, draft.getText());
+			group.addLinks(draft.getLinks());
+			String output = username + "> (" + groupName + "): " + draft.getText();
+			List<String> members = group.getClients();
+			int[] recipients = new int[members.size()];
+			for (int i = 0; i < recipients.length; i++) {
+				recipients[i] = sessions.getId(members.get(i));
+			}
+			push(group, sequence, output, sessions.getId(username), recipients);
+			return output;
+		} finally {
+			fanouts.decrementAndGet();
+		}
+	}
+
+	/***
+	 * Gets the members of a private group.
+	 *
+	 * @param username
+	 *            The nickname of the client, which has to be a member.
+	 * @param groupName
+	 *            The name of the group.
+	 *
+	 * @return List The user names of the members, empty if the client isn't
+	 *         one.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public List<String> getGroupMembers(String username, String groupName) throws AvroRemoteException {
+		PrivateGroup group = groups.get(groupName);
+		if (group == null || !group.contains(username)) {
+			return new ArrayList<String>();
+		}
+		return group.getClients();
+	}
+
+	/***
+	 * Tells the connected members of a group, except one, about a change.
+	 */
+	private void notifyGroup(ChatRoom group, String except, String notice) {
+		for (String member : group.getClients()) {
+			ChatClientServer proxy = clientsServer.get(member);
+			if (proxy != null && !member.equals(except)) {
+				try {
+					proxy.incomingMessage(notice);
+				} catch (AvroRemoteException e) {
+					// notices aren't kept
+				}
+			}
+		}
+	}
+
+	/***
+	 * Starts relaying a client's video to everyone in the public room.
+	 *
+	 * @param username
+	 *            The nickname of the broadcasting client.
+	 *
+	 * @return boolean Whether the broadcast was started. The client has to be
+	 *         in the public room and not be broadcasting already.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean startBroadcast(String username) throws AvroRemoteException {
+		if (!publicRoom.contains(username) || broadcasts.containsKey(username)) {
+			return false;
+		}
+
+		broadcasts.put(username, new VideoRelay(username, clients, clientsServer, renditions));
+		System.out.println("server> " + username + " started broadcasting video to the Public chat room.");
+
+		String output = "server> " + username + " is now broadcasting video to the Public chat room.";
+		for (String client : publicRoom.getClients()) {
+			if (!client.equals(username) && clientsServer.containsKey(client)) {
+				clientsServer.get(client).incomingMessage(output);
+			}
+		}
+		return true;
+	}
+
+	/***
+	 * Relays a frame of a broadcast to everyone in the public room.
+	 *
+	 * @param username
+	 *            The nickname of the broadcasting client.
+	 * @param frame
+	 *            The frame encoded as JPEG.
+	 * @param keyFrame
+	 *            Whether the frame can be shown on its own.
+	 *
+	 * @return boolean Whether the broadcast is still running. The client
+	 *         should stop sending frames when it isn't.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean broadcastFrame(String username, ByteBuffer frame, boolean keyFrame) throws AvroRemoteException {
+		VideoRelay relay = broadcasts.get(username);
+		if (relay == null) {
+			return false;
+		}
+
+		relay.relay(frame, keyFrame, publicRoom.getClients());
+		return true;
+	}
+
+	/***
+	 * Stops relaying a client's video.
+	 *
+	 * @param username
+	 *            The nickname of the broadcasting client.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void stopBroadcast(String username) throws AvroRemoteException {
+		VideoRelay relay = broadcasts.remove(username);
+		if (relay != null) {
+			relay.close();
+			System.out.println("server> " + username + " stopped broadcasting video after "
+					+ relay.getFramesRelayed() + " frames, " + relay.getFramesShed() + " shed under load.");
+		}
+		return null;
+	}
+
+	/***
+	 * Sets the maximum width of the broadcast frames relayed to a client. The
+	 * server downscales frames which are wider.
+	 *
+	 * @param username
+	 *            The nickname of the viewing client.
+	 * @param maxWidth
+	 *            The maximum frame width in pixels, 0 for the original size.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public Void setVideoRendition(String username, int maxWidth) throws AvroRemoteException {
+		if (maxWidth > 0) {
+			renditions.put(username, maxWidth);
+		} else {
+			renditions.remove(username);
+		}
+		return null;
+	}
+
+	/***
+	 * Set up the connection between two clients for a private chat.
+	 *
+	 * @param client1
+	 *            The nickname of the first client.
+	 * @param client2
+	 *            The nickname of the second client.
+	 *
+	 * @return boolean Whether or not the connection was successfully made.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public boolean setupConnection(String client1, String client2) throws AvroRemoteException {
+		if (pendingRequests.containsKey(client1)) {
+			if ((pendingRequests.get(client1)).equals(client2)) {
+				clientsServer.get(client1).incomingMessage("server> " + client2 + " has accepted your connection."
+						+ "\nserver> A private connection will be made, your other chats stay open.");
+
+				try {
+					System.out.println("server> Setting up connections between " + client1 + " and " + client2);
+					// a client chats privately with one other client at a time
+					synchronized (privatePartners) {
+						forgetPartner(client1);
+						forgetPartner(client2);
+						privatePartners.put(client1, client2);
+						privatePartners.put(client2, client1);
+					}
+					String client1Address = (clients.get(client1)).getRemoteName();
+					String client2Address = (clients.get(client2)).getRemoteName();
+					if (((clientsServer.get(client1)).register(client2, client2Address))
+							&& ((clientsServer.get(client2)).register(client1, client1Address))) {
+						System.out
+								.println("server> Connection succesfully made between " + client1 + " and " + client2);
+						pendingRequests.remove(client1);
+						sessionChanges.incrementAndGet();
+						return true;
+					} else {
+						System.err.println("server> Something went wrong with setting up connections between " + client1
+								+ " and " + client2);
+						forgetPartner(client1);
+						return false;
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+					forgetPartner(client1);
+					return false;
+				}
+			} else {
+				return false;
+			}
+		} else {
+			return false;
+		}
+	}
+
+	/***
+	 * Forwards a call of a client to its private chat partner, for clients
+	 * which can't reach each other directly. Neither the call nor the response
+	 * is decoded: both are written as they are to the connection the server
+	 * already has with the partner.
+	 *
+	 * @param username
+	 *            The nickname of the calling client.
+	 * @param call
+	 *            The serialized call, as the client's requestor wrote it.
+	 *
+	 * @return ByteBuffer The serialized response of the partner, empty when
+	 *         the partner can't be reached.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	@Override
+	public ByteBuffer relayPrivate(String username, ByteBuffer call) throws AvroRemoteException {
+		String partner = privatePartners.get(username);
+		Transceiver transceiver = partner == null ? null : clients.get(partner);
+		if (transceiver == null) {
+			return ByteBuffer.allocate(0);
+		}
+
+		try {
+			// the raw call assumes the connection's handshake is done
+			if (!transceiver.isConnected()) {
+				clientsServer.get(partner).isAlive();
+			}
+
+			List<ByteBuffer> response = transceiver.transceive(Collections.singletonList(call));
+			if (response.size() == 1) {
+				return response.get(0);
+			}
+			int size = 0;
+			for (ByteBuffer buffer : response) {
+				size += buffer.remaining();
+			}
+			ByteBuffer joined = ByteBuffer.allocate(size);
+			for (ByteBuffer buffer : response) {
+				joined.put(buffer);
+			}
+			joined.flip();
+			return joined;
+		} catch (IOException e) {
+			return ByteBuffer.allocate(0);
+		}
+	}
+
+	/***
+	 * The answer to a call with the ID of a session the heartbeat dropped.
+	 * Clients treat it like a lost connection: they open a new session and
+	 * send their queued messages again.
+	 *
+	 * @return SessionEnded The error.
+	 */
+	private static SessionEnded sessionEnded() {
+		return SessionEnded.newBuilder().setReason(SESSION_ENDED).build();
+	}
+
+	/***
+	 * Refuses new work while the server is shutting down. Clients treat the
+	 * error like a lost connection: they queue their messages and send them
+	 * once they are reconnected.
+	 *
+	 * @throws Unavailable
+	 *             When the server is draining.
+	 */
+	private void checkAvailable() throws Unavailable {
+		if (draining) {
+			throw Unavailable.newBuilder().setReason("server> The server is restarting, try again in a moment.")
+					.build();
+		}
+	}
+
+	/***
+	 * Starts shutting down: no new registrations, joins or messages are
+	 * accepted, and the messages and video frames which were already accepted
+	 * are delivered.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for deliveries, in milliseconds.
+	 *
+	 * @return boolean Whether everything was delivered in time.
+	 */
+	public boolean drain(long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		draining = true;
+		System.out.println("server> Draining, new registrations and messages are refused.");
+
+		try {
+			while (fanouts.get() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			for (String broadcaster : new ArrayList<String>(broadcasts.keySet())) {
+				VideoRelay relay = broadcasts.get(broadcaster);
+				if (relay != null) {
+					relay.drain(deadline);
+				}
+				stopBroadcast(broadcaster);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (AvroRemoteException e) {
+			// stopping a broadcast is local
+		}
+		return fanouts.get() == 0 && System.currentTimeMillis() < deadline;
+	}
+
+	/***
+	 * Tells every connected client that the server is going away, so it
+	 * reconnects.
+	 *
+	 * @param address
+	 *            Where to reconnect to, as host:port. Empty to reconnect to
+	 *            the same address, after a restart.
+	 */
+	public void notifyMoving(final String address) {
+		FanOut fanOut = new FanOut("server moving");
+		for (final ChatClientServer proxy : new ArrayList<ChatClientServer>(clientsServer.values())) {
+			fanOut.fork(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						proxy.serverMoving(address);
+					} catch (AvroRemoteException e) {
+						// it will notice when the connection closes
+					}
+				}
+			});
+		}
+		fanOut.join();
+	}
+
+	/***
+	 * Gets the rooms to save in a snapshot.
+	 *
+	 * @return List The public room and the groups.
+	 */
+	public List<ChatRoom> getRooms() {
+		ArrayList<ChatRoom> rooms = new ArrayList<ChatRoom>();
+		rooms.add(publicRoom);
+		rooms.addAll(groups.values());
+		return rooms;
+	}
+
+	/***
+	 * @return long The number of times a client registered, exited or set up a
+	 *         private chat so far.
+	 */
+	public long getSessionChanges() {
+		return sessionChanges.get();
+	}
+
+	/***
+	 * @return Statistics The counters of the server, for the admin protocol.
+	 */
+	Statistics getStatistics() {
+		return statistics;
+	}
+
+	SessionIds getSessionIds() {
+		return sessions;
+	}
+
+	Retransmitter getRetransmitter() {
+		return retransmits;
+	}
+
+	/***
+	 * @return List The rate limits, which the admin protocol can change.
+	 */
+	List<RateLimiter> getRateLimiters() {
+		ArrayList<RateLimiter> limiters = new ArrayList<RateLimiter>();
+		limiters.add(userMessages);
+		limiters.add(roomMessages);
+		limiters.add(joins);
+		limiters.add(clientLists);
+		limiters.add(anonymousLists);
+		return limiters;
+	}
+
+	/***
+	 * @return int The number of messages being pushed right now.
+	 */
+	int getPushesInFlight() {
+		return fanouts.get();
+	}
+
+	/***
+	 * Gets the sessions to save in a snapshot: where every client's local
+	 * server is and who it chats with privately. The tables are copied first,
+	 * so requests don't wait while the snapshot is made.
+	 *
+	 * @return List The sessions.
+	 */
+	public List<SessionSnapshot> getSessions() {
+		Hashtable<String, Transceiver> clientsCopy = new Hashtable<String, Transceiver>(clients);
+		Hashtable<String, String> partnersCopy = new Hashtable<String, String>(privatePartners);
+		Hashtable<String, String> pendingCopy = new Hashtable<String, String>(pendingRequests);
+
+		ArrayList<SessionSnapshot> sessions = new ArrayList<SessionSnapshot>();
+		for (String client : clientsCopy.keySet()) {
+			try {
+				// '[host]/ip:port'
+				String address = clientsCopy.get(client).getRemoteName();
+				int colon = address.lastIndexOf(':');
+				sessions.add(new SessionSnapshot(client, address.substring(address.indexOf('/') + 1, colon),
+						Integer.parseInt(address.substring(colon + 1)), partnersCopy.get(client),
+						pendingCopy.get(client)));
+			} catch (IOException | RuntimeException e) {
+				// the client is leaving, it registers again
+			}
+		}
+		return sessions;
+	}
+
+	/***
+	 * Restores the state of a previous server, before this one starts. The
+	 * clients are not contacted: their connections are made when they are
+	 * first needed, and the heartbeat drops the ones which are gone.
+	 *
+	 * @param snapshot
+	 *            The state of the previous server.
+	 */
+	public void restoreSnapshot(ServerSnapshot snapshot) {
+		for (SessionSnapshot session : snapshot.getSessions()) {
+			String username = session.getUsername();
+			try {
+				Transceiver transceiver = connections.open(session.getHost(), session.getPort(), true);
+				ChatClientServer proxy = makeClientProxy(transceiver);
+				clients.put(username, transceiver);
+				clientsServer.put(username, proxy);
+				sessions.open(username, proxy);
+			} catch (IOException e) {
+				continue;
+			}
+			if (session.getPartner() != null) {
+				privatePartners.put(username, session.getPartner());
+			}
+			if (session.getPendingRequest() != null) {
+				pendingRequests.put(username, session.getPendingRequest());
+			}
+		}
+
+		// after the sessions, the public room keeps its members by session
+		for (RoomSnapshot saved : snapshot.getRooms()) {
+			ChatRoom room = RoomSnapshots.restore(saved);
+			if (room instanceof PrivateGroup) {
+				groups.put(room.getName(), (PrivateGroup) room);
+			} else {
+				publicRoom.restore(room.getMessages());
+				for (String member : room.getClients()) {
+					publicRoom.join(member);
+				}
+			}
+		}
+	}
+
+	/***
+	 * Checks if all connected users are still alive. If not manually exit them
+	 * from the server.
+	 * 
+	 * @throws AvroRemoteException
+	 */
+	private void checkUsers() throws AvroRemoteException {
+		Hashtable<String, ChatClientServer> clientsCopy = new Hashtable<String, ChatClientServer>(clientsServer);
+		final List<String> dead = Collections.synchronizedList(new ArrayList<String>());
+
+		// on virtual threads all clients are asked at once
+		FanOut fanOut = new FanOut("heartbeat");
+		for (final String client : clientsCopy.keySet()) {
+			final ChatClientServer proxy = clientsCopy.get(client);
+			fanOut.fork(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						long start = System.nanoTime();
+						proxy.isAlive();
+						statistics.roundTrip(client, System.nanoTime() - start);
+					} catch (AvroRemoteException e) {
+						dead.add(client);
+					}
+				}
+			});
+		}
+		fanOut.join();
+
+		for (String client : new ArrayList<String>(dead)) {
+			System.out.println("server> Failed to reconnect to " + client + ", dropping connection.");
+			exit(client);
+		}
+	}
+
+	/***
+	 * This thread runs a polling function which checks for the connected users
+	 * every 5 seconds.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				long start = System.nanoTime();
+				checkUsers();
+				statistics.swept(System.nanoTime() - start);
+				Thread.sleep(5000); // milliseconds
+			}
+		} catch (InterruptedException | AvroRemoteException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/***
+	 * Makes the proxy of a client's local server, which carries the traces of
+	 * the messages pushed to it.
+	 *
+	 * @param transceiver
+	 *            The connection to the client.
+	 *
+	 * @return ChatClientServer The proxy.
+	 *
+	 * @throws IOException
+	 */
+	private static ChatClientServer makeClientProxy(Transceiver transceiver) throws IOException {
+		SpecificRequestor requestor = new SpecificRequestor(ChatClientServer.class, transceiver);
+		requestor.addRPCPlugin(new TracePlugin());
+		return SpecificRequestor.getClient(ChatClientServer.class, requestor);
+	}
+
+	/***
+	 * Serves the admin protocol of a server. The chat keeps running when the
+	 * port is taken.
+	 *
+	 * @param cs
+	 *            The server.
+	 * @param port
+	 *            The port on the loopback address, -1 to not serve it.
+	 */
+	private static void startAdmin(ChatServer cs, int port) {
+		if (port < 0) {
+			return;
+		}
+		try {
+			SpecificResponder responder = new SpecificResponder(Admin.class, new AdminServer(cs));
+			new ChatSocketServer(responder, new InetSocketAddress(InetAddress.getLoopbackAddress(), port)).start();
+			System.out.println("server> Admin protocol on localhost:" + port + ".");
+		} catch (IOException e) {
+			System.err.println("ERROR: Starting the admin protocol on port " + port + ": " + e.getMessage());
+		}
+	}
+
+	/***
+	 * Main method for the server.
+	 * 
+	 * Starts the server (on default port of 10010 if no argument was given).
+	 * The admin protocol is served on the loopback address, on the next port
+	 * unless the system property chat.admin.port sets another one, -1 turns it
+	 * off.
+	 * 
+	 * @param args
+	 *            Only 1 optional argument is accepted for giving the server a
+	 *            port to run on.
+	 */
+	public static void main(String[] args) {
+		Server server = null;
+		int serverPort = 10010;
+
+		ChatServer cs = new ChatServer();
+		File snapshot = ServerLifecycle.getSnapshotFile();
+
+		if (args.length == 1) {
+			serverPort = Integer.parseInt(args[0]);
+		} else if (args.length > 1) {
+			System.err.println("ERROR: Max. 1 arguments ([server port]) expected.");
+		}
+
+		try {
+			ServerLifecycle.restore(cs, snapshot);
+			SpecificResponder responder = new SpecificResponder(Chat.class, cs);
+			responder.addRPCPlugin(new CompressionPlugin());
+			responder.addRPCPlugin(new AckPlugin(cs.retransmits));
+			responder.addRPCPlugin(new TracePlugin());
+			Tracer.setService("server");
+			server = new ChatSocketServer(responder, new InetSocketAddress(serverPort));
+			server.start();
+			if (ServerThreads.isVirtual()) {
+				System.out.println("server> Connections, pushes and heartbeats run on virtual threads.");
+			}
 
-			Thread t = new Thread(cs);
-			t.start();
+			ServerThreads.start("heartbeat", cs);
+			ServerThreads.start("idle connections", cs.connections);
+			ServerThreads.start("retransmits", cs.retransmits);
+			startAdmin(cs, Integer.getInteger("chat.admin.port", serverPort + 1));
+			SnapshotWriter snapshots = new SnapshotWriter(cs, snapshot);
+			ServerThreads.start("snapshots", snapshots);
+			// stops gracefully on Ctrl-C or kill
+			Runtime.getRuntime().addShutdownHook(new ServerLifecycle(cs, server, snapshots));
 
 			server.join();
 			server.close();
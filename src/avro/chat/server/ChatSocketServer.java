@@ -0,0 +1,177 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.charset.Charset;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.security.sasl.SaslException;
+import javax.security.sasl.SaslServer;
+
+import org.apache.avro.ipc.Responder;
+import org.apache.avro.ipc.SaslSocketTransceiver;
+import org.apache.avro.ipc.Server;
+import org.apache.avro.ipc.Transceiver;
+
+import avro.chat.ipc.CompressingTransceiver;
+import avro.chat.ipc.CompressionPlugin;
+
+/***
+ * Socket server speaking the same protocol as Avro's SaslSocketServer, with
+ * anonymous authentication, but running every connection on a thread from
+ * ServerThreads. Avro's server always makes platform threads, so this is what
+ * lets connections run on virtual threads. Clients may negotiate compression
+ * for their connection, see CompressionPlugin.
+ */
+public class ChatSocketServer extends Thread implements Server {
+	private final Responder responder;
+	private final ServerSocketChannel channel;
+	private final Set<Transceiver> connections = Collections
+			.newSetFromMap(new ConcurrentHashMap<Transceiver, Boolean>());
+
+	/***
+	 * @param responder
+	 *            Answers the calls of every connection.
+	 * @param address
+	 *            The address to listen on.
+	 *
+	 * @throws IOException
+	 *             When the address can't be bound.
+	 */
+	public ChatSocketServer(Responder responder, SocketAddress address) throws IOException {
+		this.responder = responder;
+		channel = ServerSocketChannel.open();
+		channel.socket().setReuseAddress(true);
+		channel.socket().bind(address);
+		setName("ChatSocketServer on " + address);
+		setDaemon(true);
+	}
+
+	@Override
+	public int getPort() {
+		return channel.socket().getLocalPort();
+	}
+
+	/***
+	 * @return int Number of open connections.
+	 */
+	public int getConnections() {
+		return connections.size();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				final SocketChannel client = channel.accept();
+				ServerThreads.start("Connection to " + client.socket().getRemoteSocketAddress(), new Runnable() {
+					@Override
+					public void run() {
+						serve(client);
+					}
+				});
+			}
+		} catch (IOException e) {
+			// closed
+		}
+	}
+
+	private void serve(SocketChannel client) {
+		Transceiver transceiver = null;
+		try {
+			CompressingTransceiver connection = new CompressingTransceiver(
+					new SaslSocketTransceiver(client, new AnonymousServer()));
+			CompressionPlugin.serving(connection);
+			transceiver = connection;
+			connections.add(transceiver);
+			while (true) {
+				transceiver.writeBuffers(responder.respond(transceiver.readBuffers(), transceiver));
+			}
+		} catch (ClosedChannelException e) {
+			// the client left
+		} catch (IOException e) {
+			// the connection broke
+		} finally {
+			try {
+				if (transceiver != null) {
+					connections.remove(transceiver);
+					transceiver.close();
+				} else {
+					client.close();
+				}
+			} catch (IOException e) {
+				// already closed
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		interrupt();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// already closed
+		}
+		for (Transceiver transceiver : connections) {
+			try {
+				transceiver.close();
+			} catch (IOException e) {
+				// already closed
+			}
+		}
+	}
+
+	/***
+	 * The ANONYMOUS mechanism: any client is accepted.
+	 */
+	private static class AnonymousServer implements SaslServer {
+		private String user;
+
+		@Override
+		public String getMechanismName() {
+			return "ANONYMOUS";
+		}
+
+		@Override
+		public byte[] evaluateResponse(byte[] response) throws SaslException {
+			user = new String(response, Charset.forName("UTF-8"));
+			return null;
+		}
+
+		@Override
+		public boolean isComplete() {
+			return user != null;
+		}
+
+		@Override
+		public String getAuthorizationID() {
+			return user;
+		}
+
+		@Override
+		public byte[] unwrap(byte[] incoming, int offset, int len) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public byte[] wrap(byte[] outgoing, int offset, int len) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Object getNegotiatedProperty(String propName) {
+			return null;
+		}
+
+		@Override
+		public void dispose() {
+			user = null;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.apache.avro.ipc.SaslSocketTransceiver;
+import org.apache.avro.ipc.Transceiver;
+
+/***
+ * Makes the server's connections to the local servers of its clients.
+ *
+ * Connections are lazy: registering only records the address, the connection
+ * is made by the first push or heartbeat, so registration doesn't depend on
+ * whether the client can be reached. At most MAX_CONNECTS connections are
+ * being made at once, the others wait their turn, so a burst of registrations
+ * or a restart with many sessions doesn't open thousands of sockets at the
+ * same moment. Connections nobody used for IDLE_TIMEOUT are closed and made
+ * again when they are needed.
+ *
+ * Pushes run on the sender's request thread, so connecting gives up after
+ * CONNECT_TIMEOUT, and a client which couldn't be reached isn't tried again
+ * for RETRY_DELAY. Otherwise every message to its room would wait for the
+ * system's connect timeout.
+ *
+ * Set the system properties chat.connect.max, chat.connect.idle,
+ * chat.connect.timeout and chat.connect.retry (milliseconds) to change the
+ * limits.
+ */
+public class ClientConnections implements Runnable {
+	public static final int MAX_CONNECTS = Integer.getInteger("chat.connect.max", 64);
+	public static final long IDLE_TIMEOUT = Long.getLong("chat.connect.idle", 60000); // milliseconds
+	public static final long CONNECT_TIMEOUT = Long.getLong("chat.connect.timeout", 2000); // milliseconds
+	public static final long RETRY_DELAY = Long.getLong("chat.connect.retry", 5000); // milliseconds
+
+	private final Semaphore connecting = new Semaphore(MAX_CONNECTS);
+	private final Set<LazyTransceiver> open = Collections
+			.newSetFromMap(new ConcurrentHashMap<LazyTransceiver, Boolean>());
+
+	/***
+	 * Makes a connection to a client, without connecting yet.
+	 *
+	 * @param host
+	 *            The IP address of the client.
+	 * @param port
+	 *            The port of its local server.
+	 * @param restored
+	 *            Whether the session was restored from a snapshot.
+	 *
+	 * @return LazyTransceiver The connection.
+	 *
+	 * @throws UnknownHostException
+	 */
+	public LazyTransceiver open(String host, int port, boolean restored) throws UnknownHostException {
+		InetSocketAddress address = new InetSocketAddress(host, port);
+		if (address.isUnresolved()) {
+			throw new UnknownHostException(host);
+		}
+		return new LazyTransceiver(this, address, restored);
+	}
+
+	/***
+	 * Closes a connection for good, for instance when the client exits.
+	 *
+	 * @param transceiver
+	 *            The connection, may be null.
+	 */
+	public void close(Transceiver transceiver) {
+		if (transceiver == null) {
+			return;
+		}
+		try {
+			transceiver.close();
+		} catch (IOException e) {
+			// it is closed anyway
+		}
+	}
+
+	/***
+	 * @return int The number of connections which are open.
+	 */
+	public int getOpen() {
+		return open.size();
+	}
+
+	/***
+	 * Connects, waiting while MAX_CONNECTS other connections are being made.
+	 *
+	 * @param transceiver
+	 *            The lazy connection which needs it.
+	 * @param address
+	 *            The address of the client.
+	 *
+	 * @return Transceiver The connection.
+	 *
+	 * @throws IOException
+	 */
+	Transceiver connect(LazyTransceiver transceiver, InetSocketAddress address) throws IOException {
+		try {
+			connecting.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting to connect to " + address);
+		}
+		try {
+			Transceiver connection = new Attempt(address).await(CONNECT_TIMEOUT);
+			open.add(transceiver);
+			return connection;
+		} finally {
+			connecting.release();
+		}
+	}
+
+	/***
+	 * Connects on a thread of its own: the transceiver has no connect timeout,
+	 * but connecting is interruptible.
+	 */
+	private static class Attempt implements Runnable {
+		private final InetSocketAddress address;
+		private final Thread thread;
+		// guarded by this
+		private Transceiver connection;
+		private IOException error;
+		private boolean done = false;
+		private boolean abandoned = false;
+
+		Attempt(InetSocketAddress address) {
+			this.address = address;
+			this.thread = ServerThreads.start("connect to " + address, this);
+		}
+
+		@Override
+		public void run() {
+			Transceiver made = null;
+			IOException failed = null;
+			try {
+				made = new SaslSocketTransceiver(address);
+			} catch (IOException e) {
+				failed = e;
+			}
+			synchronized (this) {
+				if (abandoned && made != null) {
+					// connected just too late
+					try {
+						made.close();
+					} catch (IOException e) {
+						// it is closed anyway
+					}
+				}
+				connection = made;
+				error = failed;
+				done = true;
+				notifyAll();
+			}
+		}
+
+		synchronized Transceiver await(long timeout) throws IOException {
+			long end = System.currentTimeMillis() + timeout;
+			try {
+				for (long left = timeout; !done && left > 0; left = end - System.currentTimeMillis()) {
+					wait(left);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (!done) {
+				abandoned = true;
+				thread.interrupt();
+				throw new SocketTimeoutException("Connecting to " + address + " timed out.");
+			}
+			if (error != null) {
+				throw error;
+			}
+			return connection;
+		}
+	}
+
+	void closed(LazyTransceiver transceiver) {
+		open.remove(transceiver);
+	}
+
+	/***
+	 * Closes idle connections every half IDLE_TIMEOUT.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				Thread.sleep(IDLE_TIMEOUT / 2);
+				long now = System.currentTimeMillis();
+				for (LazyTransceiver transceiver : open) {
+					transceiver.closeIfIdle(now - IDLE_TIMEOUT);
+				}
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package avro.chat.server;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import avro.chat.ipc.Tracer;
+
+/***
+ * Runs the calls to many clients that one request causes, like pushing a
+ * message to the members of a room.
+ *
+ * On virtual threads every call gets its own thread, so one slow client
+ * doesn't hold up the others. The calls belong to the request: join waits
+ * until all of them are done, at most DEADLINE, so none keeps running
+ * unnoticed after the request is answered. On platform threads a thread per
+ * call costs too much, so the calls run one after another on the caller's
+ * thread.
+ */
+public class FanOut {
+	public static final long DEADLINE = 5000; // milliseconds
+
+	private final String name;
+	private final Phaser running = new Phaser(1); // the caller is a party
+
+	/***
+	 * @param name
+	 *            Name of the threads, for debugging.
+	 */
+	public FanOut(String name) {
+		this.name = name;
+	}
+
+	/***
+	 * Starts a call. Calls have to catch their own exceptions. A call on
+	 * another thread is traced as part of the caller's span.
+	 *
+	 * @param runnable
+	 *            The call.
+	 */
+	public void fork(Runnable runnable) {
+		if (!ServerThreads.isVirtual()) {
+			runnable.run();
+			return;
+		}
+
+		final Runnable call = Tracer.wrap(runnable);
+		running.register();
+		ServerThreads.start(name, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					call.run();
+				} finally {
+					running.arriveAndDeregister();
+				}
+			}
+		});
+	}
+
+	/***
+	 * Waits until all calls are done.
+	 *
+	 * @return boolean Whether all calls were done before the deadline.
+	 */
+	public boolean join() {
+		int phase = running.arriveAndDeregister();
+		try {
+			running.awaitAdvanceInterruptibly(phase, DEADLINE, TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package avro.chat.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+
+/***
+ * Finds any of a set of keywords in a text in a single pass, whatever the
+ * number of keywords (Aho-Corasick).
+ *
+ * The keywords are compiled once into a table of states: for every state and
+ * character, the next state, with the failure links already followed. Every
+ * state also knows the keyword it completes, if any, and the next shorter
+ * keyword which ends in it (its dictionary link). So scanning a text is a table
+ * lookup per character, plus a step per keyword ending there, without
+ * allocating anything until a keyword is found. Matching ignores case and only
+ * counts whole words, so a keyword inside a longer word is left alone.
+ *
+ * The table has a column per character used in the keywords, so many
+ * keywords in many scripts make it large. Compiling fails when it would have
+ * more than MAX_ENTRIES entries.
+ *
+ * An automaton doesn't change once it is compiled, so any number of threads
+ * can use it at once.
+ */
+public class KeywordAutomaton {
+	public static final int MAX_ENTRIES = 16 * 1024 * 1024; // 64 MB of table
+	private final int[] next; // state * alphabet + symbol -> state
+	private final int[] ends; // state -> length of the keyword it completes, 0 for none
+	private final int[] dictionary; // state -> next state completing a shorter keyword ending there, 0 for none
+	private final int alphabet;
+	private final int[] ascii = new int[128]; // symbol of every ASCII character, 0 for none
+	private final char[] others; // the other characters of the keywords, sorted
+	private final int[] otherSymbols;
+
+	/***
+	 * Compiles keywords.
+	 *
+	 * @param keywords
+	 *            The keywords, empty ones are skipped.
+	 *
+	 * @throws IllegalArgumentException
+	 *             When the table would have more than MAX_ENTRIES entries.
+	 */
+	public KeywordAutomaton(Collection<String> keywords) {
+		ArrayList<String> words = new ArrayList<String>();
+		for (String keyword : keywords) {
+			String word = keyword.trim().toLowerCase(Locale.ROOT);
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+
+		// the characters of the keywords are the alphabet, symbol 0 is any
+		// other character
+		HashMap<Character, Integer> symbols = new HashMap<Character, Integer>();
+		for (String word : words) {
+			for (int i = 0; i < word.length(); i++) {
+				if (!symbols.containsKey(word.charAt(i))) {
+					symbols.put(word.charAt(i), symbols.size() + 1);
+				}
+			}
+		}
+		alphabet = symbols.size() + 1;
+		ArrayList<Character> nonAscii = new ArrayList<Character>();
+		for (Character c : symbols.keySet()) {
+			if (c < 128) {
+				ascii[c] = symbols.get(c);
+			} else {
+				nonAscii.add(c);
+			}
+		}
+		others = new char[nonAscii.size()];
+		for (int i = 0; i < others.length; i++) {
+			others[i] = nonAscii.get(i);
+		}
+		Arrays.sort(others);
+		otherSymbols = new int[others.length];
+		for (int i = 0; i < others.length; i++) {
+			otherSymbols[i] = symbols.get(others[i]);
+		}
+
+		// the trie of the keywords, -1 for a missing edge
+		ArrayList<int[]> edges = new ArrayList<int[]>();
+		ArrayList<Integer> lengths = new ArrayList<Integer>();
+		edges.add(newState());
+		lengths.add(0);
+		for (String word : words) {
+			int state = 0;
+			for (int i = 0; i < word.length(); i++) {
+				int symbol = symbols.get(word.charAt(i));
+				if (edges.get(state)[symbol] < 0) {
+					if ((long) (edges.size() + 1) * alphabet > MAX_ENTRIES) {
+						throw new IllegalArgumentException("The keywords need a table of more than " + MAX_ENTRIES
+								+ " entries, they use " + (alphabet - 1) + " different characters.");
+					}
+					edges.get(state)[symbol] = edges.size();
+					edges.add(newState());
+					lengths.add(0);
+				}
+				state = edges.get(state)[symbol];
+			}
+			lengths.set(state, Math.max(lengths.get(state), word.length()));
+		}
+
+		// breadth first, so the failure of a state is done before it is
+		// needed: missing edges go where the failure goes
+		int states = edges.size();
+		next = new int[states * alphabet];
+		ends = new int[states];
+		dictionary = new int[states];
+		int[] failure = new int[states];
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		for (int symbol = 0; symbol < alphabet; symbol++) {
+			int child = edges.get(0)[symbol];
+			next[symbol] = child < 0 ? 0 : child;
+			if (child > 0) {
+				queue.add(child);
+			}
+		}
+		for (int state = 0; state < states; state++) {
+			ends[state] = lengths.get(state);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			int suffix = failure[state];
+			dictionary[state] = ends[suffix] > 0 ? suffix : dictionary[suffix];
+			for (int symbol = 0; symbol < alphabet; symbol++) {
+				int child = edges.get(state)[symbol];
+				if (child < 0) {
+					next[state * alphabet + symbol] = next[failure[state] * alphabet + symbol];
+				} else {
+					next[state * alphabet + symbol] = child;
+					failure[child] = next[failure[state] * alphabet + symbol];
+					queue.add(child);
+				}
+			}
+		}
+	}
+
+	private int[] newState() {
+		int[] edges = new int[alphabet];
+		Arrays.fill(edges, -1);
+		return edges;
+	}
+
+	/***
+	 * Replaces the keywords in a text by asterisks.
+	 *
+	 * @param text
+	 *            The text.
+	 *
+	 * @return String The text itself when it contains no keyword.
+	 */
+	public String mask(String text) {
+		char[] masked = null;
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			state = next[state * alphabet + symbol(text.charAt(i))];
+			if (!isBoundary(text, i + 1)) {
+				continue;
+			}
+			// every keyword ending here, a shorter one may be a whole word
+			// when a longer one isn't
+			for (int found = ends[state] > 0 ? state : dictionary[state]; found != 0; found = dictionary[found]) {
+				int start = i - ends[found] + 1;
+				if (isBoundary(text, start - 1)) {
+					if (masked == null) {
+						masked = text.toCharArray();
+					}
+					Arrays.fill(masked, start, i + 1, '*');
+				}
+			}
+		}
+		return masked == null ? text : new String(masked);
+	}
+
+	/***
+	 * @param text
+	 *            The text.
+	 *
+	 * @return boolean Whether the text contains a keyword.
+	 */
+	public boolean matches(String text) {
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			state = next[state * alphabet + symbol(text.charAt(i))];
+			if (!isBoundary(text, i + 1)) {
+				continue;
+			}
+			for (int found = ends[state] > 0 ? state : dictionary[state]; found != 0; found = dictionary[found]) {
+				if (isBoundary(text, i - ends[found])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/***
+	 * @return int The number of states, which is at most the total length of
+	 *         the keywords plus one.
+	 */
+	public int getStates() {
+		return ends.length;
+	}
+
+	private int symbol(char c) {
+		if (c < 128) {
+			return ascii[Character.toLowerCase(c)];
+		}
+		int index = Arrays.binarySearch(others, Character.toLowerCase(c));
+		return index < 0 ? 0 : otherSymbols[index];
+	}
+
+	private static boolean isBoundary(String text, int index) {
+		return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+	}
+}
@@ -0,0 +1,186 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.avro.Protocol;
+import org.apache.avro.ipc.Transceiver;
+
+/***
+ * Connection to the local server of a client, made by ClientConnections. It
+ * only connects when the first call is made, so neither registering nor
+ * restarting the server waits for the clients. When connecting or a call
+ * fails the call fails, the next call connects again, and the heartbeat drops
+ * clients which stay unreachable. After a failed connect, calls fail right
+ * away for ClientConnections.RETRY_DELAY. An idle connection is closed in the
+ * same way and made again when it is needed.
+ *
+ * A requestor asks isConnected() before every call, to know whether the call
+ * needs a handshake, so that counts as using the connection: it isn't closed
+ * as idle between the question and the call.
+ */
+public class LazyTransceiver extends Transceiver {
+	private final ClientConnections connections;
+	private final InetSocketAddress address;
+	private final boolean restored;
+	private Transceiver connection; // guarded by this
+	private int calls = 0; // guarded by this
+	private volatile long lastUsed = System.currentTimeMillis();
+	private boolean closed = false; // guarded by this
+	private long failedAt = 0; // guarded by this, when connecting failed last
+
+	/***
+	 * @param connections
+	 *            Makes the connection.
+	 * @param address
+	 *            The address of the client's local server.
+	 * @param restored
+	 *            Whether the session was restored from a snapshot.
+	 */
+	LazyTransceiver(ClientConnections connections, InetSocketAddress address, boolean restored) {
+		this.connections = connections;
+		this.address = address;
+		this.restored = restored;
+	}
+
+	/***
+	 * @param host
+	 *            An IP address.
+	 * @param port
+	 *            A port.
+	 *
+	 * @return boolean Whether this connects to that address.
+	 */
+	public boolean isAt(String host, int port) {
+		return address.getPort() == port && address.getAddress().getHostAddress().equals(host);
+	}
+
+	/***
+	 * @return boolean Whether the session was restored from a snapshot, so the
+	 *         client may have moved since.
+	 */
+	public boolean isRestored() {
+		return restored;
+	}
+
+	private synchronized Transceiver begin() throws IOException {
+		if (closed) {
+			throw new IOException("The connection to " + address + " was closed.");
+		}
+		if (connection == null) {
+			if (System.currentTimeMillis() - failedAt < ClientConnections.RETRY_DELAY) {
+				throw new IOException(address + " couldn't be reached a moment ago.");
+			}
+			try {
+				connection = connections.connect(this, address);
+			} catch (IOException e) {
+				failedAt = System.currentTimeMillis();
+				throw e;
+			}
+		}
+		calls++;
+		lastUsed = System.currentTimeMillis();
+		return connection;
+	}
+
+	private synchronized void end(Transceiver used, boolean failed) {
+		calls--;
+		if (failed && connection == used) {
+			disconnect();
+		}
+	}
+
+	private void disconnect() {
+		connections.closed(this);
+		connections.close(connection);
+		connection = null;
+	}
+
+	/***
+	 * Closes the connection if no call used it since a given time. The next
+	 * call connects again.
+	 *
+	 * @param since
+	 *            The time, in milliseconds since the epoch.
+	 */
+	synchronized void closeIfIdle(long since) {
+		if (connection != null && calls == 0 && lastUsed < since) {
+			disconnect();
+		}
+	}
+
+	@Override
+	public String getRemoteName() throws IOException {
+		// the same form as a connected socket's, '/ip:port'
+		return address.toString();
+	}
+
+	@Override
+	public List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
+		Transceiver used = begin();
+		boolean failed = true;
+		try {
+			List<ByteBuffer> response = used.transceive(request);
+			failed = false;
+			return response;
+		} finally {
+			end(used, failed);
+		}
+	}
+
+	@Override
+	public List<ByteBuffer> readBuffers() throws IOException {
+		Transceiver used = begin();
+		boolean failed = true;
+		try {
+			List<ByteBuffer> response = used.readBuffers();
+			failed = false;
+			return response;
+		} finally {
+			end(used, failed);
+		}
+	}
+
+	@Override
+	public void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+		Transceiver used = begin();
+		boolean failed = true;
+		try {
+			used.writeBuffers(buffers);
+			failed = false;
+		} finally {
+			end(used, failed);
+		}
+	}
+
+	@Override
+	public synchronized boolean isConnected() {
+		lastUsed = System.currentTimeMillis();
+		return connection != null && connection.isConnected();
+	}
+
+	@Override
+	public synchronized void setRemote(Protocol protocol) {
+		if (connection != null) {
+			connection.setRemote(protocol);
+		}
+	}
+
+	@Override
+	public synchronized Protocol getRemote() {
+		return connection == null ? null : connection.getRemote();
+	}
+
+	/***
+	 * Closes the connection for good, later calls fail.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		if (connection != null) {
+			disconnect();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * A message on its way through the pipeline: its text as the stages changed
+ * it, and what they found in it.
+ */
+public class MessageDraft {
+	private final String sender;
+	private final String roomName;
+	private String text;
+	private String rejection = null;
+	// made when a stage finds something, most messages have neither
+	private ArrayList<String> links = null;
+	private ArrayList<String> mentions = null;
+
+	/***
+	 * @param sender
+	 *            The nickname of the sender.
+	 * @param roomName
+	 *            The room the message is sent to.
+	 * @param text
+	 *            The message as the sender typed it.
+	 */
+	public MessageDraft(String sender, String roomName, String text) {
+		this.sender = sender;
+		this.roomName = roomName;
+		this.text = text;
+	}
+
+	public String getSender() {
+		return sender;
+	}
+
+	public String getRoomName() {
+		return roomName;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	/***
+	 * Stops the message, it isn't kept or pushed.
+	 *
+	 * @param reason
+	 *            The answer telling the sender why.
+	 */
+	public void reject(String reason) {
+		rejection = reason;
+	}
+
+	public boolean isRejected() {
+		return rejection != null;
+	}
+
+	/***
+	 * @return String The answer telling the sender why the message was
+	 *         rejected, null when it wasn't.
+	 */
+	public String getRejection() {
+		return rejection;
+	}
+
+	public void addLink(String link) {
+		if (links == null) {
+			links = new ArrayList<String>(2);
+		}
+		links.add(link);
+	}
+
+	/***
+	 * @return List The links in the message, in order.
+	 */
+	public List<String> getLinks() {
+		return links == null ? Collections.<String> emptyList() : links;
+	}
+
+	public void addMention(String username) {
+		if (mentions == null) {
+			mentions = new ArrayList<String>(2);
+		}
+		mentions.add(username);
+	}
+
+	/***
+	 * @return List The nicknames of the users mentioned in the message.
+	 */
+	public List<String> getMentions() {
+		return mentions == null ? Collections.<String> emptyList() : mentions;
+	}
+}
@@ -0,0 +1,192 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/***
+ * Inverted index of the messages of a room: for every word, the sequence
+ * numbers of the messages containing it.
+ *
+ * Messages are added as the room receives them, so the posting lists only ever
+ * grow at the end. A query returns the most recent messages containing all of
+ * its words. It leapfrogs backwards through the posting lists, each list
+ * skipping the others past messages it doesn't contain, and stops as soon as
+ * enough messages are found, so the cost depends on the rarest word rather
+ * than on the size of the history.
+ *
+ * Not thread safe, the room guards it.
+ */
+public class MessageIndex {
+	// longer words are most likely links or noise
+	public static final int MAX_WORD_LENGTH = 64;
+
+	private final HashMap<String, PostingList> postings = new HashMap<String, PostingList>();
+
+	/***
+	 * Splits a text into lower case words of letters and digits.
+	 *
+	 * @param text
+	 *            The text.
+	 *
+	 * @return List<String> The words, in the order they appear.
+	 */
+	public static List<String> tokenize(String text) {
+		ArrayList<String> words = new ArrayList<String>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start >= 0) {
+				if (i - start <= MAX_WORD_LENGTH) {
+					words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				}
+				start = -1;
+			}
+		}
+		return words;
+	}
+
+	/***
+	 * Adds a message to the index. Messages must be added in the order of
+	 * their sequence numbers.
+	 *
+	 * @param sequence
+	 *            The sequence number of the message.
+	 * @param text
+	 *            The message.
+	 */
+	public void add(long sequence, String text) {
+		for (String word : tokenize(text)) {
+			PostingList list = postings.get(word);
+			if (list == null) {
+				list = new PostingList();
+				postings.put(word, list);
+			}
+			list.add(sequence);
+		}
+	}
+
+	/***
+	 * Finds the most recent messages containing every word of the query.
+	 *
+	 * @param query
+	 *            The words to look for.
+	 * @param limit
+	 *            The maximum number of results.
+	 *
+	 * @return List<Long> The sequence numbers of the messages, newest first.
+	 */
+	public List<Long> search(String query, int limit) {
+		ArrayList<Long> result = new ArrayList<Long>();
+		List<String> words = tokenize(query);
+		if (words.isEmpty() || limit <= 0) {
+			return result;
+		}
+
+		ArrayList<Lookup> lookups = new ArrayList<Lookup>();
+		for (String word : words) {
+			PostingList list = postings.get(word);
+			if (list == null) {
+				return result; // no message contains this word
+			}
+			lookups.add(new Lookup(list));
+		}
+		// the rarest words skip furthest
+		Collections.sort(lookups);
+
+		// leapfrog from the newest message: every list in turn moves the
+		// candidate back to the newest message it contains, until all agree
+		long candidate = Long.MAX_VALUE;
+		int agreed = 0;
+		int i = 0;
+		while (true) {
+			long floor = lookups.get(i).floor(candidate);
+			if (floor < 0) {
+				return result;
+			}
+			if (floor < candidate) {
+				candidate = floor;
+				agreed = 0;
+			}
+			if (++agreed == lookups.size()) {
+				result.add(candidate);
+				if (result.size() == limit) {
+					return result;
+				}
+				candidate--;
+				agreed = 0;
+			}
+			i = (i + 1) % lookups.size();
+		}
+	}
+
+	/***
+	 * Looks sequence numbers up in a posting list. Lookups go back in time and
+	 * usually fall in the same block as the previous one, so the last decoded
+	 * block is kept.
+	 */
+	private static class Lookup implements Comparable<Lookup> {
+		private final PostingList list;
+		private final long[] values = new long[PostingList.BLOCK_SIZE];
+		private int block = -1;
+		private int size = 0;
+
+		Lookup(PostingList list) {
+			this.list = list;
+		}
+
+		/***
+		 * @return long The highest sequence number in the list which is not
+		 *         higher than the given one, -1 if there is none.
+		 */
+		long floor(long sequence) {
+			if (block >= 0 && sequence >= values[0] && sequence <= values[size - 1]) {
+				return values[floorIndex(sequence)];
+			}
+
+			int b = list.floorBlock(sequence);
+			if (b < 0) {
+				return -1;
+			}
+			if (b != block) {
+				size = list.decodeBlock(b, values);
+				block = b;
+			}
+			return values[floorIndex(sequence)];
+		}
+
+		private int floorIndex(long sequence) {
+			int index = Arrays.binarySearch(values, 0, size, sequence);
+			return index >= 0 ? index : -index - 2;
+		}
+
+		@Override
+		public int compareTo(Lookup other) {
+			return Integer.compare(list.size(), other.list.size());
+		}
+	}
+
+	/***
+	 * @return int Number of distinct words in the index.
+	 */
+	public int getWords() {
+		return postings.size();
+	}
+
+	/***
+	 * @return long Approximate number of bytes used by the posting lists.
+	 */
+	public long getBytes() {
+		long bytes = 0;
+		for (PostingList list : postings.values()) {
+			bytes += list.getBytes();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,263 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/***
+ * The stages every message passes before the server keeps and pushes it:
+ * - SizeLimit rejects messages that are too long;
+ * - KeywordFilter masks unwanted words;
+ * - LinkExtractor finds the links, the room keeps the recent ones;
+ * - MentionDetector finds the @users, the server lets them know.
+ *
+ * The stages are made once when the server starts and don't change, so
+ * messages to different rooms go through them at the same time, on the
+ * threads of their requests, without locks. They only allocate when they find
+ * something.
+ *
+ * Set the system property chat.message.max to the longest message in
+ * characters, and chat.filter.words (comma separated) or chat.filter.file
+ * (one per line) to the words to mask. No words are masked by default.
+ */
+public class MessagePipeline {
+	public static final int MAX_LENGTH = Integer.getInteger("chat.message.max", 4000); // characters
+	public static final int MAX_MENTIONS = 5; // per message
+
+	private final MessageStage[] stages;
+
+	/***
+	 * @param stages
+	 *            The stages, in the order messages pass them.
+	 */
+	public MessagePipeline(List<MessageStage> stages) {
+		this.stages = stages.toArray(new MessageStage[stages.size()]);
+	}
+
+	/***
+	 * Makes the pipeline of a server from the system properties.
+	 *
+	 * @param sessions
+	 *            The sessions, mentions are only counted for registered users.
+	 *
+	 * @return MessagePipeline The pipeline.
+	 */
+	public static MessagePipeline standard(SessionIds sessions) {
+		ArrayList<MessageStage> stages = new ArrayList<MessageStage>();
+		stages.add(new SizeLimit(MAX_LENGTH));
+		List<String> words = getFilteredWords();
+		if (!words.isEmpty()) {
+			try {
+				stages.add(new KeywordFilter(new KeywordAutomaton(words)));
+				System.out.println("server> Filtering " + words.size() + " words from messages.");
+			} catch (IllegalArgumentException e) {
+				System.err.println("ERROR: " + e.getMessage() + " Messages aren't filtered.");
+			}
+		}
+		stages.add(new LinkExtractor());
+		stages.add(new MentionDetector(sessions));
+		return new MessagePipeline(stages);
+	}
+
+	/***
+	 * Runs a message through the stages.
+	 *
+	 * @param sender
+	 *            The nickname of the sender.
+	 * @param roomName
+	 *            The room the message is sent to.
+	 * @param text
+	 *            The message as the sender typed it.
+	 *
+	 * @return MessageDraft The message as it should be sent, or why it
+	 *         shouldn't.
+	 */
+	public MessageDraft run(String sender, String roomName, String text) {
+		MessageDraft draft = new MessageDraft(sender, roomName, text);
+		for (MessageStage stage : stages) {
+			stage.process(draft);
+			if (draft.isRejected()) {
+				break;
+			}
+		}
+		return draft;
+	}
+
+	private static List<String> getFilteredWords() {
+		ArrayList<String> words = new ArrayList<String>();
+		String list = System.getProperty("chat.filter.words");
+		if (list != null) {
+			words.addAll(Arrays.asList(list.split(",")));
+		}
+		String file = System.getProperty("chat.filter.file");
+		if (file != null) {
+			try {
+				words.addAll(Files.readAllLines(Paths.get(file), Charset.forName("UTF-8")));
+			} catch (IOException e) {
+				System.err.println("ERROR: Reading the filtered words from " + file + ".");
+			}
+		}
+		ArrayList<String> filtered = new ArrayList<String>();
+		for (String word : words) {
+			if (!word.trim().isEmpty()) {
+				filtered.add(word.trim());
+			}
+		}
+		return filtered;
+	}
+
+	/***
+	 * Rejects messages longer than a maximum.
+	 */
+	public static class SizeLimit implements MessageStage {
+		private final int max;
+
+		/***
+		 * @param max
+		 *            The longest message, in characters.
+		 */
+		public SizeLimit(int max) {
+			this.max = max;
+		}
+
+		@Override
+		public void process(MessageDraft draft) {
+			if (draft.getText().length() > max) {
+				draft.reject("server> Your message is longer than " + max + " characters, it wasn't sent.");
+			}
+		}
+	}
+
+	/***
+	 * Replaces unwanted words by asterisks.
+	 */
+	public static class KeywordFilter implements MessageStage {
+		private final KeywordAutomaton words;
+
+		/***
+		 * @param words
+		 *            The compiled words.
+		 */
+		public KeywordFilter(KeywordAutomaton words) {
+			this.words = words;
+		}
+
+		@Override
+		public void process(MessageDraft draft) {
+			draft.setText(words.mask(draft.getText()));
+		}
+	}
+
+	/***
+	 * Finds the links in messages: words starting with http://, https:// or
+	 * www.
+	 */
+	public static class LinkExtractor implements MessageStage {
+		private static final String[] PREFIXES = { "http://", "https://", "www." };
+
+		@Override
+		public void process(MessageDraft draft) {
+			String text = draft.getText();
+			// cheap check first, most messages have no link
+			if (text.indexOf("://") < 0 && text.indexOf("www.") < 0 && text.indexOf("WWW.") < 0) {
+				return;
+			}
+			int start = 0;
+			while (start < text.length()) {
+				int end = wordEnd(text, start);
+				if (isLink(text, start)) {
+					// punctuation after a link most likely ends the sentence
+					int last = end;
+					while (last > start && ".,;:!?)]'\"".indexOf(text.charAt(last - 1)) >= 0) {
+						last--;
+					}
+					draft.addLink(text.substring(start, last));
+				}
+				start = end + 1;
+			}
+		}
+
+		/***
+		 * Finds the links in a text.
+		 *
+		 * @param text
+		 *            The text.
+		 *
+		 * @return List The links, in order.
+		 */
+		public static List<String> extract(String text) {
+			MessageDraft draft = new MessageDraft(null, null, text);
+			new LinkExtractor().process(draft);
+			return draft.getLinks();
+		}
+
+		private static boolean isLink(String text, int start) {
+			for (String prefix : PREFIXES) {
+				if (text.regionMatches(true, start, prefix, 0, prefix.length())
+						&& start + prefix.length() < wordEnd(text, start)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/***
+	 * Finds the registered users mentioned in messages, as @nickname.
+	 */
+	public static class MentionDetector implements MessageStage {
+		private final SessionIds sessions;
+
+		/***
+		 * @param sessions
+		 *            The sessions of the registered users.
+		 */
+		public MentionDetector(SessionIds sessions) {
+			this.sessions = sessions;
+		}
+
+		@Override
+		public void process(MessageDraft draft) {
+			String text = draft.getText();
+			int at = text.indexOf('@');
+			int found = 0;
+			while (at >= 0 && found < MAX_MENTIONS) {
+				if (at == 0 || Character.isWhitespace(text.charAt(at - 1))) {
+					int end = at + 1;
+					while (end < text.length() && isNameCharacter(text.charAt(end))) {
+						end++;
+					}
+					// a sentence may end right after the name
+					while (end > at + 1 && text.charAt(end - 1) == '.') {
+						end--;
+					}
+					if (end > at + 1) {
+						String username = text.substring(at + 1, end);
+						if (sessions.getId(username) >= 0 && !username.equals(draft.getSender())
+								&& !draft.getMentions().contains(username)) {
+							draft.addMention(username);
+							found++;
+						}
+					}
+				}
+				at = text.indexOf('@', at + 1);
+			}
+		}
+
+		private static boolean isNameCharacter(char c) {
+			return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+		}
+	}
+
+	private static int wordEnd(String text, int start) {
+		int end = start;
+		while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+			end++;
+		}
+		return end;
+	}
+}
@@ -0,0 +1,17 @@
+package avro.chat.server;
+
+/***
+ * A step every message passes before the server keeps and pushes it, like
+ * filtering words or finding links, see MessagePipeline.
+ */
+public interface MessageStage {
+	/***
+	 * Processes a message. A stage is shared by all rooms and may run on many
+	 * threads at once, so it keeps nothing of the message itself.
+	 *
+	 * @param draft
+	 *            The message, changed in place. A stage can reject it, then
+	 *            the next stages are skipped.
+	 */
+	void process(MessageDraft draft);
+}
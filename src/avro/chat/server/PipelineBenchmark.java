@@ -0,0 +1,123 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/***
+ * Benchmark of the message pipeline: how long a message takes to pass the
+ * stages, with a large list of filtered words, on chat-like messages of which
+ * some have links, mentions and filtered words.
+ *
+ * Compares the automaton with checking every filtered word on its own, and
+ * shows what the pipeline costs at 10,000 messages per second.
+ */
+public class PipelineBenchmark {
+	private static final int MESSAGES = 10000;
+	private static final int RUNS = 50;
+	private static final String[] WORDS = { "the", "a", "is", "to", "and", "you", "I", "it", "in", "that", "of",
+			"for", "on", "are", "with", "have", "be", "this", "what", "just", "so", "we", "meeting", "tomorrow",
+			"video", "lol", "thanks", "server", "room", "anyone", "know", "how", "join", "later", "ok", "yes", "no" };
+
+	/***
+	 * Main method for the benchmark.
+	 *
+	 * @param args
+	 *            Optional argument: [filtered words]. Defaults to 1000.
+	 */
+	public static void main(String[] args) {
+		int filtered = 1000;
+		try {
+			if (args.length > 0) {
+				filtered = Integer.parseInt(args[0]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("ERROR: Usage: PipelineBenchmark [filtered words]");
+			System.exit(1);
+		}
+
+		Random random = new Random(42);
+		ArrayList<String> words = new ArrayList<String>();
+		for (int i = 0; i < filtered; i++) {
+			StringBuilder word = new StringBuilder();
+			int length = 4 + random.nextInt(6);
+			for (int c = 0; c < length; c++) {
+				word.append((char) ('a' + random.nextInt(26)));
+			}
+			words.add(word.toString());
+		}
+
+		SessionIds sessions = new SessionIds();
+		for (int i = 0; i < 100; i++) {
+			sessions.open("user" + i, null);
+		}
+		String[] messages = new String[MESSAGES];
+		for (int m = 0; m < MESSAGES; m++) {
+			StringBuilder text = new StringBuilder();
+			int count = 3 + random.nextInt(12);
+			for (int w = 0; w < count; w++) {
+				text.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			if (m % 20 == 0) {
+				text.append(" https://example.com/page/").append(m);
+			}
+			if (m % 10 == 0) {
+				text.append(" @user").append(random.nextInt(100));
+			}
+			if (m % 50 == 0) {
+				text.append(' ').append(words.get(random.nextInt(words.size())));
+			}
+			messages[m] = text.toString();
+		}
+
+		long start = System.nanoTime();
+		KeywordAutomaton automaton = new KeywordAutomaton(words);
+		System.out.println("Pipeline benchmark: " + filtered + " filtered words compiled into " + automaton.getStates()
+				+ " states in " + String.format("%.1f ms", (System.nanoTime() - start) / 1e6));
+
+		ArrayList<MessageStage> stages = new ArrayList<MessageStage>();
+		stages.add(new MessagePipeline.SizeLimit(MessagePipeline.MAX_LENGTH));
+		stages.add(new MessagePipeline.KeywordFilter(automaton));
+		stages.add(new MessagePipeline.LinkExtractor());
+		stages.add(new MessagePipeline.MentionDetector(sessions));
+		MessagePipeline pipeline = new MessagePipeline(stages);
+
+		final List<String> naive = words;
+		MessageStage eachWord = new MessageStage() {
+			@Override
+			public void process(MessageDraft draft) {
+				String text = draft.getText().toLowerCase();
+				for (String word : naive) {
+					if (text.contains(word)) {
+						draft.setText(draft.getText().replace(word, "***"));
+					}
+				}
+			}
+		};
+
+		time("pipeline, all stages", pipeline, messages);
+		time("filter, automaton", new MessagePipeline(Collections.<MessageStage> singletonList(
+				new MessagePipeline.KeywordFilter(automaton))), messages);
+		time("filter, word by word", new MessagePipeline(Collections.singletonList(eachWord)), messages);
+	}
+
+	private static void time(String name, MessagePipeline pipeline, String[] messages) {
+		// warm up
+		for (String message : messages) {
+			pipeline.run("user0", "Public", message);
+		}
+		ArrayList<Long> times = new ArrayList<Long>();
+		for (int run = 0; run < RUNS; run++) {
+			long start = System.nanoTime();
+			for (String message : messages) {
+				pipeline.run("user0", "Public", message);
+			}
+			times.add((System.nanoTime() - start) / messages.length);
+		}
+		Collections.sort(times);
+		long median = times.get(times.size() / 2);
+		System.out.println(String.format("  %-24s %8d ns/message, %5.2f%% of a core at 10,000 messages/s", name + ":",
+				median, median * 10000 / 1e9 * 100));
+	}
+}
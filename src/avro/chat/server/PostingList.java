@@ -0,0 +1,137 @@
+package avro.chat.server;
+
+import java.util.Arrays;
+
+/***
+ * The sequence numbers of the messages containing a word, in increasing
+ * order.
+ *
+ * Numbers are stored as the difference with the previous one, written as a
+ * varint (7 bits per byte, high bit set when more bytes follow), so most take
+ * a single byte. Every BLOCK_SIZE numbers a new block starts with its first
+ * number kept aside, so a lookup only decodes a single block.
+ */
+class PostingList {
+	static final int BLOCK_SIZE = 128;
+
+	private byte[] data = new byte[8];
+	private int length = 0; // bytes
+	private int count = 0; // sequence numbers
+	private long last = 0;
+
+	// first sequence number and its offset in data of every block
+	private long[] blockFirst = new long[1];
+	private int[] blockOffset = new int[1];
+	private int blocks = 0;
+
+	/***
+	 * Adds a sequence number, which must be higher than the ones added before.
+	 * Adding the last one again is ignored.
+	 *
+	 * @param sequence
+	 *            The sequence number.
+	 */
+	void add(long sequence) {
+		if (count > 0 && sequence <= last) {
+			return;
+		}
+
+		if (count % BLOCK_SIZE == 0) {
+			if (blocks == blockFirst.length) {
+				blockFirst = Arrays.copyOf(blockFirst, blocks * 2);
+				blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+			}
+			blockFirst[blocks] = sequence;
+			blockOffset[blocks] = length;
+			blocks++;
+		} else {
+			writeVarint(sequence - last);
+		}
+
+		last = sequence;
+		count++;
+	}
+
+	private void writeVarint(long value) {
+		if (length + 10 > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+		}
+		while ((value & ~0x7FL) != 0) {
+			data[length++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[length++] = (byte) value;
+	}
+
+	int size() {
+		return count;
+	}
+
+	int getBlocks() {
+		return blocks;
+	}
+
+	/***
+	 * @return int Approximate number of bytes used.
+	 */
+	int getBytes() {
+		return data.length + blockFirst.length * 12;
+	}
+
+	/***
+	 * Decodes a block.
+	 *
+	 * @param block
+	 *            The number of the block.
+	 * @param out
+	 *            Receives the sequence numbers, must hold BLOCK_SIZE.
+	 *
+	 * @return int The number of sequence numbers in the block.
+	 */
+	int decodeBlock(int block, long[] out) {
+		int n = block == blocks - 1 ? count - block * BLOCK_SIZE : BLOCK_SIZE;
+		int pos = blockOffset[block];
+		long value = blockFirst[block];
+		out[0] = value;
+		for (int i = 1; i < n; i++) {
+			long delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[pos++];
+				delta |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			value += delta;
+			out[i] = value;
+		}
+		return n;
+	}
+
+	/***
+	 * Finds the block a sequence number would be in.
+	 *
+	 * @param sequence
+	 *            The sequence number.
+	 *
+	 * @return int The number of the last block starting at or before the
+	 *         sequence number, -1 if the list has none.
+	 */
+	int floorBlock(long sequence) {
+		if (count == 0 || sequence < blockFirst[0]) {
+			return -1;
+		}
+
+		int low = 0;
+		int high = blocks - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (blockFirst[mid] <= sequence) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+}
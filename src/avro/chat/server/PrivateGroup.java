@@ -0,0 +1,77 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+
+/***
+ * A private group chat hosted by the server. Users can only join when a member
+ * invited them, and a group has at most MAX_MEMBERS members.
+ *
+ * Members send their messages to the server once and the server pushes them
+ * to the other members, so a client never needs more than its connection with
+ * the server, however large the group is.
+ */
+public class PrivateGroup extends ChatRoom {
+	public static final int MAX_MEMBERS = 50;
+
+	private ArrayList<String> invited = new ArrayList<String>();
+
+	/***
+	 * @param name
+	 *            The name of the group, starting with '#'.
+	 */
+	public PrivateGroup(String name) {
+		super(name);
+	}
+
+	/***
+	 * Allows a user to join the group.
+	 *
+	 * @param username
+	 *            The nickname of the user.
+	 */
+	public synchronized void invite(String username) {
+		if (!invited.contains(username) && !contains(username)) {
+			invited.add(username);
+			changed();
+		}
+	}
+
+	/***
+	 * Adds an invited user to the group.
+	 *
+	 * @param username
+	 *            The nickname of the user.
+	 *
+	 * @return boolean Whether the user was invited and the group wasn't full.
+	 */
+	@Override
+	public synchronized boolean join(String username) {
+		if (!invited.contains(username) || getClients().size() >= MAX_MEMBERS) {
+			return false;
+		}
+		invited.remove(username);
+		return super.join(username);
+	}
+
+	/***
+	 * @return ArrayList The users who were invited but didn't join yet.
+	 */
+	public synchronized ArrayList<String> getInvited() {
+		return new ArrayList<String>(invited);
+	}
+
+	@Override
+	public synchronized void leave(String username) {
+		super.leave(username);
+	}
+
+	@Override
+	public synchronized boolean contains(String username) {
+		return super.contains(username);
+	}
+
+	@Override
+	public synchronized ArrayList<String> getClients() {
+		return super.getClients();
+	}
+}
@@ -0,0 +1,138 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/***
+ * The public room, which every client can join. Its members are kept as a
+ * bitmap of session slots rather than a list of names, so checking a member
+ * is a bit test and ten thousand members fit in 1.25 KB.
+ *
+ * Members are online clients, the server makes them leave when they exit.
+ */
+public class PublicRoom extends ChatRoom {
+	private final SessionIds sessions;
+	private final BitSet members = new BitSet(); // guarded by itself
+	private volatile int memberCount = 0; // written while holding members
+
+	/***
+	 * @param sessions
+	 *            The sessions of the clients.
+	 */
+	public PublicRoom(SessionIds sessions) {
+		super("Public");
+		this.sessions = sessions;
+	}
+
+	@Override
+	public boolean join(String username) {
+		int id = sessions.getId(username);
+		return id >= 0 && join(id);
+	}
+
+	/***
+	 * Connects a session to the room if it is not connected yet.
+	 *
+	 * @param session
+	 *            The ID of the client's session.
+	 *
+	 * @return boolean Whether the client was added to the room or not.
+	 */
+	public boolean join(int session) {
+		synchronized (members) {
+			int slot = SessionIds.slot(session);
+			if (members.get(slot)) {
+				return false;
+			}
+			members.set(slot);
+			memberCount++;
+		}
+		changed();
+		return true;
+	}
+
+	@Override
+	public boolean contains(String username) {
+		return contains(sessions.getId(username));
+	}
+
+	/***
+	 * @param session
+	 *            The ID of the client's session.
+	 *
+	 * @return boolean Whether the room contains the client.
+	 */
+	public boolean contains(int session) {
+		if (session < 0) {
+			return false;
+		}
+		synchronized (members) {
+			return members.get(SessionIds.slot(session));
+		}
+	}
+
+	@Override
+	public int getMemberCount() {
+		return memberCount;
+	}
+
+	@Override
+	public ArrayList<String> getClients() {
+		ArrayList<String> clients = new ArrayList<String>();
+		for (int id : getSessions()) {
+			String username = sessions.getName(id);
+			if (username != null) {
+				clients.add(username);
+			}
+		}
+		return clients;
+	}
+
+	/***
+	 * Gets the sessions in the room.
+	 *
+	 * @return int[] The IDs of the members' sessions.
+	 */
+	public int[] getSessions() {
+		BitSet copy;
+		synchronized (members) {
+			copy = (BitSet) members.clone();
+		}
+		int[] ids = new int[copy.cardinality()];
+		int count = 0;
+		for (int slot = copy.nextSetBit(0); slot >= 0; slot = copy.nextSetBit(slot + 1)) {
+			int id = sessions.getIdAt(slot);
+			if (id >= 0) {
+				ids[count++] = id;
+			}
+		}
+		return count == ids.length ? ids : Arrays.copyOf(ids, count);
+	}
+
+	@Override
+	public void leave(String username) {
+		leave(sessions.getId(username));
+	}
+
+	/***
+	 * Disconnects a session from the room.
+	 *
+	 * @param session
+	 *            The ID of the client's session.
+	 */
+	public void leave(int session) {
+		if (session < 0) {
+			return;
+		}
+		synchronized (members) {
+			int slot = SessionIds.slot(session);
+			if (!members.get(slot)) {
+				return;
+			}
+			members.clear(slot);
+			memberCount--;
+		}
+		changed();
+	}
+}
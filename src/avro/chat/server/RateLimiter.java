@@ -0,0 +1,95 @@
+package avro.chat.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/***
+ * Token buckets with the same rate and burst for every key, like one per user
+ * or one per room. Buckets are made on first use.
+ *
+ * The rate and burst can be set with the system properties
+ * chat.limit.[name].rate and chat.limit.[name].burst, for instance
+ * -Dchat.limit.message.rate=10, and changed while the server runs through the
+ * admin protocol.
+ */
+public class RateLimiter {
+	private final String name;
+	private volatile double rate;
+	private volatile int burst;
+	private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+
+	/***
+	 * @param name
+	 *            Name of the limit, used for its system properties.
+	 * @param rate
+	 *            Default sustained rate, in calls per second.
+	 * @param burst
+	 *            Default number of calls allowed at once.
+	 */
+	public RateLimiter(String name, double rate, int burst) {
+		this.name = name;
+		this.rate = Double.parseDouble(System.getProperty("chat.limit." + name + ".rate", Double.toString(rate)));
+		this.burst = Integer.getInteger("chat.limit." + name + ".burst", burst);
+	}
+
+	/***
+	 * Admits a call if the key has a token left.
+	 *
+	 * @param key
+	 *            The user or room making the call.
+	 *
+	 * @return long 0 if the call is admitted, otherwise the number of
+	 *         milliseconds to wait.
+	 */
+	public long acquire(String key) {
+		TokenBucket bucket = buckets.get(key);
+		if (bucket == null) {
+			TokenBucket created = new TokenBucket(rate, burst);
+			bucket = buckets.putIfAbsent(key, created);
+			if (bucket == null) {
+				bucket = created;
+			}
+		}
+		return bucket.tryAcquire();
+	}
+
+	/***
+	 * Forgets a key, for instance when its user exits.
+	 *
+	 * @param key
+	 *            The user or room.
+	 */
+	public void forget(String key) {
+		buckets.remove(key);
+	}
+
+	/***
+	 * Changes the rate and burst. Every key starts again with a full bucket.
+	 *
+	 * @param rate
+	 *            Sustained rate, in calls per second.
+	 * @param burst
+	 *            Number of calls allowed at once.
+	 */
+	public void set(double rate, int burst) {
+		this.rate = rate;
+		this.burst = burst;
+		buckets.clear();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + rate + "/s, burst " + burst;
+	}
+}
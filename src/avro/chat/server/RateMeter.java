@@ -0,0 +1,49 @@
+package avro.chat.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/***
+ * Counts events per second over the last few seconds, without locks.
+ *
+ * Every second has a slot in a ring, stamped with the second it counts. The
+ * first event of a new second takes the slot over with a compare and set and
+ * starts it from zero. Reading sums the slots which are stamped with a recent
+ * second, so it never waits for the writers. An event racing the takeover of
+ * a slot may be lost, which is fine for a rate.
+ */
+public class RateMeter {
+	public static final int WINDOW = 10; // seconds
+
+	private final AtomicLongArray counts = new AtomicLongArray(WINDOW);
+	private final AtomicLongArray seconds = new AtomicLongArray(WINDOW);
+
+	/***
+	 * Counts an event.
+	 */
+	public void record() {
+		long second = System.currentTimeMillis() / 1000;
+		int slot = (int) (second % WINDOW);
+		long stamp = seconds.get(slot);
+		if (stamp != second && seconds.compareAndSet(slot, stamp, second)) {
+			counts.set(slot, 0);
+		}
+		counts.incrementAndGet(slot);
+	}
+
+	/***
+	 * @return double The average number of events per second over the
+	 *         seconds before the current one, the ring holds WINDOW - 1 of
+	 *         them.
+	 */
+	public double getRate() {
+		long second = System.currentTimeMillis() / 1000;
+		long total = 0;
+		for (int slot = 0; slot < WINDOW; slot++) {
+			long age = second - seconds.get(slot);
+			if (age >= 1 && age < WINDOW) {
+				total += counts.get(slot);
+			}
+		}
+		return total / (double) (WINDOW - 1);
+	}
+}
@@ -0,0 +1,76 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.ByteBufferOutputStream;
+
+/***
+ * A frame of a broadcast, serialized once as a complete incomingFrame call so
+ * it can be written to every viewer's connection as is.
+ *
+ * The layout follows the Avro RPC wire format for a connection which has
+ * already done its handshake: the (empty) call metadata, the message name and
+ * the parameters.
+ */
+public class RelayFrame {
+	private final List<ByteBuffer> request;
+	private final boolean keyFrame;
+	private final int size;
+
+	/***
+	 * @param streamName
+	 *            The name of the broadcast.
+	 * @param frame
+	 *            The encoded frame.
+	 * @param keyFrame
+	 *            Whether the frame can be shown without the frames before it.
+	 */
+	public RelayFrame(String streamName, ByteBuffer frame, boolean keyFrame) {
+		this.keyFrame = keyFrame;
+		this.size = frame.remaining();
+
+		ByteBufferOutputStream bbo = new ByteBufferOutputStream();
+		BinaryEncoder out = EncoderFactory.get().binaryEncoder(bbo, null);
+		try {
+			out.writeMapStart();
+			out.setItemCount(0);
+			out.writeMapEnd();
+			out.writeString("incomingFrame");
+			out.writeString(streamName);
+			out.writeBytes(frame.duplicate());
+			out.flush();
+		} catch (IOException e) {
+			// writing to memory
+			throw new IllegalStateException(e);
+		}
+		request = bbo.getBufferList();
+	}
+
+	public boolean isKeyFrame() {
+		return keyFrame;
+	}
+
+	/***
+	 * @return int Size of the encoded frame in bytes.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/***
+	 * @return List The serialized call. The buffers are duplicates, so every
+	 *         viewer can consume its own copy.
+	 */
+	public List<ByteBuffer> getRequest() {
+		List<ByteBuffer> copy = new ArrayList<ByteBuffer>(request.size());
+		for (ByteBuffer buffer : request) {
+			copy.add(buffer.duplicate());
+		}
+		return copy;
+	}
+}
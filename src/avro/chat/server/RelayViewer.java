@@ -0,0 +1,185 @@
+package avro.chat.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.avro.AvroRemoteException;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.util.ByteBufferInputStream;
+
+import avro.chat.proto.ChatClientServer;
+
+/***
+ * Sends the frames of a broadcast to a single viewer.
+ *
+ * Every viewer has its own small queue and thread. When a viewer can't keep
+ * up, the oldest frame which isn't a key frame is dropped (or the oldest frame
+ * when they all are), so a slow viewer falls behind in picture quality rather
+ * than in time, and never holds up the broadcaster or other viewers.
+ */
+public class RelayViewer implements Runnable {
+	public static final int QUEUE_SIZE = 4;
+
+	private final VideoRelay relay;
+	private final String username;
+	private final Transceiver transceiver;
+	private final ChatClientServer proxy;
+	private volatile int maxWidth;
+	private Thread t;
+
+	// Guarded by this
+	private ArrayDeque<RelayFrame> queue = new ArrayDeque<RelayFrame>();
+	private boolean finished = false;
+	private long framesSent = 0;
+	private long framesDropped = 0;
+
+	public RelayViewer(VideoRelay relay, String username, Transceiver transceiver, ChatClientServer proxy,
+			int maxWidth) {
+		this.relay = relay;
+		this.username = username;
+		this.transceiver = transceiver;
+		this.proxy = proxy;
+		this.maxWidth = maxWidth;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	/***
+	 * @return int The width of the rendition this viewer wants, 0 for the
+	 *         original.
+	 */
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+
+	public void setMaxWidth(int maxWidth) {
+		this.maxWidth = maxWidth;
+	}
+
+	/***
+	 * Queues a frame for the viewer, dropping an older one if the queue is
+	 * full.
+	 *
+	 * @param frame
+	 *            The serialized frame.
+	 */
+	public synchronized void offer(RelayFrame frame) {
+		if (finished) {
+			return;
+		}
+		if (queue.size() >= QUEUE_SIZE) {
+			dropOne();
+		}
+		queue.addLast(frame);
+		notifyAll();
+	}
+
+	private void dropOne() {
+		for (Iterator<RelayFrame> it = queue.iterator(); it.hasNext();) {
+			if (!it.next().isKeyFrame()) {
+				it.remove();
+				framesDropped++;
+				return;
+			}
+		}
+		queue.removeFirst();
+		framesDropped++;
+	}
+
+	/***
+	 * Stops relaying to this viewer and tells it the broadcast has ended.
+	 */
+	public synchronized void finish() {
+		finished = true;
+		queue.clear();
+		notifyAll();
+	}
+
+	public synchronized long getFramesSent() {
+		return framesSent;
+	}
+
+	public synchronized long getFramesDropped() {
+		return framesDropped;
+	}
+
+	public synchronized int getQueueDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public void run() {
+		try {
+			// the raw frames assume the connection's handshake is done
+			if (!transceiver.isConnected()) {
+				proxy.isAlive();
+			}
+
+			while (true) {
+				RelayFrame frame;
+				synchronized (this) {
+					while (queue.isEmpty() && !finished) {
+						wait();
+					}
+					if (finished) {
+						break;
+					}
+					frame = queue.removeFirst();
+				}
+
+				send(frame);
+				synchronized (this) {
+					framesSent++;
+				}
+			}
+
+			proxy.closeStream(relay.getBroadcaster());
+		} catch (IOException e) {
+			// the viewer went offline, the heartbeat will clean up
+			relay.viewerFailed(username);
+		} catch (InterruptedException e) {
+			// thread interrupted
+		}
+	}
+
+	/***
+	 * Writes a serialized frame to the viewer's connection and checks the
+	 * response.
+	 *
+	 * @param frame
+	 *            The serialized frame.
+	 *
+	 * @throws IOException
+	 */
+	private void send(RelayFrame frame) throws IOException {
+		List<ByteBuffer> response = transceiver.transceive(frame.getRequest());
+
+		BinaryDecoder in = DecoderFactory.get().binaryDecoder(new ByteBufferInputStream(response), null);
+		// skip the response metadata
+		for (long i = in.readMapStart(); i != 0; i = in.mapNext()) {
+			for (long j = 0; j < i; j++) {
+				in.skipString();
+				in.skipBytes();
+			}
+		}
+		if (in.readBoolean()) {
+			throw new AvroRemoteException("Viewer " + username + " failed to process a frame.");
+		}
+	}
+
+	/***
+	 * Starts the thread of this viewer, unless it was started already.
+	 */
+	public void start() {
+		if (t == null) {
+			t = ServerThreads.start("relay to " + username, this);
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package avro.chat.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.AvroRemoteException;
+
+import avro.chat.ipc.AckPlugin;
+import avro.chat.proto.ChatClientServer;
+
+/***
+ * Makes sure pushed room messages arrive: numbers the messages pushed to every
+ * session, and pushes those the client didn't acknowledge again.
+ *
+ * Every session has a window of the deliveries which weren't acknowledged yet.
+ * A push which returns is delivered, so only the pushes which failed stay in
+ * the window until the client acknowledges them on its next call or they are
+ * pushed again. The window only refers to the messages, which are taken from
+ * the room's history when they are pushed again, so it stays small. The client
+ * drops duplicates by their sequence number in the room. A delivery is given up
+ * after AckPlugin.GIVE_UP, or when more than WINDOW are outstanding, the client
+ * catches up on it the next time it resumes.
+ *
+ * Sessions are only tracked once they acknowledged something, so clients
+ * which don't acknowledge aren't pushed everything twice.
+ *
+ * Set the system properties chat.retransmit.window and
+ * chat.retransmit.interval (milliseconds) to change the limits.
+ */
+public class Retransmitter implements Runnable, AckPlugin.Sink {
+	public static final int WINDOW = Integer.getInteger("chat.retransmit.window", 1024);
+	public static final long INTERVAL = Long.getLong("chat.retransmit.interval", 1000); // milliseconds
+
+	private final SessionIds sessions;
+	private final Hashtable<Integer, Window> windows = new Hashtable<Integer, Window>();
+	private final AtomicLong retransmitted = new AtomicLong();
+	private final AtomicLong givenUp = new AtomicLong();
+
+	private static class Delivery {
+		final long number;
+		final ChatRoom room;
+		final long sequence;
+		final long firstSent;
+		long sent;
+
+		Delivery(long number, ChatRoom room, long sequence, long now) {
+			this.number = number;
+			this.room = room;
+			this.sequence = sequence;
+			this.firstSent = now;
+			this.sent = now;
+		}
+	}
+
+	// the deliveries of one session, guarded by itself
+	private static class Window {
+		final ArrayDeque<Delivery> pending = new ArrayDeque<Delivery>();
+		long next = 1;
+		boolean acknowledging = false;
+		// the size of pending, read without the lock
+		volatile int depth = 0;
+	}
+
+	/***
+	 * @param sessions
+	 *            The sessions of the clients.
+	 */
+	public Retransmitter(SessionIds sessions) {
+		this.sessions = sessions;
+	}
+
+	/***
+	 * Numbers a message pushed to a session.
+	 *
+	 * @param session
+	 *            The ID of the session.
+	 * @param room
+	 *            The room of the message.
+	 * @param sequence
+	 *            The sequence number of the message in the room.
+	 *
+	 * @return long The number of the delivery.
+	 */
+	public long deliver(int session, ChatRoom room, long sequence) {
+		Window window = getWindow(session);
+		synchronized (window) {
+			long number = window.next++;
+			if (window.acknowledging) {
+				window.pending.addLast(new Delivery(number, room, sequence, System.currentTimeMillis()));
+				if (window.pending.size() > WINDOW) {
+					window.pending.removeFirst();
+					givenUp.incrementAndGet();
+				}
+				window.depth = window.pending.size();
+			}
+			return number;
+		}
+	}
+
+	@Override
+	public void acknowledge(int session, long delivery) {
+		if (sessions.getName(session) == null) {
+			return;
+		}
+		Window window = getWindow(session);
+		synchronized (window) {
+			window.acknowledging = true;
+			while (!window.pending.isEmpty() && window.pending.peekFirst().number <= delivery) {
+				window.pending.removeFirst();
+			}
+			window.depth = window.pending.size();
+		}
+	}
+
+	/***
+	 * Removes a delivery from the window once its push returned: the client
+	 * has it, there is no need to wait for its acknowledgement.
+	 *
+	 * @param session
+	 *            The ID of the session.
+	 * @param delivery
+	 *            The number of the delivery.
+	 */
+	public void delivered(int session, long delivery) {
+		Window window = windows.get(session);
+		if (window == null) {
+			return;
+		}
+		synchronized (window) {
+			// pushes return about in the order they were numbered
+			Iterator<Delivery> deliveries = window.pending.iterator();
+			while (deliveries.hasNext()) {
+				long number = deliveries.next().number;
+				if (number == delivery) {
+					deliveries.remove();
+					break;
+				} else if (number > delivery) {
+					break;
+				}
+			}
+			window.depth = window.pending.size();
+		}
+	}
+
+	/***
+	 * Stops tracking a session, for instance when the client exits.
+	 *
+	 * @param session
+	 *            The ID of the session.
+	 */
+	public void forget(int session) {
+		windows.remove(session);
+	}
+
+	/***
+	 * @param session
+	 *            The ID of the session.
+	 *
+	 * @return int The number of deliveries the session didn't acknowledge
+	 *         yet.
+	 */
+	public int getPending(int session) {
+		Window window = windows.get(session);
+		return window == null ? 0 : window.depth;
+	}
+
+	/***
+	 * @return long The number of messages pushed again so far.
+	 */
+	public long getRetransmitted() {
+		return retransmitted.get();
+	}
+
+	/***
+	 * @return long The number of deliveries given up so far.
+	 */
+	public long getGivenUp() {
+		return givenUp.get();
+	}
+
+	private Window getWindow(int session) {
+		synchronized (windows) {
+			Window window = windows.get(session);
+			if (window == null) {
+				window = new Window();
+				windows.put(session, window);
+			}
+			return window;
+		}
+	}
+
+	/***
+	 * Pushes again what wasn't acknowledged for INTERVAL, every INTERVAL.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				Thread.sleep(INTERVAL);
+				retransmit(System.currentTimeMillis());
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+
+	/***
+	 * Pushes again the deliveries which are due, each session's in order.
+	 *
+	 * @param now
+	 *            The current time.
+	 */
+	void retransmit(long now) {
+		FanOut fanOut = new FanOut("retransmit");
+		for (Map.Entry<Integer, Window> entry : new ArrayList<Map.Entry<Integer, Window>>(windows.entrySet())) {
+			final int session = entry.getKey();
+			final ChatClientServer proxy = sessions.getProxy(session);
+			if (proxy == null) {
+				forget(session);
+				continue;
+			}
+			final List<Delivery> due = due(entry.getValue(), now);
+			if (due.isEmpty()) {
+				continue;
+			}
+			fanOut.fork(new Runnable() {
+				@Override
+				public void run() {
+					for (Delivery delivery : due) {
+						ChatMessage message = delivery.room.getMessage(delivery.sequence);
+						if (message == null) {
+							continue;
+						}
+						try {
+							proxy.incomingRoomMessage(delivery.room.getName(), delivery.sequence,
+									message.getUsername() + "> (" + delivery.room.getName() + "): "
+											+ message.getMessage(),
+									delivery.number);
+							retransmitted.incrementAndGet();
+							delivered(session, delivery.number);
+						} catch (AvroRemoteException | RuntimeException e) {
+							// tried again next time
+							return;
+						}
+					}
+				}
+			});
+		}
+		fanOut.join();
+	}
+
+	private List<Delivery> due(Window window, long now) {
+		ArrayList<Delivery> due = new ArrayList<Delivery>();
+		synchronized (window) {
+			Iterator<Delivery> deliveries = window.pending.iterator();
+			while (deliveries.hasNext()) {
+				Delivery delivery = deliveries.next();
+				if (delivery.firstSent < now - AckPlugin.GIVE_UP) {
+					deliveries.remove();
+					givenUp.incrementAndGet();
+				} else if (delivery.sent <= now - INTERVAL) {
+					delivery.sent = now;
+					due.add(delivery);
+				}
+			}
+			window.depth = window.pending.size();
+		}
+		return due;
+	}
+}
@@ -0,0 +1,168 @@
+package avro.chat.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import avro.chat.proto.RoomSnapshot;
+import avro.chat.proto.ServerSnapshot;
+import avro.chat.proto.StoredMessage;
+
+/***
+ * Saves the state of the server to an Avro data file and reads it back, so a
+ * restarted server continues where the old one stopped: the same messages,
+ * sequence numbers, groups and sessions.
+ *
+ * The file is written next to the old one and then renamed over it, so a
+ * crash while saving leaves the previous snapshot intact.
+ */
+public class RoomSnapshots {
+	/***
+	 * Converts a room to its snapshot.
+	 *
+	 * @param room
+	 *            The public room or a group.
+	 *
+	 * @return RoomSnapshot The members, invitations and messages of the room.
+	 */
+	public static RoomSnapshot snapshot(ChatRoom room) {
+		ArrayList<StoredMessage> messages = new ArrayList<StoredMessage>();
+		append(messages, room.getMessages());
+		return new RoomSnapshot(room.getName(), room.getClients(), getInvited(room), messages);
+	}
+
+	/***
+	 * Brings the snapshot of a room up to date, only converting what the room
+	 * received since.
+	 *
+	 * @param snapshot
+	 *            An earlier snapshot of the room.
+	 * @param room
+	 *            The room.
+	 */
+	public static void update(RoomSnapshot snapshot, ChatRoom room) {
+		List<StoredMessage> messages = snapshot.getMessages();
+		long saved = messages.isEmpty() ? 0 : messages.get(messages.size() - 1).getSequence();
+		append(messages, room.getMessagesSince(saved));
+		// the room may have dropped its oldest messages, see
+		// ChatRoom.setRetention
+		long first = room.getFirstSequence();
+		int dropped = 0;
+		while (dropped < messages.size() && messages.get(dropped).getSequence() < first) {
+			dropped++;
+		}
+		if (dropped > 0) {
+			messages.subList(0, dropped).clear();
+		}
+		snapshot.setMembers(room.getClients());
+		snapshot.setInvited(getInvited(room));
+	}
+
+	private static void append(List<StoredMessage> messages, List<ChatMessage> added) {
+		for (ChatMessage message : added) {
+			messages.add(new StoredMessage(message.getSequence(), message.getUsername(), message.getMessage(),
+					message.getTimestamp()));
+		}
+	}
+
+	private static List<String> getInvited(ChatRoom room) {
+		if (room instanceof PrivateGroup) {
+			return ((PrivateGroup) room).getInvited();
+		}
+		return new ArrayList<String>();
+	}
+
+	/***
+	 * Rebuilds a room from its snapshot.
+	 *
+	 * @param snapshot
+	 *            The snapshot of the room.
+	 *
+	 * @return ChatRoom The room, a PrivateGroup unless it is 'Public'.
+	 */
+	public static ChatRoom restore(RoomSnapshot snapshot) {
+		ChatRoom room;
+		if (snapshot.getName().equals("Public")) {
+			room = new ChatRoom();
+			for (String member : snapshot.getMembers()) {
+				room.join(member);
+			}
+		} else {
+			PrivateGroup group = new PrivateGroup(snapshot.getName());
+			for (String member : snapshot.getMembers()) {
+				group.invite(member);
+				group.join(member);
+			}
+			for (String invitee : snapshot.getInvited()) {
+				group.invite(invitee);
+			}
+			room = group;
+		}
+
+		ArrayList<ChatMessage> messages = new ArrayList<ChatMessage>();
+		for (StoredMessage message : snapshot.getMessages()) {
+			messages.add(new ChatMessage(message.getSequence(), message.getUsername(), message.getMessage(),
+					message.getTimestamp()));
+		}
+		room.restore(messages);
+		return room;
+	}
+
+	/***
+	 * Writes a snapshot to a file.
+	 *
+	 * @param file
+	 *            The snapshot file.
+	 * @param snapshot
+	 *            The state of the server.
+	 *
+	 * @throws IOException
+	 */
+	public static void write(File file, ServerSnapshot snapshot) throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+		DataFileWriter<ServerSnapshot> writer = new DataFileWriter<ServerSnapshot>(
+				new SpecificDatumWriter<ServerSnapshot>(ServerSnapshot.class));
+		writer.setCodec(CodecFactory.deflateCodec(1));
+		try {
+			writer.create(ServerSnapshot.getClassSchema(), temporary);
+			writer.append(snapshot);
+		} finally {
+			writer.close();
+		}
+		if (!temporary.renameTo(file)) {
+			file.delete();
+			if (!temporary.renameTo(file)) {
+				throw new IOException("Couldn't replace " + file);
+			}
+		}
+	}
+
+	/***
+	 * Reads a snapshot from a file. Snapshots without sessions, from before
+	 * they were saved, are read too.
+	 *
+	 * @param file
+	 *            The snapshot file.
+	 *
+	 * @return ServerSnapshot The state of the server, null if the file is
+	 *         empty.
+	 *
+	 * @throws IOException
+	 */
+	public static ServerSnapshot read(File file) throws IOException {
+		DataFileReader<ServerSnapshot> reader = new DataFileReader<ServerSnapshot>(file,
+				new SpecificDatumReader<ServerSnapshot>(ServerSnapshot.class));
+		try {
+			return reader.hasNext() ? reader.next() : null;
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package avro.chat.server;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/***
+ * Benchmark of the search index of a chat room.
+ *
+ * Fills a room with generated messages whose words follow a Zipf-like
+ * distribution, like natural language, and times queries with common, rare and
+ * mixed words.
+ */
+public class SearchBenchmark {
+	private static final int VOCABULARY = 50000; // words
+	private static final int WORDS_PER_MESSAGE = 10;
+	private static final int RUNS = 100;
+
+	/***
+	 * Main method for the benchmark.
+	 *
+	 * @param args
+	 *            Optional argument: [messages]. Defaults to 1000000.
+	 */
+	public static void main(String[] args) {
+		int messages = 1000000;
+		try {
+			if (args.length > 0) {
+				messages = Integer.parseInt(args[0]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("ERROR: Usage: SearchBenchmark [messages]");
+			System.exit(1);
+		}
+
+		// cumulative Zipf distribution over the vocabulary
+		double[] cumulative = new double[VOCABULARY];
+		double total = 0;
+		for (int i = 0; i < VOCABULARY; i++) {
+			total += 1.0 / (i + 1);
+			cumulative[i] = total;
+		}
+
+		Random random = new Random(42);
+		ChatRoom room = new ChatRoom();
+		StringBuilder message = new StringBuilder();
+		// the room logs every message
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		}));
+		long start = System.nanoTime();
+		for (int m = 0; m < messages; m++) {
+			message.setLength(0);
+			for (int w = 0; w < WORDS_PER_MESSAGE; w++) {
+				message.append(" w").append(pick(cumulative, random.nextDouble() * total));
+			}
+			room.sendMessage("user" + (m % 100), message.toString());
+		}
+		long indexing = System.nanoTime() - start;
+		System.setOut(console);
+
+		System.out.println("Search benchmark: " + messages + " messages of " + WORDS_PER_MESSAGE + " words");
+		System.out.println("  sending:          " + String.format("%.2f us per message, indexed", indexing / 1e3 / messages));
+		System.out.println("  distinct words:   " + room.getIndex().getWords());
+		System.out.println("  index size:       "
+				+ String.format("%.1f MB (%.2f bytes per word occurrence)", room.getIndex().getBytes() / 1e6,
+						room.getIndex().getBytes() / (double) messages / WORDS_PER_MESSAGE));
+
+		time(room, "common word", "w0", 20);
+		time(room, "two common words", "w0 w1", 20);
+		time(room, "rare word", "w40000", 20);
+		time(room, "common and rare", "w0 w2 w30000", 20);
+		time(room, "six common words", "w1 w2 w3 w4 w5 w6", 20);
+	}
+
+	private static int pick(double[] cumulative, double value) {
+		int low = 0;
+		int high = cumulative.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cumulative[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static void time(ChatRoom room, String name, String query, int limit) {
+		int found = room.search(query, limit).size(); // warm up
+		long max = 0;
+		long total = 0;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			room.search(query, limit);
+			long elapsed = System.nanoTime() - start;
+			total += elapsed;
+			max = Math.max(max, elapsed);
+		}
+		System.out.println(String.format("  %-17s %.3f ms avg, %.3f ms max, %d results for '%s'", name + ":",
+				total / 1e6 / RUNS, max / 1e6, found, query));
+	}
+}
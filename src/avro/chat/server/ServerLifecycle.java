@@ -0,0 +1,105 @@
+package avro.chat.server;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.avro.ipc.Server;
+
+import avro.chat.proto.ServerSnapshot;
+
+/***
+ * Stops the server gracefully, for instance to upgrade it, and brings the
+ * next one back in the same state.
+ *
+ * Runs when the JVM is asked to stop (Ctrl-C or kill). The server first
+ * refuses new work and delivers what it already accepted, then saves its rooms
+ * and sessions and tells the clients to reconnect. Clients reconnect with a
+ * random delay, by which time the next server has restored the snapshot, so
+ * messages keep their sequence numbers, clients fetch only what they missed and
+ * the server doesn't need to connect back to them.
+ *
+ * Set the system property chat.snapshot to choose the snapshot file and
+ * chat.handoff (host:port) to send the clients to another server.
+ */
+public class ServerLifecycle extends Thread {
+	public static final long DRAIN_TIMEOUT = 5000; // milliseconds
+
+	private final ChatServer chat;
+	private final Server server;
+	private final SnapshotWriter snapshots;
+	private final String handoff = System.getProperty("chat.handoff", "");
+
+	/***
+	 * @param chat
+	 *            The chat server.
+	 * @param server
+	 *            The socket server it runs on.
+	 * @param snapshots
+	 *            Saves the rooms and sessions.
+	 */
+	public ServerLifecycle(ChatServer chat, Server server, SnapshotWriter snapshots) {
+		super("shutdown");
+		this.chat = chat;
+		this.server = server;
+		this.snapshots = snapshots;
+	}
+
+	/***
+	 * @return File The snapshot file, server-state.avro unless chat.snapshot
+	 *         says otherwise.
+	 */
+	public static File getSnapshotFile() {
+		return new File(System.getProperty("chat.snapshot", "server-state.avro"));
+	}
+
+	/***
+	 * Restores the rooms and sessions a previous server saved, if there is a
+	 * snapshot.
+	 *
+	 * @param chat
+	 *            The chat server, not started yet.
+	 * @param snapshot
+	 *            The snapshot file.
+	 */
+	public static void restore(ChatServer chat, File snapshot) {
+		if (!snapshot.exists()) {
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			ServerSnapshot saved = RoomSnapshots.read(snapshot);
+			if (saved == null) {
+				return;
+			}
+			chat.restoreSnapshot(saved);
+			System.out.println("server> Restored " + saved.getRooms().size() + " rooms and " + saved.getSessions().size()
+					+ " sessions from " + snapshot + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
+		} catch (IOException e) {
+			System.err.println("server> Couldn't restore " + snapshot + ", starting empty: " + e.getMessage());
+		}
+	}
+
+	/***
+	 * Drains, saves, tells the clients and closes the server.
+	 */
+	@Override
+	public void run() {
+		long start = System.nanoTime();
+		if (!chat.drain(DRAIN_TIMEOUT)) {
+			System.err.println("server> Not everything was delivered within " + DRAIN_TIMEOUT + " ms.");
+		}
+
+		try {
+			int messages = snapshots.save();
+			if (messages >= 0) {
+				System.out.println("server> Saved " + messages + " messages to " + snapshots.getFile() + ".");
+			}
+		} catch (IOException e) {
+			System.err.println("server> Couldn't save " + snapshots.getFile() + ": " + e.getMessage());
+		}
+
+		chat.notifyMoving(handoff);
+		server.close();
+		System.out.println("server> Stopped in " + (System.nanoTime() - start) / 1000000 + " ms.");
+	}
+}
@@ -0,0 +1,60 @@
+package avro.chat.server;
+
+import java.util.concurrent.ThreadFactory;
+
+/***
+ * Makes the threads of the server: one per connection, per push and per
+ * heartbeat.
+ *
+ * When the server is started with -Dchat.threads=virtual on Java 21 or later
+ * they are virtual threads, which cost a few hundred bytes instead of a stack
+ * each, so blocking on a slow client is cheap and tens of thousands of
+ * sessions fit in memory. The sources are kept at Java 7, so virtual threads
+ * are looked up by reflection; on older JVMs platform threads are used.
+ */
+public class ServerThreads {
+	private static final ThreadFactory VIRTUAL = virtualFactory();
+
+	/***
+	 * @return boolean Whether threads are virtual.
+	 */
+	public static boolean isVirtual() {
+		return VIRTUAL != null;
+	}
+
+	/***
+	 * Starts a thread.
+	 *
+	 * @param name
+	 *            The name of the thread.
+	 * @param task
+	 *            What the thread runs.
+	 *
+	 * @return Thread The running thread.
+	 */
+	public static Thread start(String name, Runnable task) {
+		Thread thread;
+		if (VIRTUAL != null) {
+			thread = VIRTUAL.newThread(task);
+		} else {
+			thread = new Thread(task);
+			thread.setDaemon(true);
+		}
+		thread.setName(name);
+		thread.start();
+		return thread;
+	}
+
+	private static ThreadFactory virtualFactory() {
+		if (!"virtual".equals(System.getProperty("chat.threads"))) {
+			return null;
+		}
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			System.err.println("server> Virtual threads need Java 21 or later, using platform threads.");
+			return null;
+		}
+	}
+}
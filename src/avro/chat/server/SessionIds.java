@@ -0,0 +1,193 @@
+package avro.chat.server;
+
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import avro.chat.proto.ChatClientServer;
+
+/***
+ * Issues compact integer IDs to the sessions of the registered clients, so
+ * the hot calls don't carry and hash a username every time.
+ *
+ * An ID is a slot in a table plus a generation. Slots are reused when clients
+ * exit, which keeps them small and dense enough for room bitmaps, and the
+ * generation makes sure an old ID doesn't act as whoever got its slot next.
+ * Looking up an ID takes no lock.
+ */
+public class SessionIds {
+	public static final int SLOT_BITS = 20;
+	public static final int MAX_SESSIONS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = MAX_SESSIONS - 1;
+	private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+	// generations start somewhere else on every run, so an ID a client kept
+	// from before a restart most likely isn't valid
+	private final int epoch = new Random().nextInt(GENERATION_MASK + 1);
+	private final Hashtable<String, Integer> ids = new Hashtable<String, Integer>();
+	private volatile AtomicReferenceArray<Session> sessions = new AtomicReferenceArray<Session>(1024);
+	// the following are guarded by this
+	private int[] generations = new int[1024];
+	private int[] free = new int[1024];
+	private int freeCount = 0;
+	private int used = 0;
+
+	private static class Session {
+		final int id;
+		final String username;
+		final ChatClientServer proxy;
+
+		Session(int id, String username, ChatClientServer proxy) {
+			this.id = id;
+			this.username = username;
+			this.proxy = proxy;
+		}
+	}
+
+	/***
+	 * Gives a client a session, or updates the connection of the one it has.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param proxy
+	 *            The connection to the client's local server.
+	 *
+	 * @return int The ID of the session, the same one when the client had a
+	 *         session already, -1 when the table is full.
+	 */
+	public synchronized int open(String username, ChatClientServer proxy) {
+		Integer known = ids.get(username);
+		if (known != null) {
+			sessions.set(slot(known), new Session(known, username, proxy));
+			return known;
+		}
+
+		int slot;
+		if (freeCount > 0) {
+			slot = free[--freeCount];
+		} else if (used < MAX_SESSIONS) {
+			slot = used++;
+			ensureCapacity(used);
+		} else {
+			return -1;
+		}
+		int id = ((generations[slot] + epoch) & GENERATION_MASK) << SLOT_BITS | slot;
+		// the table keeps one copy of every name, the requests' copies go
+		username = username.intern();
+		sessions.set(slot, new Session(id, username, proxy));
+		ids.put(username, id);
+		return id;
+	}
+
+	/***
+	 * Ends the session of a client, its ID is not valid anymore.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 */
+	public synchronized void close(String username) {
+		Integer id = ids.remove(username);
+		if (id == null) {
+			return;
+		}
+		int slot = slot(id);
+		sessions.set(slot, null);
+		generations[slot] = (generations[slot] + 1) & GENERATION_MASK;
+		free[freeCount++] = slot;
+	}
+
+	/***
+	 * @param username
+	 *            The nickname of the client.
+	 *
+	 * @return int The ID of the client's session, -1 when it has none.
+	 */
+	public int getId(String username) {
+		Integer id = ids.get(username);
+		return id == null ? -1 : id;
+	}
+
+	/***
+	 * @param id
+	 *            The ID of a session.
+	 *
+	 * @return String The nickname of the client, null when the ID isn't valid.
+	 */
+	public String getName(int id) {
+		Session session = get(id);
+		return session == null ? null : session.username;
+	}
+
+	/***
+	 * @param id
+	 *            The ID of a session.
+	 *
+	 * @return ChatClientServer The connection to the client, null when the ID
+	 *         isn't valid.
+	 */
+	public ChatClientServer getProxy(int id) {
+		Session session = get(id);
+		return session == null ? null : session.proxy;
+	}
+
+	/***
+	 * @return int The number of slots, the sessions are in the slots below.
+	 */
+	public int getSlots() {
+		return sessions.length();
+	}
+
+	/***
+	 * @param slot
+	 *            A slot, as room bitmaps keep them.
+	 *
+	 * @return int The ID of the session in the slot, -1 when it is free.
+	 */
+	public int getIdAt(int slot) {
+		AtomicReferenceArray<Session> current = sessions;
+		if (slot < 0 || slot >= current.length()) {
+			return -1;
+		}
+		Session session = current.get(slot);
+		return session == null ? -1 : session.id;
+	}
+
+	/***
+	 * @param id
+	 *            The ID of a session.
+	 *
+	 * @return int The slot of the session, used to index bitmaps.
+	 */
+	public static int slot(int id) {
+		return id & SLOT_MASK;
+	}
+
+	private Session get(int id) {
+		AtomicReferenceArray<Session> current = sessions;
+		int slot = slot(id);
+		if (id < 0 || slot >= current.length()) {
+			return null;
+		}
+		Session session = current.get(slot);
+		return session != null && session.id == id ? session : null;
+	}
+
+	private void ensureCapacity(int size) {
+		if (size <= generations.length) {
+			return;
+		}
+		int length = Math.min(generations.length * 2, MAX_SESSIONS);
+		AtomicReferenceArray<Session> grown = new AtomicReferenceArray<Session>(length);
+		for (int i = 0; i < sessions.length(); i++) {
+			grown.set(i, sessions.get(i));
+		}
+		sessions = grown;
+
+		int[] grownGenerations = new int[length];
+		System.arraycopy(generations, 0, grownGenerations, 0, generations.length);
+		generations = grownGenerations;
+		int[] grownFree = new int[length];
+		System.arraycopy(free, 0, grownFree, 0, freeCount);
+		free = grownFree;
+	}
+}
@@ -0,0 +1,124 @@
+package avro.chat.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Hashtable;
+
+import avro.chat.proto.RoomSnapshot;
+import avro.chat.proto.ServerSnapshot;
+
+/***
+ * Saves the state of the server every few seconds, so a crashed server loses
+ * little and a restarted one doesn't need its clients to register again.
+ *
+ * Runs on a thread of its own, requests only wait for the rooms and tables to
+ * be copied. Each save is incremental: a room which didn't change since the
+ * last save keeps its snapshot, a room which did only converts its new
+ * messages, and when nothing changed at all no file is written.
+ *
+ * Set the system property chat.snapshot.interval (milliseconds) to change how
+ * often the state is saved.
+ */
+public class SnapshotWriter implements Runnable {
+	public static final long INTERVAL = Long.getLong("chat.snapshot.interval", 10000); // milliseconds
+
+	/***
+	 * The last snapshot of a room.
+	 */
+	private static class SavedRoom {
+		final ChatRoom room;
+		final RoomSnapshot snapshot;
+		long changes;
+
+		SavedRoom(ChatRoom room, RoomSnapshot snapshot, long changes) {
+			this.room = room;
+			this.snapshot = snapshot;
+			this.changes = changes;
+		}
+	}
+
+	private final ChatServer chat;
+	private final File file;
+	private final Hashtable<String, SavedRoom> saved = new Hashtable<String, SavedRoom>();
+	private long savedSessions = -1;
+
+	/***
+	 * @param chat
+	 *            The chat server.
+	 * @param file
+	 *            The snapshot file.
+	 */
+	public SnapshotWriter(ChatServer chat, File file) {
+		this.chat = chat;
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/***
+	 * Saves what changed since the last save.
+	 *
+	 * @return int The number of messages in the snapshot, -1 when nothing
+	 *         changed and the file was left as it is.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized int save() throws IOException {
+		long sessionChanges = chat.getSessionChanges();
+		boolean changed = sessionChanges != savedSessions;
+
+		Hashtable<String, SavedRoom> current = new Hashtable<String, SavedRoom>();
+		ArrayList<RoomSnapshot> rooms = new ArrayList<RoomSnapshot>();
+		int messages = 0;
+		for (ChatRoom room : chat.getRooms()) {
+			// read before the room is copied, a change meanwhile is saved next
+			// time
+			long changes = room.getChanges();
+			SavedRoom last = saved.get(room.getName());
+			if (last == null || last.room != room) {
+				last = new SavedRoom(room, RoomSnapshots.snapshot(room), changes);
+				changed = true;
+			} else if (last.changes != changes) {
+				RoomSnapshots.update(last.snapshot, room);
+				last.changes = changes;
+				changed = true;
+			}
+			current.put(room.getName(), last);
+			rooms.add(last.snapshot);
+			messages += last.snapshot.getMessages().size();
+		}
+		// a group was removed
+		changed |= current.size() != saved.size();
+
+		if (!changed) {
+			return -1;
+		}
+		RoomSnapshots.write(file, new ServerSnapshot(System.currentTimeMillis(), rooms, chat.getSessions()));
+		saved.clear();
+		saved.putAll(current);
+		savedSessions = sessionChanges;
+		return messages;
+	}
+
+	/***
+	 * Saves the state every INTERVAL milliseconds.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				Thread.sleep(INTERVAL);
+				try {
+					save();
+				} catch (IOException e) {
+					System.err.println("server> Couldn't save " + file + ": " + e.getMessage());
+				}
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package avro.chat.server;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import avro.chat.proto.Talker;
+
+/***
+ * Counters of a running server, for the admin protocol.
+ *
+ * The threads doing the work only write: a sketch increment per message, a
+ * round trip per heartbeat, a timing per heartbeat sweep. Queries only read
+ * these, so looking at a busy server doesn't slow it down.
+ */
+public class Statistics {
+	private final long started = System.currentTimeMillis();
+	private final TopTalkers talkers = new TopTalkers();
+	// round trip times of the heartbeat per user, in milliseconds
+	private final ConcurrentHashMap<String, Double> roundTrips = new ConcurrentHashMap<String, Double>();
+	private volatile long sweepNanos = 0;
+	private volatile long lastSweep = 0;
+	private volatile double allocationRate = 0; // bytes per second
+	// only used by the heartbeat thread
+	private long lastAllocated = -1;
+	private long lastSample = 0;
+
+	/***
+	 * Counts a message a user sent.
+	 *
+	 * @param username
+	 *            The nickname of the sender.
+	 */
+	public void talked(String username) {
+		talkers.record(username);
+	}
+
+	/***
+	 * @param count
+	 *            The number of users.
+	 *
+	 * @return List The users who sent the most messages, most first.
+	 */
+	public List<Talker> getTopTalkers(int count) {
+		return talkers.getTop(count);
+	}
+
+	/***
+	 * Records how long a heartbeat to a client took. The average leans
+	 * towards the recent heartbeats.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 * @param nanos
+	 *            The time the heartbeat took, in nanoseconds.
+	 */
+	public void roundTrip(String username, long nanos) {
+		double millis = nanos / 1e6;
+		Double previous = roundTrips.get(username);
+		roundTrips.put(username, previous == null ? millis : previous * 0.75 + millis * 0.25);
+	}
+
+	/***
+	 * @param username
+	 *            The nickname of the client.
+	 *
+	 * @return double The average round trip time to the client in
+	 *         milliseconds, -1 when it wasn't measured yet.
+	 */
+	public double getRoundTrip(String username) {
+		Double millis = roundTrips.get(username);
+		return millis == null ? -1 : millis;
+	}
+
+	/***
+	 * Forgets a client, for instance when it exits.
+	 *
+	 * @param username
+	 *            The nickname of the client.
+	 */
+	public void forget(String username) {
+		roundTrips.remove(username);
+	}
+
+	/***
+	 * Records a heartbeat sweep over all clients, and samples how fast the
+	 * server allocates memory.
+	 *
+	 * @param nanos
+	 *            The time the sweep took, in nanoseconds.
+	 */
+	public void swept(long nanos) {
+		long now = System.currentTimeMillis();
+		sweepNanos = nanos;
+		lastSweep = now;
+
+		long allocated = getAllocatedBytes();
+		if (allocated >= 0 && lastAllocated >= 0 && now > lastSample) {
+			// threads which ended since the last sample take their bytes with
+			// them, so the difference can be too low, never too high
+			allocationRate = Math.max(0, allocated - lastAllocated) * 1000.0 / (now - lastSample);
+		}
+		lastAllocated = allocated;
+		lastSample = now;
+	}
+
+	/***
+	 * @return double The time the last heartbeat sweep took, in milliseconds.
+	 */
+	public double getSweepMillis() {
+		return sweepNanos / 1e6;
+	}
+
+	/***
+	 * @return long When the last heartbeat sweep ended, 0 if none did yet.
+	 */
+	public long getLastSweep() {
+		return lastSweep;
+	}
+
+	/***
+	 * @return double The bytes the server allocated per second between the
+	 *         last two sweeps, 0 when the JVM doesn't tell.
+	 */
+	public double getAllocationRate() {
+		return allocationRate;
+	}
+
+	/***
+	 * @return long The number of milliseconds since the server started.
+	 */
+	public long getUptime() {
+		return System.currentTimeMillis() - started;
+	}
+
+	/***
+	 * Adds up the bytes every live platform thread allocated so far.
+	 *
+	 * @return long The number of bytes, -1 when the JVM doesn't tell.
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+		if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long total = 0;
+		for (long bytes : hotspot.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (bytes > 0) {
+				total += bytes;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,52 @@
+package avro.chat.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Token bucket which refills at a sustained rate and holds at most a burst of
+ * tokens.
+ *
+ * Instead of a token count and a refill time the bucket keeps a single value:
+ * the time at which it will be full again. Taking a token moves that time one
+ * interval further, and a token is available as long as that time isn't more
+ * than a burst ahead of now. So a token is taken with a single compare and set,
+ * without locks.
+ */
+public class TokenBucket {
+	private final long interval; // nanoseconds per token
+	private final long tolerance; // nanoseconds the bucket may run ahead
+	private final AtomicLong full;
+
+	/***
+	 * @param rate
+	 *            Sustained rate, in tokens per second.
+	 * @param burst
+	 *            Number of tokens which can be taken at once.
+	 */
+	public TokenBucket(double rate, int burst) {
+		interval = Math.max(1, (long) (1e9 / rate));
+		tolerance = interval * Math.max(0, burst - 1);
+		full = new AtomicLong(System.nanoTime());
+	}
+
+	/***
+	 * Takes a token if there is one.
+	 *
+	 * @return long 0 if a token was taken, otherwise the number of
+	 *         milliseconds until one is available.
+	 */
+	public long tryAcquire() {
+		long now = System.nanoTime();
+		while (true) {
+			long current = full.get();
+			long ahead = current - now;
+			if (ahead > tolerance) {
+				return Math.max(1, (ahead - tolerance) / 1000000);
+			}
+			long next = Math.max(current, now) + interval;
+			if (full.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package avro.chat.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import avro.chat.proto.Talker;
+
+/***
+ * Finds the users who send the most messages, in a fixed amount of memory
+ * however many users there are.
+ *
+ * A count-min sketch estimates every user's count: DEPTH rows of WIDTH
+ * counters, a user adds one to a counter in every row and its estimate is the
+ * smallest of those. Collisions only make an estimate too high, never too
+ * low. Next to it the CANDIDATES users with the highest estimates are kept by
+ * name. A user whose estimate beats the lowest candidate replaces it.
+ *
+ * Counting takes DEPTH atomic increments and no lock. Only a user entering the
+ * candidates takes one, which gets rare once the top is known.
+ */
+public class TopTalkers {
+	public static final int DEPTH = 4;
+	public static final int WIDTH = 2048;
+	public static final int CANDIDATES = 64;
+	// odd multipliers, one hash function per row
+	private static final int[] SEEDS = { 0x9e3779b1, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+	private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+	private final ConcurrentHashMap<String, Long> candidates = new ConcurrentHashMap<String, Long>();
+	// the lowest estimate among the candidates when they are full
+	private volatile long threshold = 0;
+
+	/***
+	 * Counts a message of a user.
+	 *
+	 * @param username
+	 *            The nickname of the sender.
+	 */
+	public void record(String username) {
+		int hash = username.hashCode();
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < DEPTH; row++) {
+			estimate = Math.min(estimate, counters.incrementAndGet(row * WIDTH + column(hash, row)));
+		}
+
+		if (candidates.containsKey(username)) {
+			candidates.put(username, estimate);
+		} else if (estimate > threshold || candidates.size() < CANDIDATES) {
+			admit(username, estimate);
+		}
+	}
+
+	/***
+	 * Gets the users with the most messages.
+	 *
+	 * @param count
+	 *            The number of users, at most CANDIDATES.
+	 *
+	 * @return List The users with their estimated number of messages, most
+	 *         first.
+	 */
+	public List<Talker> getTop(int count) {
+		ArrayList<Map.Entry<String, Long>> top = new ArrayList<Map.Entry<String, Long>>(candidates.entrySet());
+		Collections.sort(top, new Comparator<Map.Entry<String, Long>>() {
+			@Override
+			public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+				return Long.compare(b.getValue(), a.getValue());
+			}
+		});
+
+		ArrayList<Talker> talkers = new ArrayList<Talker>();
+		for (Map.Entry<String, Long> entry : top.subList(0, Math.max(0, Math.min(count, top.size())))) {
+			talkers.add(new Talker(entry.getKey(), entry.getValue()));
+		}
+		return talkers;
+	}
+
+	private synchronized void admit(String username, long estimate) {
+		candidates.put(username, estimate);
+		if (candidates.size() <= CANDIDATES) {
+			return;
+		}
+
+		// drop the lowest candidate, the next lowest is the new threshold
+		String lowest = null;
+		long lowestCount = Long.MAX_VALUE;
+		long nextCount = Long.MAX_VALUE;
+		for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+			long value = entry.getValue();
+			if (value < lowestCount) {
+				nextCount = lowestCount;
+				lowestCount = value;
+				lowest = entry.getKey();
+			} else if (value < nextCount) {
+				nextCount = value;
+			}
+		}
+		candidates.remove(lowest);
+		threshold = nextCount;
+	}
+
+	private static int column(int hash, int row) {
+		int mixed = hash * SEEDS[row];
+		mixed ^= mixed >>> 15;
+		return (mixed & 0x7fffffff) % WIDTH;
+	}
+}
@@ -0,0 +1,269 @@
+package avro.chat.server;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.avro.ipc.Transceiver;
+
+import avro.chat.proto.ChatClientServer;
+
+/***
+ * Relays the video broadcast of one client to all members of a room.
+ *
+ * The broadcaster uploads every frame once, whatever the size of the audience.
+ * Each frame is serialized once per rendition and the same bytes are queued
+ * for every viewer who wants that rendition. Viewers can ask for a downscaled
+ * rendition, which the relay encodes once per frame for all of them.
+ *
+ * When the viewers' queues fill up, frames which depend on earlier ones are
+ * shed before any work is spent on them. Key frames always go out, so viewers
+ * recover as soon as they catch up.
+ */
+public class VideoRelay {
+	// average frames queued per viewer above which frames are shed
+	public static final int SHED_DEPTH = RelayViewer.QUEUE_SIZE / 2;
+	// how long a viewer which couldn't be reached isn't tried again, the
+	// heartbeat drops it meanwhile if it is gone
+	public static final long RETRY_DELAY = 5000; // milliseconds
+
+	private final String broadcaster;
+	private final Hashtable<String, Transceiver> clients;
+	private final Hashtable<String, ChatClientServer> clientsServer;
+	private final Hashtable<String, Integer> renditions;
+	private final Hashtable<String, RelayViewer> viewers = new Hashtable<String, RelayViewer>();
+	// when relaying to a member failed
+	private final Hashtable<String, Long> failed = new Hashtable<String, Long>();
+
+	// Statistics
+	private volatile long framesRelayed = 0;
+	private volatile long bytesReceived = 0;
+	private volatile long framesShed = 0;
+
+	/***
+	 * @param broadcaster
+	 *            The nickname of the broadcasting client.
+	 * @param clients
+	 *            The server's transceivers to its clients.
+	 * @param clientsServer
+	 *            The server's proxies to its clients.
+	 * @param renditions
+	 *            The maximum frame width each client asked for.
+	 */
+	public VideoRelay(String broadcaster, Hashtable<String, Transceiver> clients,
+			Hashtable<String, ChatClientServer> clientsServer, Hashtable<String, Integer> renditions) {
+		this.broadcaster = broadcaster;
+		this.clients = clients;
+		this.clientsServer = clientsServer;
+		this.renditions = renditions;
+	}
+
+	public String getBroadcaster() {
+		return broadcaster;
+	}
+
+	public long getFramesRelayed() {
+		return framesRelayed;
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+	/***
+	 * @return long Number of frames which weren't relayed because the viewers
+	 *         were falling behind.
+	 */
+	public long getFramesShed() {
+		return framesShed;
+	}
+
+	/***
+	 * Relays a frame to the given viewers. Viewers who are no longer in the
+	 * list stop receiving the broadcast.
+	 *
+	 * @param frame
+	 *            The frame encoded as JPEG.
+	 * @param keyFrame
+	 *            Whether the frame can be shown on its own.
+	 * @param members
+	 *            The current members of the room.
+	 */
+	public synchronized void relay(ByteBuffer frame, boolean keyFrame, List<String> members) {
+		framesRelayed++;
+		bytesReceived += frame.remaining();
+
+		updateViewers(members);
+		if (viewers.isEmpty()) {
+			return;
+		}
+		if (!keyFrame && getQueuedFrames() > viewers.size() * SHED_DEPTH) {
+			framesShed++;
+			return;
+		}
+
+		HashMap<Integer, RelayFrame> encoded = new HashMap<Integer, RelayFrame>();
+		BufferedImage original = null;
+		for (RelayViewer viewer : viewers.values()) {
+			int width = viewer.getMaxWidth();
+			RelayFrame relayFrame = encoded.get(width);
+			if (relayFrame == null) {
+				ByteBuffer rendition = frame;
+				if (width > 0) {
+					if (original == null) {
+						original = decode(frame);
+					}
+					if (original != null && original.getWidth() > width) {
+						rendition = downscale(original, width);
+					}
+				}
+				relayFrame = new RelayFrame(broadcaster, rendition, keyFrame);
+				encoded.put(width, relayFrame);
+			}
+			viewer.offer(relayFrame);
+		}
+	}
+
+	/***
+	 * @return int Number of frames waiting in the queues of all viewers.
+	 */
+	private int getQueuedFrames() {
+		int queued = 0;
+		for (RelayViewer viewer : viewers.values()) {
+			queued += viewer.getQueueDepth();
+		}
+		return queued;
+	}
+
+	/***
+	 * Starts relaying to new room members and stops relaying to those who
+	 * left. Members to whom relaying failed are left out for RETRY_DELAY.
+	 */
+	private void updateViewers(List<String> members) {
+		long now = System.currentTimeMillis();
+		for (String member : members) {
+			if (member.equals(broadcaster)) {
+				continue;
+			}
+
+			RelayViewer viewer = viewers.get(member);
+			Integer width = renditions.get(member);
+			if (viewer == null) {
+				Long failedAt = failed.get(member);
+				if (failedAt != null) {
+					if (now - failedAt < RETRY_DELAY) {
+						continue;
+					}
+					failed.remove(member);
+				}
+
+				Transceiver transceiver = clients.get(member);
+				ChatClientServer proxy = clientsServer.get(member);
+				if (transceiver != null && proxy != null) {
+					viewer = new RelayViewer(this, member, transceiver, proxy, width == null ? 0 : width);
+					viewers.put(member, viewer);
+					viewer.start();
+				}
+			} else {
+				viewer.setMaxWidth(width == null ? 0 : width);
+			}
+		}
+
+		for (String viewer : new ArrayList<String>(viewers.keySet())) {
+			if (!members.contains(viewer)) {
+				removeViewer(viewer);
+			}
+		}
+		failed.keySet().retainAll(members);
+	}
+
+	/***
+	 * Stops relaying to a viewer which couldn't be reached, and doesn't start
+	 * again for RETRY_DELAY even though it is still a member of the room.
+	 *
+	 * @param username
+	 *            The nickname of the viewer.
+	 */
+	public synchronized void viewerFailed(String username) {
+		failed.put(username, System.currentTimeMillis());
+		removeViewer(username);
+	}
+
+	/***
+	 * Stops relaying to a viewer.
+	 *
+	 * @param username
+	 *            The nickname of the viewer.
+	 */
+	public synchronized void removeViewer(String username) {
+		RelayViewer viewer = viewers.remove(username);
+		if (viewer != null) {
+			viewer.finish();
+		}
+	}
+
+	/***
+	 * Waits until the viewers received the frames which are queued for them.
+	 * No new frames are relayed meanwhile.
+	 *
+	 * @param deadline
+	 *            When to stop waiting, in milliseconds since the epoch.
+	 *
+	 * @throws InterruptedException
+	 */
+	public synchronized void drain(long deadline) throws InterruptedException {
+		while (getQueuedFrames() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	/***
+	 * Ends the broadcast for all viewers.
+	 */
+	public synchronized void close() {
+		for (String viewer : new ArrayList<String>(viewers.keySet())) {
+			removeViewer(viewer);
+		}
+	}
+
+	private static BufferedImage decode(ByteBuffer frame) {
+		try {
+			ByteBuffer copy = frame.duplicate();
+			byte[] bytes = new byte[copy.remaining()];
+			copy.get(bytes);
+			return ImageIO.read(new ByteArrayInputStream(bytes));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static ByteBuffer downscale(BufferedImage original, int width) {
+		int height = Math.max(1, original.getHeight() * width / original.getWidth());
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D g = scaled.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(original, 0, 0, width, height, null);
+		} finally {
+			g.dispose();
+		}
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(scaled, "jpg", baos);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return ByteBuffer.wrap(baos.toByteArray());
+	}
+}
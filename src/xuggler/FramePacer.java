@@ -0,0 +1,111 @@
+package xuggler;
+
+/***
+ * Decides when each frame of a stream has to go out, based on its
+ * presentation timestamp rather than on how long the previous send took.
+ *
+ * The first frame anchors the stream's timestamps to the monotonic clock.
+ * Every later frame is due at that anchor plus its timestamp offset. Frames
+ * that arrive early are held until they are due, frames that are a little late
+ * go out immediately to catch up and frames that are more than one frame
+ * interval late are dropped, so an overloaded sender keeps the nominal frame
+ * rate instead of slowing down. Frames in between the nominal frame slots
+ * (a 30 fps source sent at 20 fps) are skipped.
+ */
+public class FramePacer {
+	private static final long NO_PTS = Long.MIN_VALUE;
+	// After a stall this long the stream is re-anchored instead of dropping
+	// every frame until it has caught up
+	private static final long RESYNC_NANOS = 1000000000L;
+
+	private final long frameInterval; // microseconds
+	private long lastPts = NO_PTS;
+	private long anchorPts = NO_PTS;
+	private long anchorNanos;
+
+	// Statistics
+	private volatile long framesPaced = 0;
+	private volatile long framesSkipped = 0;
+	private volatile long framesDropped = 0;
+
+	/***
+	 * @param fps
+	 *            The nominal frame rate of the outgoing stream.
+	 */
+	public FramePacer(int fps) {
+		if (fps <= 0) {
+			throw new IllegalArgumentException("Frame rate must be positive.");
+		}
+		frameInterval = VideoSource.PTS_PER_SECOND / fps;
+	}
+
+	/***
+	 * Waits until the frame with the given timestamp is due.
+	 *
+	 * @param timeStamp
+	 *            Presentation timestamp of the frame in microseconds.
+	 *
+	 * @return boolean Whether the frame should be sent now. False when it falls
+	 *         between two frame slots or is too late to be sent.
+	 *
+	 * @throws InterruptedException
+	 */
+	public boolean awaitSlot(long timeStamp) throws InterruptedException {
+		// if uninitialized, back date lastPts to get the very first frame
+		if (lastPts == NO_PTS || timeStamp < lastPts) {
+			lastPts = timeStamp - frameInterval;
+			anchorPts = timeStamp;
+			anchorNanos = System.nanoTime();
+		}
+
+		if (timeStamp - lastPts < frameInterval) {
+			framesSkipped++;
+			return false;
+		}
+		// move to the slot this frame belongs to
+		lastPts += ((timeStamp - lastPts) / frameInterval) * frameInterval;
+
+		long due = anchorNanos + (timeStamp - anchorPts) * 1000;
+		long lateness = System.nanoTime() - due;
+
+		if (lateness > RESYNC_NANOS) {
+			anchorPts = timeStamp;
+			anchorNanos = System.nanoTime();
+			lateness = 0;
+		}
+
+		if (lateness > frameInterval * 1000) {
+			framesDropped++;
+			return false;
+		}
+
+		if (lateness < 0) {
+			long wait = -lateness;
+			Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+		}
+
+		framesPaced++;
+		return true;
+	}
+
+	/***
+	 * @return long Number of frames that were sent on time.
+	 */
+	public long getFramesPaced() {
+		return framesPaced;
+	}
+
+	/***
+	 * @return long Number of frames that fell between two frame slots.
+	 */
+	public long getFramesSkipped() {
+		return framesSkipped;
+	}
+
+	/***
+	 * @return long Number of frames that were dropped for being too late.
+	 */
+	public long getFramesDropped() {
+		return framesDropped;
+	}
+}
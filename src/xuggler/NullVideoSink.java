@@ -0,0 +1,24 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+
+/***
+ * Video sink which only counts the frames it receives. Used when there is no
+ * display available.
+ */
+public class NullVideoSink implements VideoSink {
+	private volatile long frames = 0;
+
+	public long getFrames() {
+		return frames;
+	}
+
+	@Override
+	public synchronized void setImage(BufferedImage image) {
+		frames++;
+	}
+
+	@Override
+	public void close() {
+	}
+}
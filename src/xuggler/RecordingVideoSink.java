@@ -0,0 +1,51 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/***
+ * Video sink which records the arrival time of every frame it receives and
+ * keeps the most recent frame, so headless runs can check what came through.
+ */
+public class RecordingVideoSink implements VideoSink {
+	private ArrayList<Long> arrivals = new ArrayList<Long>();
+	private BufferedImage lastImage;
+	private boolean closed = false;
+
+	/***
+	 * Records the arrival of a frame.
+	 *
+	 * @param image
+	 *            The decoded frame.
+	 */
+	@Override
+	public synchronized void setImage(BufferedImage image) {
+		arrivals.add(System.nanoTime());
+		lastImage = image;
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+	}
+
+	public synchronized int getFrames() {
+		return arrivals.size();
+	}
+
+	/***
+	 * @return ArrayList A copy of the arrival times (System.nanoTime) of all
+	 *         received frames.
+	 */
+	public synchronized ArrayList<Long> getArrivals() {
+		return new ArrayList<Long>(arrivals);
+	}
+
+	public synchronized BufferedImage getLastImage() {
+		return lastImage;
+	}
+
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+}
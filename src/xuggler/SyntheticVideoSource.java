@@ -0,0 +1,116 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+/***
+ * Generates frames without any native decoder, so the video path can be
+ * exercised on machines without Xuggler or a display.
+ *
+ * Every frame is a moving gradient, which compresses well, with a fraction of
+ * its 8x8 blocks replaced by random noise. That fraction (the entropy) controls
+ * how big the encoded frames get. Frames are produced as fast as the listener
+ * accepts them, just like the Xuggler decoder does; pacing is up to the
+ * listener.
+ */
+public class SyntheticVideoSource implements VideoSource {
+	private static final int BLOCK = 8;
+
+	private final int width;
+	private final int height;
+	private final int fps;
+	private final double entropy;
+	private final int frameCount;
+	private final Random random = new Random(42);
+	private final byte[] noise;
+	private volatile boolean stopped = false;
+
+	/***
+	 * @param width
+	 *            Width of the frames in pixels.
+	 * @param height
+	 *            Height of the frames in pixels.
+	 * @param fps
+	 *            Frame rate used to calculate the presentation timestamps.
+	 * @param entropy
+	 *            Fraction (0 to 1) of the blocks that are filled with noise.
+	 * @param frameCount
+	 *            Number of frames to produce, 0 for an endless stream.
+	 */
+	public SyntheticVideoSource(int width, int height, int fps, double entropy, int frameCount) {
+		if (width <= 0 || height <= 0 || fps <= 0) {
+			throw new IllegalArgumentException("Width, height and fps must be positive.");
+		}
+		this.width = width;
+		this.height = height;
+		this.fps = fps;
+		this.entropy = Math.max(0.0, Math.min(1.0, entropy));
+		this.frameCount = frameCount;
+
+		// generate the noise once, frames copy blocks out of it at random
+		// offsets so producing a frame stays cheap compared to encoding it
+		noise = new byte[width * height * 3 + BLOCK * 3];
+		random.nextBytes(noise);
+	}
+
+	@Override
+	public void start(VideoSourceListener listener) {
+		stopped = false;
+		for (long i = 0; !stopped && (frameCount == 0 || i < frameCount); i++) {
+			if (!listener.onFrame(render(i), i * PTS_PER_SECOND / fps)) {
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		stopped = true;
+	}
+
+	/***
+	 * Draws a single frame.
+	 *
+	 * @param index
+	 *            Index of the frame, moves the gradient.
+	 *
+	 * @return BufferedImage The frame in BGR 24bit color space.
+	 */
+	private BufferedImage render(long index) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		int shift = (int) index;
+
+		for (int y = 0; y < height; y++) {
+			int row = y * width * 3;
+			for (int x = 0; x < width; x++) {
+				int p = row + x * 3;
+				pixels[p] = (byte) (x + shift * 4);
+				pixels[p + 1] = (byte) (y + shift * 2);
+				pixels[p + 2] = (byte) (x + y);
+			}
+		}
+
+		if (entropy > 0) {
+			for (int by = 0; by < height; by += BLOCK) {
+				for (int bx = 0; bx < width; bx += BLOCK) {
+					if (random.nextDouble() < entropy) {
+						fillNoise(pixels, bx, by);
+					}
+				}
+			}
+		}
+
+		return image;
+	}
+
+	private void fillNoise(byte[] pixels, int bx, int by) {
+		int maxY = Math.min(by + BLOCK, height);
+		int length = (Math.min(bx + BLOCK, width) - bx) * 3;
+		for (int y = by; y < maxY; y++) {
+			int offset = random.nextInt(noise.length - length);
+			System.arraycopy(noise, offset, pixels, (y * width + bx) * 3, length);
+		}
+	}
+}
@@ -6,89 +6,62 @@
 package xuggler;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-
-import javax.imageio.ImageIO;
-
-import org.apache.avro.AvroRemoteException;
 
 import com.xuggle.mediatool.IMediaReader;
 import com.xuggle.mediatool.MediaListenerAdapter;
 import com.xuggle.mediatool.ToolFactory;
 import com.xuggle.mediatool.event.IVideoPictureEvent;
-import com.xuggle.xuggler.Global;
 
-import avro.chat.proto.ChatClientServer;
+/***
+ * Video source which decodes a video file with Xuggler.
+ */
+public class VideoDecoder implements VideoSource {
+	public static final String DEFAULT_INPUT_FILENAME = "./resources/videos/BigBuckBunny.mp4";
+	private final String inputFilename;
+	private volatile boolean stopped = false;
 
-public class VideoDecoder {
-	// Time of last frame write
-	private static long mLastPtsWrite = Global.NO_PTS;
-	private static final String inputFilename = "./resources/videos/BigBuckBunny.mp4";
-	public static final double SECONDS_BETWEEN_FRAMES = 1.0 / 20.0;
-	public static final long MICRO_SECONDS_BETWEEN_FRAMES = (long) (Global.DEFAULT_PTS_PER_SECOND
-			* SECONDS_BETWEEN_FRAMES);
-	public static ChatClientServer privateProxy;
+	public VideoDecoder() {
+		this(DEFAULT_INPUT_FILENAME);
+	}
 
-	public void updateProxy(ChatClientServer proxy) {
-		privateProxy = proxy;
+	public VideoDecoder(String inputFilename) {
+		this.inputFilename = inputFilename;
 	}
 
-	public void start() {
+	@Override
+	public void start(VideoSourceListener listener) {
+		stopped = false;
 		IMediaReader mediaReader = ToolFactory.makeReader(inputFilename);
 
 		// stipulate that we want BufferedImages created in BGR 24bit color
 		// space
 		mediaReader.setBufferedImageTypeToGenerate(BufferedImage.TYPE_3BYTE_BGR);
 		// mediaReader.getContainer().getStream(0).getStreamCoder().setBitRate(300000);
-		mediaReader.addListener(new ImageSnapListener());
+		mediaReader.addListener(new ImageSnapListener(listener));
 
 		// read out the contents of the media file and
 		// dispatch events to the attached listener
-		while (mediaReader.readPacket() == null) {
-			if (privateProxy == null) {
-				break;
-			}
+		while (!stopped && mediaReader.readPacket() == null) {
 		}
-	}
-
-	private static class ImageSnapListener extends MediaListenerAdapter {
 
-		public void onVideoPicture(IVideoPictureEvent event) {
-			// if uninitialized, back date mLastPtsWrite to get the very first
-			// frame
-			if (mLastPtsWrite == Global.NO_PTS)
-				mLastPtsWrite = event.getTimeStamp() - MICRO_SECONDS_BETWEEN_FRAMES;
+		mediaReader.close();
+	}
 
-			// if it's time to write the next frame
-			if (event.getTimeStamp() - mLastPtsWrite >= MICRO_SECONDS_BETWEEN_FRAMES) {
-				sendImageToOutputStream(event.getImage());
+	@Override
+	public void stop() {
+		stopped = true;
+	}
 
-				// update last write time
-				mLastPtsWrite += MICRO_SECONDS_BETWEEN_FRAMES;
-			}
+	private class ImageSnapListener extends MediaListenerAdapter {
+		private final VideoSourceListener listener;
 
+		public ImageSnapListener(VideoSourceListener listener) {
+			this.listener = listener;
 		}
 
-		private void sendImageToOutputStream(BufferedImage image) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			try {
-				ImageIO.write(image, "jpg", baos);
-				baos.flush();
-				ByteBuffer frame = ByteBuffer.wrap(baos.toByteArray());
-
-				if (privateProxy != null) {
-					privateProxy.incomingFrame(frame);
-				}
-
-				Thread.sleep(1000 / 20);
-			} catch (AvroRemoteException e) {
-				privateProxy = null;
-			} catch (IOException e) {
-				e.printStackTrace();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+		public void onVideoPicture(IVideoPictureEvent event) {
+			if (!listener.onFrame(event.getImage(), event.getTimeStamp())) {
+				stopped = true;
 			}
 		}
 	}
@@ -19,14 +19,19 @@
 
 package xuggler;
 
+import java.awt.Canvas;
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Image;
+import java.awt.GraphicsConfiguration;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
-import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
@@ -34,15 +39,47 @@ import org.apache.avro.AvroRemoteException;
 
 import avro.chat.proto.ChatClientServer;
 
+/***
+ * Window which shows an incoming video stream.
+ *
+ * Frames are never queued: only the latest frame is kept and at most one redraw
+ * is pending on the event dispatch thread at any time. A frame which is
+ * replaced before it could be drawn counts as dropped. Frames are uploaded once
+ * into a VolatileImage and blitted through a BufferStrategy, so both new
+ * frames and repaints of the current one are hardware accelerated when
+ * possible. The VolatileImage is kept, every frame is drawn into it, and it is
+ * only made again when the frame size changes or the screen's configuration
+ * does.
+ */
 @SuppressWarnings("serial")
-public class VideoImage extends JFrame {
-	private final ImageComponent mOnscreenPicture;
+public class VideoImage extends JFrame implements VideoSink {
+	private final ImageCanvas mOnscreenPicture;
 	private ChatClientServer privateProxy;
 
+	// Latest frame which has not been drawn yet and whether a redraw is pending
+	private final AtomicReference<PendingFrame> latest = new AtomicReference<PendingFrame>();
+	private final AtomicBoolean renderPending = new AtomicBoolean(false);
+	private final Runnable renderTask = new Runnable() {
+		public void run() {
+			renderPending.set(false);
+			PendingFrame frame = latest.getAndSet(null);
+			if (frame != null) {
+				mOnscreenPicture.render(frame);
+			}
+		}
+	};
+
+	// Statistics
+	private final AtomicLong framesReceived = new AtomicLong();
+	private final AtomicLong framesRendered = new AtomicLong();
+	private final AtomicLong framesDropped = new AtomicLong();
+	private final AtomicLong totalRenderLatency = new AtomicLong();
+	private final AtomicLong maxRenderLatency = new AtomicLong();
+
 	public VideoImage(ChatClientServer proxy) {
 		super("Video stream.");
 		privateProxy = proxy;
-		mOnscreenPicture = new ImageComponent();
+		mOnscreenPicture = new ImageCanvas();
 		this.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
 		getContentPane().add(mOnscreenPicture);
 		this.setVisible(true);
@@ -54,7 +91,9 @@ public class VideoImage extends JFrame {
 				close();
 
 				try {
-					privateProxy.stopVideoStream();
+					if (privateProxy != null) {
+						privateProxy.stopVideoStream();
+					}
 				} catch (AvroRemoteException e1) {
 					// the other client is already offline
 				}
@@ -62,52 +101,206 @@ public class VideoImage extends JFrame {
 		});
 	}
 
+	/***
+	 * Hands a new frame to the window. Never blocks; if the previous frame has
+	 * not been drawn yet it is replaced.
+	 *
+	 * @param image
+	 *            The decoded frame.
+	 */
+	@Override
 	public void setImage(final BufferedImage image) {
-		mOnscreenPicture.setImage(image);
+		framesReceived.incrementAndGet();
+		if (latest.getAndSet(new PendingFrame(image, System.nanoTime())) != null) {
+			framesDropped.incrementAndGet();
+		}
+		if (renderPending.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(renderTask);
+		}
 	}
 
+	@Override
 	public void close() {
 		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 		setVisible(false);
 		dispose();
 	}
 
-	public class ImageComponent extends JComponent {
-		private Image mImage;
+	public long getFramesReceived() {
+		return framesReceived.get();
+	}
+
+	public long getFramesRendered() {
+		return framesRendered.get();
+	}
+
+	/***
+	 * @return long Number of frames replaced by a newer one before they could
+	 *         be drawn.
+	 */
+	public long getFramesDropped() {
+		return framesDropped.get();
+	}
+
+	/***
+	 * @return long Average time in nanoseconds between a frame being handed to
+	 *         the window and it being shown.
+	 */
+	public long getAverageRenderLatency() {
+		long rendered = framesRendered.get();
+		return rendered == 0 ? 0 : totalRenderLatency.get() / rendered;
+	}
+
+	public long getMaxRenderLatency() {
+		return maxRenderLatency.get();
+	}
+
+	private void recordRender(long latency) {
+		framesRendered.incrementAndGet();
+		totalRenderLatency.addAndGet(latency);
+		long max = maxRenderLatency.get();
+		while (latency > max && !maxRenderLatency.compareAndSet(max, latency)) {
+			max = maxRenderLatency.get();
+		}
+	}
+
+	private static class PendingFrame {
+		final BufferedImage image;
+		final long arrival;
+
+		PendingFrame(BufferedImage image, long arrival) {
+			this.image = image;
+			this.arrival = arrival;
+		}
+	}
+
+	/***
+	 * Canvas which draws the frames. Only touched on the event dispatch
+	 * thread.
+	 */
+	private class ImageCanvas extends Canvas {
+		private BufferedImage mImage;
+		private VolatileImage mVolatile;
+		private boolean mStale = false; // whether mVolatile holds an older frame
 		private Dimension mSize;
 
-		public void setImage(Image image) {
-			SwingUtilities.invokeLater(new ImageRunnable(image));
+		public ImageCanvas() {
+			mSize = new Dimension(0, 0);
+			setSize(mSize);
+		}
+
+		/***
+		 * Draws a new frame.
+		 *
+		 * @param frame
+		 *            The frame and the moment it arrived.
+		 */
+		void render(PendingFrame frame) {
+			mImage = frame.image;
+			final Dimension newSize = new Dimension(mImage.getWidth(), mImage.getHeight());
+			if (!newSize.equals(mSize)) {
+				mSize = newSize;
+				setPreferredSize(newSize);
+				VideoImage.this.pack();
+				VideoImage.this.setVisible(true);
+			}
+
+			// the new frame is drawn into the cached image before the blit
+			mStale = true;
+
+			if (blit()) {
+				recordRender(System.nanoTime() - frame.arrival);
+			}
 		}
 
-		private class ImageRunnable implements Runnable {
-			private final Image newImage;
+		/***
+		 * Blits the current frame to the screen.
+		 *
+		 * @return boolean Whether the frame could be shown.
+		 */
+		private boolean blit() {
+			if (mImage == null || !isDisplayable()) {
+				return false;
+			}
 
-			public ImageRunnable(Image newImage) {
-				super();
-				this.newImage = newImage;
+			BufferStrategy strategy = getBufferStrategy();
+			if (strategy == null) {
+				createBufferStrategy(2);
+				strategy = getBufferStrategy();
 			}
 
-			public void run() {
-				ImageComponent.this.mImage = newImage;
-				final Dimension newSize = new Dimension(mImage.getWidth(null), mImage.getHeight(null));
-				if (!newSize.equals(mSize)) {
-					ImageComponent.this.mSize = newSize;
-					VideoImage.this.setSize(mImage.getWidth(null), mImage.getHeight(null));
-					VideoImage.this.setVisible(true);
+			do {
+				do {
+					VolatileImage image = validVolatile();
+					Graphics g = strategy.getDrawGraphics();
+					try {
+						if (image != null) {
+							g.drawImage(image, 0, 0, null);
+						} else {
+							g.drawImage(mImage, 0, 0, null);
+						}
+					} finally {
+						g.dispose();
+					}
+				} while (strategy.contentsRestored());
+				strategy.show();
+			} while (strategy.contentsLost());
+
+			return true;
+		}
+
+		/***
+		 * Gets the accelerated copy of the current frame. It is only made again
+		 * when the frame size or the screen's configuration changed, otherwise
+		 * a new frame is drawn into it.
+		 *
+		 * @return VolatileImage The copy, or null if it couldn't be created.
+		 */
+		private VolatileImage validVolatile() {
+			GraphicsConfiguration gc = getGraphicsConfiguration();
+			if (gc == null) {
+				return null;
+			}
+
+			int status = VolatileImage.IMAGE_INCOMPATIBLE;
+			if (mVolatile != null && mVolatile.getWidth() == mImage.getWidth()
+					&& mVolatile.getHeight() == mImage.getHeight()) {
+				status = mVolatile.validate(gc);
+			}
+
+			if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				if (mVolatile != null) {
+					mVolatile.flush();
 				}
-				repaint();
+				mVolatile = gc.createCompatibleVolatileImage(mImage.getWidth(), mImage.getHeight());
+				copyToVolatile();
+			} else if (status == VolatileImage.IMAGE_RESTORED || mStale) {
+				// the restored surface holds garbage, or a new frame arrived
+				copyToVolatile();
 			}
+
+			return mVolatile;
 		}
 
-		public ImageComponent() {
-			mSize = new Dimension(0, 0);
-			setSize(mSize);
+		private void copyToVolatile() {
+			Graphics g = mVolatile.createGraphics();
+			try {
+				g.drawImage(mImage, 0, 0, null);
+			} finally {
+				g.dispose();
+			}
+			mStale = false;
+		}
+
+		@Override
+		public void update(Graphics g) {
+			paint(g);
 		}
 
-		public synchronized void paint(Graphics g) {
-			if (mImage != null)
-				g.drawImage(mImage, 0, 0, this);
+		@Override
+		public void paint(Graphics g) {
+			// exposed or resized, redraw the current frame from the cache
+			blit();
 		}
 	}
 }
@@ -0,0 +1,33 @@
+package xuggler;
+
+import java.nio.ByteBuffer;
+
+import org.apache.avro.AvroRemoteException;
+
+/***
+ * Where a video session delivers its frames, for instance another client or the
+ * server's relay.
+ */
+public interface VideoRecipient {
+	/***
+	 * Delivers an encoded frame.
+	 *
+	 * @param streamName
+	 *            The name of the stream.
+	 * @param frame
+	 *            The frame encoded as JPEG.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	void sendFrame(String streamName, ByteBuffer frame) throws AvroRemoteException;
+
+	/***
+	 * Tells the recipient the stream has ended.
+	 *
+	 * @param streamName
+	 *            The name of the stream.
+	 *
+	 * @throws AvroRemoteException
+	 */
+	void endStream(String streamName) throws AvroRemoteException;
+}
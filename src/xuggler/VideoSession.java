@@ -0,0 +1,168 @@
+package xuggler;
+
+import java.nio.ByteBuffer;
+
+import org.apache.avro.AvroRemoteException;
+
+/***
+ * Sends a video stream to a single recipient.
+ *
+ * The session only holds on to the latest encoded frame. When the recipient is
+ * slower than the stream, older frames are overwritten instead of queued, so
+ * the recipient always gets the most recent picture.
+ */
+public class VideoSession implements Runnable {
+	private final VideoStream stream;
+	private final VideoRecipient recipient;
+	private Thread t;
+
+	// Guarded by this
+	private ByteBuffer pending;
+	private long pendingSince;
+	private boolean finished = false;
+	private volatile boolean stopped = false;
+
+	// Statistics
+	private long framesSent = 0;
+	private long framesDropped = 0;
+	private long bytesSent = 0;
+	private long totalLatency = 0;
+	private long maxLatency = 0;
+
+	VideoSession(VideoStream stream, VideoRecipient recipient) {
+		this.stream = stream;
+		this.recipient = recipient;
+	}
+
+	/***
+	 * Hands the next frame to the session, replacing a frame which has not
+	 * been sent yet.
+	 *
+	 * @param frame
+	 *            The encoded frame.
+	 * @param encodedAt
+	 *            When the frame was encoded (System.nanoTime).
+	 */
+	synchronized void offer(ByteBuffer frame, long encodedAt) {
+		if (finished) {
+			return;
+		}
+		if (pending != null) {
+			framesDropped++;
+		}
+		pending = frame;
+		pendingSince = encodedAt;
+		notifyAll();
+	}
+
+	/***
+	 * Ends the session after the pending frame has been sent.
+	 */
+	synchronized void finish() {
+		finished = true;
+		notifyAll();
+	}
+
+	/***
+	 * Ends the session without sending the pending frame.
+	 */
+	public synchronized void stop() {
+		stopped = true;
+		pending = null;
+		finish();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				ByteBuffer frame;
+				long encodedAt;
+				synchronized (this) {
+					while (pending == null && !finished) {
+						wait();
+					}
+					if (pending == null) {
+						break;
+					}
+					frame = pending;
+					encodedAt = pendingSince;
+					pending = null;
+				}
+
+				int size = frame.remaining();
+				recipient.sendFrame(stream.getName(), frame);
+				recordFrame(size, System.nanoTime() - encodedAt);
+			}
+		} catch (AvroRemoteException e) {
+			// other client is already offline
+			stream.removeRecipient(this);
+			return;
+		} catch (InterruptedException e) {
+			// thread interrupted
+		}
+
+		// removeRecipient() stops this session, so ask first
+		boolean ended = !stopped;
+		stream.removeRecipient(this);
+		try {
+			recipient.endStream(stream.getName());
+			if (ended) {
+				System.out.println("client> The video stream has ended.");
+			}
+		} catch (AvroRemoteException e) {
+			// other client is already offline
+		}
+	}
+
+	/***
+	 * Creates a thread if needed and starts it.
+	 */
+	void start() {
+		if (t == null) {
+			t = new Thread(this);
+		}
+
+		t.start();
+	}
+
+	void join() throws InterruptedException {
+		if (t != null) {
+			t.join();
+		}
+	}
+
+	private synchronized void recordFrame(int size, long latency) {
+		framesSent++;
+		bytesSent += size;
+		totalLatency += latency;
+		maxLatency = Math.max(maxLatency, latency);
+	}
+
+	public synchronized long getFramesSent() {
+		return framesSent;
+	}
+
+	/***
+	 * @return long Number of frames overwritten before they could be sent.
+	 */
+	public synchronized long getFramesDropped() {
+		return framesDropped;
+	}
+
+	public synchronized long getBytesSent() {
+		return bytesSent;
+	}
+
+	/***
+	 * @return long Average time in nanoseconds between a frame being encoded
+	 *         and the recipient having processed it.
+	 */
+	public synchronized long getAverageLatency() {
+		return framesSent == 0 ? 0 : totalLatency / framesSent;
+	}
+
+	public synchronized long getMaxLatency() {
+		return maxLatency;
+	}
+}
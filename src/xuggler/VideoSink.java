@@ -0,0 +1,22 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+
+/***
+ * Receives the decoded frames of an incoming video stream, for instance to
+ * show them on screen.
+ */
+public interface VideoSink {
+	/***
+	 * Hands the next frame to the sink.
+	 *
+	 * @param image
+	 *            The decoded frame.
+	 */
+	void setImage(BufferedImage image);
+
+	/***
+	 * Releases whatever the sink holds on to, the stream has ended.
+	 */
+	void close();
+}
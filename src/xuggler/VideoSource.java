@@ -0,0 +1,24 @@
+package xuggler;
+
+/***
+ * A source of video frames. Implementations decode or generate frames and hand
+ * them to a listener together with their presentation timestamp.
+ */
+public interface VideoSource {
+	// Presentation timestamps are expressed in microseconds, like Xuggler's
+	public static final long PTS_PER_SECOND = 1000000;
+
+	/***
+	 * Produces frames until the source is exhausted, stopped or the listener
+	 * asks to stop. Blocks the calling thread.
+	 *
+	 * @param listener
+	 *            Receives every produced frame.
+	 */
+	void start(VideoSourceListener listener);
+
+	/***
+	 * Asks the source to stop producing frames as soon as possible.
+	 */
+	void stop();
+}
@@ -0,0 +1,17 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+
+public interface VideoSourceListener {
+	/***
+	 * Called for every frame a video source produces.
+	 *
+	 * @param image
+	 *            The frame itself.
+	 * @param timeStamp
+	 *            The presentation timestamp of the frame in microseconds.
+	 *
+	 * @return boolean Whether the source should keep producing frames.
+	 */
+	boolean onFrame(BufferedImage image, long timeStamp);
+}
@@ -0,0 +1,207 @@
+package xuggler;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.imageio.ImageIO;
+
+import org.apache.avro.AvroRemoteException;
+
+import avro.chat.proto.ChatClientServer;
+
+/***
+ * One outgoing video stream.
+ *
+ * The source is decoded once on the stream's own thread, paced by a
+ * FramePacer and every frame is encoded as JPEG once. The encoded frame is then
+ * handed to each recipient's VideoSession, which sends it on its own thread, so
+ * a slow recipient never holds up the others or the decoder.
+ */
+public class VideoStream implements VideoSourceListener, Runnable {
+	public static final int DEFAULT_FPS = 20;
+
+	private final String name;
+	private final VideoSource source;
+	private final FramePacer pacer;
+	private final CopyOnWriteArrayList<VideoSession> sessions = new CopyOnWriteArrayList<VideoSession>();
+	private Thread t;
+	private volatile boolean stopped = false;
+
+	// Statistics
+	private volatile long framesEncoded = 0;
+	private volatile long bytesEncoded = 0;
+
+	/***
+	 * @param name
+	 *            Name of the stream, sent along with every frame so receivers
+	 *            can tell several streams apart.
+	 * @param source
+	 *            The source of the frames.
+	 * @param fps
+	 *            The nominal frame rate at which frames are sent.
+	 */
+	public VideoStream(String name, VideoSource source, int fps) {
+		this.name = name;
+		this.source = source;
+		pacer = new FramePacer(fps);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public FramePacer getPacer() {
+		return pacer;
+	}
+
+	public long getFramesEncoded() {
+		return framesEncoded;
+	}
+
+	public long getBytesEncoded() {
+		return bytesEncoded;
+	}
+
+	/***
+	 * Starts sending the stream to another client.
+	 *
+	 * @param proxy
+	 *            The proxy of the receiving client.
+	 *
+	 * @return VideoSession The session which sends the frames to this client.
+	 */
+	public VideoSession addRecipient(final ChatClientServer proxy) {
+		return addRecipient(new VideoRecipient() {
+			@Override
+			public void sendFrame(String streamName, ByteBuffer frame) throws AvroRemoteException {
+				proxy.incomingFrame(streamName, frame);
+			}
+
+			@Override
+			public void endStream(String streamName) throws AvroRemoteException {
+				proxy.closeStream(streamName);
+			}
+		});
+	}
+
+	/***
+	 * Starts sending the stream to a recipient.
+	 *
+	 * @param recipient
+	 *            Where the frames are delivered.
+	 *
+	 * @return VideoSession The session which sends the frames to the recipient.
+	 */
+	public VideoSession addRecipient(VideoRecipient recipient) {
+		VideoSession session = new VideoSession(this, recipient);
+		sessions.add(session);
+		session.start();
+		return session;
+	}
+
+	/***
+	 * Stops sending the stream to a client. The stream itself keeps running
+	 * for the other recipients and stops when the last one is gone.
+	 *
+	 * @param session
+	 *            The session of the client.
+	 */
+	public void removeRecipient(VideoSession session) {
+		if (sessions.remove(session)) {
+			session.stop();
+			if (sessions.isEmpty()) {
+				stop();
+			}
+		}
+	}
+
+	public int getRecipientCount() {
+		return sessions.size();
+	}
+
+	@Override
+	public boolean onFrame(BufferedImage image, long timeStamp) {
+		try {
+			// no point in decoding ahead of time or encoding for nobody
+			if (!sessions.isEmpty() && pacer.awaitSlot(timeStamp)) {
+				ByteBuffer frame = encode(image);
+				long encodedAt = System.nanoTime();
+				for (VideoSession session : sessions) {
+					session.offer(frame.duplicate(), encodedAt);
+				}
+			}
+		} catch (InterruptedException e) {
+			// the stream is being stopped
+			stopped = true;
+		}
+
+		return !stopped;
+	}
+
+	private ByteBuffer encode(BufferedImage image) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(image, "jpg", baos);
+			baos.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		framesEncoded++;
+		bytesEncoded += baos.size();
+		return ByteBuffer.wrap(baos.toByteArray());
+	}
+
+	@Override
+	public void run() {
+		source.start(this);
+
+		// let every recipient send its last frame and close the stream
+		for (VideoSession session : sessions) {
+			session.finish();
+		}
+	}
+
+	/***
+	 * Creates a thread if needed and starts it.
+	 */
+	public void start() {
+		if (t == null) {
+			t = new Thread(this);
+		}
+
+		t.start();
+	}
+
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/***
+	 * Stops decoding and sending the stream to all recipients.
+	 */
+	public void stop() {
+		stopped = true;
+		source.stop();
+		for (VideoSession session : sessions) {
+			session.stop();
+		}
+	}
+
+	/***
+	 * Waits until the stream and all its sessions have ended.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void join() throws InterruptedException {
+		if (t != null) {
+			t.join();
+		}
+		for (VideoSession session : sessions) {
+			session.join();
+		}
+	}
+}